@@ -0,0 +1,49 @@
+package com.decoder.config;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Threshold alerting rules evaluated on ingest.
+ * Top-level values are the defaults; entries under "buildings" override them per building id.
+ */
+@Component
+@ConfigurationProperties(prefix = "decoder.alerting")
+@Data
+@SuppressFBWarnings(value = {"EI_EXPOSE_REP", "EI_EXPOSE_REP2"}, justification = "Bound once by Spring at startup")
+public class AlertingProperties {
+    
+    private boolean enabled = true;
+    
+    /** Raise an alert when readings stay above this value. */
+    private double threshold = 100.0;
+    
+    /**
+     * Clear an active alert once a reading drops below this value; null for threshold minus
+     * hysteresis. Must be below the threshold.
+     */
+    private Double clearThreshold;
+    
+    /** Width of the band below the threshold in which an active alert stays raised. */
+    private double hysteresis = 10.0;
+    
+    /** How long readings must stay above the threshold before an alert is raised. */
+    private long sustainSeconds = 60;
+    
+    /** Number of recent alerts kept by the in-process sink. */
+    private int recentAlerts = 1000;
+    
+    private Map<Long, BuildingRule> buildings = new HashMap<>();
+    
+    @Data
+    public static class BuildingRule {
+        private Double threshold;
+        private Double clearThreshold;
+        private Long sustainSeconds;
+    }
+}
@@ -0,0 +1,213 @@
+package com.decoder.config;
+
+import com.decoder.service.ClusterService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Routes building-scoped requests to the node that owns the building in cluster mode.
+ * Requests for /ingest and /buildings/{id}/... that reach a non-owner are forwarded
+ * (or redirected, depending on decoder.cluster.routing); streams are always redirected.
+ * Runs before Spring Security so the owning node performs authentication itself.
+ */
+@Component
+@Order(SecurityProperties.DEFAULT_FILTER_ORDER - 1)
+@RequiredArgsConstructor
+@Slf4j
+public class ClusterRoutingFilter extends OncePerRequestFilter {
+
+    private static final Pattern BUILDING_PATH = Pattern.compile("^/buildings/(\\d+)(/.*)?$");
+    private static final List<String> FORWARDED_REQUEST_HEADERS =
+            List.of(HttpHeaders.AUTHORIZATION, HttpHeaders.CONTENT_TYPE, HttpHeaders.ACCEPT);
+    private static final List<String> FORWARDED_RESPONSE_HEADERS =
+            List.of(HttpHeaders.CONTENT_TYPE, HttpHeaders.RETRY_AFTER);
+
+    private final ClusterService clusterService;
+    private final ObjectMapper objectMapper;
+
+    @Value("${decoder.cluster.routing:forward}")
+    private String routingMode;
+
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(2))
+            .build();
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !clusterService.isEnabled() || request.getHeader(ClusterService.FORWARDED_HEADER) != null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        String path = request.getRequestURI();
+        Long buildingId = null;
+        byte[] body = null;
+
+        Matcher matcher = BUILDING_PATH.matcher(path);
+        if (matcher.matches()) {
+            buildingId = Long.valueOf(matcher.group(1));
+        } else if ("/ingest".equals(path) && "POST".equals(request.getMethod())) {
+            body = request.getInputStream().readAllBytes();
+            buildingId = extractBuildingId(body);
+            request = new CachedBodyRequest(request, body);
+        }
+
+        String owner = buildingId != null ? clusterService.ownerOf(buildingId) : null;
+        if (owner == null || owner.equals(clusterService.getSelfUrl())) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        String target = owner + path + (request.getQueryString() != null ? "?" + request.getQueryString() : "");
+        if ("redirect".equals(routingMode) || path.endsWith("/stream")) {
+            log.debug("Redirecting {} for building {} to {}", path, buildingId, owner);
+            response.setStatus(HttpServletResponse.SC_TEMPORARY_REDIRECT);
+            response.setHeader(HttpHeaders.LOCATION, target);
+            return;
+        }
+
+        log.debug("Forwarding {} for building {} to {}", path, buildingId, owner);
+        forward(request, response, target, body);
+    }
+
+    private Long extractBuildingId(byte[] body) {
+        try {
+            JsonNode buildingId = objectMapper.readTree(body).path("buildingId");
+            return buildingId.canConvertToLong() ? buildingId.asLong() : null;
+        } catch (IOException e) {
+            // Let the controller produce the validation error
+            return null;
+        }
+    }
+
+    private void forward(HttpServletRequest request, HttpServletResponse response,
+                         String target, byte[] body) throws IOException {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(target))
+                .timeout(Duration.ofSeconds(30))
+                .header(ClusterService.FORWARDED_HEADER, clusterService.getSelfUrl())
+                .method(request.getMethod(), body != null
+                        ? HttpRequest.BodyPublishers.ofByteArray(body)
+                        : HttpRequest.BodyPublishers.noBody());
+        for (String header : FORWARDED_REQUEST_HEADERS) {
+            String value = request.getHeader(header);
+            if (value != null) {
+                builder.header(header, value);
+            }
+        }
+
+        try {
+            HttpResponse<InputStream> forwarded = httpClient.send(builder.build(), HttpResponse.BodyHandlers.ofInputStream());
+            response.setStatus(forwarded.statusCode());
+            for (String header : FORWARDED_RESPONSE_HEADERS) {
+                forwarded.headers().firstValue(header).ifPresent(value -> response.setHeader(header, value));
+            }
+            try (InputStream in = forwarded.body()) {
+                in.transferTo(response.getOutputStream());
+            }
+        } catch (IOException e) {
+            log.warn("Forwarding to {} failed: {}", target, e.getMessage());
+            response.sendError(HttpServletResponse.SC_BAD_GATEWAY, "Owning node unavailable");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+        }
+    }
+
+    /**
+     * Request wrapper replaying a body that was already read to find the building id.
+     */
+    private static final class CachedBodyRequest extends HttpServletRequestWrapper {
+        private final byte[] body;
+
+        CachedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream in = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    return in.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    // The whole body is already in memory, so it can be read right away
+                    try {
+                        if (!isFinished()) {
+                            listener.onDataAvailable();
+                        }
+                        listener.onAllDataRead();
+                    } catch (IOException e) {
+                        listener.onError(e);
+                    }
+                }
+
+                @Override
+                public int read() {
+                    return in.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return in.read(b, off, len);
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            return new BufferedReader(new InputStreamReader(getInputStream(), StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public int getContentLength() {
+            return body.length;
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return body.length;
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.decoder.config;
+
+import com.github.luben.zstd.ZstdInputStream;
+import com.github.luben.zstd.ZstdOutputStream;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Content codings supported for request and response bodies, in server preference order.
+ */
+public enum CompressionCodec {
+    ZSTD("zstd") {
+        @Override
+        public InputStream decode(InputStream in) throws IOException {
+            return new ZstdInputStream(in);
+        }
+        
+        @Override
+        public OutputStream encode(OutputStream out, int level) throws IOException {
+            return new ZstdOutputStream(out, level);
+        }
+    },
+    GZIP("gzip") {
+        @Override
+        public InputStream decode(InputStream in) throws IOException {
+            return new GZIPInputStream(in, BUFFER_SIZE);
+        }
+        
+        @Override
+        public OutputStream encode(OutputStream out, int level) throws IOException {
+            return new GZIPOutputStream(out, BUFFER_SIZE) {
+                {
+                    def.setLevel(level);
+                }
+            };
+        }
+    };
+    
+    private static final int BUFFER_SIZE = 8192;
+    
+    private final String token;
+    
+    CompressionCodec(String token) {
+        this.token = token;
+    }
+    
+    public String getToken() {
+        return token;
+    }
+    
+    public abstract InputStream decode(InputStream in) throws IOException;
+    
+    public abstract OutputStream encode(OutputStream out, int level) throws IOException;
+    
+    /**
+     * Codec for a Content-Encoding header value, or null if unsupported.
+     */
+    public static CompressionCodec fromContentEncoding(String contentEncoding) {
+        String token = contentEncoding.trim().toLowerCase(Locale.ROOT);
+        if ("x-gzip".equals(token)) {
+            return GZIP;
+        }
+        for (CompressionCodec codec : values()) {
+            if (codec.token.equals(token)) {
+                return codec;
+            }
+        }
+        return null;
+    }
+    
+    /**
+     * Pick the codec for an Accept-Encoding header: the highest q-value wins, ties go
+     * to server preference. Returns null when the client accepts none of them.
+     */
+    public static CompressionCodec negotiate(String acceptEncoding) {
+        if (acceptEncoding == null || acceptEncoding.isBlank()) {
+            return null;
+        }
+        
+        CompressionCodec best = null;
+        double bestQuality = 0.0;
+        double wildcardQuality = -1.0;
+        double[] qualities = new double[values().length];
+        Arrays.fill(qualities, -1.0);
+        for (String part : acceptEncoding.split(",")) {
+            String[] params = part.split(";");
+            String token = params[0].trim().toLowerCase(Locale.ROOT);
+            double quality = 1.0;
+            for (int i = 1; i < params.length; i++) {
+                String param = params[i].trim();
+                if (param.startsWith("q=")) {
+                    try {
+                        quality = Double.parseDouble(param.substring(2));
+                    } catch (NumberFormatException e) {
+                        quality = 0.0;
+                    }
+                }
+            }
+            if ("*".equals(token)) {
+                wildcardQuality = quality;
+                continue;
+            }
+            CompressionCodec codec = fromContentEncoding(token);
+            if (codec != null) {
+                qualities[codec.ordinal()] = quality;
+            }
+        }
+        
+        for (CompressionCodec codec : values()) {
+            double quality = qualities[codec.ordinal()] >= 0 ? qualities[codec.ordinal()] : wildcardQuality;
+            if (quality > bestQuality) {
+                best = codec;
+                bestQuality = quality;
+            }
+        }
+        return best;
+    }
+}
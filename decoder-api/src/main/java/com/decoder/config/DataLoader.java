@@ -1,90 +1,107 @@
 package com.decoder.config;
 
-import com.decoder.model.Building;
-import com.decoder.model.User;
-import com.decoder.repository.BuildingRepository;
-import com.decoder.repository.UserRepository;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
-import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Data loader that runs after application context is initialized.
  * Populates initial data for users and buildings.
+ * Each seed row is a single conditional INSERT, so loading is idempotent and needs no
+ * lookups; with decoder.seed.async it runs in the background and does not delay readiness.
+ * Authenticated requests wait for it through awaitLoaded(), since seeded users cannot be
+ * authorized before they exist.
  * Uses native SQL queries to work around SQLite's lack of getGeneratedKeys support.
  */
 @Component
 @RequiredArgsConstructor
 @Slf4j
 public class DataLoader implements CommandLineRunner {
-    
-    private final UserRepository userRepository;
-    private final BuildingRepository buildingRepository;
-    
+
+    private static final List<String> SEED_STATEMENTS = List.of(
+        seedUser("admin", "ADMIN"),
+        seedUser("owner1", "OWNER"),
+        seedUser("owner2", "OWNER"),
+        seedBuilding("Building A", "owner1", "123 Main St"),
+        seedBuilding("Building B", "owner1", "456 Oak Ave"),
+        seedBuilding("Building C", "owner2", "789 Pine Rd")
+    );
+
+    private final PlatformTransactionManager transactionManager;
+
     @PersistenceContext
     private EntityManager entityManager;
-    
+
+    @Value("${decoder.seed.async:false}")
+    private boolean async;
+
+    private final CountDownLatch loaded = new CountDownLatch(1);
+
     @Override
-    @Transactional
-    public void run(String... args) throws Exception {
-        log.info("Loading initial data...");
-        
-        // Create users if they don't exist using native SQL to avoid getGeneratedKeys issue
-        if (userRepository.findByUsername("admin").isEmpty()) {
-            entityManager.createNativeQuery(
-                "INSERT INTO users (username, role) VALUES ('admin', 'ADMIN')"
-            ).executeUpdate();
-            log.info("Created admin user");
-        }
-        
-        if (userRepository.findByUsername("owner1").isEmpty()) {
-            entityManager.createNativeQuery(
-                "INSERT INTO users (username, role) VALUES ('owner1', 'OWNER')"
-            ).executeUpdate();
-            log.info("Created owner1 user");
+    public void run(String... args) {
+        if (async) {
+            Thread.ofPlatform().name("data-loader").start(this::loadSafely);
+        } else {
+            try {
+                load();
+            } finally {
+                loaded.countDown();
+            }
         }
-        
-        if (userRepository.findByUsername("owner2").isEmpty()) {
-            entityManager.createNativeQuery(
-                "INSERT INTO users (username, role) VALUES ('owner2', 'OWNER')"
-            ).executeUpdate();
-            log.info("Created owner2 user");
-        }
-        
-        // Flush and refresh to ensure data is available
-        entityManager.flush();
-        entityManager.clear();
-        
-        // Get owner1 and owner2 IDs for buildings
-        User owner1 = userRepository.findByUsername("owner1").orElseThrow();
-        User owner2 = userRepository.findByUsername("owner2").orElseThrow();
-        
-        // Create buildings if they don't exist
-        if (buildingRepository.count() == 0) {
-            entityManager.createNativeQuery(
-                String.format("INSERT INTO buildings (name, owner_id, address) VALUES ('Building A', %d, '123 Main St')", 
-                    owner1.getId())
-            ).executeUpdate();
-            log.info("Created Building A");
-            
-            entityManager.createNativeQuery(
-                String.format("INSERT INTO buildings (name, owner_id, address) VALUES ('Building B', %d, '456 Oak Ave')", 
-                    owner1.getId())
-            ).executeUpdate();
-            log.info("Created Building B");
-            
-            entityManager.createNativeQuery(
-                String.format("INSERT INTO buildings (name, owner_id, address) VALUES ('Building C', %d, '789 Pine Rd')", 
-                    owner2.getId())
-            ).executeUpdate();
-            log.info("Created Building C");
+    }
+
+    /**
+     * Wait until loading has ended, successfully or not. Returns false on timeout.
+     */
+    public boolean awaitLoaded(long timeout, TimeUnit unit) throws InterruptedException {
+        return loaded.await(timeout, unit);
+    }
+
+    void load() {
+        log.info("Loading initial data...");
+
+        int inserted = new TransactionTemplate(transactionManager).execute(status -> {
+            int rows = 0;
+            for (String statement : SEED_STATEMENTS) {
+                rows += entityManager.createNativeQuery(statement).executeUpdate();
+            }
+            return rows;
+        });
+
+        log.info("Initial data loading completed, {} rows inserted", inserted);
+    }
+
+    private void loadSafely() {
+        try {
+            load();
+        } catch (RuntimeException e) {
+            log.error("Initial data loading failed: {}", e.getMessage());
+        } finally {
+            loaded.countDown();
         }
-        
-        log.info("Initial data loading completed");
     }
-}
 
+    private static String seedUser(String username, String role) {
+        return String.format(
+            "INSERT INTO users (username, role) SELECT '%s', '%s' "
+                + "WHERE NOT EXISTS (SELECT 1 FROM users WHERE username = '%s')",
+            username, role, username);
+    }
+
+    private static String seedBuilding(String name, String ownerUsername, String address) {
+        return String.format(
+            "INSERT INTO buildings (name, owner_id, address) SELECT '%s', u.id, '%s' FROM users u "
+                + "WHERE u.username = '%s' AND NOT EXISTS (SELECT 1 FROM buildings WHERE name = '%s')",
+            name, address, ownerUsername, name);
+    }
+}
@@ -1,6 +1,14 @@
 package com.decoder.config;
 
+import com.decoder.repository.LimitedDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
 
 /**
  * Database configuration for SQLite.
@@ -9,6 +17,39 @@ import org.springframework.context.annotation.Configuration;
  */
 @Configuration
 public class DatabaseConfig {
-    // SQLite dialect configuration is handled by Hibernate automatically
-    // when using sqlite-jdbc driver and custom SQLiteDialect class
+
+    /**
+     * Put a LimitedDataSource in front of the main connection pool when
+     * decoder.datasource.limiter.enabled (by default on with virtual threads). It admits as
+     * many callers as the pool has connections and waits up to the pool's connection timeout.
+     */
+    @Bean
+    static BeanPostProcessor dataSourceLimiter(Environment environment) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof HikariDataSource pool) || !limiterEnabled(environment)) {
+                    return bean;
+                }
+                int permits = environment.getProperty("decoder.datasource.limiter.permits", Integer.class, 0);
+                long timeoutMs = environment.getProperty("decoder.datasource.limiter.acquire-timeout-ms", Long.class,
+                        pool.getConnectionTimeout());
+                return new LimitedDataSource(beanName, pool, permits > 0 ? permits : pool.getMaximumPoolSize(), timeoutMs);
+            }
+        };
+    }
+
+    @Bean
+    MeterBinder dataSourceLimiterMetrics(DataSource dataSource) {
+        return registry -> {
+            if (dataSource instanceof LimitedDataSource limited) {
+                limited.bindTo(registry);
+            }
+        };
+    }
+
+    private static boolean limiterEnabled(Environment environment) {
+        return environment.getProperty("decoder.datasource.limiter.enabled", Boolean.class,
+                environment.getProperty("spring.threads.virtual.enabled", Boolean.class, false));
+    }
 }
@@ -0,0 +1,264 @@
+package com.decoder.config;
+
+import com.decoder.service.CompressionMetrics;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerExceptionResolver;
+import org.springframework.web.servlet.ModelAndView;
+
+import java.io.BufferedReader;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.Set;
+
+/**
+ * Decodes gzip or zstd request bodies on the ingest endpoints while they are read.
+ * Runs ahead of cluster routing so forwarded requests already carry a plain body.
+ * Bodies that expand beyond decoder.compression.max-request-bytes are rejected with 413.
+ */
+@Component
+@Order(SecurityProperties.DEFAULT_FILTER_ORDER - 2)
+@RequiredArgsConstructor
+@Slf4j
+public class RequestDecompressionFilter extends OncePerRequestFilter {
+    
+    private static final Set<String> DECODED_PATHS = Set.of("/ingest", "/cluster/handoff");
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+    
+    private final CompressionMetrics compressionMetrics;
+    
+    @Value("${decoder.compression.max-request-bytes:10485760}")
+    private long maxRequestBytes;
+    
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return request.getHeader(HttpHeaders.CONTENT_ENCODING) == null
+                || !DECODED_PATHS.contains(request.getRequestURI());
+    }
+    
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        String contentEncoding = request.getHeader(HttpHeaders.CONTENT_ENCODING);
+        CompressionCodec codec = CompressionCodec.fromContentEncoding(contentEncoding);
+        if (codec == null) {
+            log.warn("Rejecting request with unsupported Content-Encoding: {}", contentEncoding);
+            response.setHeader(HttpHeaders.ACCEPT_ENCODING, "zstd, gzip");
+            response.sendError(HttpServletResponse.SC_UNSUPPORTED_MEDIA_TYPE, "Unsupported Content-Encoding");
+            return;
+        }
+        
+        DecodingRequest decoding = new DecodingRequest(request, codec);
+        try {
+            filterChain.doFilter(decoding, response);
+        } catch (BodyTooLargeException e) {
+            if (!response.isCommitted()) {
+                response.sendError(HttpServletResponse.SC_REQUEST_ENTITY_TOO_LARGE, e.getMessage());
+            }
+        } finally {
+            decoding.finish();
+        }
+    }
+    
+    private static long cpuTime() {
+        return THREADS.isCurrentThreadCpuTimeSupported() ? THREADS.getCurrentThreadCpuTime() : System.nanoTime();
+    }
+    
+    static final class BodyTooLargeException extends IOException {
+        BodyTooLargeException(long limit) {
+            super("Decompressed request body exceeds " + limit + " bytes");
+        }
+    }
+    
+    /**
+     * Answers 413 when the limit is hit while a message converter reads the body. Spring MVC
+     * wraps the read failure in HttpMessageNotReadableException, which would otherwise be a 400.
+     */
+    @Component
+    static final class BodyTooLargeResolver implements HandlerExceptionResolver, Ordered {
+        
+        @Override
+        public ModelAndView resolveException(HttpServletRequest request, HttpServletResponse response,
+                                             Object handler, Exception ex) {
+            for (Throwable cause = ex; cause != null; cause = cause.getCause()) {
+                if (cause instanceof BodyTooLargeException) {
+                    try {
+                        response.sendError(HttpServletResponse.SC_REQUEST_ENTITY_TOO_LARGE, cause.getMessage());
+                        return new ModelAndView();
+                    } catch (IOException e) {
+                        log.warn("Could not reject oversized request body: {}", e.getMessage());
+                        return null;
+                    }
+                }
+            }
+            return null;
+        }
+        
+        @Override
+        public int getOrder() {
+            return Ordered.HIGHEST_PRECEDENCE + 1;
+        }
+    }
+    
+    /**
+     * Request whose body is decoded on the fly; the encoding headers describe the decoded body.
+     */
+    private final class DecodingRequest extends HttpServletRequestWrapper {
+        private final CompressionCodec codec;
+        private ServletInputStream raw;
+        private CountingInputStream wire;
+        private InputStream decoded;
+        private ServletInputStream servletStream;
+        private long decodedBytes;
+        private long cpuNanos;
+        
+        DecodingRequest(HttpServletRequest request, CompressionCodec codec) {
+            super(request);
+            this.codec = codec;
+        }
+        
+        @Override
+        public ServletInputStream getInputStream() throws IOException {
+            if (servletStream == null) {
+                raw = super.getInputStream();
+                wire = new CountingInputStream(raw);
+                long start = cpuTime();
+                decoded = codec.decode(wire);
+                cpuNanos += cpuTime() - start;
+                servletStream = new DecodedServletInputStream();
+            }
+            return servletStream;
+        }
+        
+        @Override
+        public BufferedReader getReader() throws IOException {
+            String encoding = getCharacterEncoding();
+            return new BufferedReader(new InputStreamReader(getInputStream(),
+                    encoding != null ? Charset.forName(encoding) : StandardCharsets.UTF_8));
+        }
+        
+        @Override
+        public String getHeader(String name) {
+            if (HttpHeaders.CONTENT_ENCODING.equalsIgnoreCase(name) || HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+                return null;
+            }
+            return super.getHeader(name);
+        }
+        
+        @Override
+        public Enumeration<String> getHeaders(String name) {
+            if (HttpHeaders.CONTENT_ENCODING.equalsIgnoreCase(name) || HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+                return Collections.emptyEnumeration();
+            }
+            return super.getHeaders(name);
+        }
+        
+        @Override
+        public int getContentLength() {
+            return -1;
+        }
+        
+        @Override
+        public long getContentLengthLong() {
+            return -1L;
+        }
+        
+        void finish() {
+            if (wire != null) {
+                compressionMetrics.record(codec.getToken(), CompressionMetrics.REQUEST,
+                        decodedBytes, wire.count, cpuNanos);
+            }
+        }
+        
+        private final class DecodedServletInputStream extends ServletInputStream {
+            private boolean finished;
+            
+            @Override
+            public int read() throws IOException {
+                byte[] single = new byte[1];
+                return read(single, 0, 1) < 0 ? -1 : single[0] & 0xff;
+            }
+            
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                long start = cpuTime();
+                int read = decoded.read(b, off, len);
+                cpuNanos += cpuTime() - start;
+                if (read < 0) {
+                    finished = true;
+                    return read;
+                }
+                decodedBytes += read;
+                if (decodedBytes > maxRequestBytes) {
+                    throw new BodyTooLargeException(maxRequestBytes);
+                }
+                return read;
+            }
+            
+            @Override
+            public boolean isFinished() {
+                return finished;
+            }
+            
+            @Override
+            public boolean isReady() {
+                return true;
+            }
+            
+            @Override
+            public void setReadListener(ReadListener listener) {
+                // Decoding pulls from the wire, so wire data is what makes the body readable
+                raw.setReadListener(listener);
+            }
+        }
+    }
+    
+    private static final class CountingInputStream extends FilterInputStream {
+        private long count;
+        
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+        
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                count++;
+            }
+            return b;
+        }
+        
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int read = super.read(b, off, len);
+            if (read > 0) {
+                count += read;
+            }
+            return read;
+        }
+    }
+}
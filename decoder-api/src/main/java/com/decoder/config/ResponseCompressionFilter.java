@@ -0,0 +1,288 @@
+package com.decoder.config;
+
+import com.decoder.service.CompressionMetrics;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.regex.Pattern;
+
+/**
+ * Compresses readings and forecast responses with the codec negotiated from Accept-Encoding.
+ * The body is compressed while it is written: the first decoder.compression.min-response-bytes
+ * are held back, and only once a response grows past that threshold are the compression
+ * headers set and the rest streamed through the encoder. Smaller responses go out as is.
+ */
+@Component
+@Order(SecurityProperties.DEFAULT_FILTER_ORDER - 2)
+@RequiredArgsConstructor
+public class ResponseCompressionFilter extends OncePerRequestFilter {
+    
+    private static final Pattern COMPRESSED_PATHS = Pattern.compile("^/buildings(/\\d+)?/(last-readings|forecast)$");
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+    
+    private final CompressionMetrics compressionMetrics;
+    
+    @Value("${decoder.compression.enabled:true}")
+    private boolean enabled;
+    
+    @Value("${decoder.compression.min-response-bytes:2048}")
+    private int minResponseBytes;
+    
+    @Value("${decoder.compression.gzip-level:6}")
+    private int gzipLevel;
+    
+    @Value("${decoder.compression.zstd-level:3}")
+    private int zstdLevel;
+    
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled
+                || !"GET".equals(request.getMethod())
+                || !COMPRESSED_PATHS.matcher(request.getRequestURI()).matches();
+    }
+    
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        // The representation depends on Accept-Encoding whether or not this one is compressed
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        
+        CompressionCodec codec = CompressionCodec.negotiate(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+        if (codec == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        
+        CompressingResponse compressing = new CompressingResponse(response, codec);
+        filterChain.doFilter(request, compressing);
+        compressing.finish();
+    }
+    
+    private static long cpuTime() {
+        return THREADS.isCurrentThreadCpuTimeSupported() ? THREADS.getCurrentThreadCpuTime() : System.nanoTime();
+    }
+    
+    /**
+     * Response wrapper deciding between identity and compressed output once the threshold is crossed.
+     */
+    private final class CompressingResponse extends HttpServletResponseWrapper {
+        private final CompressionCodec codec;
+        private final byte[] pending;
+        private int pendingLength;
+        private OutputStream encoder;
+        private CountingOutputStream wire;
+        private boolean passThrough;
+        private long identityBytes;
+        private long cpuNanos;
+        private ServletOutputStream outputStream;
+        private PrintWriter writer;
+        
+        CompressingResponse(HttpServletResponse response, CompressionCodec codec) {
+            super(response);
+            this.codec = codec;
+            this.pending = new byte[minResponseBytes];
+        }
+        
+        @Override
+        public ServletOutputStream getOutputStream() {
+            if (outputStream == null) {
+                outputStream = new ThresholdOutputStream();
+            }
+            return outputStream;
+        }
+        
+        @Override
+        public PrintWriter getWriter() {
+            if (writer == null) {
+                String encoding = getCharacterEncoding();
+                Charset charset = encoding != null ? Charset.forName(encoding) : StandardCharsets.UTF_8;
+                writer = new PrintWriter(new OutputStreamWriter(getOutputStream(), charset));
+            }
+            return writer;
+        }
+        
+        // The final length is unknown until the body is complete; it is set in finish() if uncompressed
+        @Override
+        public void setContentLength(int len) {
+        }
+        
+        @Override
+        public void setContentLengthLong(long len) {
+        }
+        
+        @Override
+        public void setHeader(String name, String value) {
+            if (!HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+                super.setHeader(name, value);
+            }
+        }
+        
+        @Override
+        public void addHeader(String name, String value) {
+            if (!HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+                super.addHeader(name, value);
+            }
+        }
+        
+        @Override
+        public void flushBuffer() throws IOException {
+            if (writer != null) {
+                writer.flush();
+            }
+            if (passThrough) {
+                super.flushBuffer();
+            }
+        }
+        
+        void finish() throws IOException {
+            if (writer != null) {
+                writer.flush();
+            }
+            if (encoder != null) {
+                long start = cpuTime();
+                encoder.close();
+                cpuNanos += cpuTime() - start;
+                compressionMetrics.record(codec.getToken(), CompressionMetrics.RESPONSE,
+                        identityBytes, wire.count, cpuNanos);
+            } else if (!passThrough && pendingLength > 0) {
+                compressionMetrics.recordBelowThreshold();
+                getResponse().setContentLength(pendingLength);
+                getResponse().getOutputStream().write(pending, 0, pendingLength);
+            }
+        }
+        
+        private void write(byte[] b, int off, int len) throws IOException {
+            identityBytes += len;
+            if (passThrough) {
+                getResponse().getOutputStream().write(b, off, len);
+                return;
+            }
+            if (encoder == null) {
+                if (pendingLength + len <= pending.length) {
+                    System.arraycopy(b, off, pending, pendingLength, len);
+                    pendingLength += len;
+                    return;
+                }
+                startEncoding();
+                if (passThrough) {
+                    getResponse().getOutputStream().write(b, off, len);
+                    return;
+                }
+            }
+            long start = cpuTime();
+            encoder.write(b, off, len);
+            cpuNanos += cpuTime() - start;
+        }
+        
+        private void startEncoding() throws IOException {
+            HttpServletResponse response = (HttpServletResponse) getResponse();
+            if (response.isCommitted() || response.getHeader(HttpHeaders.CONTENT_ENCODING) != null) {
+                // Too late to change headers or already encoded upstream: send as is
+                passThrough = true;
+                response.getOutputStream().write(pending, 0, pendingLength);
+                pendingLength = -1;
+                return;
+            }
+            
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, codec.getToken());
+            wire = new CountingOutputStream(response.getOutputStream());
+            long start = cpuTime();
+            encoder = codec.encode(wire, codec == CompressionCodec.ZSTD ? zstdLevel : gzipLevel);
+            encoder.write(pending, 0, pendingLength);
+            cpuNanos += cpuTime() - start;
+            pendingLength = -1;
+        }
+        
+        private final class ThresholdOutputStream extends ServletOutputStream {
+            @Override
+            public void write(int b) throws IOException {
+                CompressingResponse.this.write(new byte[] {(byte) b}, 0, 1);
+            }
+            
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                CompressingResponse.this.write(b, off, len);
+            }
+            
+            @Override
+            public void flush() throws IOException {
+                // Flushing early would commit headers before the threshold decision, or end
+                // an encoder block prematurely; the body is completed in finish()
+                if (passThrough) {
+                    getResponse().getOutputStream().flush();
+                }
+            }
+            
+            @Override
+            public boolean isReady() {
+                try {
+                    return getResponse().getOutputStream().isReady();
+                } catch (IOException e) {
+                    return false;
+                }
+            }
+            
+            @Override
+            public void setWriteListener(WriteListener listener) {
+                try {
+                    getResponse().getOutputStream().setWriteListener(listener);
+                } catch (IOException e) {
+                    listener.onError(e);
+                }
+            }
+        }
+    }
+    
+    private static final class CountingOutputStream extends OutputStream {
+        private final OutputStream out;
+        private long count;
+        
+        CountingOutputStream(OutputStream out) {
+            this.out = out;
+        }
+        
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+        
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+        
+        @Override
+        public void flush() throws IOException {
+            out.flush();
+        }
+        
+        @Override
+        public void close() throws IOException {
+            // The container owns the underlying stream
+            out.flush();
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.decoder.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables @Scheduled background tasks (buffer flushing, log appliers, etc.).
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
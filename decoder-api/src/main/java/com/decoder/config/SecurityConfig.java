@@ -2,6 +2,7 @@ package com.decoder.config;
 
 import com.decoder.security.JwtAuthenticationFilter;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -10,6 +11,9 @@ import org.springframework.security.config.annotation.web.configuration.EnableWe
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.security.web.util.matcher.AndRequestMatcher;
+import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
+import org.springframework.security.web.util.matcher.DispatcherTypeRequestMatcher;
 
 @Configuration
 @EnableWebSecurity
@@ -26,7 +30,13 @@ public class SecurityConfig {
             .sessionManagement(session -> 
                 session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
             .authorizeHttpRequests(auth -> auth
+                // The async dispatch that completes an SSE stream; access was checked on the initial request
+                .requestMatchers(new AndRequestMatcher(
+                        new DispatcherTypeRequestMatcher(DispatcherType.ASYNC),
+                        new AntPathRequestMatcher("/buildings/*/stream"))).permitAll()
                 .requestMatchers("/actuator/health", "/error", "/ingest").permitAll()
+                // Node-to-node endpoints; guarded by the cluster token instead of user auth
+                .requestMatchers("/cluster/**").permitAll()
                 .anyRequest().authenticated()
             )
             .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class);
@@ -0,0 +1,181 @@
+package com.decoder.controller;
+
+import com.decoder.model.dto.BackfillStatus;
+import com.decoder.model.dto.ProfilingRecording;
+import com.decoder.model.dto.ProfilingSummary;
+import com.decoder.security.JwtAuthenticationToken;
+import com.decoder.service.BackfillImporter;
+import com.decoder.service.ProfilingService;
+import com.decoder.service.SecurityService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Administrative operations, restricted to ADMIN users.
+ */
+@RestController
+@RequestMapping("/admin")
+@RequiredArgsConstructor
+@Slf4j
+public class AdminController {
+
+    private final SecurityService securityService;
+    private final BackfillImporter backfillImporter;
+    private final ProfilingService profilingService;
+
+    /**
+     * Start importing a CSV file of historical readings from the backfill directory.
+     * Starting a file again resumes it where an interrupted import stopped.
+     */
+    @PostMapping("/backfill")
+    public ResponseEntity<BackfillStatus> startBackfill(
+            @RequestParam String file,
+            Authentication authentication) {
+
+        String username = extractUsername(authentication);
+        if (!securityService.isAdmin(username)) {
+            log.warn("User {} is not allowed to start a backfill", username);
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+
+        try {
+            log.info("User {} starting backfill of {}", username, file);
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(backfillImporter.start(file));
+        } catch (IllegalArgumentException e) {
+            log.warn("Backfill of {} rejected: {}", file, e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(backfillImporter.getStatus());
+        }
+    }
+
+    /**
+     * Progress of the current or most recent backfill.
+     */
+    @GetMapping("/backfill")
+    public ResponseEntity<BackfillStatus> getBackfillStatus(Authentication authentication) {
+        if (!securityService.isAdmin(extractUsername(authentication))) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        return ResponseEntity.ok(backfillImporter.getStatus());
+    }
+
+    /**
+     * Start a JDK Flight Recorder recording with a predefined profile (low, cpu or
+     * allocation) that stops by itself after durationSeconds. Only one recording runs at a time.
+     */
+    @PostMapping("/profiling")
+    public ResponseEntity<ProfilingRecording> startProfiling(
+            @RequestParam(defaultValue = "low") String profile,
+            @RequestParam(required = false) Integer durationSeconds,
+            Authentication authentication) {
+
+        String username = extractUsername(authentication);
+        if (!securityService.isAdmin(username)) {
+            log.warn("User {} is not allowed to start profiling", username);
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+
+        try {
+            ProfilingService.Profile selected = ProfilingService.Profile.valueOf(profile.toUpperCase(Locale.ROOT));
+            log.info("User {} starting {} profiling", username, profile);
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(profilingService.start(selected, durationSeconds));
+        } catch (IllegalArgumentException e) {
+            log.warn("Profiling rejected: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+    }
+
+    /**
+     * Stop the running recording; it can then be downloaded.
+     */
+    @PostMapping("/profiling/stop")
+    public ResponseEntity<ProfilingRecording> stopProfiling(Authentication authentication) {
+        String username = extractUsername(authentication);
+        if (!securityService.isAdmin(username)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+
+        ProfilingRecording stopped = profilingService.stop();
+        if (stopped == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        }
+        log.info("User {} stopped profiling recording {}", username, stopped.getId());
+        return ResponseEntity.ok(stopped);
+    }
+
+    /**
+     * Retained recordings, newest first.
+     */
+    @GetMapping("/profiling/recordings")
+    public ResponseEntity<List<ProfilingRecording>> getProfilingRecordings(Authentication authentication) {
+        if (!securityService.isAdmin(extractUsername(authentication))) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        return ResponseEntity.ok(profilingService.getRecordings());
+    }
+
+    /**
+     * Download a stopped recording as a .jfr file, for JDK Mission Control or `jfr print`.
+     */
+    @GetMapping("/profiling/recordings/{id}")
+    public ResponseEntity<Resource> downloadProfilingRecording(
+            @PathVariable int id,
+            Authentication authentication) {
+
+        if (!securityService.isAdmin(extractUsername(authentication))) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+
+        return profilingService.getRecordingFile(id)
+                .map(AdminController::attachment)
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND).build());
+    }
+
+    /**
+     * Top hot methods and allocation sites on the ingest and query paths, and timings of the
+     * decoder's JFR events, for the running recording or the most recent one.
+     */
+    @GetMapping("/profiling/summary")
+    public ResponseEntity<ProfilingSummary> getProfilingSummary(
+            @RequestParam(defaultValue = "20") int limit,
+            Authentication authentication) {
+
+        if (!securityService.isAdmin(extractUsername(authentication))) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+
+        ProfilingSummary summary = profilingService.getSummary(limit);
+        return summary != null ? ResponseEntity.ok(summary) : ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+    }
+
+    private static ResponseEntity<Resource> attachment(Path file) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename(file.getFileName().toString()).build().toString())
+                .body(new FileSystemResource(file));
+    }
+
+    private String extractUsername(Authentication authentication) {
+        if (authentication instanceof JwtAuthenticationToken jwtAuth) {
+            return jwtAuth.getUsername();
+        }
+        return authentication != null ? authentication.getName() : "anonymous";
+    }
+}
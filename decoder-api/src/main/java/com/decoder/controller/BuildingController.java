@@ -1,19 +1,49 @@
 package com.decoder.controller;
 
-import com.decoder.model.dto.ForecastResponse;
+import com.decoder.model.dto.Alert;
+import com.decoder.model.dto.BuildingSummary;
+import com.decoder.model.dto.ColumnarForecast;
+import com.decoder.model.dto.ColumnarReadings;
+import com.decoder.model.dto.ForecastPrecomputeStatus;
+import com.decoder.model.dto.ReadModelStatus;
 import com.decoder.model.dto.ReadingResponse;
+import com.decoder.model.dto.ResampledReadings;
+import com.decoder.model.dto.WindowAggregate;
 import com.decoder.security.JwtAuthenticationToken;
-import com.decoder.service.ForecastService;
+import com.decoder.service.AggregationService;
+import com.decoder.service.BulkReadingService;
+import com.decoder.service.ClusterService;
+import com.decoder.service.ForecastPrecomputer;
+import com.decoder.service.InMemoryAlertSink;
+import com.decoder.service.IngestWatermarks;
+import com.decoder.service.IngestWatermarks.Watermark;
+import com.decoder.service.QueryBulkheads;
+import com.decoder.service.QueryBulkheads.BulkheadRejectedException;
+import com.decoder.service.ReadingProjector;
 import com.decoder.service.ReadingService;
+import com.decoder.service.ReadingStreamService;
+import com.decoder.service.ResamplingService;
 import com.decoder.service.SecurityService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/buildings")
@@ -22,13 +52,44 @@ import java.util.List;
 public class BuildingController {
     
     private final ReadingService readingService;
-    private final ForecastService forecastService;
+    private final ForecastPrecomputer forecastPrecomputer;
     private final SecurityService securityService;
+    private final ReadingStreamService readingStreamService;
+    private final InMemoryAlertSink alertSink;
+    private final ReadingProjector readingProjector;
+    private final AggregationService aggregationService;
+    private final BulkReadingService bulkReadingService;
+    // Data queries run in the requesting user's bulkhead so one tenant cannot exhaust capacity
+    private final QueryBulkheads queryBulkheads;
+    private final IngestWatermarks ingestWatermarks;
+    private final ResamplingService resamplingService;
     
+    static final String READ_MODEL_LAG_HEADER = "X-Read-Model-Lag-Ms";
+    private static final String LAST_READINGS = "last-readings";
+    private static final String FORECAST = "forecast";
+    
+    /**
+     * Compact representation of readings and forecasts (parallel arrays instead of one
+     * object per point), selected with this Accept type or format=columnar.
+     */
+    public static final String COLUMNAR_MEDIA_TYPE = "application/vnd.decoder.columnar+json";
+    
+    /**
+     * Last readings of a building. consistency=fresh (default) reads the primary store and
+     * always includes every committed reading; consistency=fast opts into the read model,
+     * which may trail ingest by the lag reported in X-Read-Model-Lag-Ms.
+     * Responds with ColumnarReadings when the columnar format is requested.
+     * Carries an ETag from the building's ingest watermark; a poll whose If-None-Match still
+     * describes the current readings is answered 304 without querying them.
+     */
     @GetMapping("/{id}/last-readings")
-    public ResponseEntity<List<ReadingResponse>> getLastReadings(
+    public ResponseEntity<?> getLastReadings(
             @PathVariable Long id,
             @RequestParam(defaultValue = "60") int minutes,
+            @RequestParam(defaultValue = "fresh") String consistency,
+            @RequestParam(required = false) String format,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
             Authentication authentication) {
         
         String username = extractUsername(authentication);
@@ -40,16 +101,215 @@ public class BuildingController {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
         }
         
-        List<ReadingResponse> readings = readingService.getLastReadings(id, minutes);
-        return ResponseEntity.ok(readings);
+        boolean fresh = !"fast".equalsIgnoreCase(consistency);
+        boolean columnar = isColumnar(format, accept);
+        String variant = minutes + "-" + (fresh ? "fresh" : "fast") + "-" + (columnar ? "columnar" : "json");
+        Watermark watermark = ingestWatermarks.get(id);
+        String current = ingestWatermarks.findCurrent(LAST_READINGS, id, variant, ifNoneMatch);
+        if (current != null) {
+            return notModified(current);
+        }
+        
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().header(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        List<ReadingResponse> readings;
+        if (fresh) {
+            readings = queryBulkheads.execute(username, () -> readingService.getLastReadings(id, minutes));
+        } else {
+            readings = queryBulkheads.execute(username, () -> readingService.getLastReadingsFromReadModel(id, minutes));
+            response.header(READ_MODEL_LAG_HEADER, String.valueOf(readingProjector.getStatus().getLagMillis()));
+        }
+        // The response changes once its oldest reading leaves the window
+        LocalDateTime validUntil = readings.stream()
+                .map(ReadingResponse::getTimestamp)
+                .min(Comparator.naturalOrder())
+                .map(oldest -> oldest.plusMinutes(minutes))
+                .orElse(null);
+        withValidators(response, ingestWatermarks.etag(LAST_READINGS, id, variant, watermark, validUntil), watermark, validUntil);
+        
+        if (columnar) {
+            return response.contentType(MediaType.parseMediaType(COLUMNAR_MEDIA_TYPE))
+                    .body(ColumnarReadings.of(id, readings));
+        }
+        return response.body(readings);
     }
     
-    @GetMapping("/{id}/forecast")
-    public ResponseEntity<ForecastResponse> getForecast(
+    /**
+     * Last readings of many buildings, grouped per building id. ids defaults to every
+     * building the user may access; requested buildings the user may not access are left out.
+     * Always reads the primary store.
+     */
+    @GetMapping("/last-readings")
+    public ResponseEntity<?> getLastReadingsForBuildings(
+            @RequestParam(required = false) List<Long> ids,
+            @RequestParam(defaultValue = "60") int minutes,
+            @RequestParam(required = false) String format,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+            @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization,
+            @RequestHeader(value = ClusterService.FORWARDED_HEADER, required = false) String forwardedBy,
+            Authentication authentication) {
+        
+        String username = extractUsername(authentication);
+        log.info("User {} requesting last readings for {} buildings", username,
+                ids != null ? ids.size() : "all accessible");
+        
+        Map<Long, List<ReadingResponse>> grouped;
+        try {
+            grouped = bulkReadingService.getLastReadings(username, ids, minutes, authorization, forwardedBy != null);
+        } catch (UncheckedIOException e) {
+            return ResponseEntity.status(HttpStatus.BAD_GATEWAY).build();
+        }
+        
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().header(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        if (isColumnar(format, accept)) {
+            Map<Long, ColumnarReadings> columnar = new LinkedHashMap<>();
+            grouped.forEach((buildingId, readings) -> columnar.put(buildingId, ColumnarReadings.of(buildingId, readings)));
+            return response.contentType(MediaType.parseMediaType(COLUMNAR_MEDIA_TYPE)).body(columnar);
+        }
+        return response.body(grouped);
+    }
+    
+    /**
+     * Readings flagged as anomalous (spike, flatline, gap) on ingest.
+     */
+    @GetMapping("/{id}/anomalies")
+    public ResponseEntity<List<ReadingResponse>> getAnomalies(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "60") int minutes,
+            Authentication authentication) {
+        
+        String username = extractUsername(authentication);
+        log.info("User {} requesting anomalies for building {}", username, id);
+        
+        // RBAC check: verify user has access to this building
+        if (!securityService.hasAccessToBuilding(username, id)) {
+            log.warn("User {} does not have access to building {}", username, id);
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        
+        return ResponseEntity.ok(queryBulkheads.execute(username, () -> readingService.getAnomalies(id, minutes)));
+    }
+    
+    /**
+     * Latest value per sensor and aggregates for a building, served from the read model.
+     */
+    @GetMapping("/{id}/summary")
+    public ResponseEntity<BuildingSummary> getSummary(
             @PathVariable Long id,
             @RequestParam(defaultValue = "60") int minutes,
             Authentication authentication) {
         
+        String username = extractUsername(authentication);
+        log.info("User {} requesting summary for building {}", username, id);
+        
+        // RBAC check: verify user has access to this building
+        if (!securityService.hasAccessToBuilding(username, id)) {
+            log.warn("User {} does not have access to building {}", username, id);
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        
+        return ResponseEntity.ok()
+                .header(READ_MODEL_LAG_HEADER, String.valueOf(readingProjector.getStatus().getLagMillis()))
+                .body(queryBulkheads.execute(username, () -> readingService.getSummary(id, minutes)));
+    }
+    
+    /**
+     * Count, min, max, mean and approximate p50/p95/p99 over a window, for the whole building
+     * or one sensor. The window is [from, to) if given, otherwise the last minutes.
+     */
+    @GetMapping("/{id}/aggregate")
+    public ResponseEntity<WindowAggregate> getAggregate(
+            @PathVariable Long id,
+            @RequestParam(required = false) String sensorId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "60") int minutes,
+            Authentication authentication) {
+        
+        String username = extractUsername(authentication);
+        log.info("User {} requesting aggregate for building {}", username, id);
+        
+        // RBAC check: verify user has access to this building
+        if (!securityService.hasAccessToBuilding(username, id)) {
+            log.warn("User {} does not have access to building {}", username, id);
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        
+        LocalDateTime windowTo = to != null ? to : LocalDateTime.now();
+        LocalDateTime windowFrom = from != null ? from : windowTo.minusMinutes(minutes);
+        if (!windowFrom.isBefore(windowTo)) {
+            return ResponseEntity.badRequest().build();
+        }
+        
+        return ResponseEntity.ok(queryBulkheads.execute(username,
+                () -> aggregationService.aggregate(id, sensorId, windowFrom, windowTo)));
+    }
+    
+    /**
+     * Every sensor of a building on a common grid of step-second buckets over [from, to), or
+     * the last minutes if not given. aggregation (mean, min, max, sum, last, count) combines
+     * readings within a bucket; fill (none, previous, linear) fills buckets without readings.
+     */
+    @GetMapping("/{id}/resampled")
+    public ResponseEntity<ResampledReadings> getResampled(
+            @PathVariable Long id,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "60") int minutes,
+            @RequestParam(defaultValue = "${decoder.resampling.default-step-seconds:60}") int step,
+            @RequestParam(defaultValue = "mean") String aggregation,
+            @RequestParam(defaultValue = "none") String fill,
+            Authentication authentication) {
+        
+        String username = extractUsername(authentication);
+        log.info("User {} requesting resampled readings for building {}", username, id);
+        
+        // RBAC check: verify user has access to this building
+        if (!securityService.hasAccessToBuilding(username, id)) {
+            log.warn("User {} does not have access to building {}", username, id);
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        
+        LocalDateTime windowTo = to != null ? to : LocalDateTime.now();
+        LocalDateTime windowFrom = from != null ? from : windowTo.minusMinutes(minutes);
+        try {
+            ResamplingService.Aggregation bucketAggregation =
+                    ResamplingService.Aggregation.valueOf(aggregation.toUpperCase(Locale.ROOT));
+            ResamplingService.Fill gapFill = ResamplingService.Fill.valueOf(fill.toUpperCase(Locale.ROOT));
+            return ResponseEntity.ok(queryBulkheads.execute(username, () -> resamplingService.resample(
+                    id, windowFrom, windowTo, step, bucketAggregation, gapFill)));
+        } catch (IllegalArgumentException e) {
+            log.warn("Rejected resampling request for building {}: {}", id, e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
+    /**
+     * Replication lag of the read model behind committed ingest. Restricted to ADMIN users,
+     * since it describes ingest across all buildings.
+     */
+    @GetMapping("/read-model/status")
+    public ResponseEntity<ReadModelStatus> getReadModelStatus(Authentication authentication) {
+        if (!securityService.isAdmin(extractUsername(authentication))) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        return ResponseEntity.ok(readingProjector.getStatus());
+    }
+    
+    /**
+     * Forecast for a building. The default horizon is served from the latest precomputed
+     * forecast (see generatedAt); other horizons are computed on demand.
+     * Responds with ColumnarForecast when the columnar format is requested.
+     * Revalidates like last-readings; a forecast stays current for the precompute max age.
+     */
+    @GetMapping("/{id}/forecast")
+    public ResponseEntity<?> getForecast(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "${decoder.forecasting.default-forecast-minutes:60}") int minutes,
+            @RequestParam(required = false) String format,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            Authentication authentication) {
+        
         String username = extractUsername(authentication);
         log.info("User {} requesting forecast for building {}", username, id);
         
@@ -59,8 +319,137 @@ public class BuildingController {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
         }
         
-        ForecastResponse forecast = forecastService.generateForecast(id, minutes);
-        return ResponseEntity.ok(forecast);
+        boolean columnar = isColumnar(format, accept);
+        String variant = minutes + "-" + (columnar ? "columnar" : "json");
+        Watermark watermark = ingestWatermarks.get(id);
+        String current = ingestWatermarks.findCurrent(FORECAST, id, variant, ifNoneMatch);
+        if (current != null) {
+            return notModified(current);
+        }
+        
+        ColumnarForecast forecast = queryBulkheads.execute(username, () -> forecastPrecomputer.getColumnarForecast(id, minutes));
+        LocalDateTime validUntil = forecastPrecomputer.validUntil(forecast.getGeneratedAt());
+        ResponseEntity.BodyBuilder response = withValidators(
+                ResponseEntity.ok().header(HttpHeaders.VARY, HttpHeaders.ACCEPT),
+                ingestWatermarks.etag(FORECAST, id, variant, watermark, validUntil), watermark, validUntil);
+        if (columnar) {
+            return response.contentType(MediaType.parseMediaType(COLUMNAR_MEDIA_TYPE)).body(forecast);
+        }
+        return response.body(forecast.asPoints());
+    }
+    
+    /**
+     * Duration and outcome of the last forecast precomputation run and forecast staleness.
+     * Restricted to ADMIN users, since it covers every building.
+     */
+    @GetMapping("/forecast/status")
+    public ResponseEntity<ForecastPrecomputeStatus> getForecastStatus(Authentication authentication) {
+        if (!securityService.isAdmin(extractUsername(authentication))) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        return ResponseEntity.ok(forecastPrecomputer.getStatus());
+    }
+    
+    @GetMapping("/{id}/alerts")
+    public ResponseEntity<List<Alert>> getAlerts(
+            @PathVariable Long id,
+            Authentication authentication) {
+        
+        String username = extractUsername(authentication);
+        log.info("User {} requesting alerts for building {}", username, id);
+        
+        // RBAC check: verify user has access to this building
+        if (!securityService.hasAccessToBuilding(username, id)) {
+            log.warn("User {} does not have access to building {}", username, id);
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        
+        return ResponseEntity.ok(alertSink.getRecentAlerts(id));
+    }
+    
+    /**
+     * Live stream of new readings for a building (Server-Sent Events).
+     * Access is checked once at subscription time; afterwards only new readings are pushed.
+     */
+    @GetMapping(value = "/{id}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamReadings(
+            @PathVariable Long id,
+            Authentication authentication) {
+        
+        String username = extractUsername(authentication);
+        log.info("User {} subscribing to reading stream for building {}", username, id);
+        
+        // RBAC check: verify user has access to this building
+        if (!securityService.hasAccessToBuilding(username, id)) {
+            log.warn("User {} does not have access to building {}", username, id);
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        
+        return ResponseEntity.ok(readingStreamService.subscribe(id));
+    }
+    
+    /**
+     * The requesting user's bulkhead is saturated; the client should back off.
+     */
+    @ExceptionHandler(BulkheadRejectedException.class)
+    public ResponseEntity<Void> handleBulkheadRejected(BulkheadRejectedException e) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf((e.getRetryAfterMillis() + 999) / 1000))
+                .build();
+    }
+    
+    // Clients must revalidate every poll: the data can change at any time. A response that
+    // expires without ingest carries no Last-Modified, since If-Modified-Since alone would
+    // keep matching the watermark after its readings left the window
+    private ResponseEntity.BodyBuilder withValidators(ResponseEntity.BodyBuilder response, String etag,
+                                                      Watermark watermark, LocalDateTime validUntil) {
+        if (!ingestWatermarks.isEnabled()) {
+            return response;
+        }
+        if (validUntil == null) {
+            response.lastModified(watermark.modifiedAtMillis());
+        }
+        return response.eTag(etag)
+                .cacheControl(CacheControl.noCache().cachePrivate());
+    }
+    
+    // Last-Modified is left out: a 304 need not repeat it, and the stored response keeps its own
+    private static ResponseEntity<Void> notModified(String etag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT)
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .build();
+    }
+    
+    // The columnar type must be acceptable (q > 0) and preferred at least as much as JSON
+    static boolean isColumnar(String format, String accept) {
+        if (format != null) {
+            return "columnar".equalsIgnoreCase(format);
+        }
+        if (accept == null) {
+            return false;
+        }
+        List<MediaType> accepted;
+        try {
+            accepted = MediaType.parseMediaTypes(accept);
+        } catch (InvalidMediaTypeException e) {
+            return false;
+        }
+        MediaType columnar = MediaType.parseMediaType(COLUMNAR_MEDIA_TYPE);
+        double columnarQuality = 0.0;
+        double jsonQuality = 0.0;
+        for (MediaType mediaType : accepted) {
+            if (mediaType.isWildcardType() || mediaType.isWildcardSubtype()) {
+                continue;
+            }
+            if (mediaType.equalsTypeAndSubtype(columnar)) {
+                columnarQuality = Math.max(columnarQuality, mediaType.getQualityValue());
+            } else if (mediaType.isCompatibleWith(MediaType.APPLICATION_JSON)) {
+                jsonQuality = Math.max(jsonQuality, mediaType.getQualityValue());
+            }
+        }
+        return columnarQuality > 0.0 && columnarQuality >= jsonQuality;
     }
     
     private String extractUsername(Authentication authentication) {
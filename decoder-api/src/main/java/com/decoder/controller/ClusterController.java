@@ -0,0 +1,88 @@
+package com.decoder.controller;
+
+import com.decoder.model.dto.ReadingRequest;
+import com.decoder.service.ClusterService;
+import com.decoder.service.ReadingService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Node-to-node endpoints for cluster mode: health, membership and data handoff.
+ * They do not exist (404) unless cluster mode is enabled; changes require the cluster token.
+ */
+@RestController
+@RequestMapping("/cluster")
+@RequiredArgsConstructor
+@Slf4j
+public class ClusterController {
+    
+    private final ClusterService clusterService;
+    private final ReadingService readingService;
+    
+    @GetMapping("/health")
+    public ResponseEntity<String> health() {
+        if (!clusterService.isEnabled()) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok("UP");
+    }
+    
+    @GetMapping("/nodes")
+    public ResponseEntity<Map<String, Object>> nodes() {
+        if (!clusterService.isEnabled()) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(Map.of(
+                "self", clusterService.getSelfUrl(),
+                "liveNodes", clusterService.getLiveNodes()));
+    }
+    
+    @PostMapping("/join")
+    public ResponseEntity<Void> join(
+            @RequestBody String nodeUrl,
+            @RequestHeader(value = ClusterService.TOKEN_HEADER, required = false) String token) {
+        if (!clusterService.isEnabled()) {
+            return ResponseEntity.notFound().build();
+        }
+        if (!clusterService.isValidToken(token)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        clusterService.join(nodeUrl);
+        return ResponseEntity.ok().build();
+    }
+    
+    @PostMapping("/leave")
+    public ResponseEntity<Void> leave(
+            @RequestBody String nodeUrl,
+            @RequestHeader(value = ClusterService.TOKEN_HEADER, required = false) String token) {
+        if (!clusterService.isEnabled()) {
+            return ResponseEntity.notFound().build();
+        }
+        if (!clusterService.isValidToken(token)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        clusterService.leave(nodeUrl);
+        return ResponseEntity.ok().build();
+    }
+    
+    @PostMapping("/handoff")
+    public ResponseEntity<Void> handoff(
+            @RequestBody List<ReadingRequest> readings,
+            @RequestHeader(value = ClusterService.TOKEN_HEADER, required = false) String token) {
+        if (!clusterService.isEnabled()) {
+            return ResponseEntity.notFound().build();
+        }
+        if (!clusterService.isValidToken(token)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        int imported = readingService.importReadings(readings);
+        log.info("Received handoff of {} readings, {} new", readings.size(), imported);
+        return ResponseEntity.ok().build();
+    }
+}
@@ -2,10 +2,12 @@ package com.decoder.controller;
 
 import com.decoder.model.dto.ReadingRequest;
 import com.decoder.model.dto.ReadingResponse;
+import com.decoder.service.IngestAdmissionControl;
 import com.decoder.service.ReadingService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -17,13 +19,31 @@ import org.springframework.web.bind.annotation.*;
 public class IngestController {
     
     private final ReadingService readingService;
+    private final IngestAdmissionControl admissionControl;
     
     @PostMapping
     public ResponseEntity<ReadingResponse> ingestReading(@Valid @RequestBody ReadingRequest request) {
         log.info("Received ingest request for buildingId: {}, sensorId: {}", 
                 request.getBuildingId(), request.getSensorId());
         
-        ReadingResponse response = readingService.ingestReading(request);
-        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+        // Admission control: shed load before it reaches the database writer
+        long retryAfterMillis = admissionControl.tryAdmit(request.getBuildingId(), request.getSensorId());
+        if (retryAfterMillis > 0) {
+            log.warn("Rejecting ingest for buildingId: {}, sensorId: {}, retry after {} ms",
+                    request.getBuildingId(), request.getSensorId(), retryAfterMillis);
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf((retryAfterMillis + 999) / 1000))
+                    .build();
+        }
+        
+        try {
+            // With the ingest log enabled the reading is acknowledged once it is logged
+            ReadingResponse response = readingService.isIngestLogEnabled()
+                    ? readingService.logReading(request)
+                    : readingService.ingestReading(request);
+            return ResponseEntity.status(HttpStatus.CREATED).body(response);
+        } finally {
+            admissionControl.release();
+        }
     }
 }
@@ -0,0 +1,71 @@
+package com.decoder.events;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Custom JDK Flight Recorder events marking the units of work of the ingest and query paths,
+ * so recordings show what each thread was doing next to the JVM's own events. They cost
+ * nothing beyond the allocation of the event object while no recording enables them.
+ * Stack traces are off: the timing and fields identify the work, and the sampled stacks of
+ * jdk.ExecutionSample show where the time went.
+ */
+public final class DecoderEvents {
+
+    private DecoderEvents() {
+    }
+
+    @Name("com.decoder.IngestBatch")
+    @Label("Ingest Batch")
+    @Category({"Decoder", "Ingest"})
+    @Description("Readings written to storage in one call, from ingest or backfill")
+    @StackTrace(false)
+    public static class IngestBatch extends Event {
+
+        @Label("Source")
+        public String source;
+
+        @Label("Readings")
+        public int readings;
+    }
+
+    @Name("com.decoder.RepositoryQuery")
+    @Label("Repository Query")
+    @Category({"Decoder", "Query"})
+    @Description("Read of the readings table, including mapping the rows")
+    @StackTrace(false)
+    public static class RepositoryQuery extends Event {
+
+        @Label("Query")
+        public String query;
+
+        @Label("Building")
+        @Description("Building queried; 0 for queries over several buildings")
+        public long buildingId;
+
+        @Label("Rows")
+        public int rows;
+    }
+
+    @Name("com.decoder.ForecastComputation")
+    @Label("Forecast Computation")
+    @Category({"Decoder", "Query"})
+    @Description("Forecast computed from stored readings, on request or by the precomputer")
+    @StackTrace(false)
+    public static class ForecastComputation extends Event {
+
+        @Label("Building")
+        public long buildingId;
+
+        @Label("Minutes")
+        public int minutes;
+
+        @Label("Readings")
+        @Description("Recent readings the forecast is based on")
+        public int readings;
+    }
+}
@@ -0,0 +1,39 @@
+package com.decoder.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Kinds of suspicious readings flagged on ingest. Stored on each reading as a bitmask.
+ */
+public enum Anomaly {
+    /** Value far from the sensor's recent level, measured in standard deviations. */
+    SPIKE(1),
+    /** Value has not changed for longer than the flatline period (stuck sensor). */
+    FLATLINE(1 << 1),
+    /** Reading arrived after a longer silence than the gap period (dropout). */
+    GAP(1 << 2);
+    
+    private final int bit;
+    
+    Anomaly(int bit) {
+        this.bit = bit;
+    }
+    
+    public int getBit() {
+        return bit;
+    }
+    
+    public static List<Anomaly> fromFlags(Integer flags) {
+        List<Anomaly> anomalies = new ArrayList<>(1);
+        if (flags == null || flags == 0) {
+            return anomalies;
+        }
+        for (Anomaly anomaly : values()) {
+            if ((flags & anomaly.bit) != 0) {
+                anomalies.add(anomaly);
+            }
+        }
+        return anomalies;
+    }
+}
@@ -0,0 +1,24 @@
+package com.decoder.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Highest log sequence whose records are stored in the database.
+ * Written in the same transaction as the readings it covers, so replay after a crash
+ * skips exactly the records that were already applied.
+ */
+@Entity
+@Table(name = "log_checkpoints")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LogCheckpoint {
+    @Id
+    private String name;
+    
+    @Column(name = "applied_sequence", nullable = false)
+    private Long appliedSequence;
+}
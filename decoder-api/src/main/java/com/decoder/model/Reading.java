@@ -1,20 +1,18 @@
 package com.decoder.model;
 
+import com.decoder.repository.ReadingSensorListener;
 import jakarta.persistence.*;
-import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "readings", indexes = {
-    @Index(name = "idx_building_timestamp", columnList = "buildingId,timestamp"),
-    @Index(name = "idx_sensor_timestamp", columnList = "sensorId,timestamp")
-})
+@EntityListeners(ReadingSensorListener.class)
+// Layout and indexes depend on decoder.storage.readings-layout; see ReadingTableLayout
+@Table(name = "readings")
 @Data
 @NoArgsConstructor
-@AllArgsConstructor
 public class Reading {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -23,7 +21,16 @@ public class Reading {
     @Column(nullable = false)
     private Long buildingId;
     
-    @Column(nullable = false)
+    /**
+     * Compact sensor id from the sensors dictionary; this is what is stored and indexed.
+     */
+    @Column(name = "sensor_ref", nullable = false)
+    private Integer sensorRef;
+    
+    /**
+     * External sensor key, resolved from sensorRef through the SensorRegistry.
+     */
+    @Transient
     private String sensorId;
     
     @Column(nullable = false)
@@ -31,4 +38,18 @@ public class Reading {
     
     @Column(nullable = false)
     private Double value;
+    
+    /**
+     * Bitmask of Anomaly flags raised when the reading was ingested; null or 0 if none.
+     */
+    @Column(name = "anomaly_flags")
+    private Integer anomalyFlags;
+    
+    public Reading(Long id, Long buildingId, String sensorId, LocalDateTime timestamp, Double value) {
+        this.id = id;
+        this.buildingId = buildingId;
+        this.sensorId = sensorId;
+        this.timestamp = timestamp;
+        this.value = value;
+    }
 }
@@ -0,0 +1,24 @@
+package com.decoder.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Sensor dictionary entry mapping an external sensor key to a compact integer id.
+ * Readings reference sensors by this id instead of repeating the key on every row.
+ */
+@Entity
+@Table(name = "sensors")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Sensor {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Integer id;
+    
+    @Column(name = "sensor_key", unique = true, nullable = false)
+    private String sensorKey;
+}
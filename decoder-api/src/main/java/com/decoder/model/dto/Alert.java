@@ -0,0 +1,23 @@
+package com.decoder.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Alert {
+    private Long buildingId;
+    private String sensorId;
+    private Type type;
+    private Double value;
+    private Double threshold;
+    private LocalDateTime timestamp;
+    
+    public enum Type {
+        RAISED, CLEARED
+    }
+}
@@ -0,0 +1,36 @@
+package com.decoder.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Progress of the current or most recent CSV backfill import.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BackfillStatus {
+
+    public enum State {
+        IDLE, RUNNING, COMPLETED, FAILED
+    }
+
+    private String file;
+    private State state;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private long totalBytes;
+    private long processedBytes; // Includes bytes committed by earlier, interrupted runs
+    private long resumedFromBytes; // Bytes already committed when this run started
+    private int chunks;
+    private int chunksCompleted;
+    private long rowsImported;
+    private long rowsRejected;
+    private double rowsPerSecond;
+    private List<String> errors; // First rejected rows, with their byte offset
+    private String failure;
+}
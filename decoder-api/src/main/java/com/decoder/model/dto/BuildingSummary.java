@@ -0,0 +1,43 @@
+package com.decoder.model.dto;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+public class BuildingSummary {
+    private Long buildingId;
+    private LocalDateTime from;
+    private long count;
+    private Double average;
+    private Double min;
+    private Double max;
+    private LocalDateTime lastReadingAt;
+    private List<ReadingResponse> latestBySensor;
+    
+    public BuildingSummary(Long buildingId, LocalDateTime from, long count, Double average, Double min, Double max,
+                           LocalDateTime lastReadingAt, List<ReadingResponse> latestBySensor) {
+        this.buildingId = buildingId;
+        this.from = from;
+        this.count = count;
+        this.average = average;
+        this.min = min;
+        this.max = max;
+        this.lastReadingAt = lastReadingAt;
+        this.latestBySensor = latestBySensor != null ? new ArrayList<>(latestBySensor) : new ArrayList<>();
+    }
+    
+    public List<ReadingResponse> getLatestBySensor() {
+        return latestBySensor != null ? new ArrayList<>(latestBySensor) : new ArrayList<>();
+    }
+    
+    public void setLatestBySensor(List<ReadingResponse> latestBySensor) {
+        this.latestBySensor = latestBySensor != null ? new ArrayList<>(latestBySensor) : new ArrayList<>();
+    }
+}
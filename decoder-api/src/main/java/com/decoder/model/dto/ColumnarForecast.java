@@ -0,0 +1,87 @@
+package com.decoder.model.dto;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compact forecast: evenly spaced values from start, stepSeconds apart.
+ * Value i is the forecast for start + i * stepSeconds. start is null when there is no forecast.
+ */
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@SuppressFBWarnings(value = {"EI_EXPOSE_REP", "EI_EXPOSE_REP2"},
+        justification = "Built once by the forecast service and only read by serialization")
+public class ColumnarForecast {
+
+    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
+
+    private Long buildingId;
+    private LocalDateTime start;
+    private int stepSeconds;
+    private double[] values;
+    private String recommendation;
+    private LocalDateTime generatedAt;
+
+    /**
+     * The same forecast as one object per point.
+     */
+    public ForecastResponse toForecastResponse() {
+        List<ForecastResponse.ForecastPoint> points = new ArrayList<>(values.length);
+        for (int i = 0; i < values.length; i++) {
+            points.add(new ForecastResponse.ForecastPoint(
+                    start.plusSeconds((long) i * stepSeconds).format(FORMATTER), values[i]));
+        }
+        return new ForecastResponse(buildingId, points, recommendation, generatedAt);
+    }
+
+    /**
+     * The same forecast serialized exactly like ForecastResponse, with each point written
+     * straight from the values instead of being built as an object first.
+     */
+    public PointView asPoints() {
+        return new PointView(this);
+    }
+
+    @JsonSerialize(using = PointViewSerializer.class)
+    public record PointView(ColumnarForecast forecast) {
+    }
+
+    public static final class PointViewSerializer extends StdSerializer<PointView> {
+
+        public PointViewSerializer() {
+            super(PointView.class);
+        }
+
+        @Override
+        public void serialize(PointView view, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            ColumnarForecast forecast = view.forecast();
+            gen.writeStartObject();
+            provider.defaultSerializeField("buildingId", forecast.buildingId, gen);
+            gen.writeArrayFieldStart("forecast");
+            for (int i = 0; i < forecast.values.length; i++) {
+                gen.writeStartObject();
+                gen.writeStringField("timestamp",
+                        forecast.start.plusSeconds((long) i * forecast.stepSeconds).format(FORMATTER));
+                gen.writeNumberField("value", forecast.values[i]);
+                gen.writeEndObject();
+            }
+            gen.writeEndArray();
+            provider.defaultSerializeField("recommendation", forecast.recommendation, gen);
+            provider.defaultSerializeField("generatedAt", forecast.generatedAt, gen);
+            gen.writeEndObject();
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.decoder.model.dto;
+
+import com.decoder.model.Anomaly;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compact readings of a building: one series per sensor with parallel arrays, oldest first.
+ * Reading i of a series was taken at base + offsetsMs[i] with value values[i];
+ * anomalyFlags holds the Anomaly bitmask per reading and is omitted when nothing was flagged.
+ */
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@SuppressFBWarnings(value = {"EI_EXPOSE_REP", "EI_EXPOSE_REP2"},
+        justification = "Built once per response and only read by serialization")
+public class ColumnarReadings {
+
+    private Long buildingId;
+    private List<SensorSeries> series;
+
+    /**
+     * Columnar form of a building's readings, given in any order.
+     */
+    public static ColumnarReadings of(Long buildingId, List<ReadingResponse> readings) {
+        List<ReadingResponse> oldestFirst = new ArrayList<>(readings);
+        oldestFirst.sort(Comparator.comparing(ReadingResponse::getTimestamp));
+
+        Map<String, SeriesBuilder> bySensor = new LinkedHashMap<>();
+        for (ReadingResponse reading : oldestFirst) {
+            bySensor.computeIfAbsent(reading.getSensorId(), SeriesBuilder::new).add(reading);
+        }
+
+        List<SensorSeries> series = new ArrayList<>(bySensor.size());
+        bySensor.values().forEach(builder -> series.add(builder.build()));
+        return new ColumnarReadings(buildingId, series);
+    }
+
+    @Getter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @SuppressFBWarnings(value = {"EI_EXPOSE_REP", "EI_EXPOSE_REP2"},
+            justification = "Built once per response and only read by serialization")
+    public static class SensorSeries {
+        private String sensorId;
+        private LocalDateTime base;
+        private long[] offsetsMs;
+        private double[] values;
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        private int[] anomalyFlags;
+    }
+
+    private static final class SeriesBuilder {
+        private final String sensorId;
+        private LocalDateTime base;
+        private long[] offsetsMs = new long[16];
+        private double[] values = new double[16];
+        private int[] anomalyFlags;
+        private int size;
+
+        SeriesBuilder(String sensorId) {
+            this.sensorId = sensorId;
+        }
+
+        void add(ReadingResponse reading) {
+            if (size == values.length) {
+                offsetsMs = Arrays.copyOf(offsetsMs, size * 2);
+                values = Arrays.copyOf(values, size * 2);
+                if (anomalyFlags != null) {
+                    anomalyFlags = Arrays.copyOf(anomalyFlags, size * 2);
+                }
+            }
+            if (base == null) {
+                base = reading.getTimestamp();
+            }
+            offsetsMs[size] = Duration.between(base, reading.getTimestamp()).toMillis();
+            values[size] = reading.getValue();
+
+            List<Anomaly> anomalies = reading.getAnomalies();
+            if (anomalies != null && !anomalies.isEmpty()) {
+                if (anomalyFlags == null) {
+                    anomalyFlags = new int[values.length];
+                }
+                for (Anomaly anomaly : anomalies) {
+                    anomalyFlags[size] |= anomaly.getBit();
+                }
+            }
+            size++;
+        }
+
+        SensorSeries build() {
+            return new SensorSeries(sensorId, base, Arrays.copyOf(offsetsMs, size), Arrays.copyOf(values, size),
+                    anomalyFlags != null ? Arrays.copyOf(anomalyFlags, size) : null);
+        }
+    }
+}
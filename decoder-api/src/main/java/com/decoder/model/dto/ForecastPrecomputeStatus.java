@@ -0,0 +1,26 @@
+package com.decoder.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Outcome of the most recent forecast precomputation run and age of the stored forecasts.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ForecastPrecomputeStatus {
+    private boolean enabled;
+    private int horizonMinutes;
+    private long intervalMs;
+    private LocalDateTime lastRunStartedAt; // Null until the first run completes
+    private long lastRunMillis;
+    private int buildingsComputed;
+    private int buildingsFailed;
+    private long slowestBuildingMillis;
+    private int forecastsStored;
+    private Long stalenessSeconds; // Age of the oldest stored forecast, null if none
+}
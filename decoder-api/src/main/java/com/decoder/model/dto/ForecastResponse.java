@@ -6,6 +6,7 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -16,11 +17,14 @@ public class ForecastResponse {
     private Long buildingId;
     private List<ForecastPoint> forecast;
     private String recommendation;
+    private LocalDateTime generatedAt;
     
-    public ForecastResponse(Long buildingId, List<ForecastPoint> forecast, String recommendation) {
+    public ForecastResponse(Long buildingId, List<ForecastPoint> forecast, String recommendation,
+                            LocalDateTime generatedAt) {
         this.buildingId = buildingId;
         this.forecast = forecast != null ? new ArrayList<>(forecast) : new ArrayList<>();
         this.recommendation = recommendation;
+        this.generatedAt = generatedAt;
     }
     
     public List<ForecastPoint> getForecast() {
@@ -0,0 +1,29 @@
+package com.decoder.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A JDK Flight Recorder recording started through the admin API.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProfilingRecording {
+
+    public enum State {
+        RUNNING, STOPPED, FAILED
+    }
+
+    private int id;
+    private String profile;
+    private State state;
+    private LocalDateTime startedAt;
+    private LocalDateTime stopsAt; // Stopped automatically at this time unless stopped earlier
+    private LocalDateTime stoppedAt;
+    private long sizeBytes; // Size of the downloadable .jfr file once stopped
+    private String failure;
+}
@@ -0,0 +1,50 @@
+package com.decoder.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Live view of a profiling recording: where sampled threads spent their time and what they
+ * allocated, split by the ingest and query paths, and timings of the decoder's own events.
+ * Weights are samples for hot methods and sampled bytes for allocation sites.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProfilingSummary {
+
+    private ProfilingRecording recording;
+    private long executionSamples;
+    private long allocatedBytes;
+    private List<Site> hotMethods;
+    private List<Site> allocationSites;
+    private List<EventTiming> events;
+
+    /**
+     * A method at the top of sampled stacks, or a class allocated there.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Site {
+        private String path; // ingest, query or other, from the outermost recognized decoder frame
+        private String frame; // Top frame: the method running or allocating
+        private String objectClass; // Allocated class; null for hot methods
+        private String decoderFrame; // Innermost decoder frame with line, null if none was sampled
+        private long weight;
+        private double percent; // Share of all samples or bytes of the recording
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class EventTiming {
+        private String event;
+        private long count;
+        private double totalMillis;
+        private double maxMillis;
+    }
+}
@@ -0,0 +1,21 @@
+package com.decoder.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Replication state of the read model relative to committed ingest.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReadModelStatus {
+    private long publishedEvents;
+    private long appliedEvents;
+    private long pendingEvents;
+    private long lagMillis; // Age of the oldest reading not yet applied, 0 when caught up
+    private long lastApplyLagMillis; // Commit-to-apply delay of the most recently applied reading
+    private int windowMinutes;
+    private int staleBuildings; // Buildings served from the primary store until their projection is rebuilt
+}
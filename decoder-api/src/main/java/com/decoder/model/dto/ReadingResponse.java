@@ -1,10 +1,13 @@
 package com.decoder.model.dto;
 
+import com.decoder.model.Anomaly;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 @Data
 @NoArgsConstructor
@@ -14,4 +17,11 @@ public class ReadingResponse {
     private String sensorId;
     private LocalDateTime timestamp;
     private Double value;
+    
+    @JsonInclude(JsonInclude.Include.NON_EMPTY)
+    private List<Anomaly> anomalies;
+    
+    public ReadingResponse(Long buildingId, String sensorId, LocalDateTime timestamp, Double value) {
+        this(buildingId, sensorId, timestamp, value, List.of());
+    }
 }
@@ -0,0 +1,77 @@
+package com.decoder.model.dto;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Readings of a building aligned to a common grid: every series has one value per bucket,
+ * value i covering [start + i * stepSeconds, start + (i + 1) * stepSeconds). Buckets left
+ * empty after filling are null. total is the per-bucket sum over the sensors that have a value.
+ */
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@SuppressFBWarnings(value = {"EI_EXPOSE_REP", "EI_EXPOSE_REP2"},
+        justification = "Built once per response and only read by serialization")
+public class ResampledReadings {
+
+    private Long buildingId;
+    private LocalDateTime start;
+    private int stepSeconds;
+    private String aggregation;
+    private String fill;
+    private List<SensorGrid> series;
+    @JsonSerialize(using = NanAsNullSerializer.class)
+    private double[] total;
+
+    /**
+     * One sensor on the grid, with statistics over its non-empty buckets.
+     */
+    @Getter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @SuppressFBWarnings(value = {"EI_EXPOSE_REP", "EI_EXPOSE_REP2"},
+            justification = "Built once per response and only read by serialization")
+    public static class SensorGrid {
+        private String sensorId;
+        @JsonSerialize(using = NanAsNullSerializer.class)
+        private double[] values;
+        private int count;
+        private Double min;
+        private Double max;
+        private Double mean;
+    }
+
+    /**
+     * Writes NaN elements as null; JSON has no NaN.
+     */
+    public static class NanAsNullSerializer extends StdSerializer<double[]> {
+
+        public NanAsNullSerializer() {
+            super(double[].class);
+        }
+
+        @Override
+        public void serialize(double[] values, JsonGenerator generator, SerializerProvider provider) throws IOException {
+            generator.writeStartArray(values, values.length);
+            for (double value : values) {
+                if (Double.isNaN(value)) {
+                    generator.writeNull();
+                } else {
+                    generator.writeNumber(value);
+                }
+            }
+            generator.writeEndArray();
+        }
+    }
+}
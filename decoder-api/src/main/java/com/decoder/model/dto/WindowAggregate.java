@@ -0,0 +1,29 @@
+package com.decoder.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Aggregates over a window of readings. Quantiles are approximate, within relativeAccuracy
+ * of the true value; from and to are the window actually covered, aligned to bucket edges.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class WindowAggregate {
+    private Long buildingId;
+    private String sensorId; // Null when aggregating every sensor of the building
+    private LocalDateTime from;
+    private LocalDateTime to;
+    private long count;
+    private Double min;
+    private Double max;
+    private Double mean;
+    private Double p50;
+    private Double p95;
+    private Double p99;
+    private double relativeAccuracy;
+}
@@ -0,0 +1,132 @@
+package com.decoder.repository;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Connection pool front that lets at most one caller per pooled connection into JDBC.
+ * Callers wait on a fair semaphore before they reach the pool and get their permit back
+ * when they close the connection. Waiting there parks a virtual thread without holding its
+ * carrier, whereas the SQLite driver's native calls pin the carrier while they run; with the
+ * limit only as many threads as there are connections can be inside the driver, so thousands
+ * of virtual request threads cannot tie up every carrier behind a one-connection database.
+ */
+public class LimitedDataSource extends DelegatingDataSource {
+
+    private final String name;
+    private final int permits;
+    private final long acquireTimeoutMs;
+    private final Semaphore available;
+
+    public LimitedDataSource(String name, DataSource target, int permits, long acquireTimeoutMs) {
+        super(target);
+        this.name = name;
+        this.permits = Math.max(1, permits);
+        this.acquireTimeoutMs = acquireTimeoutMs;
+        this.available = new Semaphore(this.permits, true);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        acquire();
+        return admitted(() -> obtainTargetDataSource().getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        acquire();
+        return admitted(() -> obtainTargetDataSource().getConnection(username, password));
+    }
+
+    public int getPermits() {
+        return permits;
+    }
+
+    public int getActive() {
+        return permits - available.availablePermits();
+    }
+
+    public int getWaiting() {
+        return available.getQueueLength();
+    }
+
+    /**
+     * Publish decoder.datasource.limiter.active and decoder.datasource.limiter.waiting for this pool.
+     */
+    public void bindTo(MeterRegistry meterRegistry) {
+        Gauge.builder("decoder.datasource.limiter.active", this, LimitedDataSource::getActive)
+                .description("Connections handed out through the limiter")
+                .tag("pool", name)
+                .register(meterRegistry);
+        Gauge.builder("decoder.datasource.limiter.waiting", this, LimitedDataSource::getWaiting)
+                .description("Threads waiting for a connection permit")
+                .tag("pool", name)
+                .register(meterRegistry);
+    }
+
+    private void acquire() throws SQLException {
+        try {
+            if (!available.tryAcquire(acquireTimeoutMs, TimeUnit.MILLISECONDS)) {
+                throw new SQLTransientConnectionException(
+                        name + " - no connection available within " + acquireTimeoutMs + "ms");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException(name + " - interrupted while waiting for a connection", e);
+        }
+    }
+
+    private Connection admitted(ConnectionOpener opener) throws SQLException {
+        Connection connection;
+        try {
+            connection = opener.open();
+        } catch (SQLException | RuntimeException | Error e) {
+            available.release();
+            throw e;
+        }
+        return releasingOnClose(connection);
+    }
+
+    // Closing returns the permit exactly once, however often close() is called
+    private Connection releasingOnClose(Connection connection) {
+        AtomicBoolean released = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[] {Connection.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "equals" -> proxy == args[0];
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "close" -> {
+                        try {
+                            connection.close();
+                        } finally {
+                            if (released.compareAndSet(false, true)) {
+                                available.release();
+                            }
+                        }
+                        yield null;
+                    }
+                    default -> {
+                        try {
+                            yield method.invoke(connection, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getCause();
+                        }
+                    }
+                });
+    }
+
+    @FunctionalInterface
+    private interface ConnectionOpener {
+        Connection open() throws SQLException;
+    }
+}
@@ -0,0 +1,9 @@
+package com.decoder.repository;
+
+import com.decoder.model.LogCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface LogCheckpointRepository extends JpaRepository<LogCheckpoint, String> {
+}
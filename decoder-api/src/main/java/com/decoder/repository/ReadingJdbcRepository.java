@@ -0,0 +1,568 @@
+package com.decoder.repository;
+
+import com.decoder.events.DecoderEvents;
+import com.decoder.model.Reading;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Plain JDBC access to the readings table for the ingest and query hot paths.
+ * Rows bypass the persistence context entirely: no dirty checking, no flush/clear, no entity
+ * listener per row. Statements join the surrounding Spring transaction, so writes here commit
+ * together with JPA work in the same transaction (sensor registration, log checkpoints).
+ * Low-volume entities stay on their JPA repositories.
+ * Timestamps are bound as java.sql.Timestamp, the same encoding Hibernate uses for this column.
+ * Queries returning lists resolve sensor keys once the result set is closed: a registry cache
+ * miss queries the sensors table, which must not wait for the connection the open cursor is
+ * holding. streamSince cannot buffer its rows, so it resolves them in the row callback inside
+ * its transaction, where the lookup shares the connection of the cursor.
+ * With ReadingShards enabled every statement goes to the shard of its building instead, in
+ * transactions local to that shard; queries over several buildings fan out to their shards
+ * in parallel and merge the results.
+ */
+@Repository
+@RequiredArgsConstructor
+@Slf4j
+public class ReadingJdbcRepository {
+
+    private static final String COLUMNS = "id, building_id, sensor_ref, timestamp, value, anomaly_flags";
+
+    private static final String INSERT_SQL =
+            "INSERT INTO readings (building_id, sensor_ref, timestamp, value, anomaly_flags) VALUES (?, ?, ?, ?, ?)";
+
+    // The clustered key admits one reading per sensor and instant; a repeated one is dropped,
+    // never replacing the stored reading
+    private static final String INSERT_CLUSTERED_SQL =
+            "INSERT OR IGNORE INTO readings (building_id, sensor_ref, timestamp, value, anomaly_flags) VALUES (?, ?, ?, ?, ?)";
+
+    // Skips a reading already stored for the same sensor and instant, as in the clustered key
+    private static final String INSERT_MISSING_SQL =
+            "INSERT INTO readings (building_id, sensor_ref, timestamp, value, anomaly_flags) SELECT ?, ?, ?, ?, ? "
+            + "WHERE NOT EXISTS (SELECT 1 FROM readings WHERE building_id = ? AND timestamp = ? AND sensor_ref = ?)";
+
+    private static final String CHECKPOINT_SQL = "SELECT applied_sequence FROM log_checkpoints WHERE name = ?";
+
+    private static final String UPSERT_CHECKPOINT_SQL =
+            "INSERT OR REPLACE INTO log_checkpoints (name, applied_sequence) VALUES (?, ?)";
+
+    private static final String LAST_READINGS_SQL = "SELECT " + COLUMNS + " FROM readings "
+            + "WHERE building_id = ? AND timestamp >= ? ORDER BY timestamp DESC";
+
+    private static final String ANOMALIES_SQL = "SELECT " + COLUMNS + " FROM readings "
+            + "WHERE building_id = ? AND timestamp >= ? AND anomaly_flags > 0 ORDER BY timestamp DESC";
+
+    private static final String BUILDING_SQL = "SELECT " + COLUMNS + " FROM readings "
+            + "WHERE building_id = ? ORDER BY timestamp DESC";
+
+    private static final String RANGE_VALUES_SQL = "SELECT sensor_ref, timestamp, value FROM readings "
+            + "WHERE building_id = ? AND timestamp >= ? AND timestamp < ? ORDER BY timestamp ASC";
+
+    private static final String SINCE_SQL = "SELECT " + COLUMNS + " FROM readings "
+            + "WHERE timestamp >= ? ORDER BY timestamp ASC";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final SensorRegistry sensorRegistry;
+    private final ReadingTableLayout tableLayout;
+    private final ReadingShards shards;
+
+    @Value("${decoder.jdbc.batch-size:500}")
+    private int batchSize;
+
+    @Value("${decoder.jdbc.fetch-size:1000}")
+    private int fetchSize;
+
+    private volatile Boolean generatedKeysSupported;
+
+    /**
+     * Whether readings are stored in shards rather than the main database. Sharded writes do
+     * not take part in transactions on the main database.
+     */
+    public boolean isSharded() {
+        return shards.isEnabled();
+    }
+
+    /**
+     * Insert a single reading and return its generated id. Uses getGeneratedKeys when the
+     * driver supports it, otherwise last_insert_rowid() on the same connection.
+     * Readings get no id in the clustered layout; null is returned. There a reading the
+     * table already holds for the same sensor and instant is dropped and logged.
+     */
+    public Long insert(Reading reading) {
+        JdbcTemplate jdbc = jdbcFor(reading.getBuildingId());
+        if (tableLayout.isClustered()) {
+            if (jdbc.update(INSERT_CLUSTERED_SQL, statement -> bindInsert(statement, reading)) == 0) {
+                logDuplicates(1);
+            }
+            return null;
+        }
+        return jdbc.execute((ConnectionCallback<Long>) connection -> {
+            if (supportsGeneratedKeys(connection)) {
+                try (PreparedStatement statement = connection.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS)) {
+                    bindInsert(statement, reading);
+                    statement.executeUpdate();
+                    try (ResultSet keys = statement.getGeneratedKeys()) {
+                        if (keys.next()) {
+                            return keys.getLong(1);
+                        }
+                    }
+                }
+            } else {
+                try (PreparedStatement statement = connection.prepareStatement(INSERT_SQL)) {
+                    bindInsert(statement, reading);
+                    statement.executeUpdate();
+                }
+            }
+            try (Statement statement = connection.createStatement();
+                 ResultSet rowId = statement.executeQuery("SELECT last_insert_rowid()")) {
+                rowId.next();
+                return rowId.getLong(1);
+            }
+        });
+    }
+
+    /**
+     * Insert readings in the order given, decoder.jdbc.batch-size rows per JDBC batch on one
+     * prepared statement. Generated ids are not read back. In the clustered layout readings
+     * already stored for the same sensor and instant are dropped and counted in the log. Sharded, each shard stores its part
+     * of the batch in one transaction of its own, all shards in parallel.
+     */
+    public void insertBatch(List<Reading> readings) {
+        if (readings.isEmpty()) {
+            return;
+        }
+        if (!shards.isEnabled()) {
+            batchInsert(jdbcTemplate, readings);
+            return;
+        }
+
+        Map<ReadingShards.Shard, List<Reading>> byShard = new LinkedHashMap<>();
+        for (Reading reading : readings) {
+            byShard.computeIfAbsent(shards.shardFor(reading.getBuildingId()), shard -> new ArrayList<>()).add(reading);
+        }
+        shards.onEach(byShard.keySet(), shard -> shard.transactionTemplate().execute(status -> {
+            batchInsert(shard.jdbcTemplate(), byShard.get(shard));
+            return null;
+        }));
+    }
+
+    /**
+     * Insert the readings not stored yet, judged by building, sensor and instant, and return
+     * those that were inserted. Storing the same batch again is a no-op, so a sender may retry
+     * it. Transactions as in insertBatch.
+     */
+    public List<Reading> insertMissing(List<Reading> readings) {
+        if (readings.isEmpty()) {
+            return List.of();
+        }
+        if (!shards.isEnabled()) {
+            return batchInsertMissing(jdbcTemplate, readings);
+        }
+
+        Map<ReadingShards.Shard, List<Reading>> byShard = new LinkedHashMap<>();
+        for (Reading reading : readings) {
+            byShard.computeIfAbsent(shards.shardFor(reading.getBuildingId()), shard -> new ArrayList<>()).add(reading);
+        }
+        List<Reading> inserted = new ArrayList<>();
+        shards.onEach(byShard.keySet(), shard -> shard.transactionTemplate().execute(
+                status -> batchInsertMissing(shard.jdbcTemplate(), byShard.get(shard))))
+                .forEach(inserted::addAll);
+        return inserted;
+    }
+
+    /**
+     * Sharded only: store a batch read from positions [from, to) of an import source and, in the
+     * same transaction on every shard, record that the shard holds the source up to position to.
+     * A shard whose checkpoint already reaches to skips its part and one whose checkpoint lies
+     * inside the batch stores only what it is missing, so a batch stored again after a failure
+     * between the shard commits is stored once. Returns the readings that were inserted.
+     */
+    public List<Reading> insertBatchUpTo(List<Reading> readings, String checkpointName, long from, long to) {
+        Map<ReadingShards.Shard, List<Reading>> byShard = new LinkedHashMap<>();
+        for (ReadingShards.Shard shard : shards.all()) {
+            byShard.put(shard, new ArrayList<>());
+        }
+        for (Reading reading : readings) {
+            byShard.get(shards.shardFor(reading.getBuildingId())).add(reading);
+        }
+        List<Reading> inserted = new ArrayList<>();
+        shards.onEach(byShard.keySet(), shard -> shard.transactionTemplate().execute(status -> {
+            JdbcTemplate jdbc = shard.jdbcTemplate();
+            long stored = findCheckpoint(jdbc, checkpointName).orElse(-1L);
+            if (stored >= to) {
+                return List.<Reading>of();
+            }
+            List<Reading> part = byShard.get(shard);
+            List<Reading> written = part;
+            if (stored > from) {
+                written = batchInsertMissing(jdbc, part);
+            } else if (!part.isEmpty()) {
+                batchInsert(jdbc, part);
+            }
+            jdbc.update(UPSERT_CHECKPOINT_SQL, checkpointName, to);
+            return written;
+        })).forEach(inserted::addAll);
+        return inserted;
+    }
+
+    /**
+     * Sharded only: the position up to which every shard holds an import source, or empty if
+     * some shard has not stored any of it yet.
+     */
+    public Optional<Long> findCheckpoint(String checkpointName) {
+        long lowest = Long.MAX_VALUE;
+        for (ReadingShards.Shard shard : shards.all()) {
+            Optional<Long> stored = findCheckpoint(shard.jdbcTemplate(), checkpointName);
+            if (stored.isEmpty()) {
+                return Optional.empty();
+            }
+            lowest = Math.min(lowest, stored.get());
+        }
+        return lowest == Long.MAX_VALUE ? Optional.empty() : Optional.of(lowest);
+    }
+
+    /**
+     * One page of a building's readings, oldest first: the first page for a null cursor,
+     * otherwise the page after the cursor reading. Pages are keyed on (timestamp, id), or
+     * (timestamp, sensor) in the clustered layout, so walking them reads every reading once
+     * in bounded memory, even while others are inserted or deleted.
+     */
+    public List<Reading> findPageByBuildingId(Long buildingId, Reading after, int limit) {
+        String tieBreaker = tableLayout.isClustered() ? "sensor_ref" : "id";
+        StringBuilder sql = new StringBuilder("SELECT " + COLUMNS + " FROM readings WHERE building_id = ?");
+        List<Object> args = new ArrayList<>();
+        args.add(buildingId);
+        if (after != null) {
+            sql.append(" AND (timestamp > ? OR (timestamp = ? AND ").append(tieBreaker).append(" > ?))");
+            Timestamp timestamp = Timestamp.valueOf(after.getTimestamp());
+            args.add(timestamp);
+            args.add(timestamp);
+            args.add(tableLayout.isClustered() ? after.getSensorRef() : after.getId());
+        }
+        sql.append(" ORDER BY timestamp, ").append(tieBreaker).append(" LIMIT ?");
+        args.add(limit);
+        return withSensorIds(jdbcFor(buildingId).query(sql.toString(), this::mapReading, args.toArray()));
+    }
+
+    /**
+     * Delete exactly the given readings of a building, as read by findPageByBuildingId, in
+     * one statement, and return how many were deleted. Readings inserted after they were read
+     * stay. Meant for pages: the list must stay below the driver's bound parameter limit.
+     */
+    public int deleteReadings(Long buildingId, List<Reading> readings) {
+        if (readings.isEmpty()) {
+            return 0;
+        }
+        List<Object> args = new ArrayList<>();
+        args.add(buildingId);
+        String keys;
+        if (tableLayout.isClustered()) {
+            keys = "(timestamp, sensor_ref) IN (VALUES " + String.join(", ", Collections.nCopies(readings.size(), "(?, ?)")) + ")";
+            for (Reading reading : readings) {
+                args.add(Timestamp.valueOf(reading.getTimestamp()));
+                args.add(reading.getSensorRef());
+            }
+        } else {
+            keys = "id IN (" + String.join(", ", Collections.nCopies(readings.size(), "?")) + ")";
+            for (Reading reading : readings) {
+                args.add(reading.getId());
+            }
+        }
+        return jdbcFor(buildingId).update("DELETE FROM readings WHERE building_id = ? AND " + keys, args.toArray());
+    }
+
+    /**
+     * Readings of a building at or after fromTimestamp, newest first.
+     */
+    public List<Reading> findLastReadingsByBuildingId(Long buildingId, LocalDateTime fromTimestamp) {
+        return recorded("last-readings", buildingId, () -> withSensorIds(jdbcFor(buildingId).query(
+                LAST_READINGS_SQL, this::mapReading, buildingId, Timestamp.valueOf(fromTimestamp))));
+    }
+
+    /**
+     * Every reading of a building, newest first.
+     */
+    public List<Reading> findByBuildingId(Long buildingId) {
+        return recorded("building", buildingId,
+                () -> withSensorIds(jdbcFor(buildingId).query(BUILDING_SQL, this::mapReading, buildingId)));
+    }
+
+    /**
+     * Ids of all buildings that have stored readings.
+     */
+    public List<Long> findDistinctBuildingIds() {
+        List<Long> buildingIds = new ArrayList<>();
+        for (JdbcTemplate jdbc : targets()) {
+            buildingIds.addAll(jdbc.queryForList("SELECT DISTINCT building_id FROM readings", Long.class));
+        }
+        return buildingIds;
+    }
+
+    /**
+     * Drop the secondary indexes of the readings table, in every shard, ahead of a bulk load.
+     */
+    public void dropIndexes() {
+        targets().forEach(tableLayout::dropIndexes);
+    }
+
+    /**
+     * Rebuild the indexes dropped by dropIndexes.
+     */
+    public void createIndexes() {
+        targets().forEach(tableLayout::createIndexes);
+    }
+
+    /**
+     * Delete every reading of a building and return how many there were.
+     */
+    public int deleteByBuildingId(Long buildingId) {
+        return jdbcFor(buildingId).update("DELETE FROM readings WHERE building_id = ?", buildingId);
+    }
+
+    /**
+     * Readings of several buildings at or after fromTimestamp, ordered by building and then
+     * newest first. The caller keeps the id list below the driver's bound parameter limit.
+     */
+    public List<Reading> findLastReadingsByBuildingIds(Collection<Long> buildingIds, LocalDateTime fromTimestamp) {
+        if (buildingIds.isEmpty()) {
+            return List.of();
+        }
+        return recorded("last-readings-many", 0L, () -> queryShards(buildingIds, fromTimestamp));
+    }
+
+    private List<Reading> queryShards(Collection<Long> buildingIds, LocalDateTime fromTimestamp) {
+        if (!shards.isEnabled()) {
+            return withSensorIds(queryBuildings(jdbcTemplate, buildingIds, fromTimestamp));
+        }
+
+        Map<ReadingShards.Shard, List<Long>> byShard = new LinkedHashMap<>();
+        for (Long buildingId : buildingIds) {
+            byShard.computeIfAbsent(shards.shardFor(buildingId), shard -> new ArrayList<>()).add(buildingId);
+        }
+        List<Reading> merged = new ArrayList<>();
+        shards.onEach(byShard.keySet(), shard -> queryBuildings(shard.jdbcTemplate(), byShard.get(shard), fromTimestamp))
+                .forEach(merged::addAll);
+        // Each shard's part is already newest first per building; a stable sort keeps that
+        merged.sort(Comparator.comparing(Reading::getBuildingId));
+        return withSensorIds(merged);
+    }
+
+    private List<Reading> queryBuildings(JdbcTemplate jdbc, Collection<Long> buildingIds, LocalDateTime fromTimestamp) {
+        String sql = "SELECT " + COLUMNS + " FROM readings WHERE building_id IN ("
+                + String.join(", ", Collections.nCopies(buildingIds.size(), "?"))
+                + ") AND timestamp >= ? ORDER BY building_id, timestamp DESC";
+        Object[] args = new Object[buildingIds.size() + 1];
+        int i = 0;
+        for (Long buildingId : buildingIds) {
+            args[i++] = buildingId;
+        }
+        args[i] = Timestamp.valueOf(fromTimestamp);
+        return jdbc.query(sql, this::mapReading, args);
+    }
+
+    /**
+     * Flagged readings of a building at or after fromTimestamp, newest first.
+     */
+    public List<Reading> findAnomaliesByBuildingId(Long buildingId, LocalDateTime fromTimestamp) {
+        return recorded("anomalies", buildingId, () -> withSensorIds(jdbcFor(buildingId).query(
+                ANOMALIES_SQL, this::mapReading, buildingId, Timestamp.valueOf(fromTimestamp))));
+    }
+
+    /**
+     * Hand every reading at or after fromTimestamp to the consumer, oldest first, as rows are
+     * read from the cursor; the range is never materialized as a list. Runs in a transaction
+     * so sensor lookups share the connection of the open cursor. Sharded, the shards are read
+     * one after another, so readings are oldest first within each building.
+     */
+    @Transactional
+    public void streamSince(LocalDateTime fromTimestamp, Consumer<Reading> consumer) {
+        for (JdbcTemplate jdbc : targets()) {
+            streamSince(jdbc, fromTimestamp, consumer);
+        }
+    }
+
+    /**
+     * Receives a reading as primitives: compact sensor id, epoch milliseconds and value.
+     */
+    @FunctionalInterface
+    public interface ReadingValueHandler {
+        void accept(int sensorRef, long timestampMillis, double value);
+    }
+
+    /**
+     * Hand the readings of a building in [from, to) to the handler, oldest first, without
+     * building Reading objects. Timestamps are epoch milliseconds in the JVM time zone, like
+     * Timestamp.valueOf(from).getTime().
+     */
+    public void scanValues(Long buildingId, LocalDateTime from, LocalDateTime to, ReadingValueHandler handler) {
+        DecoderEvents.RepositoryQuery event = new DecoderEvents.RepositoryQuery();
+        event.begin();
+        int[] rows = new int[1];
+        jdbcFor(buildingId).query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(
+                    RANGE_VALUES_SQL, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(fetchSize);
+            statement.setLong(1, buildingId);
+            statement.setTimestamp(2, Timestamp.valueOf(from));
+            statement.setTimestamp(3, Timestamp.valueOf(to));
+            return statement;
+        }, (RowCallbackHandler) rs -> {
+            rows[0]++;
+            handler.accept(rs.getInt(1), rs.getTimestamp(2).getTime(), rs.getDouble(3));
+        });
+        commit(event, "range-values", buildingId, rows[0]);
+    }
+
+    private void streamSince(JdbcTemplate jdbc, LocalDateTime fromTimestamp, Consumer<Reading> consumer) {
+        jdbc.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(
+                    SINCE_SQL, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(fetchSize);
+            statement.setTimestamp(1, Timestamp.valueOf(fromTimestamp));
+            return statement;
+        }, (RowCallbackHandler) rs -> {
+            Reading reading = mapReading(rs, rs.getRow());
+            reading.setSensorId(sensorRegistry.getSensorKey(reading.getSensorRef()));
+            consumer.accept(reading);
+        });
+    }
+
+    private static Optional<Long> findCheckpoint(JdbcTemplate jdbc, String checkpointName) {
+        return jdbc.queryForList(CHECKPOINT_SQL, Long.class, checkpointName).stream().findFirst();
+    }
+
+    private void batchInsert(JdbcTemplate jdbc, List<Reading> readings) {
+        boolean clustered = tableLayout.isClustered();
+        int[][] counts = jdbc.batchUpdate(clustered ? INSERT_CLUSTERED_SQL : INSERT_SQL,
+                readings, Math.max(1, batchSize), this::bindInsert);
+        if (clustered) {
+            int dropped = 0;
+            for (int[] batch : counts) {
+                for (int count : batch) {
+                    if (count == 0) {
+                        dropped++;
+                    }
+                }
+            }
+            if (dropped > 0) {
+                logDuplicates(dropped);
+            }
+        }
+    }
+
+    private static void logDuplicates(int dropped) {
+        log.warn("Dropped {} readings for a sensor and instant that already had one stored", dropped);
+    }
+
+    private List<Reading> batchInsertMissing(JdbcTemplate jdbc, List<Reading> readings) {
+        boolean clustered = tableLayout.isClustered();
+        int[][] counts = jdbc.batchUpdate(clustered ? INSERT_CLUSTERED_SQL : INSERT_MISSING_SQL,
+                readings, Math.max(1, batchSize), (statement, reading) -> {
+                    bindInsert(statement, reading);
+                    if (!clustered) {
+                        statement.setLong(6, reading.getBuildingId());
+                        statement.setTimestamp(7, Timestamp.valueOf(reading.getTimestamp()));
+                        statement.setInt(8, reading.getSensorRef());
+                    }
+                });
+        List<Reading> inserted = new ArrayList<>();
+        int index = 0;
+        for (int[] batch : counts) {
+            for (int count : batch) {
+                if (count > 0) {
+                    inserted.add(readings.get(index));
+                }
+                index++;
+            }
+        }
+        return inserted;
+    }
+
+    private JdbcTemplate jdbcFor(Long buildingId) {
+        return shards.isEnabled() ? shards.shardFor(buildingId).jdbcTemplate() : jdbcTemplate;
+    }
+
+    private List<JdbcTemplate> targets() {
+        if (!shards.isEnabled()) {
+            return List.of(jdbcTemplate);
+        }
+        return shards.all().stream().map(ReadingShards.Shard::jdbcTemplate).toList();
+    }
+
+    private List<Reading> recorded(String query, Long buildingId, Supplier<List<Reading>> read) {
+        DecoderEvents.RepositoryQuery event = new DecoderEvents.RepositoryQuery();
+        event.begin();
+        List<Reading> readings = read.get();
+        commit(event, query, buildingId, readings.size());
+        return readings;
+    }
+
+    private static void commit(DecoderEvents.RepositoryQuery event, String query, Long buildingId, int rows) {
+        if (event.shouldCommit()) {
+            event.query = query;
+            event.buildingId = buildingId;
+            event.rows = rows;
+            event.commit();
+        }
+    }
+
+    private void bindInsert(PreparedStatement statement, Reading reading) throws SQLException {
+        statement.setLong(1, reading.getBuildingId());
+        statement.setInt(2, reading.getSensorRef());
+        statement.setTimestamp(3, Timestamp.valueOf(reading.getTimestamp()));
+        statement.setDouble(4, reading.getValue());
+        statement.setInt(5, reading.getAnomalyFlags() != null ? reading.getAnomalyFlags() : 0);
+    }
+
+    private Reading mapReading(ResultSet rs, int rowNum) throws SQLException {
+        Reading reading = new Reading();
+        long id = rs.getLong(1);
+        reading.setId(rs.wasNull() ? null : id);
+        reading.setBuildingId(rs.getLong(2));
+        reading.setSensorRef(rs.getInt(3));
+        reading.setTimestamp(rs.getTimestamp(4).toLocalDateTime());
+        reading.setValue(rs.getDouble(5));
+        reading.setAnomalyFlags(rs.getInt(6));
+        return reading;
+    }
+
+    private List<Reading> withSensorIds(List<Reading> readings) {
+        for (Reading reading : readings) {
+            reading.setSensorId(sensorRegistry.getSensorKey(reading.getSensorRef()));
+        }
+        return readings;
+    }
+
+    private boolean supportsGeneratedKeys(Connection connection) throws SQLException {
+        Boolean supported = generatedKeysSupported;
+        if (supported == null) {
+            supported = connection.getMetaData().supportsGetGeneratedKeys();
+            generatedKeysSupported = supported;
+            log.info("JDBC driver {} generated keys", supported ? "supports" : "does not support");
+        }
+        return supported;
+    }
+}
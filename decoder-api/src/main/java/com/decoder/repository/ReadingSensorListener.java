@@ -0,0 +1,36 @@
+package com.decoder.repository;
+
+import com.decoder.model.Reading;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PrePersist;
+import org.springframework.beans.factory.ObjectProvider;
+
+/**
+ * JPA entity listener that translates between the external sensor key and the
+ * compact sensor id stored on each reading row.
+ * Instantiated by Hibernate through Spring's bean container; the registry is
+ * looked up lazily because listeners are created while the EntityManagerFactory
+ * itself is still being built.
+ */
+public class ReadingSensorListener {
+    
+    private final ObjectProvider<SensorRegistry> sensorRegistry;
+    
+    public ReadingSensorListener(ObjectProvider<SensorRegistry> sensorRegistry) {
+        this.sensorRegistry = sensorRegistry;
+    }
+    
+    @PrePersist
+    public void resolveSensorRef(Reading reading) {
+        if (reading.getSensorRef() == null && reading.getSensorId() != null) {
+            reading.setSensorRef(sensorRegistry.getObject().resolveOrRegister(reading.getSensorId()));
+        }
+    }
+    
+    @PostLoad
+    public void resolveSensorId(Reading reading) {
+        if (reading.getSensorId() == null && reading.getSensorRef() != null) {
+            reading.setSensorId(sensorRegistry.getObject().getSensorKey(reading.getSensorRef()));
+        }
+    }
+}
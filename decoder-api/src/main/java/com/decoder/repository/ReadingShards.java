@@ -0,0 +1,193 @@
+package com.decoder.repository;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.sqlite.SQLiteConfig;
+import org.sqlite.SQLiteDataSource;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+/**
+ * Optional sharded storage for readings. With decoder.storage.shards.count above zero, readings
+ * live in that many SQLite files under decoder.storage.shards.directory instead of the main
+ * database. SQLite serializes writers per database, so each shard has its own connection pool
+ * and writer lock, and writes for buildings on different shards proceed in parallel.
+ * A building always lives in shard floorMod(buildingId, count). The count is part of the data
+ * layout: each file records it, and opening the files with a different count fails.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ReadingShards {
+
+    private final ReadingTableLayout tableLayout;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${decoder.storage.shards.count:0}")
+    private int count;
+
+    @Value("${decoder.storage.shards.directory:data/shards}")
+    private String directory;
+
+    @Value("${decoder.storage.shards.pool-size:2}")
+    private int poolSize;
+
+    @Value("${decoder.storage.shards.busy-timeout-ms:5000}")
+    private int busyTimeoutMs;
+
+    @Value("${decoder.datasource.limiter.enabled:${spring.threads.virtual.enabled:false}}")
+    private boolean limited;
+
+    @Value("${decoder.datasource.limiter.acquire-timeout-ms:30000}")
+    private long acquireTimeoutMs;
+
+    private List<Shard> shards = List.of();
+    private ExecutorService executor;
+
+    /**
+     * One shard database: its pool, a JdbcTemplate on it and transactions local to it.
+     */
+    public record Shard(int index, HikariDataSource dataSource, JdbcTemplate jdbcTemplate,
+                        TransactionTemplate transactionTemplate) {
+    }
+
+    @PostConstruct
+    public void start() {
+        if (count <= 0) {
+            return;
+        }
+        try {
+            Files.createDirectories(Path.of(directory));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create shard directory " + directory, e);
+        }
+
+        List<Shard> opened = new ArrayList<>(count);
+        for (int index = 0; index < count; index++) {
+            opened.add(open(index));
+        }
+        shards = List.copyOf(opened);
+        executor = Executors.newFixedThreadPool(count,
+                Thread.ofPlatform().name("reading-shard-", 0).daemon(true).factory());
+        log.info("Readings sharded across {} databases in {}", count, directory);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+        shards.forEach(shard -> shard.dataSource().close());
+    }
+
+    public boolean isEnabled() {
+        return !shards.isEmpty();
+    }
+
+    public Shard shardFor(Long buildingId) {
+        return shards.get(Math.floorMod(buildingId, shards.size()));
+    }
+
+    public List<Shard> all() {
+        return shards;
+    }
+
+    /**
+     * Run the task on each of the given shards in parallel and return the results in the
+     * order of the shards. A failure on any shard is rethrown once all tasks have finished.
+     */
+    public <T> List<T> onEach(Collection<Shard> targets, Function<Shard, T> task) {
+        if (targets.size() == 1) {
+            return List.of(task.apply(targets.iterator().next()));
+        }
+
+        List<Future<T>> futures = new ArrayList<>(targets.size());
+        for (Shard shard : targets) {
+            futures.add(executor.submit(() -> task.apply(shard)));
+        }
+        List<T> results = new ArrayList<>(targets.size());
+        RuntimeException failure = null;
+        for (Future<T> future : futures) {
+            try {
+                results.add(future.get());
+            } catch (ExecutionException e) {
+                if (failure == null) {
+                    failure = e.getCause() instanceof RuntimeException runtime
+                            ? runtime : new IllegalStateException(e.getCause());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for reading shards", e);
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+        return results;
+    }
+
+    private Shard open(int index) {
+        SQLiteConfig sqlite = new SQLiteConfig();
+        // WAL lets reads proceed while the shard's writer holds the lock
+        sqlite.setJournalMode(SQLiteConfig.JournalMode.WAL);
+        sqlite.setSynchronous(SQLiteConfig.SynchronousMode.NORMAL);
+        sqlite.setBusyTimeout(busyTimeoutMs);
+        SQLiteDataSource sqliteDataSource = new SQLiteDataSource(sqlite);
+        sqliteDataSource.setUrl("jdbc:sqlite:" + Path.of(directory, "readings-" + index + ".db"));
+
+        HikariConfig config = new HikariConfig();
+        config.setDataSource(sqliteDataSource);
+        config.setPoolName("reading-shard-" + index);
+        config.setMaximumPoolSize(Math.max(1, poolSize));
+        HikariDataSource dataSource = new HikariDataSource(config);
+        DataSource access = dataSource;
+        if (limited) {
+            LimitedDataSource limiter = new LimitedDataSource(config.getPoolName(), dataSource,
+                    config.getMaximumPoolSize(), acquireTimeoutMs);
+            limiter.bindTo(meterRegistry);
+            access = limiter;
+        }
+
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(access);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(access);
+        tableLayout.ensureLayout(jdbcTemplate, transactionManager);
+        checkShardCount(jdbcTemplate, index);
+        // Checkpoints of imports into this shard, committed with the readings they cover
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS log_checkpoints "
+                + "(name varchar(255) not null primary key, applied_sequence bigint not null)");
+        return new Shard(index, dataSource, jdbcTemplate, new TransactionTemplate(transactionManager));
+    }
+
+    private void checkShardCount(JdbcTemplate jdbcTemplate, int index) {
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS shard_info (shard integer not null, shard_count integer not null)");
+        List<Integer> recorded = jdbcTemplate.queryForList("SELECT shard_count FROM shard_info", Integer.class);
+        if (recorded.isEmpty()) {
+            jdbcTemplate.update("INSERT INTO shard_info (shard, shard_count) VALUES (?, ?)", index, count);
+        } else if (recorded.get(0) != count) {
+            throw new IllegalStateException("Reading shard " + index + " in " + directory + " belongs to "
+                    + recorded.get(0) + " shards, but decoder.storage.shards.count is " + count);
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.decoder.repository;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Physical layout of the readings table, selected with decoder.storage.readings-layout.
+ * rowid (default) stores rows in insertion order under the IDENTITY id, so a building range
+ * scan is an index lookup plus a random row fetch per reading. clustered stores the table
+ * WITHOUT ROWID keyed on (building_id, timestamp, sensor_ref), so the readings of a building
+ * are contiguous and in time order. The DDL of each layout, including its indexes, is in
+ * db/readings-{layout}.sql and is applied on every start; it is idempotent.
+ * Runs after Hibernate schema tooling and converts a table found in the other layout in place;
+ * scripts/migrate_schema.py does the same conversion offline for large databases.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+@RequiredArgsConstructor
+@Slf4j
+public class ReadingTableLayout {
+
+    public static final String ROWID = "rowid";
+    public static final String CLUSTERED = "clustered";
+
+    private static final String COLUMNS = "id, building_id, sensor_ref, timestamp, value, anomaly_flags";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${decoder.storage.readings-layout:rowid}")
+    private String layout;
+
+    @PostConstruct
+    public void ensureLayout() {
+        if (!ROWID.equals(layout) && !CLUSTERED.equals(layout)) {
+            throw new IllegalStateException("Unknown decoder.storage.readings-layout: " + layout);
+        }
+        ensureLayout(jdbcTemplate, transactionManager);
+    }
+
+    /**
+     * Bring the readings table of another database (a reading shard) to the configured layout.
+     */
+    public void ensureLayout(JdbcTemplate jdbc, PlatformTransactionManager transactions) {
+        String current = currentLayout(jdbc);
+        if (current == null || current.equals(layout)) {
+            new TransactionTemplate(transactions).executeWithoutResult(status -> runScript(jdbc, layout));
+        } else {
+            convert(jdbc, transactions, current);
+        }
+    }
+
+    public boolean isClustered() {
+        return CLUSTERED.equals(layout);
+    }
+
+    /**
+     * Drop the secondary indexes of a readings table. The clustered layout's primary key is
+     * the table itself and stays.
+     */
+    public void dropIndexes(JdbcTemplate jdbc) {
+        for (String index : jdbc.queryForList("SELECT name FROM sqlite_master "
+                + "WHERE type = 'index' AND tbl_name = 'readings' AND sql IS NOT NULL", String.class)) {
+            jdbc.execute("DROP INDEX " + index);
+        }
+    }
+
+    /**
+     * Recreate the indexes of the configured layout after dropIndexes.
+     */
+    public void createIndexes(JdbcTemplate jdbc) {
+        runScript(jdbc, layout);
+    }
+
+    /**
+     * Layout of the existing readings table, or null if there is none.
+     */
+    String currentLayout() {
+        return currentLayout(jdbcTemplate);
+    }
+
+    private static String currentLayout(JdbcTemplate jdbc) {
+        List<String> ddl = jdbc.queryForList(
+                "SELECT sql FROM sqlite_master WHERE type = 'table' AND name = 'readings'", String.class);
+        if (ddl.isEmpty()) {
+            return null;
+        }
+        return ddl.get(0).toUpperCase(Locale.ROOT).replaceAll("\\s+", " ").contains("WITHOUT ROWID")
+                ? CLUSTERED : ROWID;
+    }
+
+    /**
+     * Rebuild the table in the configured layout in one transaction. Rows are copied in time
+     * order; converting to clustered keeps the first of several readings a sensor has for the
+     * same instant, as inserting them into a clustered table would.
+     */
+    private void convert(JdbcTemplate jdbc, PlatformTransactionManager transactions, String current) {
+        long started = System.nanoTime();
+        Integer copied = new TransactionTemplate(transactions).execute(status -> {
+            // Index names are global, so the old table's indexes must go before the new ones are created
+            dropIndexes(jdbc);
+            jdbc.execute("ALTER TABLE readings RENAME TO readings_" + current);
+            runScript(jdbc, layout);
+            int rows = jdbc.update("INSERT OR IGNORE INTO readings (" + COLUMNS + ") SELECT " + COLUMNS
+                    + " FROM readings_" + current + " ORDER BY timestamp, id");
+            jdbc.execute("DROP TABLE readings_" + current);
+            return rows;
+        });
+        log.info("Converted readings table from {} to {} layout: {} rows in {} ms",
+                current, layout, copied, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+    }
+
+    private static void runScript(JdbcTemplate jdbc, String targetLayout) {
+        jdbc.execute((ConnectionCallback<Void>) connection -> {
+            ScriptUtils.executeSqlScript(connection, new ClassPathResource("db/readings-" + targetLayout + ".sql"));
+            return null;
+        });
+    }
+}
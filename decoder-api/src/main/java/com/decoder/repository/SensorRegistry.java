@@ -0,0 +1,122 @@
+package com.decoder.repository;
+
+import com.decoder.model.Sensor;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Sensor dictionary mapping external sensor keys to compact integer ids.
+ * Lookups are served from an in-process concurrent cache; unknown keys are
+ * registered in the sensors table on first ingest.
+ */
+@Repository
+@RequiredArgsConstructor
+@Slf4j
+public class SensorRegistry {
+
+    private final SensorRepository sensorRepository;
+    private final PlatformTransactionManager transactionManager;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final ConcurrentMap<String, Integer> idsByKey = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Integer, String> keysById = new ConcurrentHashMap<>();
+
+    /**
+     * Load all known sensors into the cache once the schema is available.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmCache() {
+        for (Sensor sensor : sensorRepository.findAll()) {
+            cache(sensor.getId(), sensor.getSensorKey());
+        }
+        log.info("Sensor registry loaded {} sensors", idsByKey.size());
+    }
+
+    /**
+     * Get the compact id for a sensor key, registering the sensor if it is new.
+     * Inside the ingest transaction the registration commits (or rolls back) together with
+     * the reading that introduced it; sharded ingest has no transaction on the main database,
+     * so there the sensor is registered in a transaction of its own.
+     */
+    public Integer resolveOrRegister(String sensorKey) {
+        Integer id = idsByKey.get(sensorKey);
+        if (id != null) {
+            return id;
+        }
+
+        Integer existing = sensorRepository.findBySensorKey(sensorKey)
+                .map(Sensor::getId)
+                .orElse(null);
+        if (existing != null) {
+            cache(existing, sensorKey);
+            return existing;
+        }
+
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            return new TransactionTemplate(transactionManager).execute(status -> register(sensorKey));
+        }
+        return register(sensorKey);
+    }
+
+    private Integer register(String sensorKey) {
+        // Use native SQL to avoid getGeneratedKeys() issue with SQLite; OR IGNORE because a
+        // concurrent sharded ingest may have registered the same key since the lookup above
+        entityManager.createNativeQuery("INSERT OR IGNORE INTO sensors (sensor_key) VALUES (?)")
+                .setParameter(1, sensorKey)
+                .executeUpdate();
+        Integer registeredId = ((Number) entityManager
+                .createNativeQuery("SELECT id FROM sensors WHERE sensor_key = ?")
+                .setParameter(1, sensorKey)
+                .getSingleResult()).intValue();
+        log.info("Registered sensor {} with id {}", sensorKey, registeredId);
+
+        // Only publish the id to other threads once the registration is durable
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cache(registeredId, sensorKey);
+                }
+            });
+        } else {
+            cache(registeredId, sensorKey);
+        }
+        return registeredId;
+    }
+
+    /**
+     * Get the external sensor key for a compact id.
+     */
+    public String getSensorKey(Integer sensorRef) {
+        String key = keysById.get(sensorRef);
+        if (key != null) {
+            return key;
+        }
+
+        return sensorRepository.findById(sensorRef)
+                .map(sensor -> {
+                    cache(sensor.getId(), sensor.getSensorKey());
+                    return sensor.getSensorKey();
+                })
+                .orElse(null);
+    }
+
+    private void cache(Integer id, String sensorKey) {
+        idsByKey.put(sensorKey, id);
+        keysById.put(id, sensorKey);
+    }
+}
@@ -0,0 +1,12 @@
+package com.decoder.repository;
+
+import com.decoder.model.Sensor;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface SensorRepository extends JpaRepository<Sensor, Integer> {
+    Optional<Sensor> findBySensorKey(String sensorKey);
+}
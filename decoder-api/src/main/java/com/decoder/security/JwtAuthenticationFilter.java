@@ -1,27 +1,38 @@
 package com.decoder.security;
 
+import com.decoder.config.DataLoader;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.concurrent.TimeUnit;
 
 /**
  * JWT authentication filter that extracts username from JWT token or Authorization header.
  * For this minimal implementation, we use a simple mock JWT format:
  * "Bearer username:role"
+ * While seed data is still loading in the background, authenticated requests wait for it
+ * for up to decoder.seed.auth-wait-ms, then get 503 with Retry-After.
  */
 @Component
 @RequiredArgsConstructor
 @Slf4j
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
     
+    private final DataLoader dataLoader;
+    
+    @Value("${decoder.seed.auth-wait-ms:10000}")
+    private long seedWaitMs;
+    
     @Override
     protected void doFilterInternal(HttpServletRequest request, 
                                    HttpServletResponse response, 
@@ -29,6 +40,13 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         String authHeader = request.getHeader("Authorization");
         
         if (authHeader != null && authHeader.startsWith("Bearer ")) {
+            if (!awaitSeedData()) {
+                log.warn("Seed data still loading, rejecting authenticated request to {}", request.getRequestURI());
+                response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+                response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE, "Starting up");
+                return;
+            }
+            
             String token = authHeader.substring(7);
             
             // Mock JWT: simple format "username:role"
@@ -48,4 +66,13 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         
         filterChain.doFilter(request, response);
     }
+    
+    private boolean awaitSeedData() {
+        try {
+            return dataLoader.awaitLoaded(seedWaitMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
 }
@@ -0,0 +1,222 @@
+package com.decoder.service;
+
+import com.decoder.model.Reading;
+import com.decoder.model.dto.WindowAggregate;
+import com.decoder.repository.ReadingJdbcRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Window aggregates (count, min, max, mean, p50/p95/p99) per building and sensor.
+ * Every committed reading is added to a QuantileSketch for its time bucket at three
+ * resolutions: bucket-minutes, hour and day. A window is answered by merging the coarsest
+ * buckets that fit inside it plus finer buckets at its edges, so even a week-long window
+ * merges a few dozen sketches per sensor and never touches raw readings.
+ * Windows are aligned outwards to bucket-minutes; buckets older than retention-hours
+ * (by event time, but never ahead of the wall clock) are dropped.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AggregationService implements ReadingListener {
+
+    private static final int[] ROLLUP_MINUTES = {60, 1440};
+
+    @Value("${decoder.aggregation.bucket-minutes:5}")
+    private int bucketMinutes;
+
+    @Value("${decoder.aggregation.retention-hours:168}")
+    private int retentionHours;
+
+    @Value("${decoder.aggregation.relative-accuracy:0.01}")
+    private double relativeAccuracy;
+
+    @Value("${decoder.aggregation.max-bins:2048}")
+    private int maxBins;
+
+    private final ReadingJdbcRepository readingJdbcRepository;
+
+    private final ConcurrentMap<Long, BuildingSketches> buildings = new ConcurrentHashMap<>();
+    private int[] levelMinutes;
+
+    /**
+     * Rebuild the sketches of the retention window from storage.
+     */
+    @PostConstruct
+    public void start() {
+        List<Integer> levels = new ArrayList<>(List.of(bucketMinutes));
+        for (int rollup : ROLLUP_MINUTES) {
+            int finest = levels.get(levels.size() - 1);
+            if (rollup > finest && rollup % finest == 0) {
+                levels.add(rollup);
+            }
+        }
+        levelMinutes = levels.stream().mapToInt(Integer::intValue).toArray();
+
+        LocalDateTime from = retainedSince();
+        try {
+            AtomicLong rebuilt = new AtomicLong();
+            readingJdbcRepository.streamSince(from, reading -> {
+                onReading(reading);
+                rebuilt.incrementAndGet();
+            });
+            log.info("Aggregation sketches rebuilt from {} stored readings", rebuilt.get());
+        } catch (DataAccessException e) {
+            // Aggregates then cover only readings ingested from now on
+            log.error("Could not rebuild aggregation sketches from storage: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public void onReading(Reading reading) {
+        if (reading.getValue() == null) {
+            return;
+        }
+        buildings.computeIfAbsent(reading.getBuildingId(), id -> new BuildingSketches())
+                .add(reading.getSensorId(), epochMinute(reading.getTimestamp()), reading.getValue());
+    }
+
+    /**
+     * Start of the retention window; sketches only hold readings from here on.
+     */
+    public LocalDateTime retainedSince() {
+        return LocalDateTime.now().minusHours(retentionHours);
+    }
+
+    public void dropBuilding(Long buildingId) {
+        buildings.remove(buildingId);
+    }
+
+    /**
+     * Aggregate the readings of a building in [from, to), for one sensor or, if sensorId is
+     * null, for all of its sensors.
+     */
+    public WindowAggregate aggregate(Long buildingId, String sensorId, LocalDateTime from, LocalDateTime to) {
+        long fromMinute = Math.floorDiv(epochMinute(from), bucketMinutes) * bucketMinutes;
+        long toMinute = Math.ceilDiv(Math.ceilDiv(to.toEpochSecond(ZoneOffset.UTC), 60), bucketMinutes) * bucketMinutes;
+
+        QuantileSketch merged = newSketch();
+        BuildingSketches sketches = buildings.get(buildingId);
+        if (sketches != null) {
+            sketches.mergeInto(merged, sensorId, fromMinute, toMinute);
+        }
+
+        boolean empty = merged.getCount() == 0;
+        return new WindowAggregate(
+                buildingId,
+                sensorId,
+                toDateTime(fromMinute),
+                toDateTime(toMinute),
+                merged.getCount(),
+                empty ? null : merged.getMin(),
+                empty ? null : merged.getMax(),
+                empty ? null : merged.getSum() / merged.getCount(),
+                empty ? null : merged.quantile(0.50),
+                empty ? null : merged.quantile(0.95),
+                empty ? null : merged.quantile(0.99),
+                relativeAccuracy
+        );
+    }
+
+    private QuantileSketch newSketch() {
+        return new QuantileSketch(relativeAccuracy, maxBins);
+    }
+
+    private static long epochMinute(LocalDateTime timestamp) {
+        return Math.floorDiv(timestamp.toEpochSecond(ZoneOffset.UTC), 60);
+    }
+
+    private static LocalDateTime toDateTime(long epochMinute) {
+        return LocalDateTime.ofEpochSecond(epochMinute * 60, 0, ZoneOffset.UTC);
+    }
+
+    /**
+     * Sketches of one building, per sensor and level. Guarded by its own monitor.
+     */
+    private final class BuildingSketches {
+        private final Map<String, List<NavigableMap<Long, QuantileSketch>>> bySensor = new HashMap<>();
+        private long newestBucket = Long.MIN_VALUE;
+
+        synchronized void add(String sensorId, long minute, double value) {
+            List<NavigableMap<Long, QuantileSketch>> levels = bySensor.computeIfAbsent(sensorId, id -> {
+                List<NavigableMap<Long, QuantileSketch>> created = new ArrayList<>(levelMinutes.length);
+                for (int i = 0; i < levelMinutes.length; i++) {
+                    created.add(new TreeMap<>());
+                }
+                return created;
+            });
+            for (int level = 0; level < levelMinutes.length; level++) {
+                long bucket = Math.floorDiv(minute, levelMinutes[level]) * levelMinutes[level];
+                levels.get(level).computeIfAbsent(bucket, b -> newSketch()).add(value);
+            }
+
+            // Evict once per new newest bucket rather than on every reading. A reading stamped in
+            // the future must not push the cutoff past the real history, so the clock caps it
+            long bucket = Math.floorDiv(Math.min(minute, epochMinute(LocalDateTime.now())), bucketMinutes) * bucketMinutes;
+            if (bucket > newestBucket) {
+                newestBucket = bucket;
+                evictBefore(bucket - retentionHours * 60L);
+            }
+        }
+
+        synchronized void mergeInto(QuantileSketch into, String sensorId, long fromMinute, long toMinute) {
+            if (sensorId != null) {
+                List<NavigableMap<Long, QuantileSketch>> levels = bySensor.get(sensorId);
+                if (levels != null) {
+                    cover(levels, levelMinutes.length - 1, fromMinute, toMinute, into);
+                }
+                return;
+            }
+            for (List<NavigableMap<Long, QuantileSketch>> levels : bySensor.values()) {
+                cover(levels, levelMinutes.length - 1, fromMinute, toMinute, into);
+            }
+        }
+
+        // Whole buckets of this level inside [from, to), the remainder from finer levels
+        private void cover(List<NavigableMap<Long, QuantileSketch>> levels, int level,
+                           long fromMinute, long toMinute, QuantileSketch into) {
+            if (fromMinute >= toMinute) {
+                return;
+            }
+            if (level == 0) {
+                levels.get(0).subMap(fromMinute, true, toMinute, false).values().forEach(into::merge);
+                return;
+            }
+            int size = levelMinutes[level];
+            long first = Math.ceilDiv(fromMinute, size) * size;
+            long last = Math.floorDiv(toMinute, size) * size;
+            if (first >= last) {
+                cover(levels, level - 1, fromMinute, toMinute, into);
+                return;
+            }
+            cover(levels, level - 1, fromMinute, first, into);
+            levels.get(level).subMap(first, true, last, false).values().forEach(into::merge);
+            cover(levels, level - 1, last, toMinute, into);
+        }
+
+        private void evictBefore(long cutoffMinute) {
+            for (List<NavigableMap<Long, QuantileSketch>> levels : bySensor.values()) {
+                for (int level = 0; level < levelMinutes.length; level++) {
+                    long bucket = Math.floorDiv(cutoffMinute, levelMinutes[level]) * levelMinutes[level];
+                    levels.get(level).headMap(bucket, false).clear();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package com.decoder.service;
+
+import com.decoder.config.AlertingProperties;
+import com.decoder.model.Reading;
+import com.decoder.model.dto.Alert;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Continuous threshold alerting evaluated inline on ingest.
+ * Each building has a threshold with a hysteresis band and a sustained-duration rule, applied
+ * to each of its sensors on its own: an alert is raised once a sensor's readings have stayed
+ * above the threshold for the sustain period,
+ * and cleared once a reading drops below the clear threshold. A clear threshold at or above
+ * the threshold would raise and clear alternately, so such rules fail at startup.
+ * Evaluation is O(1) per reading and allocates nothing unless an alert is emitted.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AlertEngine implements ReadingListener {
+
+    private final AlertingProperties alertingProperties;
+    private final List<AlertSink> alertSinks;
+
+    // Per building, then per sensor, so normal readings of one sensor never reset another's timer
+    private final ConcurrentMap<Long, ConcurrentMap<String, SensorAlertState>> states = new ConcurrentHashMap<>();
+
+    /**
+     * Check the default rule and every building override before the first reading arrives.
+     *
+     * @throws IllegalStateException if a clear threshold is not below its threshold
+     */
+    @PostConstruct
+    public void validateRules() {
+        createRule(null);
+        alertingProperties.getBuildings().keySet().forEach(this::createRule);
+    }
+
+    @Override
+    public void onReading(Reading reading) {
+        if (!alertingProperties.isEnabled() || reading.getValue() == null) {
+            return;
+        }
+
+        ConcurrentMap<String, SensorAlertState> sensors = states.get(reading.getBuildingId());
+        if (sensors == null) {
+            sensors = states.computeIfAbsent(reading.getBuildingId(), id -> new ConcurrentHashMap<>());
+        }
+        SensorAlertState state = sensors.get(reading.getSensorId());
+        if (state == null) {
+            state = createState(sensors, reading.getBuildingId(), reading.getSensorId());
+        }
+
+        Alert.Type transition = state.evaluate(
+                reading.getValue(), reading.getTimestamp().toEpochSecond(ZoneOffset.UTC) * 1000L);
+        if (transition != null) {
+            emit(reading, state, transition);
+        }
+    }
+
+    /**
+     * Whether an alert is currently active for any sensor of the building.
+     */
+    public boolean isActive(Long buildingId) {
+        ConcurrentMap<String, SensorAlertState> sensors = states.get(buildingId);
+        return sensors != null && sensors.values().stream().anyMatch(SensorAlertState::isActive);
+    }
+
+    private SensorAlertState createState(ConcurrentMap<String, SensorAlertState> sensors, Long buildingId, String sensorId) {
+        SensorAlertState created = createRule(buildingId);
+        SensorAlertState existing = sensors.putIfAbsent(sensorId, created);
+        return existing != null ? existing : created;
+    }
+
+    // A building's own clear threshold, else the default one unless the building has its own
+    // threshold, else the threshold minus the hysteresis band
+    private SensorAlertState createRule(Long buildingId) {
+        AlertingProperties.BuildingRule rule = buildingId != null ? alertingProperties.getBuildings().get(buildingId) : null;
+        double threshold = alertingProperties.getThreshold();
+        Double clearThreshold = alertingProperties.getClearThreshold();
+        long sustainSeconds = alertingProperties.getSustainSeconds();
+        if (rule != null) {
+            if (rule.getThreshold() != null) {
+                threshold = rule.getThreshold();
+                clearThreshold = null;
+            }
+            clearThreshold = rule.getClearThreshold() != null ? rule.getClearThreshold() : clearThreshold;
+            sustainSeconds = rule.getSustainSeconds() != null ? rule.getSustainSeconds() : sustainSeconds;
+        }
+        if (clearThreshold == null) {
+            clearThreshold = threshold - alertingProperties.getHysteresis();
+        }
+        if (clearThreshold >= threshold) {
+            throw new IllegalStateException("Alert clear threshold " + clearThreshold + " must be below threshold "
+                    + threshold + (buildingId != null ? " for building " + buildingId : ""));
+        }
+        return new SensorAlertState(threshold, clearThreshold, sustainSeconds * 1000L);
+    }
+
+    private void emit(Reading reading, SensorAlertState state, Alert.Type type) {
+        Alert alert = new Alert(
+                reading.getBuildingId(),
+                reading.getSensorId(),
+                type,
+                reading.getValue(),
+                type == Alert.Type.RAISED ? state.threshold : state.clearThreshold,
+                reading.getTimestamp()
+        );
+        for (AlertSink sink : alertSinks) {
+            try {
+                sink.publish(alert);
+            } catch (RuntimeException e) {
+                log.error("Alert sink {} failed: {}", sink.getClass().getSimpleName(), e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Primitive rule state for one sensor of a building. Guarded by its own monitor.
+     */
+    static final class SensorAlertState {
+        private final double threshold;
+        private final double clearThreshold;
+        private final long sustainMillis;
+        private boolean active;
+        private long aboveSinceMillis = -1;
+
+        SensorAlertState(double threshold, double clearThreshold, long sustainMillis) {
+            this.threshold = threshold;
+            this.clearThreshold = clearThreshold;
+            this.sustainMillis = sustainMillis;
+        }
+
+        synchronized boolean isActive() {
+            return active;
+        }
+
+        /**
+         * Apply one reading; returns the transition it caused, or null.
+         */
+        synchronized Alert.Type evaluate(double value, long timestampMillis) {
+            if (active) {
+                if (value < clearThreshold) {
+                    active = false;
+                    aboveSinceMillis = -1;
+                    return Alert.Type.CLEARED;
+                }
+                return null;
+            }
+
+            if (value <= threshold) {
+                aboveSinceMillis = -1;
+                return null;
+            }
+            if (aboveSinceMillis < 0) {
+                aboveSinceMillis = timestampMillis;
+            }
+            if (timestampMillis - aboveSinceMillis >= sustainMillis) {
+                active = true;
+                return Alert.Type.RAISED;
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.decoder.service;
+
+import com.decoder.model.dto.Alert;
+
+/**
+ * Destination for alerts raised by the AlertEngine.
+ * Any bean implementing this interface receives every alert.
+ */
+public interface AlertSink {
+    
+    void publish(Alert alert);
+}
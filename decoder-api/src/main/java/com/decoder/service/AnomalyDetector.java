@@ -0,0 +1,115 @@
+package com.decoder.service;
+
+import com.decoder.model.Anomaly;
+import com.decoder.model.Reading;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.ZoneOffset;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Streaming per-sensor anomaly detection evaluated on ingest.
+ * Each sensor keeps a few primitives: Welford running mean/variance, an EWMA of the level,
+ * the last value and when it last changed, and when the sensor was last seen. From those a
+ * reading is flagged as a SPIKE (far from the EWMA in standard deviations), FLATLINE (value
+ * stuck for too long) or GAP (sensor silent for too long before it).
+ * Evaluation is O(1) per reading and allocates nothing once a sensor is known.
+ */
+@Service
+public class AnomalyDetector {
+    
+    @Value("${decoder.anomaly.enabled:true}")
+    private boolean enabled;
+    
+    @Value("${decoder.anomaly.z-threshold:4.0}")
+    private double zThreshold;
+    
+    @Value("${decoder.anomaly.min-samples:30}")
+    private long minSamples;
+    
+    @Value("${decoder.anomaly.ewma-alpha:0.1}")
+    private double ewmaAlpha;
+    
+    @Value("${decoder.anomaly.flatline-seconds:600}")
+    private long flatlineSeconds;
+    
+    @Value("${decoder.anomaly.gap-seconds:300}")
+    private long gapSeconds;
+    
+    private final ConcurrentMap<String, SensorStats> stats = new ConcurrentHashMap<>();
+    
+    /**
+     * Update the sensor's statistics with a reading and return its Anomaly bitmask.
+     */
+    public int evaluate(Reading reading) {
+        if (!enabled || reading.getValue() == null) {
+            return 0;
+        }
+        
+        SensorStats sensor = stats.get(reading.getSensorId());
+        if (sensor == null) {
+            sensor = stats.computeIfAbsent(reading.getSensorId(), id -> new SensorStats());
+        }
+        return sensor.update(reading.getValue(), reading.getTimestamp().toEpochSecond(ZoneOffset.UTC) * 1000L,
+                zThreshold, minSamples, ewmaAlpha, flatlineSeconds * 1000L, gapSeconds * 1000L);
+    }
+    
+    /**
+     * Primitive online statistics for one sensor. Guarded by its own monitor.
+     */
+    static final class SensorStats {
+        private long count;
+        private double mean;
+        private double m2;
+        private double ewma;
+        private double lastValue;
+        private long lastChangeMillis;
+        private long lastSeenMillis;
+        
+        synchronized int update(double value, long timestampMillis, double zThreshold, long minSamples,
+                                double alpha, long flatlineMillis, long gapMillis) {
+            if (count == 0) {
+                count = 1;
+                mean = value;
+                ewma = value;
+                lastValue = value;
+                lastChangeMillis = timestampMillis;
+                lastSeenMillis = timestampMillis;
+                return 0;
+            }
+            
+            int flags = 0;
+            
+            // Score against the state before this reading so a spike cannot mask itself
+            if (count >= minSamples) {
+                double variance = m2 / (count - 1);
+                if (variance > 0 && Math.abs(value - ewma) > zThreshold * Math.sqrt(variance)) {
+                    flags |= Anomaly.SPIKE.getBit();
+                }
+            }
+            
+            // Time-based rules only make sense for readings that move forward in time
+            if (timestampMillis >= lastSeenMillis) {
+                if (timestampMillis - lastSeenMillis > gapMillis) {
+                    flags |= Anomaly.GAP.getBit();
+                }
+                if (value != lastValue) {
+                    lastValue = value;
+                    lastChangeMillis = timestampMillis;
+                } else if (timestampMillis - lastChangeMillis >= flatlineMillis) {
+                    flags |= Anomaly.FLATLINE.getBit();
+                }
+                lastSeenMillis = timestampMillis;
+            }
+            
+            count++;
+            double delta = value - mean;
+            mean += delta / count;
+            m2 += delta * (value - mean);
+            ewma += alpha * (value - ewma);
+            return flags;
+        }
+    }
+}
@@ -0,0 +1,537 @@
+package com.decoder.service;
+
+import com.decoder.events.DecoderEvents;
+import com.decoder.model.LogCheckpoint;
+import com.decoder.model.Reading;
+import com.decoder.model.dto.BackfillStatus;
+import com.decoder.model.dto.BackfillStatus.State;
+import com.decoder.repository.LogCheckpointRepository;
+import com.decoder.repository.ReadingJdbcRepository;
+import com.decoder.repository.SensorRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bulk import of historical readings from CSV files in decoder.backfill.directory, one
+ * buildingId,sensorId,timestamp,value row per line, for onboarding buildings with years of
+ * history. The file is split into chunks of chunk-bytes that are memory-mapped and parsed in
+ * parallel; a chunk owns the lines that start inside it. Valid rows are written batch-rows at
+ * a time, and each batch commits together with its chunk's checkpoint (the offset of the next
+ * line), so importing the same file again after an interruption resumes after the last
+ * committed batch of every chunk, and importing a completed file again does nothing. Sharded,
+ * every shard commits the checkpoint together with its part of the batch. Checkpoints are
+ * keyed on the file name and chunk, so rows appended to a file are imported by importing it
+ * again. Lines beyond 4096 bytes are rejected like any other invalid row.
+ * Secondary reading indexes are dropped for the load and rebuilt once it ends.
+ * Rows bypass ReadingWriter, since alerts and live streams are about new readings only. Rows
+ * inside the aggregation retention and the read-model window are fed to those projections,
+ * and forecasts are recomputed at the end. Rows are stored without anomaly flags: the
+ * streaming detector needs readings in arrival order.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BackfillImporter {
+
+    static final String CHECKPOINT_PREFIX = "backfill:";
+
+    private static final int MAX_LINE_BYTES = 4096;
+    private static final int MAX_SENSOR_KEY_LENGTH = 255;
+    private static final int MAX_ERROR_SAMPLES = 20;
+    private static final long PROGRESS_LOG_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+    private final ReadingJdbcRepository readingJdbcRepository;
+    private final SensorRegistry sensorRegistry;
+    private final LogCheckpointRepository checkpointRepository;
+    private final AggregationService aggregationService;
+    private final ReadingProjector readingProjector;
+    private final BuildingReadModel readModel;
+    private final ForecastPrecomputer forecastPrecomputer;
+    private final ClusterService clusterService;
+    private final IngestWatermarks ingestWatermarks;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${decoder.backfill.directory:data/backfill}")
+    private String directory;
+
+    @Value("${decoder.backfill.threads:4}")
+    private int threads;
+
+    @Value("${decoder.backfill.chunk-bytes:67108864}")
+    private int chunkBytes;
+
+    @Value("${decoder.backfill.batch-rows:10000}")
+    private int batchRows;
+
+    @Value("${decoder.backfill.rebuild-indexes:true}")
+    private boolean rebuildIndexes;
+
+    // Guards starting a job; a lock rather than synchronized so a request on a virtual
+    // thread does not pin its carrier while importNow holds it for a whole import
+    private final ReentrantLock jobLock = new ReentrantLock();
+    private volatile Job job;
+
+    /**
+     * Start importing a file from the backfill directory in the background.
+     *
+     * @throws IllegalArgumentException if there is no such file
+     * @throws IllegalStateException    if an import is already running
+     */
+    public BackfillStatus start(String fileName) {
+        jobLock.lock();
+        try {
+            Job started = newJob(fileName);
+            Thread.ofPlatform().name("backfill").daemon(true).start(() -> execute(started));
+            return started.status();
+        } finally {
+            jobLock.unlock();
+        }
+    }
+
+    /**
+     * Import a file from the backfill directory on the calling thread.
+     */
+    BackfillStatus importNow(String fileName) {
+        jobLock.lock();
+        try {
+            Job started = newJob(fileName);
+            execute(started);
+            return started.status();
+        } finally {
+            jobLock.unlock();
+        }
+    }
+
+    public BackfillStatus getStatus() {
+        Job current = job;
+        if (current == null) {
+            return new BackfillStatus(null, State.IDLE, null, null, 0, 0, 0, 0, 0, 0, 0, 0.0, List.of(), null);
+        }
+        return current.status();
+    }
+
+    private Job newJob(String fileName) {
+        Path root = Path.of(directory).toAbsolutePath().normalize();
+        Path file = root.resolve(fileName).normalize();
+        if (!file.startsWith(root) || !Files.isRegularFile(file)) {
+            throw new IllegalArgumentException("No backfill file " + fileName + " in " + directory);
+        }
+        Job current = job;
+        if (current != null && current.state == State.RUNNING) {
+            throw new IllegalStateException("Backfill of " + current.fileName + " is still running");
+        }
+        Job created = new Job(fileName, file);
+        job = created;
+        return created;
+    }
+
+    private void execute(Job job) {
+        try {
+            long size = Files.size(job.path);
+            // Leave room to map the line that straddles the end of the chunk
+            int chunkSize = Math.max(MAX_LINE_BYTES, Math.min(chunkBytes, Integer.MAX_VALUE - 2 * MAX_LINE_BYTES));
+            int chunkCount = (int) Math.max(1, Math.ceilDiv(size, (long) chunkSize));
+
+            List<Chunk> pending = new ArrayList<>();
+            long resumed = 0;
+            for (int index = 0; index < chunkCount; index++) {
+                long from = (long) index * chunkSize;
+                Chunk chunk = new Chunk(from, Math.min(size, from + chunkSize),
+                        CHECKPOINT_PREFIX + job.fileName + ":" + chunkSize + ":" + index);
+                findCheckpoint(chunk.checkpointName).ifPresent(position -> {
+                    chunk.resumeAt = position;
+                    chunk.accounted = position;
+                });
+                resumed += Math.min(chunk.accounted, chunk.to) - chunk.from;
+                if (chunk.resumeAt < chunk.to) {
+                    pending.add(chunk);
+                }
+            }
+            job.begin(size, chunkCount, chunkCount - pending.size(), resumed);
+            log.info("Backfill of {} started: {} bytes in {} chunks, {} bytes already imported",
+                    job.fileName, size, chunkCount, resumed);
+
+            if (!pending.isEmpty()) {
+                importChunks(job, size, pending);
+            }
+            forecastPrecomputer.precomputeAll();
+            job.finish(State.COMPLETED, null);
+            log.info("Backfill of {} completed: {} rows imported, {} rejected in {} s",
+                    job.fileName, job.rowsImported.get(), job.rowsRejected.get(), job.elapsedSeconds());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            job.finish(State.FAILED, "interrupted");
+        } catch (ExecutionException e) {
+            job.finish(State.FAILED, e.getCause().getMessage());
+            log.error("Backfill of {} failed: {}", job.fileName, e.getCause().getMessage());
+        } catch (IOException | RuntimeException e) {
+            job.finish(State.FAILED, e.getMessage());
+            log.error("Backfill of {} failed: {}", job.fileName, e.getMessage());
+        }
+    }
+
+    private void importChunks(Job job, long size, List<Chunk> pending)
+            throws IOException, InterruptedException, ExecutionException {
+        if (rebuildIndexes) {
+            readingJdbcRepository.dropIndexes();
+        }
+        try (FileChannel channel = FileChannel.open(job.path, StandardOpenOption.READ)) {
+            ExecutorService workers = Executors.newFixedThreadPool(Math.max(1, threads),
+                    Thread.ofPlatform().name("backfill-worker-", 0).daemon(true).factory());
+            try {
+                List<Future<?>> results = new ArrayList<>(pending.size());
+                for (Chunk chunk : pending) {
+                    results.add(workers.submit(() -> {
+                        importChunk(job, channel, size, chunk);
+                        return null;
+                    }));
+                }
+                for (Future<?> result : results) {
+                    result.get();
+                }
+            } finally {
+                // Stop the remaining chunks and wait for them, so that no worker is still writing
+                // once this run has ended and a retry may start
+                workers.shutdownNow();
+                workers.close();
+            }
+        } finally {
+            // Also after a failure: live queries must not stay without indexes until the retry
+            if (rebuildIndexes) {
+                long started = System.nanoTime();
+                readingJdbcRepository.createIndexes();
+                log.info("Rebuilt reading indexes in {} ms", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+            }
+        }
+    }
+
+    private void importChunk(Job job, FileChannel channel, long size, Chunk chunk) throws IOException {
+        // One byte before the chunk tells whether its first line starts exactly at the boundary
+        long mapFrom = Math.max(0, chunk.from - 1);
+        long mapTo = Math.min(size, chunk.to + MAX_LINE_BYTES);
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, mapFrom, mapTo - mapFrom);
+        boolean mapsToEnd = mapTo == size;
+
+        long position = chunk.resumeAt;
+        if (position < 0) {
+            position = chunk.from;
+            if (chunk.from > 0 && buffer.get(0) != '\n') {
+                position = nextLine(buffer, mapFrom, chunk.from, mapsToEnd);
+                if (position < 0) {
+                    // Part of an over-long line that the previous chunk rejects; no line starts here
+                    position = chunk.to;
+                }
+            }
+        }
+        long batchFrom = position;
+
+        byte[] line = new byte[MAX_LINE_BYTES];
+        Map<Long, Boolean> localBuildings = new HashMap<>();
+        List<Reading> batch = new ArrayList<>(batchRows);
+        while (position < chunk.to) {
+            long next = nextLine(buffer, mapFrom, position, mapsToEnd);
+            if (next < 0) {
+                // The line runs on past everything mapped, so through the rest of the chunk
+                job.reject(position, "line longer than " + MAX_LINE_BYTES + " bytes");
+                position = chunk.to;
+                break;
+            }
+            int length = (int) (Math.min(next - 1, size) - position);
+            if (length > 0 && buffer.get((int) (position - mapFrom) + length - 1) == '\r') {
+                length--;
+            }
+            if (length > MAX_LINE_BYTES) {
+                job.reject(position, "line longer than " + MAX_LINE_BYTES + " bytes");
+            } else if (length > 0 && !(position == 0 && isHeader(buffer.get(0)))) {
+                buffer.get((int) (position - mapFrom), line, 0, length);
+                try {
+                    Reading reading = parseLine(line, length);
+                    if (!localBuildings.computeIfAbsent(reading.getBuildingId(), clusterService::isLocal)) {
+                        throw new IllegalArgumentException("building " + reading.getBuildingId() + " is owned by "
+                                + clusterService.ownerOf(reading.getBuildingId()));
+                    }
+                    batch.add(reading);
+                } catch (IllegalArgumentException | DateTimeException e) {
+                    job.reject(position, e.getMessage());
+                }
+            }
+            position = next;
+
+            if (batch.size() >= batchRows) {
+                checkCancelled();
+                commit(job, chunk, batch, batchFrom, position);
+                batch = new ArrayList<>(batchRows);
+                batchFrom = position;
+            }
+        }
+        checkCancelled();
+        commit(job, chunk, batch, batchFrom, position);
+        job.chunksCompleted.incrementAndGet();
+    }
+
+    // Another chunk failed and the run is being stopped
+    private static void checkCancelled() throws InterruptedIOException {
+        if (Thread.currentThread().isInterrupted()) {
+            throw new InterruptedIOException("backfill cancelled");
+        }
+    }
+
+    private Optional<Long> findCheckpoint(String checkpointName) {
+        if (readingJdbcRepository.isSharded()) {
+            return readingJdbcRepository.findCheckpoint(checkpointName);
+        }
+        return checkpointRepository.findById(checkpointName).map(LogCheckpoint::getAppliedSequence);
+    }
+
+    /**
+     * Store the batch read from [from, position) and advance the chunk's checkpoint past it in
+     * one transaction (sharded, one per shard), then feed the projections the readings stored.
+     */
+    private void commit(Job job, Chunk chunk, List<Reading> batch, long from, long position) {
+        for (Reading reading : batch) {
+            reading.setSensorRef(sensorRegistry.resolveOrRegister(reading.getSensorId()));
+        }
+        DecoderEvents.IngestBatch event = new DecoderEvents.IngestBatch();
+        event.begin();
+        List<Reading> stored = batch;
+        if (readingJdbcRepository.isSharded()) {
+            stored = readingJdbcRepository.insertBatchUpTo(batch, chunk.checkpointName, from, position);
+        } else {
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                readingJdbcRepository.insertBatch(batch);
+                checkpointRepository.save(new LogCheckpoint(chunk.checkpointName, position));
+            });
+        }
+        if (event.shouldCommit()) {
+            event.source = "backfill";
+            event.readings = stored.size();
+            event.commit();
+        }
+
+        stored.stream().map(Reading::getBuildingId).distinct().forEach(ingestWatermarks::advance);
+        LocalDateTime retainedSince = aggregationService.retainedSince();
+        LocalDateTime readModelSince = LocalDateTime.now().minusMinutes(readModel.getWindowMinutes());
+        for (Reading reading : stored) {
+            if (!reading.getTimestamp().isBefore(retainedSince)) {
+                aggregationService.onReading(reading);
+            }
+            if (!reading.getTimestamp().isBefore(readModelSince)) {
+                readingProjector.onReading(reading);
+            }
+        }
+
+        long bytes = Math.min(position, chunk.to) - Math.min(chunk.accounted, chunk.to);
+        chunk.accounted = position;
+        job.committed(stored.size(), bytes);
+    }
+
+    /**
+     * Offset just past the end of the line containing position; past the end of the file for
+     * its last line, or -1 if the line runs on past what is mapped.
+     */
+    private static long nextLine(MappedByteBuffer buffer, long mapFrom, long position, boolean mapsToEnd) {
+        for (int i = (int) (position - mapFrom); i < buffer.limit(); i++) {
+            if (buffer.get(i) == '\n') {
+                return mapFrom + i + 1;
+            }
+        }
+        if (!mapsToEnd) {
+            return -1;
+        }
+        return mapFrom + buffer.limit() + 1;
+    }
+
+    private static boolean isHeader(byte first) {
+        return first != '-' && (first < '0' || first > '9');
+    }
+
+    /**
+     * Parse and validate one buildingId,sensorId,timestamp,value row. Timestamps are ISO local
+     * date-times, with 'T' or a space between date and time.
+     *
+     * @throws IllegalArgumentException or DateTimeException if the row is invalid
+     */
+    static Reading parseLine(byte[] line, int length) {
+        int[] commas = new int[3];
+        int found = 0;
+        for (int i = 0; i < length; i++) {
+            if (line[i] == ',') {
+                if (found == commas.length) {
+                    throw new IllegalArgumentException("expected 4 fields");
+                }
+                commas[found++] = i;
+            }
+        }
+        if (found != commas.length) {
+            throw new IllegalArgumentException("expected 4 fields");
+        }
+
+        long buildingId = parseBuildingId(line, 0, commas[0]);
+        String sensorId = new String(line, commas[0] + 1, commas[1] - commas[0] - 1, StandardCharsets.UTF_8).trim();
+        if (sensorId.isEmpty() || sensorId.length() > MAX_SENSOR_KEY_LENGTH) {
+            throw new IllegalArgumentException("sensorId must have 1 to " + MAX_SENSOR_KEY_LENGTH + " characters");
+        }
+        LocalDateTime timestamp = LocalDateTime.parse(
+                new String(line, commas[1] + 1, commas[2] - commas[1] - 1, StandardCharsets.US_ASCII).trim().replace(' ', 'T'));
+        double value = Double.parseDouble(new String(line, commas[2] + 1, length - commas[2] - 1, StandardCharsets.US_ASCII));
+        if (!Double.isFinite(value)) {
+            throw new IllegalArgumentException("value must be finite");
+        }
+
+        Reading reading = new Reading();
+        reading.setBuildingId(buildingId);
+        reading.setSensorId(sensorId);
+        reading.setTimestamp(timestamp);
+        reading.setValue(value);
+        reading.setAnomalyFlags(0);
+        return reading;
+    }
+
+    private static long parseBuildingId(byte[] line, int from, int to) {
+        while (from < to && line[from] == ' ') {
+            from++;
+        }
+        while (to > from && line[to - 1] == ' ') {
+            to--;
+        }
+        if (from == to || to - from > 18) {
+            throw new IllegalArgumentException("buildingId must be a positive integer");
+        }
+        long buildingId = 0;
+        for (int i = from; i < to; i++) {
+            if (line[i] < '0' || line[i] > '9') {
+                throw new IllegalArgumentException("buildingId must be a positive integer");
+            }
+            buildingId = buildingId * 10 + (line[i] - '0');
+        }
+        if (buildingId == 0) {
+            throw new IllegalArgumentException("buildingId must be a positive integer");
+        }
+        return buildingId;
+    }
+
+    /**
+     * Byte range of the file and how far its committed batches reach. Touched only by the
+     * worker importing it.
+     */
+    private static final class Chunk {
+        private final long from;
+        private final long to;
+        private final String checkpointName;
+        private long resumeAt = -1;
+        private long accounted;
+
+        Chunk(long from, long to, String checkpointName) {
+            this.from = from;
+            this.to = to;
+            this.checkpointName = checkpointName;
+            this.accounted = from;
+        }
+    }
+
+    private static final class Job {
+        private final String fileName;
+        private final Path path;
+        private final LocalDateTime startedAt = LocalDateTime.now();
+        private final long startedNanos = System.nanoTime();
+        private final AtomicLong processedBytes = new AtomicLong();
+        private final AtomicInteger chunksCompleted = new AtomicInteger();
+        private final AtomicLong rowsImported = new AtomicLong();
+        private final AtomicLong rowsRejected = new AtomicLong();
+        private final AtomicLong lastProgressLogNanos = new AtomicLong(System.nanoTime());
+        private final List<String> errors = new ArrayList<>();
+        private volatile State state = State.RUNNING;
+        private volatile LocalDateTime finishedAt;
+        private volatile String failure;
+        private volatile long totalBytes;
+        private volatile long resumedFromBytes;
+        private volatile int chunks;
+
+        Job(String fileName, Path path) {
+            this.fileName = fileName;
+            this.path = path;
+        }
+
+        void begin(long totalBytes, int chunks, int chunksCompleted, long resumedFromBytes) {
+            this.totalBytes = totalBytes;
+            this.chunks = chunks;
+            this.chunksCompleted.set(chunksCompleted);
+            this.resumedFromBytes = resumedFromBytes;
+            processedBytes.set(resumedFromBytes);
+        }
+
+        void committed(int rows, long bytes) {
+            rowsImported.addAndGet(rows);
+            long processed = processedBytes.addAndGet(bytes);
+            long now = System.nanoTime();
+            long last = lastProgressLogNanos.get();
+            if (now - last >= PROGRESS_LOG_NANOS && lastProgressLogNanos.compareAndSet(last, now)) {
+                log.info("Backfill of {}: {}% of {} bytes, {} rows imported, {} rejected, {} rows/s",
+                        fileName, totalBytes > 0 ? processed * 100 / totalBytes : 100, totalBytes,
+                        rowsImported.get(), rowsRejected.get(), Math.round(rowsPerSecond()));
+            }
+        }
+
+        void reject(long offset, String reason) {
+            rowsRejected.incrementAndGet();
+            synchronized (errors) {
+                if (errors.size() < MAX_ERROR_SAMPLES) {
+                    errors.add("byte " + offset + ": " + reason);
+                }
+            }
+        }
+
+        void finish(State finalState, String failureMessage) {
+            failure = failureMessage;
+            finishedAt = LocalDateTime.now();
+            state = finalState;
+        }
+
+        long elapsedSeconds() {
+            return TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - startedNanos);
+        }
+
+        double rowsPerSecond() {
+            double seconds = (System.nanoTime() - startedNanos) / 1e9;
+            return seconds > 0 ? rowsImported.get() / seconds : 0.0;
+        }
+
+        BackfillStatus status() {
+            List<String> sampled;
+            synchronized (errors) {
+                sampled = List.copyOf(errors);
+            }
+            return new BackfillStatus(fileName, state, startedAt, finishedAt, totalBytes, processedBytes.get(),
+                    resumedFromBytes, chunks, chunksCompleted.get(), rowsImported.get(), rowsRejected.get(),
+                    rowsPerSecond(), sampled, failure);
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package com.decoder.service;
+
+import com.decoder.model.Anomaly;
+import com.decoder.model.Reading;
+import com.decoder.model.dto.BuildingSummary;
+import com.decoder.model.dto.ReadingResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Read-optimized query model of recent readings, kept separately from the readings table.
+ * Per building it holds the readings of the last window (newest first on query), the latest
+ * value of every sensor and per-minute aggregates. Only the ReadingProjector writes to it.
+ * A building whose projection failed is marked stale until the projector has rebuilt it;
+ * queries for it should read the primary store meanwhile.
+ */
+@Component
+public class BuildingReadModel {
+
+    @Value("${decoder.read-model.window-minutes:1440}")
+    private int windowMinutes;
+
+    private final ConcurrentMap<Long, BuildingView> views = new ConcurrentHashMap<>();
+    private final Set<Long> staleBuildings = ConcurrentHashMap.newKeySet();
+
+    public int getWindowMinutes() {
+        return windowMinutes;
+    }
+
+    void apply(Reading reading) {
+        if (reading.getValue() == null) {
+            return;
+        }
+        views.computeIfAbsent(reading.getBuildingId(), id -> new BuildingView())
+                .add(reading, windowMinutes);
+    }
+
+    void dropBuilding(Long buildingId) {
+        views.remove(buildingId);
+    }
+
+    void markStale(Long buildingId) {
+        staleBuildings.add(buildingId);
+    }
+
+    public boolean isStale(Long buildingId) {
+        return staleBuildings.contains(buildingId);
+    }
+
+    /**
+     * Replace a building's projection with the given readings, oldest first, and clear its
+     * stale mark. Queries see either the old or the rebuilt projection, never a partial one.
+     */
+    void rebuild(Long buildingId, List<Reading> readings) {
+        BuildingView view = new BuildingView();
+        for (Reading reading : readings) {
+            if (reading.getValue() != null) {
+                view.add(reading, windowMinutes);
+            }
+        }
+        views.put(buildingId, view);
+        staleBuildings.remove(buildingId);
+    }
+
+    void clear() {
+        views.clear();
+        staleBuildings.clear();
+    }
+
+    /**
+     * Readings of a building at or after the given time, newest first.
+     */
+    public List<ReadingResponse> getReadingsSince(Long buildingId, LocalDateTime fromTimestamp) {
+        BuildingView view = views.get(buildingId);
+        return view != null ? view.readingsSince(fromTimestamp) : List.of();
+    }
+
+    /**
+     * Latest value per sensor and aggregates over the readings at or after the given time.
+     */
+    public BuildingSummary getSummary(Long buildingId, LocalDateTime fromTimestamp) {
+        BuildingView view = views.get(buildingId);
+        return view != null
+                ? view.summary(buildingId, fromTimestamp)
+                : new BuildingSummary(buildingId, fromTimestamp, 0, null, null, null, null, List.of());
+    }
+
+    /**
+     * Projected state for one building. Guarded by its own monitor.
+     */
+    private static final class BuildingView {
+        private static final Comparator<ReadingResponse> BY_SENSOR = Comparator.comparing(ReadingResponse::getSensorId);
+
+        // Readings sharing a timestamp keep arrival order within their list
+        private final NavigableMap<LocalDateTime, List<ReadingResponse>> readings = new TreeMap<>();
+        private final NavigableMap<LocalDateTime, MinuteAggregate> minutes = new TreeMap<>();
+        private final Map<String, ReadingResponse> latestBySensor = new HashMap<>();
+
+        synchronized void add(Reading reading, int windowMinutes) {
+            ReadingResponse projected = new ReadingResponse(reading.getBuildingId(), reading.getSensorId(),
+                    reading.getTimestamp(), reading.getValue(), Anomaly.fromFlags(reading.getAnomalyFlags()));
+            readings.computeIfAbsent(reading.getTimestamp(), ts -> new ArrayList<>(1)).add(projected);
+            minutes.computeIfAbsent(reading.getTimestamp().truncatedTo(ChronoUnit.MINUTES), ts -> new MinuteAggregate())
+                    .add(reading.getValue());
+
+            ReadingResponse latest = latestBySensor.get(reading.getSensorId());
+            if (latest == null || !reading.getTimestamp().isBefore(latest.getTimestamp())) {
+                latestBySensor.put(reading.getSensorId(), projected);
+            }
+
+            // The window follows event time, so a replay of old data does not evict live data
+            LocalDateTime cutoff = readings.lastKey().minusMinutes(windowMinutes);
+            readings.headMap(cutoff, false).clear();
+            minutes.headMap(cutoff.truncatedTo(ChronoUnit.MINUTES), false).clear();
+        }
+
+        synchronized List<ReadingResponse> readingsSince(LocalDateTime fromTimestamp) {
+            List<ReadingResponse> result = new ArrayList<>();
+            for (List<ReadingResponse> atTimestamp : readings.tailMap(fromTimestamp, true).descendingMap().values()) {
+                result.addAll(atTimestamp);
+            }
+            return result;
+        }
+
+        synchronized BuildingSummary summary(Long buildingId, LocalDateTime fromTimestamp) {
+            long count = 0;
+            double sum = 0.0;
+            double min = Double.POSITIVE_INFINITY;
+            double max = Double.NEGATIVE_INFINITY;
+
+            // Whole minutes come from the pre-aggregated buckets; only the partial first minute is scanned
+            LocalDateTime firstFullMinute = fromTimestamp.truncatedTo(ChronoUnit.MINUTES).equals(fromTimestamp)
+                    ? fromTimestamp
+                    : fromTimestamp.truncatedTo(ChronoUnit.MINUTES).plusMinutes(1);
+            for (List<ReadingResponse> atTimestamp : readings.subMap(fromTimestamp, true, firstFullMinute, false).values()) {
+                for (ReadingResponse reading : atTimestamp) {
+                    count++;
+                    sum += reading.getValue();
+                    min = Math.min(min, reading.getValue());
+                    max = Math.max(max, reading.getValue());
+                }
+            }
+            for (MinuteAggregate aggregate : minutes.tailMap(firstFullMinute, true).values()) {
+                count += aggregate.count;
+                sum += aggregate.sum;
+                min = Math.min(min, aggregate.min);
+                max = Math.max(max, aggregate.max);
+            }
+
+            List<ReadingResponse> latest = new ArrayList<>(latestBySensor.values());
+            latest.sort(BY_SENSOR);
+            return new BuildingSummary(
+                    buildingId,
+                    fromTimestamp,
+                    count,
+                    count > 0 ? sum / count : null,
+                    count > 0 ? min : null,
+                    count > 0 ? max : null,
+                    readings.isEmpty() ? null : readings.lastKey(),
+                    latest
+            );
+        }
+    }
+
+    private static final class MinuteAggregate {
+        private long count;
+        private double sum;
+        private double min = Double.POSITIVE_INFINITY;
+        private double max = Double.NEGATIVE_INFINITY;
+
+        void add(double value) {
+            count++;
+            sum += value;
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.decoder.service;
+
+import com.decoder.model.dto.ReadingResponse;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.stream.Collectors;
+
+/**
+ * Last readings of many buildings in one call, for portfolio views.
+ * Access is resolved once for the whole set and locally stored buildings are read with
+ * IN queries. In cluster mode, buildings owned by other nodes are fetched from their
+ * owners in parallel, one request per node, on behalf of the same caller. Only the local
+ * query runs in the caller's query bulkhead; waiting for other nodes does not hold a slot.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BulkReadingService {
+
+    private static final TypeReference<Map<Long, List<ReadingResponse>>> GROUPED_READINGS = new TypeReference<>() {
+    };
+
+    private final SecurityService securityService;
+    private final ReadingService readingService;
+    private final ClusterService clusterService;
+    private final QueryBulkheads queryBulkheads;
+    private final ObjectMapper objectMapper;
+
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(2))
+            .build();
+
+    /**
+     * Readings of the requested buildings the user may access (all accessible ones if
+     * requestedIds is null), grouped per building.
+     *
+     * @param authorization caller's Authorization header, passed on to owning nodes
+     * @param forwarded     true if another node sent this request; serve it locally only
+     * @throws UncheckedIOException if an owning node cannot be reached
+     * @throws QueryBulkheads.BulkheadRejectedException if the caller's bulkhead rejects the local query
+     */
+    public Map<Long, List<ReadingResponse>> getLastReadings(String username, List<Long> requestedIds, int minutes,
+                                                            String authorization, boolean forwarded) {
+        List<Long> buildingIds = securityService.filterAccessibleBuildingIds(username, requestedIds);
+
+        if (!clusterService.isEnabled() || forwarded) {
+            return queryBulkheads.execute(username,
+                    () -> readingService.getLastReadingsForBuildings(buildingIds, minutes));
+        }
+
+        Map<String, List<Long>> byOwner = buildingIds.stream()
+                .collect(Collectors.groupingBy(clusterService::ownerOf, LinkedHashMap::new, Collectors.toList()));
+        List<Long> localIds = byOwner.getOrDefault(clusterService.getSelfUrl(), List.of());
+
+        List<CompletableFuture<Map<Long, List<ReadingResponse>>>> remote = new ArrayList<>();
+        byOwner.forEach((owner, ids) -> {
+            if (!owner.equals(clusterService.getSelfUrl())) {
+                remote.add(fetchRemote(owner, ids, minutes, authorization));
+            }
+        });
+
+        // The remote requests are already in flight; the slot is released before joining them
+        Map<Long, List<ReadingResponse>> fetched = new LinkedHashMap<>(queryBulkheads.execute(username,
+                () -> readingService.getLastReadingsForBuildings(localIds, minutes)));
+        try {
+            remote.forEach(future -> fetched.putAll(future.join()));
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof UncheckedIOException unchecked ? unchecked : e;
+        }
+
+        // Keep the order buildings were requested in
+        Map<Long, List<ReadingResponse>> grouped = new LinkedHashMap<>();
+        buildingIds.forEach(id -> grouped.put(id, fetched.getOrDefault(id, List.of())));
+        return grouped;
+    }
+
+    private CompletableFuture<Map<Long, List<ReadingResponse>>> fetchRemote(String owner, List<Long> buildingIds,
+                                                                          int minutes, String authorization) {
+        String ids = buildingIds.stream().map(String::valueOf).collect(Collectors.joining(","));
+        HttpRequest.Builder builder = HttpRequest.newBuilder(
+                        URI.create(owner + "/buildings/last-readings?minutes=" + minutes + "&ids=" + ids))
+                .timeout(Duration.ofSeconds(30))
+                .header(ClusterService.FORWARDED_HEADER, clusterService.getSelfUrl())
+                .GET();
+        if (authorization != null) {
+            builder.header(HttpHeaders.AUTHORIZATION, authorization);
+        }
+
+        log.debug("Fetching last readings of {} buildings from {}", buildingIds.size(), owner);
+        return httpClient.sendAsync(builder.build(), HttpResponse.BodyHandlers.ofByteArray())
+                .thenApply(response -> {
+                    if (response.statusCode() != 200) {
+                        throw new UncheckedIOException(new IOException(
+                                owner + " responded with status " + response.statusCode()));
+                    }
+                    try {
+                        return objectMapper.readValue(response.body(), GROUPED_READINGS);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                })
+                .exceptionally(e -> {
+                    Throwable cause = e instanceof CompletionException ? e.getCause() : e;
+                    log.warn("Fetching readings from {} failed: {}", owner, cause.getMessage());
+                    throw cause instanceof UncheckedIOException unchecked
+                            ? unchecked
+                            : new UncheckedIOException(new IOException(cause));
+                });
+    }
+}
@@ -0,0 +1,135 @@
+package com.decoder.service;
+
+import com.decoder.model.Reading;
+import com.decoder.model.dto.ReadingRequest;
+import com.decoder.repository.ReadingJdbcRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Moves stored readings to their new owner after the cluster topology changes.
+ * Runs on its own thread so a large handoff never delays heartbeats or ingest.
+ * A building is walked in keyset pages; each page is deleted locally, row by row, only once
+ * the owner has acknowledged it. Readings stored meanwhile are never deleted unsent, and
+ * the owner skips readings it already has, so a page resent after a failure is not duplicated.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ClusterRebalancer {
+
+    private static final int HANDOFF_BATCH_SIZE = 1000;
+    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
+
+    private final ClusterService clusterService;
+    private final ReadingJdbcRepository readingJdbcRepository;
+    private final ReadingProjector readingProjector;
+    private final AggregationService aggregationService;
+    private final ObjectMapper objectMapper;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(
+            Thread.ofPlatform().name("cluster-rebalancer").daemon(true).factory());
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(2))
+            .build();
+
+    @EventListener
+    public void onTopologyChanged(ClusterTopologyChangedEvent event) {
+        executor.execute(() -> handOffForeignBuildings(event.ring()));
+    }
+
+    /**
+     * On graceful shutdown hand everything to the remaining nodes before this node leaves.
+     * Runs before ClusterService announces the leave, since this bean depends on it.
+     */
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+        if (clusterService.isEnabled()) {
+            handOffForeignBuildings(clusterService.ringWithoutSelf());
+        }
+    }
+
+    /**
+     * Hand off every locally stored building that this node does not own in the given ring.
+     */
+    void handOffForeignBuildings(ConsistentHashRing ring) {
+        for (Long buildingId : readingJdbcRepository.findDistinctBuildingIds()) {
+            String owner = ring.ownerOf(buildingId);
+            if (owner == null || clusterService.getSelfUrl().equals(owner)) {
+                continue;
+            }
+            try {
+                handOff(buildingId, owner);
+            } catch (IOException e) {
+                log.warn("Handoff of building {} to {} failed, will retry on next topology change: {}",
+                        buildingId, owner, e.getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void handOff(Long buildingId, String owner) throws IOException, InterruptedException {
+        long handedOff = 0;
+        int moved;
+        // Readings stored behind the cursor while a pass ran are left for the next pass
+        do {
+            moved = handOffPass(buildingId, owner);
+            handedOff += moved;
+        } while (moved > 0);
+
+        readingProjector.dropBuilding(buildingId);
+        aggregationService.dropBuilding(buildingId);
+        log.info("Handed off {} readings of building {} to {}", handedOff, buildingId, owner);
+    }
+
+    private int handOffPass(Long buildingId, String owner) throws IOException, InterruptedException {
+        int moved = 0;
+        Reading last = null;
+        List<Reading> page;
+        while (!(page = readingJdbcRepository.findPageByBuildingId(buildingId, last, HANDOFF_BATCH_SIZE)).isEmpty()) {
+            send(owner, page);
+            moved += readingJdbcRepository.deleteReadings(buildingId, page);
+            last = page.get(page.size() - 1);
+        }
+        return moved;
+    }
+
+    private void send(String owner, List<Reading> page) throws IOException, InterruptedException {
+        List<ReadingRequest> batch = page.stream()
+                .map(reading -> new ReadingRequest(
+                        reading.getBuildingId(),
+                        reading.getSensorId(),
+                        reading.getTimestamp().format(FORMATTER),
+                        reading.getValue()))
+                .toList();
+
+        HttpRequest request = HttpRequest.newBuilder(URI.create(owner + "/cluster/handoff"))
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/json")
+                .header(ClusterService.TOKEN_HEADER, clusterService.getToken())
+                .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(batch)))
+                .build();
+        HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() != 200) {
+            throw new IOException("owner responded with status " + response.statusCode());
+        }
+    }
+}
@@ -0,0 +1,249 @@
+package com.decoder.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Cluster membership and building ownership.
+ * Buildings are assigned to nodes by consistent hashing on buildingId. Membership starts
+ * from the configured seed nodes, grows through join announcements and shrinks when a
+ * node leaves or misses heartbeats; every change rebuilds the ring.
+ */
+@Service
+@Slf4j
+public class ClusterService {
+
+    public static final String TOKEN_HEADER = "X-Cluster-Token";
+    // Set on requests one node sends to another on a client's behalf; they are served locally
+    public static final String FORWARDED_HEADER = "X-Cluster-Forwarded";
+
+    private static final int MAX_MISSED_HEARTBEATS = 3;
+
+    private final ApplicationEventPublisher eventPublisher;
+    private final boolean enabled;
+    private final String selfUrl;
+    private final List<String> seedNodes;
+    private final int virtualNodes;
+    private final String token;
+
+    private final Set<String> knownNodes = ConcurrentHashMap.newKeySet();
+    private final Map<String, Integer> missedHeartbeats = new ConcurrentHashMap<>();
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(1))
+            .build();
+
+    private volatile ConsistentHashRing ring;
+
+    public ClusterService(
+            ApplicationEventPublisher eventPublisher,
+            @Value("${decoder.cluster.enabled:false}") boolean enabled,
+            @Value("${decoder.cluster.self-url:http://localhost:${server.port:8080}}") String selfUrl,
+            @Value("${decoder.cluster.nodes:}") List<String> seedNodes,
+            @Value("${decoder.cluster.virtual-nodes:128}") int virtualNodes,
+            @Value("${decoder.cluster.token:}") String token) {
+        this.eventPublisher = eventPublisher;
+        this.enabled = enabled;
+        this.selfUrl = normalize(selfUrl);
+        this.seedNodes = seedNodes.stream().filter(node -> !node.isBlank()).map(ClusterService::normalize).toList();
+        this.virtualNodes = virtualNodes;
+        this.token = token;
+    }
+
+    @PostConstruct
+    public void init() {
+        if (enabled && token.isBlank()) {
+            // Node-to-node endpoints write readings and change membership; they need the secret
+            throw new IllegalStateException("decoder.cluster.token must be set when decoder.cluster.enabled is true");
+        }
+        knownNodes.add(selfUrl);
+        knownNodes.addAll(seedNodes);
+        // Optimistically treat seeds as live so ownership is right from the first request;
+        // heartbeats remove any that are not actually up
+        ring = new ConsistentHashRing(knownNodes, virtualNodes);
+        if (enabled) {
+            log.info("Cluster mode enabled: self={}, nodes={}", selfUrl, ring.getNodes());
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public String getSelfUrl() {
+        return selfUrl;
+    }
+
+    public Set<String> getLiveNodes() {
+        return ring.getNodes();
+    }
+
+    /**
+     * URL of the node owning a building.
+     */
+    public String ownerOf(Long buildingId) {
+        return enabled ? ring.ownerOf(buildingId) : selfUrl;
+    }
+
+    /**
+     * Ring over the live nodes other than this one, used to hand off data before leaving.
+     */
+    public ConsistentHashRing ringWithoutSelf() {
+        Set<String> others = new HashSet<>(ring.getNodes());
+        others.remove(selfUrl);
+        return new ConsistentHashRing(others, virtualNodes);
+    }
+    
+    public boolean isLocal(Long buildingId) {
+        return selfUrl.equals(ownerOf(buildingId));
+    }
+
+    public String getToken() {
+        return token;
+    }
+    
+    /**
+     * Whether a node-to-node request carries the cluster token. Never true without a
+     * configured token; compared in constant time.
+     */
+    public boolean isValidToken(String presented) {
+        if (token.isEmpty() || presented == null) {
+            return false;
+        }
+        return MessageDigest.isEqual(token.getBytes(StandardCharsets.UTF_8), presented.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Announce this node to the seeds once it can serve requests.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void announceJoin() {
+        if (enabled) {
+            broadcast("/cluster/join");
+        }
+    }
+
+    @PreDestroy
+    public void announceLeave() {
+        if (enabled) {
+            broadcast("/cluster/leave");
+        }
+    }
+
+    public void join(String nodeUrl) {
+        String node = normalize(nodeUrl);
+        knownNodes.add(node);
+        missedHeartbeats.remove(node);
+        log.info("Node {} joined the cluster", node);
+        updateRing(liveNodes());
+    }
+
+    public void leave(String nodeUrl) {
+        String node = normalize(nodeUrl);
+        knownNodes.remove(node);
+        missedHeartbeats.remove(node);
+        log.info("Node {} left the cluster", node);
+        updateRing(liveNodes());
+    }
+
+    /**
+     * Ping all known peers and drop those that missed too many heartbeats from the ring.
+     */
+    @Scheduled(fixedDelayString = "${decoder.cluster.heartbeat-ms:2000}")
+    public void heartbeat() {
+        if (!enabled) {
+            return;
+        }
+
+        Map<String, CompletableFuture<Boolean>> pings = knownNodes.stream()
+                .filter(node -> !node.equals(selfUrl))
+                .collect(Collectors.toMap(node -> node, this::ping));
+        pings.forEach((node, ping) -> {
+            if (ping.join()) {
+                missedHeartbeats.remove(node);
+            } else {
+                missedHeartbeats.merge(node, 1, Integer::sum);
+            }
+        });
+        updateRing(liveNodes());
+    }
+
+    private Set<String> liveNodes() {
+        Set<String> live = new HashSet<>();
+        for (String node : knownNodes) {
+            if (missedHeartbeats.getOrDefault(node, 0) < MAX_MISSED_HEARTBEATS) {
+                live.add(node);
+            }
+        }
+        live.add(selfUrl);
+        return live;
+    }
+
+    private synchronized void updateRing(Set<String> live) {
+        if (live.equals(ring.getNodes())) {
+            return;
+        }
+        ring = new ConsistentHashRing(live, virtualNodes);
+        log.info("Cluster topology changed, live nodes: {}", ring.getNodes());
+        eventPublisher.publishEvent(new ClusterTopologyChangedEvent(ring));
+    }
+
+    private CompletableFuture<Boolean> ping(String node) {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(node + "/cluster/health"))
+                .timeout(Duration.ofSeconds(1))
+                .GET()
+                .build();
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                .thenApply(response -> response.statusCode() == 200)
+                .exceptionally(e -> false);
+    }
+
+    private void broadcast(String path) {
+        for (String node : knownNodes) {
+            if (node.equals(selfUrl)) {
+                continue;
+            }
+            HttpRequest request = HttpRequest.newBuilder(URI.create(node + path))
+                    .timeout(Duration.ofSeconds(2))
+                    .header("Content-Type", "text/plain")
+                    .header(TOKEN_HEADER, token)
+                    .POST(HttpRequest.BodyPublishers.ofString(selfUrl))
+                    .build();
+            try {
+                httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+            } catch (IOException e) {
+                log.debug("Could not reach {} for {}: {}", node, path, e.getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private static String normalize(String url) {
+        String trimmed = url.trim();
+        return trimmed.endsWith("/") ? trimmed.substring(0, trimmed.length() - 1) : trimmed;
+    }
+}
@@ -0,0 +1,7 @@
+package com.decoder.service;
+
+/**
+ * Published by ClusterService whenever the set of live nodes (and so the ring) changes.
+ */
+public record ClusterTopologyChangedEvent(ConsistentHashRing ring) {
+}
@@ -0,0 +1,67 @@
+package com.decoder.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Micrometer meters for body compression, tagged by codec and direction (request/response).
+ * Exposed under /actuator/metrics/decoder.compression.*.
+ */
+@Component
+@RequiredArgsConstructor
+public class CompressionMetrics {
+    
+    public static final String REQUEST = "request";
+    public static final String RESPONSE = "response";
+    
+    private final MeterRegistry meterRegistry;
+    
+    /**
+     * Record one compressed or decompressed body.
+     *
+     * @param codec            content coding, e.g. "gzip"
+     * @param direction        REQUEST or RESPONSE
+     * @param identityBytes    size of the uncompressed body
+     * @param compressedBytes  size on the wire
+     * @param cpuNanos         thread CPU time spent in the codec
+     */
+    public void record(String codec, String direction, long identityBytes, long compressedBytes, long cpuNanos) {
+        Counter.builder("decoder.compression.identity.bytes")
+                .description("Uncompressed body bytes")
+                .baseUnit("bytes")
+                .tags("codec", codec, "direction", direction)
+                .register(meterRegistry)
+                .increment(identityBytes);
+        Counter.builder("decoder.compression.wire.bytes")
+                .description("Compressed body bytes on the wire")
+                .baseUnit("bytes")
+                .tags("codec", codec, "direction", direction)
+                .register(meterRegistry)
+                .increment(compressedBytes);
+        if (compressedBytes > 0) {
+            DistributionSummary.builder("decoder.compression.ratio")
+                    .description("Uncompressed size divided by compressed size, per body")
+                    .tags("codec", codec, "direction", direction)
+                    .register(meterRegistry)
+                    .record((double) identityBytes / compressedBytes);
+        }
+        Timer.builder("decoder.compression.cpu")
+                .description("Thread CPU time spent compressing or decompressing a body")
+                .tags("codec", codec, "direction", direction)
+                .register(meterRegistry)
+                .record(cpuNanos, TimeUnit.NANOSECONDS);
+    }
+    
+    /**
+     * Count a response sent uncompressed because it stayed under the size threshold.
+     */
+    public void recordBelowThreshold() {
+        meterRegistry.counter("decoder.compression.skipped", "reason", "below-threshold").increment();
+    }
+}
@@ -0,0 +1,201 @@
+package com.decoder.service;
+
+import com.decoder.model.Building;
+import com.decoder.model.dto.ColumnarForecast;
+import com.decoder.model.dto.ForecastPrecomputeStatus;
+import com.decoder.model.dto.ForecastResponse;
+import com.decoder.repository.BuildingRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Recomputes the default-horizon forecast of every locally owned building on a fixed cadence,
+ * so dashboard load at the top of the hour is served from memory instead of the database.
+ * Each run computes buildings in parallel on a pool of decoder.forecasting.precompute.concurrency
+ * threads. Runs are driven by their own scheduler thread so a slow run never delays the
+ * shared @Scheduled tasks. Other horizons, missing buildings and forecasts older than two
+ * intervals (a run was missed, so the first points may already lie in the past) are computed
+ * on demand.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ForecastPrecomputer {
+
+    private final ForecastService forecastService;
+    private final BuildingRepository buildingRepository;
+    private final ClusterService clusterService;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${decoder.forecasting.precompute.enabled:true}")
+    private boolean enabled;
+
+    @Value("${decoder.forecasting.default-forecast-minutes:60}")
+    private int horizonMinutes;
+
+    @Value("${decoder.forecasting.precompute.interval-ms:60000}")
+    private long intervalMs;
+
+    @Value("${decoder.forecasting.precompute.concurrency:4}")
+    private int concurrency;
+
+    private final ConcurrentMap<Long, ColumnarForecast> latest = new ConcurrentHashMap<>();
+    private ScheduledExecutorService scheduler;
+    private ExecutorService workers;
+    private volatile ForecastPrecomputeStatus lastRun;
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        Gauge.builder("decoder.forecast.precompute.staleness", this, precomputer -> {
+                    Long staleness = precomputer.stalenessSeconds();
+                    return staleness != null ? staleness : Double.NaN;
+                })
+                .description("Age of the oldest precomputed forecast")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+
+        workers = Executors.newFixedThreadPool(Math.max(1, concurrency),
+                Thread.ofPlatform().name("forecast-worker-", 0).daemon(true).factory());
+        scheduler = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("forecast-precompute").daemon(true).factory());
+        scheduler.scheduleWithFixedDelay(this::precomputeAll, 0, intervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            workers.shutdownNow();
+        }
+    }
+
+    /**
+     * Forecast for a building: the precomputed one if it matches the horizon and is fresh
+     * enough, otherwise computed now.
+     */
+    public ForecastResponse getForecast(Long buildingId, int minutes) {
+        return getColumnarForecast(buildingId, minutes).toForecastResponse();
+    }
+
+    public ColumnarForecast getColumnarForecast(Long buildingId, int minutes) {
+        if (enabled && minutes == horizonMinutes) {
+            ColumnarForecast precomputed = latest.get(buildingId);
+            if (precomputed != null
+                    && validUntil(precomputed.getGeneratedAt()).isAfter(LocalDateTime.now())) {
+                return precomputed;
+            }
+        }
+        return forecastService.generateColumnarForecast(buildingId, minutes);
+    }
+
+    /**
+     * Until when a forecast generated at generatedAt may be served without recomputing it:
+     * two precompute intervals, so one late run is tolerated but a stalled schedule is not.
+     */
+    public LocalDateTime validUntil(LocalDateTime generatedAt) {
+        return generatedAt.plus(Duration.ofMillis(2 * intervalMs));
+    }
+
+    public ForecastPrecomputeStatus getStatus() {
+        ForecastPrecomputeStatus run = lastRun;
+        return new ForecastPrecomputeStatus(
+                enabled,
+                horizonMinutes,
+                intervalMs,
+                run != null ? run.getLastRunStartedAt() : null,
+                run != null ? run.getLastRunMillis() : 0L,
+                run != null ? run.getBuildingsComputed() : 0,
+                run != null ? run.getBuildingsFailed() : 0,
+                run != null ? run.getSlowestBuildingMillis() : 0L,
+                latest.size(),
+                stalenessSeconds()
+        );
+    }
+
+    void precomputeAll() {
+        if (!enabled) {
+            return;
+        }
+        LocalDateTime startedAt = LocalDateTime.now();
+        long startedNanos = System.nanoTime();
+        try {
+            List<Long> buildingIds = buildingRepository.findAll().stream()
+                    .map(Building::getId)
+                    .filter(clusterService::isLocal)
+                    .toList();
+
+            List<Callable<Long>> tasks = new ArrayList<>(buildingIds.size());
+            for (Long buildingId : buildingIds) {
+                tasks.add(() -> {
+                    long computeStarted = System.nanoTime();
+                    latest.put(buildingId, forecastService.generateColumnarForecast(buildingId, horizonMinutes));
+                    return System.nanoTime() - computeStarted;
+                });
+            }
+
+            int failed = 0;
+            long slowestNanos = 0;
+            for (Future<Long> result : workers.invokeAll(tasks)) {
+                try {
+                    slowestNanos = Math.max(slowestNanos, result.get());
+                } catch (ExecutionException e) {
+                    failed++;
+                    log.warn("Forecast precomputation failed: {}", e.getCause().getMessage());
+                }
+            }
+            // Forget buildings that were deleted or handed to another node
+            latest.keySet().retainAll(new HashSet<>(buildingIds));
+
+            long elapsedNanos = System.nanoTime() - startedNanos;
+            Timer.builder("decoder.forecast.precompute.run")
+                    .description("Wall time of one forecast precomputation run over all buildings")
+                    .register(meterRegistry)
+                    .record(elapsedNanos, TimeUnit.NANOSECONDS);
+            lastRun = new ForecastPrecomputeStatus(enabled, horizonMinutes, intervalMs, startedAt,
+                    TimeUnit.NANOSECONDS.toMillis(elapsedNanos), buildingIds.size() - failed, failed,
+                    TimeUnit.NANOSECONDS.toMillis(slowestNanos), latest.size(), stalenessSeconds());
+            log.info("Precomputed forecasts for {} buildings in {} ms ({} failed)",
+                    buildingIds.size() - failed, TimeUnit.NANOSECONDS.toMillis(elapsedNanos), failed);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            // Keep the schedule alive; the previous forecasts stay until they age out
+            log.error("Forecast precomputation run failed: {}", e.getMessage());
+        }
+    }
+
+    private Long stalenessSeconds() {
+        LocalDateTime oldest = null;
+        for (ColumnarForecast forecast : latest.values()) {
+            if (oldest == null || forecast.getGeneratedAt().isBefore(oldest)) {
+                oldest = forecast.getGeneratedAt();
+            }
+        }
+        return oldest != null ? Duration.between(oldest, LocalDateTime.now()).toSeconds() : null;
+    }
+}
@@ -1,16 +1,19 @@
 package com.decoder.service;
 
+import com.decoder.events.DecoderEvents;
 import com.decoder.model.Reading;
+import com.decoder.model.dto.ColumnarForecast;
 import com.decoder.model.dto.ForecastResponse;
-import com.decoder.repository.ReadingRepository;
+import com.decoder.repository.ReadingJdbcRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 /**
@@ -21,25 +24,62 @@ import java.util.List;
 @Slf4j
 public class ForecastService {
     
-    private final ReadingRepository readingRepository;
+    private final ReadingJdbcRepository readingJdbcRepository;
+    private final MeterRegistry meterRegistry;
+    
+    // Concurrent requests for the same building and horizon share one computation
+    private final SingleFlight<ForecastKey, ColumnarForecast> forecastFlights = new SingleFlight<>();
     
     @Value("${decoder.forecasting.threshold:100.0}")
     private Double energyThreshold;
     
+    private record ForecastKey(Long buildingId, int minutes) {
+    }
+    
     private static final int MOVING_AVERAGE_WINDOW = 5;
-    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
+    private static final int STEP_SECONDS = 60;
     
     /**
      * Generates a forecast for the next N minutes using moving average.
      * Returns recommendation if forecast exceeds threshold.
      */
     public ForecastResponse generateForecast(Long buildingId, int forecastMinutes) {
+        return generateColumnarForecast(buildingId, forecastMinutes).toForecastResponse();
+    }
+    
+    /**
+     * Same forecast as generateForecast, as one value per minute starting a minute from now.
+     */
+    public ColumnarForecast generateColumnarForecast(Long buildingId, int forecastMinutes) {
+        return forecastFlights.execute(new ForecastKey(buildingId, forecastMinutes),
+                () -> computeForecast(buildingId, forecastMinutes));
+    }
+    
+    @PostConstruct
+    public void registerMetrics() {
+        forecastFlights.bindTo(meterRegistry, "forecast");
+    }
+    
+    private ColumnarForecast computeForecast(Long buildingId, int forecastMinutes) {
+        DecoderEvents.ForecastComputation event = new DecoderEvents.ForecastComputation();
+        event.begin();
+        ColumnarForecast forecast = computeForecast(buildingId, forecastMinutes, event);
+        if (event.shouldCommit()) {
+            event.buildingId = buildingId;
+            event.minutes = forecastMinutes;
+            event.commit();
+        }
+        return forecast;
+    }
+    
+    private ColumnarForecast computeForecast(Long buildingId, int forecastMinutes, DecoderEvents.ForecastComputation event) {
         log.debug("Generating forecast for building {} for next {} minutes", buildingId, forecastMinutes);
         
         // Get recent readings (last hour should be sufficient for baseline)
         LocalDateTime fromTimestamp = LocalDateTime.now().minusHours(1);
-        List<Reading> recentReadings = readingRepository
+        List<Reading> recentReadings = readingJdbcRepository
                 .findLastReadingsByBuildingId(buildingId, fromTimestamp);
+        event.readings = recentReadings.size();
         
         if (recentReadings.isEmpty()) {
             log.warn("No recent readings found for building {}", buildingId);
@@ -49,23 +89,16 @@ public class ForecastService {
         // Calculate moving average
         Double movingAverage = calculateMovingAverage(recentReadings);
         
-        // Generate forecast points (one per minute)
-        List<ForecastResponse.ForecastPoint> forecastPoints = new ArrayList<>();
+        // Generate forecast values (one per minute)
+        double[] values = new double[Math.max(0, forecastMinutes)];
+        Arrays.fill(values, movingAverage); // Simple baseline: use moving average
         LocalDateTime currentTime = LocalDateTime.now();
         
-        for (int i = 1; i <= forecastMinutes; i++) {
-            LocalDateTime forecastTime = currentTime.plusMinutes(i);
-            ForecastResponse.ForecastPoint point = new ForecastResponse.ForecastPoint(
-                    forecastTime.format(FORMATTER),
-                    movingAverage // Simple baseline: use moving average
-            );
-            forecastPoints.add(point);
-        }
-        
         // Generate recommendation
         String recommendation = generateRecommendation(movingAverage);
         
-        return new ForecastResponse(buildingId, forecastPoints, recommendation);
+        return new ColumnarForecast(buildingId, currentTime.plusMinutes(1), STEP_SECONDS, values,
+                recommendation, currentTime);
     }
     
     /**
@@ -106,9 +139,8 @@ public class ForecastService {
     /**
      * Create empty forecast when no data is available.
      */
-    private ForecastResponse createEmptyForecast(Long buildingId, int forecastMinutes) {
-        List<ForecastResponse.ForecastPoint> emptyForecast = new ArrayList<>();
-        return new ForecastResponse(buildingId, emptyForecast, 
-                "Insufficient data for forecast. Collect more readings.");
+    private ColumnarForecast createEmptyForecast(Long buildingId, int forecastMinutes) {
+        return new ColumnarForecast(buildingId, null, STEP_SECONDS, new double[0],
+                "Insufficient data for forecast. Collect more readings.", LocalDateTime.now());
     }
 }
@@ -0,0 +1,57 @@
+package com.decoder.service;
+
+import com.decoder.config.AlertingProperties;
+import com.decoder.model.dto.Alert;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Default alert sink: logs each alert and keeps the most recent ones in memory for querying.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class InMemoryAlertSink implements AlertSink {
+    
+    private final AlertingProperties alertingProperties;
+    
+    private final Deque<Alert> recentAlerts = new ArrayDeque<>();
+    
+    @Override
+    public void publish(Alert alert) {
+        log.warn("Alert {} for building {}: sensor {} value {} (threshold {})",
+                alert.getType(), alert.getBuildingId(), alert.getSensorId(),
+                alert.getValue(), alert.getThreshold());
+        
+        synchronized (recentAlerts) {
+            if (recentAlerts.size() >= alertingProperties.getRecentAlerts()) {
+                recentAlerts.removeFirst();
+            }
+            recentAlerts.addLast(alert);
+        }
+    }
+    
+    /**
+     * Get recent alerts for a building, newest first.
+     */
+    public List<Alert> getRecentAlerts(Long buildingId) {
+        List<Alert> alerts = new ArrayList<>();
+        synchronized (recentAlerts) {
+            Iterator<Alert> newestFirst = recentAlerts.descendingIterator();
+            while (newestFirst.hasNext()) {
+                Alert alert = newestFirst.next();
+                if (alert.getBuildingId().equals(buildingId)) {
+                    alerts.add(alert);
+                }
+            }
+        }
+        return alerts;
+    }
+}
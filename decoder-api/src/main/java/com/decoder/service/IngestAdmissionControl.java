@@ -0,0 +1,112 @@
+package com.decoder.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Admission control in front of ingest: per-sensor and per-building token buckets
+ * plus a global in-flight limit, so one flooding gateway cannot queue up everyone
+ * else behind the database writer.
+ * All checks are lock-free (CAS-based buckets, non-blocking semaphore tryAcquire).
+ * The cheap global limit is checked first, and whatever a rejected request already took
+ * is given back, so a client is only charged for requests that were admitted.
+ */
+@Service
+@Slf4j
+public class IngestAdmissionControl {
+    
+    private static final long IN_FLIGHT_RETRY_MILLIS = 1000;
+    
+    private final boolean enabled;
+    private final double sensorRate;
+    private final int sensorBurst;
+    private final double buildingRate;
+    private final int buildingBurst;
+    private final Semaphore inFlight;
+    
+    private final ConcurrentMap<String, TokenBucket> sensorBuckets = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Long, TokenBucket> buildingBuckets = new ConcurrentHashMap<>();
+    
+    public IngestAdmissionControl(
+            @Value("${decoder.ingest.admission.enabled:true}") boolean enabled,
+            @Value("${decoder.ingest.admission.sensor-rate:10}") double sensorRate,
+            @Value("${decoder.ingest.admission.sensor-burst:20}") int sensorBurst,
+            @Value("${decoder.ingest.admission.building-rate:200}") double buildingRate,
+            @Value("${decoder.ingest.admission.building-burst:400}") int buildingBurst,
+            @Value("${decoder.ingest.admission.max-in-flight:64}") int maxInFlight) {
+        this.enabled = enabled;
+        this.sensorRate = sensorRate;
+        this.sensorBurst = sensorBurst;
+        this.buildingRate = buildingRate;
+        this.buildingBurst = buildingBurst;
+        this.inFlight = new Semaphore(maxInFlight);
+    }
+    
+    /**
+     * Try to admit one ingest request. On success the caller must call {@link #release()}
+     * once the request has been processed.
+     *
+     * @return 0 if admitted, otherwise the number of milliseconds the client should wait
+     */
+    public long tryAdmit(Long buildingId, String sensorId) {
+        if (!enabled) {
+            return 0;
+        }
+        
+        if (!inFlight.tryAcquire()) {
+            log.debug("Ingest in-flight limit reached");
+            return IN_FLIGHT_RETRY_MILLIS;
+        }
+        
+        TokenBucket sensorBucket = sensorBuckets
+                .computeIfAbsent(sensorId, key -> new TokenBucket(sensorRate, sensorBurst));
+        long waitNanos = sensorBucket.tryAcquire();
+        if (waitNanos > 0) {
+            inFlight.release();
+            log.debug("Sensor {} over ingest budget", sensorId);
+            return toRetryMillis(waitNanos);
+        }
+        
+        waitNanos = buildingBuckets
+                .computeIfAbsent(buildingId, key -> new TokenBucket(buildingRate, buildingBurst))
+                .tryAcquire();
+        if (waitNanos > 0) {
+            sensorBucket.refund();
+            inFlight.release();
+            log.debug("Building {} over ingest budget", buildingId);
+            return toRetryMillis(waitNanos);
+        }
+        return 0;
+    }
+    
+    /**
+     * Release the in-flight slot taken by a successful {@link #tryAdmit}.
+     */
+    public void release() {
+        if (enabled) {
+            inFlight.release();
+        }
+    }
+    
+    /**
+     * Drop buckets that have fully refilled; they are equivalent to freshly created ones.
+     * Keeps memory bounded when gateways send many distinct or short-lived sensor ids.
+     */
+    @Scheduled(fixedDelayString = "${decoder.ingest.admission.cleanup-interval-ms:60000}")
+    public void evictIdleBuckets() {
+        long now = System.nanoTime();
+        sensorBuckets.values().removeIf(bucket -> bucket.isFull(now));
+        buildingBuckets.values().removeIf(bucket -> bucket.isFull(now));
+    }
+    
+    private static long toRetryMillis(long waitNanos) {
+        return Math.max(1, TimeUnit.NANOSECONDS.toMillis(waitNanos));
+    }
+}
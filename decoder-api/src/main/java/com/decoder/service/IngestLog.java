@@ -0,0 +1,485 @@
+package com.decoder.service;
+
+import com.decoder.model.LogCheckpoint;
+import com.decoder.model.Reading;
+import com.decoder.repository.LogCheckpointRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Write-ahead log for ingest on memory-mapped, fixed-size segment files.
+ * A segment starts with [magic][format version], followed by records. Segments written
+ * before the header existed hold records without anomaly flags; they are still replayed,
+ * but never appended to, and segments of an unknown version stop startup.
+ * Each record is [length][crc32c][sequence, reading]; a record is valid only if its checksum
+ * matches and its sequence follows the previous one, which lets recovery stop cleanly at a
+ * torn write or at leftovers of a recycled segment. Segments are named after their first
+ * sequence; once every record of a segment is applied it is kept as a spare for reuse.
+ */
+@Service
+@Slf4j
+public class IngestLog {
+
+    public static final String CHECKPOINT_NAME = "ingest-log";
+
+    private static final int HEADER_BYTES = 8;
+    private static final int FIXED_BODY_BYTES = 8 + 8 + 8 + 4 + 8 + 4 + 2;
+    // Negative, so a segment header can never be mistaken for the length of a headerless record
+    private static final int SEGMENT_MAGIC = 0xDEC0DE57;
+    private static final int SEGMENT_HEADER_BYTES = 8;
+    private static final int FORMAT_VERSION = 2;
+    // Headerless segments, whose records have no anomaly flags
+    private static final int LEGACY_VERSION = 1;
+    private static final int LEGACY_FIXED_BODY_BYTES = FIXED_BODY_BYTES - 4;
+    private static final String SEGMENT_PREFIX = "wal-";
+    private static final String SPARE_PREFIX = "spare-";
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    private final LogCheckpointRepository checkpointRepository;
+    private final boolean enabled;
+    private final Path directory;
+    private final int segmentBytes;
+    private final boolean forceOnAppend;
+    private final int maxSpareSegments;
+
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final List<Segment> segments = new CopyOnWriteArrayList<>();
+    private final Deque<Path> spares = new ArrayDeque<>();
+    private long nextSequence;
+    private long spareCounter;
+
+    public IngestLog(
+            LogCheckpointRepository checkpointRepository,
+            @Value("${decoder.ingest.wal.enabled:false}") boolean enabled,
+            @Value("${decoder.ingest.wal.directory:data/wal}") String directory,
+            @Value("${decoder.ingest.wal.segment-bytes:16777216}") int segmentBytes,
+            @Value("${decoder.ingest.wal.force-on-append:false}") boolean forceOnAppend,
+            @Value("${decoder.ingest.wal.max-spare-segments:2}") int maxSpareSegments) {
+        this.checkpointRepository = checkpointRepository;
+        this.enabled = enabled;
+        this.directory = Paths.get(directory);
+        this.segmentBytes = segmentBytes;
+        this.forceOnAppend = forceOnAppend;
+        this.maxSpareSegments = maxSpareSegments;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Open existing segments, find the end of valid data and recycle what is already applied.
+     */
+    @PostConstruct
+    public void recover() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        Files.createDirectories(directory);
+        long applied = getAppliedSequence();
+
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(directory)) {
+            files = listing.sorted().toList();
+        }
+        long expected = -1;
+        for (Path file : files) {
+            String name = file.getFileName().toString();
+            if (name.startsWith(SPARE_PREFIX)) {
+                spares.add(file);
+                continue;
+            }
+            if (!name.startsWith(SEGMENT_PREFIX) || !name.endsWith(SEGMENT_SUFFIX)) {
+                continue;
+            }
+            long first = Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+            if (expected >= 0 && first != expected) {
+                log.warn("Ingest log segment {} does not continue sequence {}, ignoring later segments", name, expected);
+                break;
+            }
+            Segment segment = Segment.open(file, first, segmentBytes);
+            segment.scan();
+            segments.add(segment);
+            expected = segment.lastSequence + 1;
+        }
+
+        for (int i = 0; i < segments.size() - 1; i++) {
+            segments.get(i).sealed = true;
+        }
+        if (!segments.isEmpty()) {
+            Segment active = segments.get(segments.size() - 1);
+            if (active.version != FORMAT_VERSION) {
+                // New records go to a segment of the current format
+                if (active.lastSequence < active.firstSequence) {
+                    active.close();
+                    segments.set(segments.size() - 1, Segment.create(active.path, active.firstSequence, segmentBytes));
+                } else {
+                    active.sealed = true;
+                    log.info("Replaying ingest log segment {} of format version {}", active.path.getFileName(), active.version);
+                }
+            } else {
+                // Clear anything past the last valid record so stale bytes can never follow new ones
+                active.zeroFrom(active.limit);
+            }
+        }
+
+        nextSequence = Math.max(expected, applied + 1);
+        if (!segments.isEmpty() && nextSequence != expected) {
+            // The database is ahead of the log, so every segment is applied. Retire them before a
+            // fresh segment starts at the new sequence: one left behind would not be continued by
+            // it, and a later recovery would ignore the new segment
+            for (Segment segment : segments) {
+                segment.sealed = true;
+                retire(segment);
+            }
+            segments.clear();
+        }
+        long pending = segments.isEmpty() ? 0 : Math.max(0, segments.get(segments.size() - 1).lastSequence - applied);
+        log.info("Ingest log recovered {} segments, {} records pending apply, next sequence {}",
+                segments.size(), pending, nextSequence);
+        recycle(applied);
+    }
+
+    @PreDestroy
+    public void close() {
+        writeLock.lock();
+        try {
+            for (Segment segment : segments) {
+                segment.close();
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Append a reading and return its sequence once it is in the log.
+     */
+    public long append(Reading reading) {
+        byte[] sensorId = reading.getSensorId().getBytes(StandardCharsets.UTF_8);
+        int bodyLength = FIXED_BODY_BYTES + sensorId.length;
+        if (SEGMENT_HEADER_BYTES + HEADER_BYTES + bodyLength > segmentBytes || sensorId.length > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("Reading too large for ingest log segment");
+        }
+
+        writeLock.lock();
+        try {
+            Segment segment = segments.isEmpty() ? null : segments.get(segments.size() - 1);
+            if (segment == null || segment.sealed || segment.limit + HEADER_BYTES + bodyLength > segmentBytes) {
+                segment = roll(segment);
+            }
+
+            long sequence = nextSequence;
+            ByteBuffer body = ByteBuffer.allocate(bodyLength);
+            body.putLong(sequence);
+            body.putLong(reading.getBuildingId());
+            body.putLong(reading.getTimestamp().toEpochSecond(ZoneOffset.UTC));
+            body.putInt(reading.getTimestamp().getNano());
+            body.putDouble(reading.getValue());
+            body.putInt(reading.getAnomalyFlags() != null ? reading.getAnomalyFlags() : 0);
+            body.putShort((short) sensorId.length);
+            body.put(sensorId);
+
+            CRC32C crc = new CRC32C();
+            crc.update(body.array());
+
+            int position = segment.limit;
+            segment.buffer.put(position + HEADER_BYTES, body.array());
+            segment.buffer.putInt(position + 4, (int) crc.getValue());
+            segment.buffer.putInt(position, bodyLength);
+            if (forceOnAppend) {
+                segment.buffer.force(position, HEADER_BYTES + bodyLength);
+            }
+
+            nextSequence++;
+            segment.lastSequence = sequence;
+            // Publishes the record to the applier
+            segment.limit = position + HEADER_BYTES + bodyLength;
+            return sequence;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Read up to maxRecords records after the cursor (null for the start of the log).
+     * Only the applier thread reads.
+     */
+    Batch read(Cursor cursor, int maxRecords) {
+        List<Reading> readings = new ArrayList<>();
+        if (cursor == null) {
+            if (segments.isEmpty()) {
+                return new Batch(readings, 0, -1, null);
+            }
+            cursor = new Cursor(segments.get(0), segments.get(0).dataStart());
+        }
+
+        Segment segment = cursor.segment();
+        int position = cursor.position();
+        long firstSequence = -1;
+        long lastSequence = -1;
+        while (readings.size() < maxRecords) {
+            // Read sealed before limit: once sealed, a segment's limit is final
+            boolean sealed = segment.sealed;
+            int limit = segment.limit;
+            if (position < limit) {
+                ByteBuffer view = segment.buffer.duplicate();
+                view.position(position);
+                lastSequence = view.getLong(position + HEADER_BYTES);
+                if (firstSequence < 0) {
+                    firstSequence = lastSequence;
+                }
+                readings.add(decodeBody(view, segment.version));
+                position = view.position();
+            } else if (sealed) {
+                Segment next = nextSegment(segment);
+                if (next == null) {
+                    break;
+                }
+                segment = next;
+                position = next.dataStart();
+            } else {
+                break;
+            }
+        }
+        return new Batch(readings, firstSequence, lastSequence, new Cursor(segment, position));
+    }
+
+    /**
+     * Highest sequence that has been stored in the database.
+     */
+    public long getAppliedSequence() {
+        return checkpointRepository.findById(CHECKPOINT_NAME)
+                .map(LogCheckpoint::getAppliedSequence)
+                .orElse(0L);
+    }
+
+    /**
+     * Retire every sealed segment whose records are all applied.
+     */
+    public void recycle(long appliedSequence) {
+        writeLock.lock();
+        try {
+            while (segments.size() > 1 && segments.get(0).sealed && segments.get(0).lastSequence <= appliedSequence) {
+                retire(segments.remove(0));
+            }
+        } catch (IOException e) {
+            log.warn("Could not recycle ingest log segment: {}", e.getMessage());
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    // Keep an applied segment's file as a spare, or delete it once there are enough spares
+    private void retire(Segment retired) throws IOException {
+        retired.close();
+        if (spares.size() < maxSpareSegments) {
+            Path spare = directory.resolve(SPARE_PREFIX + System.nanoTime() + "-" + (spareCounter++) + SEGMENT_SUFFIX);
+            Files.move(retired.path, spare, StandardCopyOption.ATOMIC_MOVE);
+            spares.add(spare);
+        } else {
+            Files.delete(retired.path);
+        }
+        log.debug("Recycled ingest log segment {}", retired.path.getFileName());
+    }
+
+    private Segment nextSegment(Segment segment) {
+        int index = segments.indexOf(segment);
+        if (index < 0) {
+            // Already recycled, so everything in it was applied; continue at the oldest live segment
+            return segments.isEmpty() ? null : segments.get(0);
+        }
+        return index + 1 < segments.size() ? segments.get(index + 1) : null;
+    }
+
+    private Segment roll(Segment current) {
+        try {
+            if (current != null) {
+                current.buffer.force();
+                current.sealed = true;
+            }
+            Path path = directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, nextSequence, SEGMENT_SUFFIX));
+            Path spare = spares.poll();
+            if (spare != null) {
+                // Old records left in a reused file fail the sequence check, so no zeroing is needed
+                Files.move(spare, path, StandardCopyOption.ATOMIC_MOVE);
+            }
+            Segment segment = Segment.create(path, nextSequence, segmentBytes);
+            segments.add(segment);
+            log.debug("Rolled ingest log to segment {}", path.getFileName());
+            return segment;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not create ingest log segment", e);
+        }
+    }
+
+    private static Reading decodeBody(ByteBuffer view, int version) {
+        view.getInt(); // length
+        view.getInt(); // crc
+        view.getLong(); // sequence
+        long buildingId = view.getLong();
+        long epochSecond = view.getLong();
+        int nano = view.getInt();
+        double value = view.getDouble();
+        int anomalyFlags = version == LEGACY_VERSION ? 0 : view.getInt();
+        byte[] sensorId = new byte[view.getShort()];
+        view.get(sensorId);
+        Reading reading = new Reading(null, buildingId, new String(sensorId, StandardCharsets.UTF_8),
+                LocalDateTime.ofEpochSecond(epochSecond, nano, ZoneOffset.UTC), value);
+        reading.setAnomalyFlags(anomalyFlags);
+        return reading;
+    }
+
+    /**
+     * Read position of the applier: a segment and a byte offset into it.
+     */
+    record Cursor(Segment segment, int position) {
+    }
+
+    /**
+     * Contiguous readings read from the log, their sequence range and where to continue.
+     */
+    record Batch(List<Reading> readings, long firstSequence, long lastSequence, Cursor next) {
+    }
+
+    static final class Segment {
+        private final Path path;
+        private final long firstSequence;
+        private final FileChannel channel;
+        private final MappedByteBuffer buffer;
+        private final int version;
+        private volatile int limit;
+        private volatile long lastSequence;
+        private volatile boolean sealed;
+
+        private Segment(Path path, long firstSequence, FileChannel channel, MappedByteBuffer buffer, int version) {
+            this.path = path;
+            this.firstSequence = firstSequence;
+            this.channel = channel;
+            this.buffer = buffer;
+            this.version = version;
+            this.limit = dataStart();
+            this.lastSequence = firstSequence - 1;
+        }
+
+        /**
+         * Open an existing segment in the format its header names.
+         */
+        static Segment open(Path path, long firstSequence, int segmentBytes) throws IOException {
+            FileChannel channel = FileChannel.open(path,
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes);
+            int magic = buffer.getInt(0);
+            if (magic == 0) {
+                // Created but never written to
+                writeHeader(buffer);
+                return new Segment(path, firstSequence, channel, buffer, FORMAT_VERSION);
+            }
+            if (magic != SEGMENT_MAGIC) {
+                return new Segment(path, firstSequence, channel, buffer, LEGACY_VERSION);
+            }
+            int version = buffer.getInt(4);
+            if (version != FORMAT_VERSION) {
+                channel.close();
+                throw new IllegalStateException("Ingest log segment " + path.getFileName()
+                        + " has unsupported format version " + version);
+            }
+            return new Segment(path, firstSequence, channel, buffer, FORMAT_VERSION);
+        }
+
+        /**
+         * Start a segment of the current format, in a new file or a reused spare.
+         */
+        static Segment create(Path path, long firstSequence, int segmentBytes) throws IOException {
+            FileChannel channel = FileChannel.open(path,
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes);
+            writeHeader(buffer);
+            Segment segment = new Segment(path, firstSequence, channel, buffer, FORMAT_VERSION);
+            segment.zeroFrom(SEGMENT_HEADER_BYTES, HEADER_BYTES);
+            return segment;
+        }
+
+        private static void writeHeader(MappedByteBuffer buffer) {
+            buffer.putInt(0, SEGMENT_MAGIC);
+            buffer.putInt(4, FORMAT_VERSION);
+        }
+
+        int dataStart() {
+            return version == LEGACY_VERSION ? 0 : SEGMENT_HEADER_BYTES;
+        }
+
+        /**
+         * Find the end of the valid, contiguous records.
+         */
+        void scan() {
+            int position = dataStart();
+            int fixedBodyBytes = version == LEGACY_VERSION ? LEGACY_FIXED_BODY_BYTES : FIXED_BODY_BYTES;
+            long expected = firstSequence;
+            int capacity = buffer.capacity();
+            while (position + HEADER_BYTES + fixedBodyBytes <= capacity) {
+                int length = buffer.getInt(position);
+                if (length < fixedBodyBytes || position + HEADER_BYTES + length > capacity) {
+                    break;
+                }
+                byte[] body = new byte[length];
+                buffer.get(position + HEADER_BYTES, body);
+                CRC32C crc = new CRC32C();
+                crc.update(body);
+                if ((int) crc.getValue() != buffer.getInt(position + 4)
+                        || ByteBuffer.wrap(body).getLong() != expected) {
+                    break;
+                }
+                expected++;
+                position += HEADER_BYTES + length;
+            }
+            limit = position;
+            lastSequence = expected - 1;
+        }
+
+        void zeroFrom(int position) {
+            zeroFrom(position, buffer.capacity() - position);
+        }
+
+        void zeroFrom(int position, int length) {
+            byte[] zeros = new byte[Math.min(length, 64 * 1024)];
+            for (int offset = position; offset < position + length; offset += zeros.length) {
+                buffer.put(offset, zeros, 0, Math.min(zeros.length, position + length - offset));
+            }
+        }
+
+        void close() {
+            buffer.force();
+            try {
+                channel.close();
+            } catch (IOException e) {
+                log.warn("Could not close ingest log segment {}: {}", path.getFileName(), e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.decoder.service;
+
+import com.decoder.model.Reading;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Moves acknowledged readings from the ingest log into the database in large batches.
+ * Each batch is stored together with the log checkpoint in one transaction, so after a crash
+ * replay resumes right after the last committed batch and never stores a record twice.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class IngestLogApplier {
+
+    private final IngestLog ingestLog;
+    private final ReadingService readingService;
+
+    @Value("${decoder.ingest.wal.apply-batch-size:5000}")
+    private int batchSize;
+
+    // Not synchronized: a batch writes to the database, and a virtual thread blocking inside
+    // a monitor would pin its carrier for the whole write
+    private final ReentrantLock applyLock = new ReentrantLock();
+    private IngestLog.Cursor cursor;
+    private long appliedSequence;
+
+    @PostConstruct
+    public void init() {
+        if (ingestLog.isEnabled()) {
+            appliedSequence = ingestLog.getAppliedSequence();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${decoder.ingest.wal.apply-interval-ms:200}")
+    public void applyPending() {
+        if (!ingestLog.isEnabled()) {
+            return;
+        }
+        try {
+            // Keep going while the log is ahead by at least a full batch
+            int applied;
+            do {
+                applied = applyBatch();
+            } while (applied == batchSize);
+        } catch (RuntimeException e) {
+            log.error("Applying ingest log failed at sequence {}, will retry: {}", appliedSequence + 1, e.getMessage());
+        }
+    }
+
+    /**
+     * Apply everything still in the log before the database goes away.
+     */
+    @PreDestroy
+    public void drain() {
+        applyPending();
+    }
+
+    int applyBatch() {
+        applyLock.lock();
+        try {
+            IngestLog.Batch batch = ingestLog.read(cursor, batchSize);
+            List<Reading> readings = batch.readings();
+            if (readings.isEmpty()) {
+                cursor = batch.next();
+                return 0;
+            }
+
+            // Records up to the checkpoint were stored before a restart; skip them on replay
+            int skip = (int) Math.max(0, Math.min(readings.size(), appliedSequence - batch.firstSequence() + 1));
+            List<Reading> pending = readings.subList(skip, readings.size());
+            if (!pending.isEmpty()) {
+                readingService.applyLogged(pending, batch.lastSequence());
+                log.debug("Applied {} logged readings up to sequence {}", pending.size(), batch.lastSequence());
+            }
+
+            cursor = batch.next();
+            appliedSequence = batch.lastSequence();
+            ingestLog.recycle(appliedSequence);
+            return readings.size();
+        } finally {
+            applyLock.unlock();
+        }
+    }
+}
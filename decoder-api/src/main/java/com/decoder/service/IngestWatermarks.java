@@ -0,0 +1,117 @@
+package com.decoder.service;
+
+import com.decoder.model.Reading;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Per-building ingest watermark, kept in memory, and the entity tags derived from it for
+ * conditional GETs. The watermark advances whenever a building's stored readings change:
+ * on commit (as a ReadingListener), when the read model applies a reading or drops the
+ * building, and on backfill. Reading the watermark before querying gives a tag that is never
+ * newer than the data it describes.
+ * Readings also leave a time window without any ingest, so a tag carries the time until
+ * which its response stays current; a request with a tag that matches the current watermark
+ * and has not expired can be answered 304 without reading storage.
+ */
+@Service
+@RequiredArgsConstructor
+public class IngestWatermarks implements ReadingListener {
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${decoder.conditional-get.enabled:true}")
+    private boolean enabled;
+
+    // Versions restart at zero with the process; tags of earlier runs must not match
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final long startedAtMillis = System.currentTimeMillis();
+    private final ConcurrentMap<Long, Watermark> watermarks = new ConcurrentHashMap<>();
+
+    /**
+     * Number of changes seen for a building since startup and when the last one happened.
+     */
+    public record Watermark(long version, long modifiedAtMillis) {
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public void onReading(Reading reading) {
+        advance(reading.getBuildingId());
+    }
+
+    public void advance(Long buildingId) {
+        long now = System.currentTimeMillis();
+        watermarks.compute(buildingId, (id, current) ->
+                new Watermark(current != null ? current.version() + 1 : 1, now));
+    }
+
+    public Watermark get(Long buildingId) {
+        Watermark watermark = watermarks.get(buildingId);
+        return watermark != null ? watermark : new Watermark(0, startedAtMillis);
+    }
+
+    /**
+     * Weak entity tag for a response built from the building's data at the watermark.
+     *
+     * @param variant    everything else the response depends on (parameters, format)
+     * @param validUntil when the response goes out of date even without ingest; null for never
+     */
+    public String etag(String endpoint, Long buildingId, String variant, Watermark watermark, LocalDateTime validUntil) {
+        long expiresAtMillis = validUntil != null ? validUntil.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() : 0;
+        return "W/\"" + epoch + "." + watermark.version() + "." + expiresAtMillis + "." + endpoint + "."
+                + buildingId + "." + variant + "\"";
+    }
+
+    /**
+     * The tag from an If-None-Match header that still describes the current data, if any.
+     * Counts decoder.conditional.requests by endpoint and result for requests carrying tags.
+     *
+     * @return the matching tag, or null if the response has to be built
+     */
+    public String findCurrent(String endpoint, Long buildingId, String variant, String ifNoneMatch) {
+        if (!enabled || ifNoneMatch == null || ifNoneMatch.isBlank()) {
+            return null;
+        }
+        String prefix = epoch + "." + get(buildingId).version() + ".";
+        String suffix = "." + endpoint + "." + buildingId + "." + variant;
+        long now = System.currentTimeMillis();
+        String current = null;
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            String opaque = unquote(tag.startsWith("W/") ? tag.substring(2) : tag);
+            if (opaque != null && opaque.startsWith(prefix) && opaque.endsWith(suffix)
+                    && opaque.length() > prefix.length() + suffix.length()
+                    && isUnexpired(opaque.substring(prefix.length(), opaque.length() - suffix.length()), now)) {
+                current = "W/\"" + opaque + "\"";
+                break;
+            }
+        }
+        meterRegistry.counter("decoder.conditional.requests", "endpoint", endpoint,
+                "result", current != null ? "not-modified" : "modified").increment();
+        return current;
+    }
+
+    private static String unquote(String tag) {
+        return tag.length() >= 2 && tag.startsWith("\"") && tag.endsWith("\"") ? tag.substring(1, tag.length() - 1) : null;
+    }
+
+    private static boolean isUnexpired(String expiresAtMillis, long now) {
+        try {
+            long expiresAt = Long.parseLong(expiresAtMillis);
+            return expiresAt == 0 || now < expiresAt;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,429 @@
+package com.decoder.service;
+
+import com.decoder.events.DecoderEvents;
+import com.decoder.model.dto.ProfilingRecording;
+import com.decoder.model.dto.ProfilingSummary;
+import com.decoder.model.dto.ProfilingSummary.EventTiming;
+import com.decoder.model.dto.ProfilingSummary.Site;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.Configuration;
+import jdk.jfr.Event;
+import jdk.jfr.Name;
+import jdk.jfr.consumer.RecordedClass;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordedThread;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * On-demand JDK Flight Recorder recordings for diagnosing production latency without shell
+ * access. One recording runs at a time, with one of a few predefined profiles built on JFR's
+ * default settings (about 1% overhead), and stops itself after its duration. While it runs,
+ * its events are also streamed in-process and folded into a summary of hot methods and
+ * allocation sites per path (ingest or query) and timings of the DecoderEvents. Stopped
+ * recordings are written to decoder.profiling.directory for download; the newest
+ * retained-recordings are kept.
+ */
+@Service
+@Slf4j
+public class ProfilingService {
+
+    // Distinct sites kept per summary list; further sites are counted under one overflow entry
+    private static final int MAX_SITES = 10_000;
+    private static final String DECODER_PACKAGE = "com.decoder.";
+    private static final DateTimeFormatter FILE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+    private static final List<Class<? extends Event>> DECODER_EVENTS = List.of(
+            DecoderEvents.IngestBatch.class, DecoderEvents.RepositoryQuery.class, DecoderEvents.ForecastComputation.class);
+
+    // Classes whose frames tell which path a stack belongs to; the outermost one wins
+    private static final Map<String, String> PATHS = Map.ofEntries(
+            Map.entry("com.decoder.controller.IngestController", "ingest"),
+            Map.entry("com.decoder.service.IngestLog", "ingest"),
+            Map.entry("com.decoder.service.IngestLogApplier", "ingest"),
+            Map.entry("com.decoder.service.ReorderBuffer", "ingest"),
+            Map.entry("com.decoder.service.BackfillImporter", "ingest"),
+            Map.entry("com.decoder.service.ReadingWriter", "ingest"),
+            Map.entry("com.decoder.controller.BuildingController", "query"),
+            Map.entry("com.decoder.service.BulkReadingService", "query"),
+            Map.entry("com.decoder.service.ForecastPrecomputer", "query"),
+            Map.entry("com.decoder.service.ForecastService", "query"),
+            Map.entry("com.decoder.service.ResamplingService", "query"));
+    // Classes on both paths; their getters and aggregate queries are the query path
+    private static final List<String> SHARED = List.of(
+            "com.decoder.service.ReadingService", "com.decoder.service.AggregationService");
+
+    @Value("${decoder.profiling.directory:data/profiling}")
+    private String directory;
+
+    @Value("${decoder.profiling.default-duration-seconds:300}")
+    private int defaultDurationSeconds;
+
+    @Value("${decoder.profiling.max-duration-seconds:1800}")
+    private int maxDurationSeconds;
+
+    @Value("${decoder.profiling.max-size-bytes:268435456}")
+    private long maxSizeBytes;
+
+    @Value("${decoder.profiling.retained-recordings:5}")
+    private int retainedRecordings;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final AtomicInteger ids = new AtomicInteger();
+    private final Deque<Session> sessions = new ArrayDeque<>(); // Newest first
+    private Session running;
+
+    /**
+     * Predefined recording settings; all start from JFR's default configuration.
+     */
+    public enum Profile {
+        /** JFR defaults: execution samples every 20 ms, allocation samples up to 150/s. */
+        LOW(Map.of()),
+        /** Java and native execution sampled every 10 ms, for hot methods. */
+        CPU(Map.of("jdk.ExecutionSample#period", "10 ms", "jdk.NativeMethodSample#period", "10 ms")),
+        /** Allocation samples up to 500/s, for allocation sites. */
+        ALLOCATION(Map.of("jdk.ObjectAllocationSample#throttle", "500/s"));
+
+        private final Map<String, String> overrides;
+
+        Profile(Map<String, String> overrides) {
+            this.overrides = overrides;
+        }
+    }
+
+    /**
+     * Start a recording that stops by itself after durationSeconds (null for the default).
+     *
+     * @throws IllegalArgumentException if the duration is out of range
+     * @throws IllegalStateException    if a recording is already running
+     */
+    public ProfilingRecording start(Profile profile, Integer durationSeconds) {
+        int seconds = durationSeconds != null ? durationSeconds : defaultDurationSeconds;
+        if (seconds <= 0 || seconds > maxDurationSeconds) {
+            throw new IllegalArgumentException("Duration must be between 1 and " + maxDurationSeconds + " seconds");
+        }
+        lock.lock();
+        try {
+            if (running != null) {
+                throw new IllegalStateException("Recording " + running.recording.getId() + " is already running");
+            }
+            Path dir = Path.of(directory);
+            Files.createDirectories(dir);
+            Map<String, String> settings = new HashMap<>(Configuration.getConfiguration("default").getSettings());
+            settings.putAll(profile.overrides);
+
+            LocalDateTime now = LocalDateTime.now();
+            int id = ids.incrementAndGet();
+            String name = profile.name().toLowerCase(Locale.ROOT);
+            Session session = new Session(
+                    new ProfilingRecording(id, name, ProfilingRecording.State.RUNNING, now, now.plusSeconds(seconds), null, 0, null),
+                    new RecordingStream(),
+                    dir.resolve("decoder-" + id + "-" + name + "-" + now.format(FILE_TIME) + ".jfr"));
+            session.stream.setSettings(settings);
+            session.stream.setMaxSize(maxSizeBytes);
+            session.stream.onEvent("jdk.ExecutionSample", session.aggregates::onExecutionSample);
+            session.stream.onEvent("jdk.ObjectAllocationSample", session.aggregates::onAllocationSample);
+            for (Class<? extends Event> eventClass : DECODER_EVENTS) {
+                session.stream.enable(eventClass);
+                session.stream.onEvent(eventClass.getAnnotation(Name.class).value(), session.aggregates::onDecoderEvent);
+            }
+            session.stream.startAsync();
+
+            running = session;
+            sessions.addFirst(session);
+            log.info("Started profiling recording {} with profile {} for {} s", id, name, seconds);
+            return snapshot(session);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot start profiling recording", e);
+        } catch (ParseException e) {
+            throw new IllegalStateException("Cannot read the JFR default configuration", e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Stop the running recording and write it out for download.
+     *
+     * @return the stopped recording, or null if none was running
+     */
+    public ProfilingRecording stop() {
+        lock.lock();
+        try {
+            if (running == null) {
+                return null;
+            }
+            Session session = running;
+            stop(session);
+            return snapshot(session);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${decoder.profiling.check-interval-ms:1000}")
+    public void stopExpired() {
+        lock.lock();
+        try {
+            if (running != null && !LocalDateTime.now().isBefore(running.recording.getStopsAt())) {
+                stop(running);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Write out a recording still running at shutdown rather than losing it.
+     */
+    @PreDestroy
+    public void shutdown() {
+        stop();
+    }
+
+    /**
+     * Recordings of this process still retained, newest first.
+     */
+    public List<ProfilingRecording> getRecordings() {
+        lock.lock();
+        try {
+            return sessions.stream().map(ProfilingService::snapshot).toList();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * The .jfr file of a stopped recording.
+     */
+    public Optional<Path> getRecordingFile(int id) {
+        lock.lock();
+        try {
+            return sessions.stream()
+                    .filter(session -> session.recording.getId() == id
+                            && session.recording.getState() == ProfilingRecording.State.STOPPED)
+                    .map(session -> session.file)
+                    .filter(Files::exists)
+                    .findFirst();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Summary of the running recording, or of the most recent one.
+     *
+     * @return null if no recording was made
+     */
+    public ProfilingSummary getSummary(int limit) {
+        Session session;
+        ProfilingRecording recording;
+        lock.lock();
+        try {
+            session = running != null ? running : sessions.peekFirst();
+            if (session == null) {
+                return null;
+            }
+            recording = snapshot(session);
+        } finally {
+            lock.unlock();
+        }
+
+        Aggregates aggregates = session.aggregates;
+        long samples = aggregates.executionSamples.sum();
+        long bytes = aggregates.allocatedBytes.sum();
+        List<EventTiming> events = new ArrayList<>();
+        aggregates.events.forEach((event, timing) -> events.add(new EventTiming(event, timing.count.sum(),
+                timing.totalNanos.sum() / 1e6, timing.maxNanos.get() / 1e6)));
+        events.sort(Comparator.comparing(EventTiming::getEvent));
+        return new ProfilingSummary(recording, samples, bytes, top(aggregates.hotMethods, samples, limit),
+                top(aggregates.allocationSites, bytes, limit), events);
+    }
+
+    private void stop(Session session) {
+        ProfilingRecording recording = session.recording;
+        try {
+            session.stream.stop();
+            session.stream.dump(session.file);
+            recording.setSizeBytes(Files.size(session.file));
+            recording.setState(ProfilingRecording.State.STOPPED);
+            log.info("Stopped profiling recording {}, {} bytes written to {}",
+                    recording.getId(), recording.getSizeBytes(), session.file);
+        } catch (IOException | RuntimeException e) {
+            recording.setState(ProfilingRecording.State.FAILED);
+            recording.setFailure(e.getMessage());
+            log.warn("Profiling recording {} failed: {}", recording.getId(), e.getMessage());
+        } finally {
+            session.stream.close();
+            recording.setStoppedAt(LocalDateTime.now());
+            running = null;
+            prune();
+        }
+    }
+
+    private void prune() {
+        while (sessions.size() > Math.max(1, retainedRecordings)) {
+            Session oldest = sessions.removeLast();
+            try {
+                Files.deleteIfExists(oldest.file);
+            } catch (IOException e) {
+                log.warn("Could not delete profiling recording {}: {}", oldest.file, e.getMessage());
+            }
+        }
+    }
+
+    private static List<Site> top(ConcurrentMap<SiteKey, LongAdder> sites, long total, int limit) {
+        return sites.entrySet().stream()
+                .map(entry -> Map.entry(entry.getKey(), entry.getValue().sum()))
+                .sorted(Map.Entry.<SiteKey, Long>comparingByValue().reversed())
+                .limit(Math.max(0, limit))
+                .map(entry -> new Site(entry.getKey().path(), entry.getKey().frame(), entry.getKey().objectClass(),
+                        entry.getKey().decoderFrame(), entry.getValue(), total > 0 ? entry.getValue() * 100.0 / total : 0))
+                .toList();
+    }
+
+    private static ProfilingRecording snapshot(Session session) {
+        ProfilingRecording recording = session.recording;
+        return new ProfilingRecording(recording.getId(), recording.getProfile(), recording.getState(),
+                recording.getStartedAt(), recording.getStopsAt(), recording.getStoppedAt(),
+                recording.getSizeBytes(), recording.getFailure());
+    }
+
+    /**
+     * Path of a stack: that of its outermost frame from a class on one path. Stacks are
+     * truncated to JFR's stack depth, so the entry point itself is often not among the frames.
+     */
+    private static String pathOf(List<RecordedFrame> frames) {
+        for (int i = frames.size() - 1; i >= 0; i--) {
+            String type = frames.get(i).getMethod().getType().getName();
+            String path = PATHS.get(type);
+            if (path != null) {
+                return path;
+            }
+            if (SHARED.contains(type)) {
+                String method = frames.get(i).getMethod().getName().replaceFirst("^lambda\\$", "");
+                return method.startsWith("get") || method.startsWith("aggregate") ? "query" : "ingest";
+            }
+        }
+        return "other";
+    }
+
+    private record SiteKey(String path, String frame, String objectClass, String decoderFrame) {
+    }
+
+    private static final class Session {
+        private final ProfilingRecording recording;
+        private final RecordingStream stream;
+        private final Path file;
+        private final Aggregates aggregates = new Aggregates();
+
+        Session(ProfilingRecording recording, RecordingStream stream, Path file) {
+            this.recording = recording;
+            this.stream = stream;
+            this.file = file;
+        }
+    }
+
+    private static final class Timing {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+    }
+
+    /**
+     * Folds streamed events into counters; written by the stream's thread, read by summaries.
+     */
+    private static final class Aggregates {
+        private final LongAdder executionSamples = new LongAdder();
+        private final LongAdder allocatedBytes = new LongAdder();
+        private final ConcurrentMap<SiteKey, LongAdder> hotMethods = new ConcurrentHashMap<>();
+        private final ConcurrentMap<SiteKey, LongAdder> allocationSites = new ConcurrentHashMap<>();
+        private final ConcurrentMap<String, Timing> events = new ConcurrentHashMap<>();
+
+        void onExecutionSample(RecordedEvent event) {
+            if (isOwnThread(event.getThread("sampledThread"))) {
+                return;
+            }
+            executionSamples.increment();
+            add(hotMethods, siteOf(event.getStackTrace(), null), 1);
+        }
+
+        void onAllocationSample(RecordedEvent event) {
+            if (isOwnThread(event.getThread())) {
+                return;
+            }
+            long weight = event.getLong("weight");
+            allocatedBytes.add(weight);
+            RecordedClass objectClass = event.getClass("objectClass");
+            add(allocationSites, siteOf(event.getStackTrace(), objectClass != null ? objectClass.getName() : null), weight);
+        }
+
+        void onDecoderEvent(RecordedEvent event) {
+            Timing timing = events.computeIfAbsent(event.getEventType().getLabel(), label -> new Timing());
+            long nanos = event.getDuration().toNanos();
+            timing.count.increment();
+            timing.totalNanos.add(nanos);
+            timing.maxNanos.accumulate(nanos);
+        }
+
+        // Samples of the stream's own thread are the summary itself at work
+        private static boolean isOwnThread(RecordedThread thread) {
+            return thread != null && thread.getJavaThreadId() == Thread.currentThread().threadId();
+        }
+
+        private static void add(ConcurrentMap<SiteKey, LongAdder> sites, SiteKey site, long weight) {
+            LongAdder adder = sites.get(site);
+            if (adder == null) {
+                SiteKey key = sites.size() < MAX_SITES ? site : new SiteKey(site.path(), "(other sites)", null, null);
+                adder = sites.computeIfAbsent(key, k -> new LongAdder());
+            }
+            adder.add(weight);
+        }
+
+        private static SiteKey siteOf(RecordedStackTrace stackTrace, String objectClass) {
+            List<RecordedFrame> frames = stackTrace != null ? stackTrace.getFrames() : List.of();
+            if (frames.isEmpty()) {
+                return new SiteKey("other", "(no stack)", objectClass, null);
+            }
+            String decoderFrame = null;
+            for (RecordedFrame frame : frames) {
+                if (frame.getMethod().getType().getName().startsWith(DECODER_PACKAGE)) {
+                    decoderFrame = methodOf(frame) + ":" + frame.getLineNumber();
+                    break;
+                }
+            }
+            return new SiteKey(pathOf(frames), methodOf(frames.get(0)), objectClass, decoderFrame);
+        }
+
+        private static String methodOf(RecordedFrame frame) {
+            return frame.getMethod().getType().getName() + "." + frame.getMethod().getName();
+        }
+    }
+}
@@ -0,0 +1,216 @@
+package com.decoder.service;
+
+/**
+ * Mergeable quantile sketch in the DDSketch form.
+ * Values are counted in logarithmically sized bins, so every quantile it returns is within
+ * the configured relative accuracy of the true value, and two sketches merge by adding bin
+ * counts. Negative values use a mirrored set of bins; values near zero are counted apart.
+ * The number of bins per sign is capped; beyond it the smallest magnitudes are folded
+ * together, which only affects accuracy at that extreme. Not thread-safe.
+ */
+public class QuantileSketch {
+
+    private static final double ZERO_THRESHOLD = 1e-9;
+
+    private final double relativeAccuracy;
+    private final double gamma;
+    private final double logGamma;
+    private final BinStore positive;
+    private final BinStore negative;
+    private long zeroCount;
+    private long count;
+    private double sum;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+
+    /**
+     * @param relativeAccuracy maximum relative error of returned quantiles, e.g. 0.01
+     * @param maxBins          bin cap per sign
+     */
+    public QuantileSketch(double relativeAccuracy, int maxBins) {
+        if (relativeAccuracy <= 0 || relativeAccuracy >= 1) {
+            throw new IllegalArgumentException("relativeAccuracy must be in (0, 1)");
+        }
+        this.relativeAccuracy = relativeAccuracy;
+        this.gamma = (1 + relativeAccuracy) / (1 - relativeAccuracy);
+        this.logGamma = Math.log(gamma);
+        this.positive = new BinStore(maxBins);
+        this.negative = new BinStore(maxBins);
+    }
+
+    public void add(double value) {
+        if (value > ZERO_THRESHOLD) {
+            positive.add(index(value), 1);
+        } else if (value < -ZERO_THRESHOLD) {
+            negative.add(index(-value), 1);
+        } else {
+            zeroCount++;
+        }
+        count++;
+        sum += value;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+    }
+
+    /**
+     * Add all values counted by another sketch with the same relative accuracy.
+     */
+    public void merge(QuantileSketch other) {
+        if (other.relativeAccuracy != relativeAccuracy) {
+            throw new IllegalArgumentException("Cannot merge sketches with different relative accuracy");
+        }
+        if (other.count == 0) {
+            return;
+        }
+        positive.merge(other.positive);
+        negative.merge(other.negative);
+        zeroCount += other.zeroCount;
+        count += other.count;
+        sum += other.sum;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+    }
+
+    /**
+     * Value at quantile q (0 to 1), or NaN if the sketch is empty.
+     */
+    public double quantile(double q) {
+        if (q < 0 || q > 1) {
+            throw new IllegalArgumentException("q must be in [0, 1]");
+        }
+        if (count == 0) {
+            return Double.NaN;
+        }
+
+        double rank = q * (count - 1);
+        long seen = 0;
+        double result;
+
+        // Ascending value order: large negative magnitudes first, then zero, then positives
+        int bin = negative.findDescending(rank, seen);
+        if (bin != BinStore.NOT_FOUND) {
+            result = -value(bin);
+        } else {
+            seen += negative.total();
+            seen += zeroCount;
+            if (seen > rank) {
+                result = 0.0;
+            } else {
+                bin = positive.findAscending(rank, seen);
+                result = bin != BinStore.NOT_FOUND ? value(bin) : max;
+            }
+        }
+        return Math.max(min, Math.min(max, result));
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getSum() {
+        return sum;
+    }
+
+    public double getMin() {
+        return min;
+    }
+
+    public double getMax() {
+        return max;
+    }
+
+    public double getRelativeAccuracy() {
+        return relativeAccuracy;
+    }
+
+    private int index(double magnitude) {
+        return (int) Math.ceil(Math.log(magnitude) / logGamma);
+    }
+
+    // Midpoint of the bin (gamma^(i-1), gamma^i] in relative terms
+    private double value(int index) {
+        return 2 * Math.pow(gamma, index) / (gamma + 1);
+    }
+
+    /**
+     * Contiguous bin counts covering indexes [offset, offset + counts.length).
+     */
+    private static final class BinStore {
+        static final int NOT_FOUND = Integer.MIN_VALUE;
+        private static final int INITIAL_BINS = 16;
+
+        private final int maxBins;
+        private long[] counts = new long[0];
+        private int offset;
+        private long total;
+
+        BinStore(int maxBins) {
+            this.maxBins = Math.max(INITIAL_BINS, maxBins);
+        }
+
+        void add(int index, long n) {
+            if (counts.length == 0) {
+                counts = new long[INITIAL_BINS];
+                offset = index - INITIAL_BINS / 2;
+            }
+            if (index < offset || index >= offset + counts.length) {
+                index = extend(index);
+            }
+            counts[index - offset] += n;
+            total += n;
+        }
+
+        void merge(BinStore other) {
+            for (int i = 0; i < other.counts.length; i++) {
+                if (other.counts[i] != 0) {
+                    add(other.offset + i, other.counts[i]);
+                }
+            }
+        }
+
+        long total() {
+            return total;
+        }
+
+        int findAscending(double rank, long seen) {
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen > rank) {
+                    return offset + i;
+                }
+            }
+            return NOT_FOUND;
+        }
+
+        int findDescending(double rank, long seen) {
+            for (int i = counts.length - 1; i >= 0; i--) {
+                seen += counts[i];
+                if (seen > rank) {
+                    return offset + i;
+                }
+            }
+            return NOT_FOUND;
+        }
+
+        /**
+         * Grow the array to cover index and return where the count goes; if the range would
+         * exceed maxBins, the lowest bins are folded into the lowest one kept.
+         */
+        private int extend(int index) {
+            int low = Math.min(index, offset);
+            int high = Math.max(index, offset + counts.length - 1);
+            int length = Math.min(maxBins, Math.max(high - low + 1, counts.length * 2));
+            int newOffset = index < offset ? high - length + 1 : Math.max(low, high - length + 1);
+
+            long[] grown = new long[length];
+            for (int i = 0; i < counts.length; i++) {
+                if (counts[i] != 0) {
+                    grown[Math.max(offset + i, newOffset) - newOffset] += counts[i];
+                }
+            }
+            counts = grown;
+            offset = newOffset;
+            return Math.max(index, newOffset);
+        }
+    }
+}
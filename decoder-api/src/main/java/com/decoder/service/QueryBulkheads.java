@@ -0,0 +1,233 @@
+package com.decoder.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Per-tenant bulkheads for query execution. At most max-concurrent queries run at once and
+ * each tenant (the requesting user) at most tenant-concurrency of them. Queries beyond that
+ * wait in a per-tenant queue; whenever a slot frees up it goes to the next tenant in
+ * round-robin order rather than to the oldest waiter overall, so a tenant with a deep queue
+ * cannot starve one with a single request. A tenant's queue holds tenant-queue requests and
+ * all queues together max-queued; beyond that, or after queue-timeout-ms, a query is
+ * rejected. Queries therefore hold a bounded number of request threads, and ingest, which
+ * has its own in-flight limit (IngestAdmissionControl), never queues behind them.
+ * Queries run on the calling thread and waiting uses a ReentrantLock condition, which
+ * parks platform and virtual threads alike without pinning a carrier.
+ */
+@Service
+@Slf4j
+public class QueryBulkheads {
+
+    private final boolean enabled;
+    private final int maxConcurrent;
+    private final int tenantConcurrency;
+    private final int tenantQueue;
+    private final int maxQueued;
+    private final long queueTimeoutNanos;
+    private final MeterRegistry meterRegistry;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<String, Tenant> tenants = new HashMap<>();
+    // Tenants with waiters and a free tenant slot, in the order they get the next free slot
+    private final Deque<Tenant> ready = new ArrayDeque<>();
+    private int running;
+    private int queued;
+
+    public QueryBulkheads(
+            MeterRegistry meterRegistry,
+            @Value("${decoder.bulkhead.enabled:true}") boolean enabled,
+            @Value("${decoder.bulkhead.max-concurrent:16}") int maxConcurrent,
+            @Value("${decoder.bulkhead.tenant-concurrency:4}") int tenantConcurrency,
+            @Value("${decoder.bulkhead.tenant-queue:16}") int tenantQueue,
+            @Value("${decoder.bulkhead.max-queued:64}") int maxQueued,
+            @Value("${decoder.bulkhead.queue-timeout-ms:5000}") long queueTimeoutMs) {
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.maxConcurrent = Math.max(1, maxConcurrent);
+        this.tenantConcurrency = Math.max(1, tenantConcurrency);
+        this.tenantQueue = Math.max(0, tenantQueue);
+        this.maxQueued = Math.max(0, maxQueued);
+        this.queueTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(queueTimeoutMs);
+    }
+
+    @PostConstruct
+    public void registerMetrics() {
+        Gauge.builder("decoder.bulkhead.running", this, bulkheads -> bulkheads.snapshot(true))
+                .description("Queries executing inside the bulkheads")
+                .register(meterRegistry);
+        Gauge.builder("decoder.bulkhead.queued", this, bulkheads -> bulkheads.snapshot(false))
+                .description("Queries waiting for a bulkhead slot")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Run a query in the tenant's bulkhead, waiting for a slot if necessary.
+     *
+     * @throws BulkheadRejectedException if the tenant's queue or all queues are full, or no
+     *                                   slot became free within queue-timeout-ms
+     */
+    public <T> T execute(String tenant, Supplier<T> query) {
+        if (!enabled) {
+            return query.get();
+        }
+        Tenant admitted = acquire(tenant);
+        try {
+            return query.get();
+        } finally {
+            release(admitted);
+        }
+    }
+
+    private Tenant acquire(String name) {
+        lock.lock();
+        try {
+            Tenant tenant = tenants.computeIfAbsent(name, Tenant::new);
+            if (tenant.waiters.isEmpty() && tenant.running < tenantConcurrency && running < maxConcurrent) {
+                tenant.running++;
+                running++;
+                return tenant;
+            }
+            if (tenant.waiters.size() >= tenantQueue || queued >= maxQueued) {
+                forgetIfIdle(tenant);
+                throw reject(name, "queue-full");
+            }
+
+            Waiter waiter = new Waiter(lock.newCondition());
+            tenant.waiters.add(waiter);
+            queued++;
+            markReady(tenant);
+            dispatch();
+
+            long remainingNanos = queueTimeoutNanos;
+            try {
+                while (!waiter.admitted && remainingNanos > 0) {
+                    remainingNanos = waiter.granted.awaitNanos(remainingNanos);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (waiter.admitted) {
+                return tenant;
+            }
+            tenant.waiters.remove(waiter);
+            queued--;
+            forgetIfIdle(tenant);
+            throw reject(name, Thread.currentThread().isInterrupted() ? "interrupted" : "timeout");
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void release(Tenant tenant) {
+        lock.lock();
+        try {
+            tenant.running--;
+            running--;
+            markReady(tenant);
+            dispatch();
+            forgetIfIdle(tenant);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Hand free slots to waiting tenants, one per tenant per round
+    private void dispatch() {
+        while (running < maxConcurrent && !ready.isEmpty()) {
+            Tenant tenant = ready.poll();
+            tenant.ready = false;
+            if (tenant.waiters.isEmpty() || tenant.running >= tenantConcurrency) {
+                continue;
+            }
+            Waiter waiter = tenant.waiters.poll();
+            queued--;
+            tenant.running++;
+            running++;
+            waiter.admitted = true;
+            waiter.granted.signal();
+            markReady(tenant);
+        }
+    }
+
+    private void markReady(Tenant tenant) {
+        if (!tenant.ready && !tenant.waiters.isEmpty() && tenant.running < tenantConcurrency) {
+            tenant.ready = true;
+            ready.add(tenant);
+        }
+    }
+
+    private void forgetIfIdle(Tenant tenant) {
+        if (tenant.running == 0 && tenant.waiters.isEmpty()) {
+            tenants.remove(tenant.name);
+        }
+    }
+
+    private BulkheadRejectedException reject(String tenant, String reason) {
+        meterRegistry.counter("decoder.bulkhead.rejected", "reason", reason).increment();
+        log.warn("Query of {} rejected by bulkhead: {}", tenant, reason);
+        return new BulkheadRejectedException("Query capacity for " + tenant + " exhausted (" + reason + ")",
+                TimeUnit.NANOSECONDS.toMillis(queueTimeoutNanos));
+    }
+
+    private double snapshot(boolean runningQueries) {
+        lock.lock();
+        try {
+            return runningQueries ? running : queued;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Slots and queue of one tenant. Guarded by the bulkheads' lock.
+     */
+    private static final class Tenant {
+        private final String name;
+        private final Deque<Waiter> waiters = new ArrayDeque<>();
+        private int running;
+        private boolean ready;
+
+        Tenant(String name) {
+            this.name = name;
+        }
+    }
+
+    private static final class Waiter {
+        private final Condition granted;
+        private boolean admitted;
+
+        Waiter(Condition granted) {
+            this.granted = granted;
+        }
+    }
+
+    /**
+     * Thrown when a query cannot get a bulkhead slot; the client should retry later.
+     */
+    public static class BulkheadRejectedException extends RuntimeException {
+        private final long retryAfterMillis;
+
+        public BulkheadRejectedException(String message, long retryAfterMillis) {
+            super(message);
+            this.retryAfterMillis = retryAfterMillis;
+        }
+
+        public long getRetryAfterMillis() {
+            return retryAfterMillis;
+        }
+    }
+}
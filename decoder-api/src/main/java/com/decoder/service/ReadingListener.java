@@ -0,0 +1,13 @@
+package com.decoder.service;
+
+import com.decoder.model.Reading;
+
+/**
+ * Callback for components that react to readings once they are committed to storage.
+ * Invoked by ReadingWriter on the writing thread, so implementations must be cheap
+ * and must not throw.
+ */
+public interface ReadingListener {
+    
+    void onReading(Reading reading);
+}
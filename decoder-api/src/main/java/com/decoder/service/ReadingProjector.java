@@ -0,0 +1,208 @@
+package com.decoder.service;
+
+import com.decoder.model.Reading;
+import com.decoder.model.dto.ReadModelStatus;
+import com.decoder.repository.ReadingJdbcRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Feeds the BuildingReadModel from committed ingest, asynchronously.
+ * Committed readings are queued by the write path and applied in commit order by a single
+ * projector thread, so ingest never waits on the read model and queries never touch the
+ * readings table. Replication lag is tracked per event and exposed through getStatus().
+ * Applied events advance the building's ingest watermark, so read-model responses
+ * revalidate once the model has caught up.
+ * An event that fails to apply is not counted as applied: its building is marked stale and
+ * rebuilt from storage, retried until it succeeds. Events for a stale building are already
+ * stored, so they are left to the rebuild. A reading whose event is published while the
+ * rebuild query runs can be projected twice until it leaves the window.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ReadingProjector implements ReadingListener {
+
+    private static final int APPLY_BATCH_SIZE = 512;
+    private static final long REBUILD_RETRY_MILLIS = 1000;
+
+    private final BuildingReadModel readModel;
+    private final ReadingJdbcRepository readingJdbcRepository;
+    private final IngestWatermarks ingestWatermarks;
+
+    private final BlockingQueue<ProjectionEvent> queue = new LinkedBlockingQueue<>();
+    private final AtomicLong publishedEvents = new AtomicLong();
+    private final AtomicLong appliedEvents = new AtomicLong();
+    // Buildings to rebuild from storage, with the events they owe to appliedEvents
+    private final ConcurrentMap<Long, StaleBuilding> staleBuildings = new ConcurrentHashMap<>();
+    private volatile long lastApplyLagNanos;
+    private volatile boolean running = true;
+
+    private final Thread projectorThread = Thread.ofPlatform()
+            .name("reading-projector")
+            .daemon(true)
+            .unstarted(this::run);
+
+    /**
+     * Rebuild the read model from storage, then start following new commits.
+     */
+    @PostConstruct
+    public void start() {
+        LocalDateTime from = LocalDateTime.now().minusMinutes(readModel.getWindowMinutes());
+        try {
+            AtomicLong rebuilt = new AtomicLong();
+            readingJdbcRepository.streamSince(from, reading -> {
+                readModel.apply(reading);
+                rebuilt.incrementAndGet();
+            });
+            log.info("Read model rebuilt from {} stored readings", rebuilt.get());
+        } catch (DataAccessException e) {
+            // The read model only serves recent data; start empty rather than fail startup
+            log.error("Could not rebuild read model from storage: {}", e.getMessage());
+        }
+        projectorThread.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        projectorThread.interrupt();
+    }
+
+    @Override
+    public void onReading(Reading reading) {
+        publishedEvents.incrementAndGet();
+        queue.add(new ProjectionEvent(reading, null, System.nanoTime()));
+    }
+
+    /**
+     * Remove a building from the read model once all readings queued before it are applied.
+     */
+    public void dropBuilding(Long buildingId) {
+        publishedEvents.incrementAndGet();
+        queue.add(new ProjectionEvent(null, buildingId, System.nanoTime()));
+    }
+
+    public ReadModelStatus getStatus() {
+        long published = publishedEvents.get();
+        long applied = appliedEvents.get();
+        ProjectionEvent oldest = queue.peek();
+        long oldestNanos = oldest != null ? oldest.enqueuedNanos() : Long.MAX_VALUE;
+        for (StaleBuilding stale : staleBuildings.values()) {
+            oldestNanos = Math.min(oldestNanos, stale.sinceNanos);
+        }
+        long lagNanos = oldestNanos != Long.MAX_VALUE ? System.nanoTime() - oldestNanos : 0L;
+        return new ReadModelStatus(
+                published,
+                applied,
+                Math.max(0, published - applied),
+                TimeUnit.NANOSECONDS.toMillis(lagNanos),
+                TimeUnit.NANOSECONDS.toMillis(lastApplyLagNanos),
+                readModel.getWindowMinutes(),
+                staleBuildings.size()
+        );
+    }
+
+    private void run() {
+        List<ProjectionEvent> batch = new ArrayList<>(APPLY_BATCH_SIZE);
+        while (running) {
+            try {
+                // Wake up without new events while a failed rebuild waits for its retry
+                ProjectionEvent first = staleBuildings.isEmpty()
+                        ? queue.take()
+                        : queue.poll(REBUILD_RETRY_MILLIS, TimeUnit.MILLISECONDS);
+                if (first != null) {
+                    batch.add(first);
+                    queue.drainTo(batch, APPLY_BATCH_SIZE - 1);
+                    applyBatch(batch);
+                }
+                rebuildStaleBuildings();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    void applyBatch(List<ProjectionEvent> batch) {
+        int applied = 0;
+        for (ProjectionEvent event : batch) {
+            Long buildingId = event.reading() != null ? event.reading().getBuildingId() : event.droppedBuildingId();
+            StaleBuilding stale = staleBuildings.get(buildingId);
+            if (stale != null) {
+                stale.events++;
+                continue;
+            }
+            try {
+                if (event.reading() != null) {
+                    readModel.apply(event.reading());
+                } else {
+                    readModel.dropBuilding(buildingId);
+                }
+                ingestWatermarks.advance(buildingId);
+                applied++;
+            } catch (RuntimeException e) {
+                log.error("Projecting an event of building {} failed, rebuilding it from storage: {}",
+                        buildingId, e.getMessage());
+                readModel.markStale(buildingId);
+                staleBuildings.put(buildingId, new StaleBuilding(event.enqueuedNanos()));
+            }
+        }
+        lastApplyLagNanos = System.nanoTime() - batch.get(batch.size() - 1).enqueuedNanos();
+        appliedEvents.addAndGet(applied);
+    }
+
+    void rebuildStaleBuildings() {
+        Iterator<Map.Entry<Long, StaleBuilding>> stale = staleBuildings.entrySet().iterator();
+        while (stale.hasNext()) {
+            Map.Entry<Long, StaleBuilding> entry = stale.next();
+            Long buildingId = entry.getKey();
+            try {
+                List<Reading> stored = new ArrayList<>(readingJdbcRepository.findLastReadingsByBuildingId(
+                        buildingId, LocalDateTime.now().minusMinutes(readModel.getWindowMinutes())));
+                stored.sort(Comparator.comparing(Reading::getTimestamp));
+                readModel.rebuild(buildingId, stored);
+                ingestWatermarks.advance(buildingId);
+                appliedEvents.addAndGet(entry.getValue().events);
+                stale.remove();
+                log.info("Read model of building {} rebuilt from {} stored readings", buildingId, stored.size());
+            } catch (RuntimeException e) {
+                log.error("Rebuilding read model of building {} failed, retrying: {}", buildingId, e.getMessage());
+            }
+        }
+    }
+
+    record ProjectionEvent(Reading reading, Long droppedBuildingId, long enqueuedNanos) {
+    }
+
+    /**
+     * A building awaiting its rebuild. Only the projector thread updates it.
+     */
+    private static final class StaleBuilding {
+        private final long sinceNanos;
+        private long events = 1;
+
+        StaleBuilding(long sinceNanos) {
+            this.sinceNanos = sinceNanos;
+        }
+    }
+}
@@ -1,19 +1,29 @@
 package com.decoder.service;
 
+import com.decoder.model.Anomaly;
+import com.decoder.model.LogCheckpoint;
 import com.decoder.model.Reading;
+import com.decoder.model.dto.BuildingSummary;
 import com.decoder.model.dto.ReadingRequest;
 import com.decoder.model.dto.ReadingResponse;
-import com.decoder.repository.ReadingRepository;
-import jakarta.persistence.EntityManager;
-import jakarta.persistence.PersistenceContext;
-import jakarta.transaction.Transactional;
+import com.decoder.repository.LogCheckpointRepository;
+import com.decoder.repository.ReadingJdbcRepository;
+import com.decoder.repository.SensorRegistry;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
@@ -21,18 +31,207 @@ import java.util.stream.Collectors;
 @Slf4j
 public class ReadingService {
     
-    private final ReadingRepository readingRepository;
+    private final ReadingJdbcRepository readingJdbcRepository;
+    private final SensorRegistry sensorRegistry;
+    private final ReadingWriter readingWriter;
+    private final ReorderBuffer reorderBuffer;
+    private final BuildingReadModel readModel;
+    private final IngestLog ingestLog;
+    private final LogCheckpointRepository checkpointRepository;
+    private final AnomalyDetector anomalyDetector;
+    private final PlatformTransactionManager transactionManager;
+    private final MeterRegistry meterRegistry;
     
-    @PersistenceContext
-    private EntityManager entityManager;
+    private final SingleFlight<LastReadingsKey, List<ReadingResponse>> lastReadingFlights = new SingleFlight<>();
     
     private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
+    // Stays well below SQLite's bound parameter limit
+    private static final int BUILDING_ID_CHUNK = 500;
+    private static final Comparator<Reading> BY_BUILDING_AND_TIMESTAMP =
+            Comparator.comparing(Reading::getBuildingId).thenComparing(Reading::getTimestamp);
     
-    @Transactional
+    private record LastReadingsKey(Long buildingId, int minutes) {
+    }
+    
+    @PostConstruct
+    public void registerMetrics() {
+        lastReadingFlights.bindTo(meterRegistry, "last-readings");
+    }
+    
+    public boolean isIngestLogEnabled() {
+        return ingestLog.isEnabled();
+    }
+    
+    /**
+     * Store one reading. With sharded storage the reading is written in a transaction on its
+     * shard only: holding a connection to the main database meanwhile would serialize ingest
+     * across all shards again.
+     */
     public ReadingResponse ingestReading(ReadingRequest request) {
+        if (readingJdbcRepository.isSharded()) {
+            return storeReading(request);
+        }
+        return new TransactionTemplate(transactionManager).execute(status -> storeReading(request));
+    }
+    
+    private ReadingResponse storeReading(ReadingRequest request) {
         log.debug("Ingesting reading: buildingId={}, sensorId={}, value={}", 
                 request.getBuildingId(), request.getSensorId(), request.getValue());
         
+        Reading reading = toReading(request);
+        reading.setSensorRef(sensorRegistry.resolveOrRegister(request.getSensorId()));
+        reading.setAnomalyFlags(anomalyDetector.evaluate(reading));
+        
+        // Out-of-order tolerant mode: hold the reading and release it in timestamp order.
+        // It is acknowledged before it is stored, so it has no id yet
+        if (reorderBuffer.isEnabled()) {
+            reorderBuffer.offer(reading);
+            log.debug("Reading buffered for in-order release: buildingId={}, timestamp={}",
+                    reading.getBuildingId(), reading.getTimestamp());
+            return mapToResponse(reading);
+        }
+        
+        reading.setId(readingWriter.insert(reading));
+        
+        log.info("Reading saved with id: {}", reading.getId());
+        
+        return mapToResponse(reading);
+    }
+    
+    /**
+     * Acknowledge a reading once it is in the ingest log; IngestLogApplier stores it later.
+     * Deliberately not transactional: the ack must not wait for a database connection.
+     */
+    public ReadingResponse logReading(ReadingRequest request) {
+        Reading reading = toReading(request);
+        reading.setAnomalyFlags(anomalyDetector.evaluate(reading));
+        long sequence = ingestLog.append(reading);
+        log.debug("Reading logged with sequence {}: buildingId={}, sensorId={}",
+                sequence, reading.getBuildingId(), reading.getSensorId());
+        return mapToResponse(reading);
+    }
+    
+    /**
+     * Store readings taken from the ingest log and advance the log checkpoint, atomically.
+     * Sharded, the shards commit their readings before the checkpoint is saved on the main
+     * database, so a batch replayed after a crash in between only stores what is missing.
+     */
+    public void applyLogged(List<Reading> readings, long upToSequence) {
+        List<Reading> sorted = new ArrayList<>(readings);
+        sorted.sort(BY_BUILDING_AND_TIMESTAMP);
+        if (readingJdbcRepository.isSharded()) {
+            resolveSensors(sorted);
+            readingWriter.insertMissing(sorted);
+            checkpointRepository.save(new LogCheckpoint(IngestLog.CHECKPOINT_NAME, upToSequence));
+            return;
+        }
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            resolveSensors(sorted);
+            readingWriter.insertBatch(sorted);
+            checkpointRepository.save(new LogCheckpoint(IngestLog.CHECKPOINT_NAME, upToSequence));
+        });
+    }
+    
+    /**
+     * Store a batch of readings handed over by another node, in one transaction (sharded, one
+     * per shard), and return how many were new. Readings already stored for the same sensor and
+     * instant are skipped, so the sending node may retry a batch whose acknowledgement it did
+     * not get.
+     */
+    public int importReadings(List<ReadingRequest> requests) {
+        log.debug("Importing {} readings", requests.size());
+        
+        List<Reading> readings = requests.stream()
+                .map(this::toReading)
+                .collect(Collectors.toList());
+        if (readingJdbcRepository.isSharded()) {
+            resolveSensors(readings);
+            return readingWriter.insertMissing(readings);
+        }
+        return new TransactionTemplate(transactionManager).execute(status -> {
+            resolveSensors(readings);
+            return readingWriter.insertMissing(readings);
+        });
+    }
+    
+    private void resolveSensors(List<Reading> readings) {
+        for (Reading reading : readings) {
+            reading.setSensorRef(sensorRegistry.resolveOrRegister(reading.getSensorId()));
+        }
+    }
+    
+    /**
+     * Last readings from the primary store; reflects every reading committed before the query
+     * started. Concurrent requests for the same building and window share one query, so a
+     * caller may get the result of a query that was already running when it arrived.
+     */
+    public List<ReadingResponse> getLastReadings(Long buildingId, int minutes) {
+        return lastReadingFlights.execute(new LastReadingsKey(buildingId, minutes), () -> {
+            log.debug("Fetching last readings for building {} within last {} minutes", 
+                    buildingId, minutes);
+            
+            LocalDateTime fromTimestamp = LocalDateTime.now().minusMinutes(minutes);
+            List<Reading> readings = readingJdbcRepository
+                    .findLastReadingsByBuildingId(buildingId, fromTimestamp);
+            
+            return readings.stream()
+                    .map(this::mapToResponse)
+                    .toList();
+        });
+    }
+    
+    /**
+     * Last readings of many buildings from the primary store, grouped per building in the
+     * order given; every building gets an entry, empty if it has no readings. One query per
+     * BUILDING_ID_CHUNK buildings, each using the (building_id, timestamp) index.
+     */
+    public Map<Long, List<ReadingResponse>> getLastReadingsForBuildings(List<Long> buildingIds, int minutes) {
+        log.debug("Fetching last readings for {} buildings within last {} minutes", buildingIds.size(), minutes);
+        
+        Map<Long, List<ReadingResponse>> grouped = new LinkedHashMap<>();
+        buildingIds.forEach(id -> grouped.put(id, new ArrayList<>()));
+        
+        LocalDateTime fromTimestamp = LocalDateTime.now().minusMinutes(minutes);
+        for (int start = 0; start < buildingIds.size(); start += BUILDING_ID_CHUNK) {
+            List<Long> chunk = buildingIds.subList(start, Math.min(buildingIds.size(), start + BUILDING_ID_CHUNK));
+            for (Reading reading : readingJdbcRepository.findLastReadingsByBuildingIds(chunk, fromTimestamp)) {
+                grouped.get(reading.getBuildingId()).add(mapToResponse(reading));
+            }
+        }
+        return grouped;
+    }
+    
+    /**
+     * Last readings from the read model; may trail ingest by the projector lag.
+     * Ranges longer than the read model window, and buildings whose projection is being
+     * rebuilt, are served from the primary store.
+     */
+    public List<ReadingResponse> getLastReadingsFromReadModel(Long buildingId, int minutes) {
+        if (minutes > readModel.getWindowMinutes() || readModel.isStale(buildingId)) {
+            return getLastReadings(buildingId, minutes);
+        }
+        
+        log.debug("Fetching last readings for building {} within last {} minutes from read model", 
+                buildingId, minutes);
+        return readModel.getReadingsSince(buildingId, LocalDateTime.now().minusMinutes(minutes));
+    }
+    
+    /**
+     * Readings flagged by the anomaly detector within the last minutes, newest first.
+     */
+    public List<ReadingResponse> getAnomalies(Long buildingId, int minutes) {
+        LocalDateTime fromTimestamp = LocalDateTime.now().minusMinutes(minutes);
+        return readingJdbcRepository.findAnomaliesByBuildingId(buildingId, fromTimestamp).stream()
+                .map(this::mapToResponse)
+                .collect(Collectors.toList());
+    }
+    
+    public BuildingSummary getSummary(Long buildingId, int minutes) {
+        int window = Math.min(minutes, readModel.getWindowMinutes());
+        return readModel.getSummary(buildingId, LocalDateTime.now().minusMinutes(window));
+    }
+    
+    private Reading toReading(ReadingRequest request) {
         Reading reading = new Reading();
         reading.setBuildingId(request.getBuildingId());
         reading.setSensorId(request.getSensorId());
@@ -51,41 +250,7 @@ public class ReadingService {
         }
         reading.setTimestamp(timestamp);
         reading.setValue(request.getValue());
-        
-        // Use native SQL to avoid getGeneratedKeys() issue with SQLite
-        String sql = "INSERT INTO readings (building_id, sensor_id, timestamp, value) VALUES (?, ?, ?, ?)";
-        entityManager.createNativeQuery(sql)
-                .setParameter(1, reading.getBuildingId())
-                .setParameter(2, reading.getSensorId())
-                .setParameter(3, reading.getTimestamp())
-                .setParameter(4, reading.getValue())
-                .executeUpdate();
-        
-        entityManager.flush();
-        entityManager.clear();
-        
-        // Get the inserted ID using last_insert_rowid()
-        Long insertedId = ((Number) entityManager.createNativeQuery("SELECT last_insert_rowid()")
-                .getSingleResult()).longValue();
-        
-        reading.setId(insertedId);
-        
-        log.info("Reading saved with id: {}", reading.getId());
-        
-        return mapToResponse(reading);
-    }
-    
-    public List<ReadingResponse> getLastReadings(Long buildingId, int minutes) {
-        log.debug("Fetching last readings for building {} within last {} minutes", 
-                buildingId, minutes);
-        
-        LocalDateTime fromTimestamp = LocalDateTime.now().minusMinutes(minutes);
-        List<Reading> readings = readingRepository
-                .findLastReadingsByBuildingId(buildingId, fromTimestamp);
-        
-        return readings.stream()
-                .map(this::mapToResponse)
-                .collect(Collectors.toList());
+        return reading;
     }
     
     private ReadingResponse mapToResponse(Reading reading) {
@@ -93,7 +258,8 @@ public class ReadingService {
                 reading.getBuildingId(),
                 reading.getSensorId(),
                 reading.getTimestamp(),
-                reading.getValue()
+                reading.getValue(),
+                Anomaly.fromFlags(reading.getAnomalyFlags())
         );
     }
 }
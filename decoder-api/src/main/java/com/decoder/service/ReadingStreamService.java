@@ -0,0 +1,165 @@
+package com.decoder.service;
+
+import com.decoder.model.Anomaly;
+import com.decoder.model.Reading;
+import com.decoder.model.dto.ReadingResponse;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Pushes newly stored readings to Server-Sent Events subscribers of each building.
+ * Every subscriber has a bounded buffer drained by its own virtual thread, so a slow
+ * client only blocks itself; a subscriber whose buffer overflows is evicted.
+ */
+@Service
+@Slf4j
+public class ReadingStreamService implements ReadingListener {
+
+    private static final Object HEARTBEAT = new Object();
+
+    @Value("${decoder.stream.buffer-size:256}")
+    private int bufferSize;
+
+    @Value("${decoder.stream.timeout-ms:1800000}")
+    private long timeoutMs;
+
+    private final ConcurrentMap<Long, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final ExecutorService dispatcher = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("reading-stream-", 0).factory());
+
+    /**
+     * Register a new subscriber for a building. Access must already have been checked.
+     */
+    public SseEmitter subscribe(Long buildingId) {
+        return subscribe(buildingId, new SseEmitter(timeoutMs));
+    }
+
+    SseEmitter subscribe(Long buildingId, SseEmitter emitter) {
+        Subscriber subscriber = new Subscriber(buildingId, emitter, new ArrayBlockingQueue<>(bufferSize));
+
+        subscribers.computeIfAbsent(buildingId, id -> ConcurrentHashMap.newKeySet()).add(subscriber);
+        emitter.onCompletion(() -> remove(subscriber));
+        emitter.onTimeout(() -> remove(subscriber));
+        emitter.onError(e -> remove(subscriber));
+
+        log.debug("New reading stream subscriber for building {}", buildingId);
+        return emitter;
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.values().stream().mapToInt(Set::size).sum();
+    }
+
+    @Override
+    public void onReading(Reading reading) {
+        Set<Subscriber> buildingSubscribers = subscribers.get(reading.getBuildingId());
+        if (buildingSubscribers == null || buildingSubscribers.isEmpty()) {
+            return;
+        }
+
+        ReadingResponse event = new ReadingResponse(
+                reading.getBuildingId(),
+                reading.getSensorId(),
+                reading.getTimestamp(),
+                reading.getValue(),
+                Anomaly.fromFlags(reading.getAnomalyFlags())
+        );
+        for (Subscriber subscriber : buildingSubscribers) {
+            if (subscriber.queue.offer(event)) {
+                schedule(subscriber);
+            } else {
+                evict(subscriber, "buffer full");
+            }
+        }
+    }
+
+    /**
+     * Keep idle connections alive and detect clients that have gone away.
+     */
+    @Scheduled(fixedDelayString = "${decoder.stream.heartbeat-ms:15000}")
+    public void heartbeat() {
+        for (Set<Subscriber> buildingSubscribers : subscribers.values()) {
+            for (Subscriber subscriber : buildingSubscribers) {
+                if (subscriber.queue.isEmpty() && subscriber.queue.offer(HEARTBEAT)) {
+                    schedule(subscriber);
+                }
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        subscribers.values().forEach(buildingSubscribers ->
+                buildingSubscribers.forEach(subscriber -> subscriber.emitter.complete()));
+        subscribers.clear();
+        dispatcher.shutdownNow();
+    }
+
+    private void schedule(Subscriber subscriber) {
+        if (subscriber.draining.compareAndSet(false, true)) {
+            dispatcher.execute(() -> drain(subscriber));
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        try {
+            Object item;
+            while ((item = subscriber.queue.poll()) != null) {
+                if (item == HEARTBEAT) {
+                    subscriber.emitter.send(SseEmitter.event().comment("heartbeat"));
+                } else {
+                    subscriber.emitter.send(SseEmitter.event().name("reading").data(item));
+                }
+            }
+        } catch (IOException | IllegalStateException e) {
+            evict(subscriber, "send failed");
+            return;
+        } finally {
+            subscriber.draining.set(false);
+        }
+
+        // An event may have been queued after the last poll but before the flag was cleared
+        if (!subscriber.queue.isEmpty()) {
+            schedule(subscriber);
+        }
+    }
+
+    private void evict(Subscriber subscriber, String reason) {
+        if (remove(subscriber)) {
+            log.warn("Evicting reading stream subscriber for building {}: {}", subscriber.buildingId, reason);
+            subscriber.emitter.complete();
+        }
+    }
+
+    private boolean remove(Subscriber subscriber) {
+        Set<Subscriber> buildingSubscribers = subscribers.get(subscriber.buildingId);
+        return buildingSubscribers != null && buildingSubscribers.remove(subscriber);
+    }
+
+    private static final class Subscriber {
+        private final Long buildingId;
+        private final SseEmitter emitter;
+        private final BlockingQueue<Object> queue;
+        private final AtomicBoolean draining = new AtomicBoolean();
+
+        Subscriber(Long buildingId, SseEmitter emitter, BlockingQueue<Object> queue) {
+            this.buildingId = buildingId;
+            this.emitter = emitter;
+            this.queue = queue;
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.decoder.service;
+
+import com.decoder.events.DecoderEvents;
+import com.decoder.model.Reading;
+import com.decoder.repository.ReadingJdbcRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * Single write path for readings into primary storage.
+ * Every component that persists readings (direct ingest, reorder buffer, ...) goes through here,
+ * and registered ReadingListeners are notified once the writing transaction commits.
+ * Rows are written through ReadingJdbcRepository, outside the JPA persistence context.
+ * With sharded storage batches are written in transactions local to their shards only:
+ * holding the single main database connection meanwhile would serialize every writer again.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ReadingWriter {
+    
+    private final List<ReadingListener> readingListeners;
+    private final ReadingJdbcRepository readingJdbcRepository;
+    private final PlatformTransactionManager transactionManager;
+    
+    /**
+     * Insert a single reading and return its generated id. Joins the caller's transaction if
+     * there is one; listeners are notified after it commits.
+     */
+    public Long insert(Reading reading) {
+        DecoderEvents.IngestBatch event = new DecoderEvents.IngestBatch();
+        event.begin();
+        Long insertedId = readingJdbcRepository.insert(reading);
+        commit(event, 1);
+        
+        publishAfterCommit(List.of(reading));
+        return insertedId;
+    }
+    
+    /**
+     * Insert a batch of readings in one transaction, in the order given; sharded, in one
+     * transaction per shard.
+     */
+    public void insertBatch(List<Reading> readings) {
+        if (readings.isEmpty()) {
+            return;
+        }
+        if (!readingJdbcRepository.isSharded()) {
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> storeBatch(readings));
+            return;
+        }
+        storeBatch(readings);
+    }
+    
+    /**
+     * Insert the readings of a batch that are not stored yet, in one transaction (sharded, one
+     * per shard), and return how many were inserted. Listeners only hear of those, so a batch
+     * sent twice is counted once.
+     */
+    public int insertMissing(List<Reading> readings) {
+        if (readings.isEmpty()) {
+            return 0;
+        }
+        if (!readingJdbcRepository.isSharded()) {
+            return new TransactionTemplate(transactionManager).execute(status -> storeMissing(readings));
+        }
+        return storeMissing(readings);
+    }
+    
+    private void storeBatch(List<Reading> readings) {
+        DecoderEvents.IngestBatch event = new DecoderEvents.IngestBatch();
+        event.begin();
+        readingJdbcRepository.insertBatch(readings);
+        commit(event, readings.size());
+        
+        log.debug("Inserted batch of {} readings", readings.size());
+        publishAfterCommit(readings);
+    }
+    
+    private int storeMissing(List<Reading> readings) {
+        DecoderEvents.IngestBatch event = new DecoderEvents.IngestBatch();
+        event.begin();
+        List<Reading> inserted = readingJdbcRepository.insertMissing(readings);
+        commit(event, inserted.size());
+        
+        log.debug("Inserted {} of {} readings", inserted.size(), readings.size());
+        publishAfterCommit(inserted);
+        return inserted.size();
+    }
+    
+    private static void commit(DecoderEvents.IngestBatch event, int readings) {
+        if (event.shouldCommit()) {
+            event.source = "ingest";
+            event.readings = readings;
+            event.commit();
+        }
+    }
+    
+    private void publishAfterCommit(List<Reading> readings) {
+        if (readingListeners.isEmpty()) {
+            return;
+        }
+        
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    notifyListeners(readings);
+                }
+            });
+        } else {
+            notifyListeners(readings);
+        }
+    }
+    
+    private void notifyListeners(List<Reading> readings) {
+        for (Reading reading : readings) {
+            for (ReadingListener listener : readingListeners) {
+                try {
+                    listener.onReading(reading);
+                } catch (RuntimeException e) {
+                    log.error("Reading listener {} failed: {}", listener.getClass().getSimpleName(), e.getMessage());
+                }
+            }
+        }
+    }
+}
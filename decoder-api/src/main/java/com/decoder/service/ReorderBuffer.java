@@ -0,0 +1,244 @@
+package com.decoder.service;
+
+import com.decoder.model.Reading;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Per-building reorder buffer that turns out-of-order ingest into nearly append-only writes.
+ * Readings are held for a short lateness window and released in timestamp order.
+ * Readings older than what a building has already released go to a separate late-data
+ * path that is sorted and merged into storage in bulk.
+ * Buffered readings are acknowledged before they are stored. Storage is only ever written
+ * from the flush threads: readings a full buffer releases early, and batches whose write
+ * failed, wait in an unwritten queue that the next flush stores ahead of newer readings.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ReorderBuffer {
+
+    private static final Comparator<Reading> BY_TIMESTAMP = Comparator.comparing(Reading::getTimestamp);
+    private static final Comparator<Reading> BY_BUILDING_AND_TIMESTAMP =
+            Comparator.comparing(Reading::getBuildingId).thenComparing(Reading::getTimestamp);
+
+    private final ReadingWriter readingWriter;
+
+    @Value("${decoder.ingest.reorder.enabled:false}")
+    private boolean enabled;
+
+    @Value("${decoder.ingest.reorder.lateness-ms:30000}")
+    private long latenessMs;
+
+    @Value("${decoder.ingest.reorder.max-buffered-per-building:10000}")
+    private int maxBufferedPerBuilding;
+
+    @Value("${decoder.ingest.reorder.max-unwritten:100000}")
+    private int maxUnwritten;
+
+    private final ConcurrentMap<Long, BuildingBuffer> buffers = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<Reading> lateReadings = new ConcurrentLinkedQueue<>();
+    // Released but not stored yet: early releases of full buffers and failed batches, in order
+    private final ConcurrentLinkedQueue<Reading> unwritten = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger unwrittenCount = new AtomicInteger();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Accept a reading into its building's buffer, or the late path if the building
+     * has already released readings newer than it. Never writes to storage, so the
+     * request thread does not wait for the database even when the buffer is full.
+     */
+    public void offer(Reading reading) {
+        BuildingBuffer buffer = buffers.computeIfAbsent(reading.getBuildingId(), id -> new BuildingBuffer());
+        List<Reading> overflow = null;
+
+        synchronized (buffer) {
+            if (buffer.releasedUpTo != null && reading.getTimestamp().isBefore(buffer.releasedUpTo)) {
+                lateReadings.add(reading);
+                log.debug("Late reading for building {} at {} routed to late-data path",
+                        reading.getBuildingId(), reading.getTimestamp());
+                return;
+            }
+
+            buffer.add(reading, System.currentTimeMillis());
+            if (buffer.pending.size() > maxBufferedPerBuilding) {
+                overflow = new ArrayList<>();
+                buffer.releaseOldest(buffer.pending.size() - maxBufferedPerBuilding, overflow);
+            }
+        }
+
+        if (overflow != null) {
+            log.warn("Reorder buffer for building {} full, releasing {} readings early",
+                    reading.getBuildingId(), overflow.size());
+            retain(overflow);
+        }
+    }
+
+    /**
+     * Release readings that are past the lateness window, in timestamp order per building.
+     */
+    @Scheduled(fixedDelayString = "${decoder.ingest.reorder.flush-interval-ms:1000}")
+    public void flush() {
+        if (!enabled) {
+            return;
+        }
+        List<Reading> released = drainUnwritten();
+        released.addAll(drainReleasable(System.currentTimeMillis()));
+        write(released, "in-order");
+    }
+
+    /**
+     * Merge accumulated late readings into storage as one sorted bulk batch.
+     */
+    @Scheduled(fixedDelayString = "${decoder.ingest.reorder.late-flush-interval-ms:60000}")
+    public void flushLate() {
+        if (!enabled) {
+            return;
+        }
+        write(drainLate(), "late");
+    }
+
+    /**
+     * Release everything on shutdown so buffered readings are not lost.
+     */
+    @PreDestroy
+    public void flushAll() {
+        if (!enabled) {
+            return;
+        }
+        List<Reading> released = drainUnwritten();
+        for (BuildingBuffer buffer : buffers.values()) {
+            synchronized (buffer) {
+                buffer.releaseOldest(buffer.pending.size(), released);
+            }
+        }
+        write(released, "in-order");
+        write(drainLate(), "late");
+    }
+
+    List<Reading> drainReleasable(long nowMillis) {
+        List<Reading> released = new ArrayList<>();
+        for (BuildingBuffer buffer : buffers.values()) {
+            synchronized (buffer) {
+                buffer.releaseDue(nowMillis, latenessMs, released);
+            }
+        }
+        return released;
+    }
+
+    List<Reading> drainLate() {
+        List<Reading> late = new ArrayList<>();
+        Reading reading;
+        while ((reading = lateReadings.poll()) != null) {
+            late.add(reading);
+        }
+        late.sort(BY_BUILDING_AND_TIMESTAMP);
+        return late;
+    }
+
+    List<Reading> drainUnwritten() {
+        List<Reading> readings = new ArrayList<>();
+        Reading reading;
+        while ((reading = unwritten.poll()) != null) {
+            unwrittenCount.decrementAndGet();
+            readings.add(reading);
+        }
+        return readings;
+    }
+
+    int getUnwrittenCount() {
+        return unwrittenCount.get();
+    }
+
+    private void write(List<Reading> readings, String path) {
+        if (readings.isEmpty()) {
+            return;
+        }
+        try {
+            readingWriter.insertBatch(readings);
+            log.debug("Released {} {} readings to storage", readings.size(), path);
+        } catch (RuntimeException e) {
+            log.error("Failed to write {} {} readings, retrying on next flush: {}",
+                    readings.size(), path, e.getMessage());
+            retain(readings);
+        }
+    }
+
+    /**
+     * Queue readings for the next flush. Beyond decoder.ingest.reorder.max-unwritten, while
+     * storage keeps failing, the oldest are dropped so memory stays bounded.
+     */
+    private void retain(List<Reading> readings) {
+        unwritten.addAll(readings);
+        int dropped = 0;
+        for (int excess = unwrittenCount.addAndGet(readings.size()) - maxUnwritten; excess > 0; excess--) {
+            if (unwritten.poll() == null) {
+                break;
+            }
+            unwrittenCount.decrementAndGet();
+            dropped++;
+        }
+        if (dropped > 0) {
+            log.error("Unwritten reorder queue full, dropped {} oldest readings", dropped);
+        }
+    }
+
+    /**
+     * Buffer state for one building. Guarded by its own monitor.
+     */
+    private static final class BuildingBuffer {
+        private final PriorityQueue<Reading> pending = new PriorityQueue<>(BY_TIMESTAMP);
+        private LocalDateTime watermark;
+        private LocalDateTime releasedUpTo;
+        private long lastArrivalMillis;
+
+        void add(Reading reading, long nowMillis) {
+            pending.add(reading);
+            if (watermark == null || reading.getTimestamp().isAfter(watermark)) {
+                watermark = reading.getTimestamp();
+            }
+            lastArrivalMillis = nowMillis;
+        }
+
+        void releaseDue(long nowMillis, long latenessMs, List<Reading> out) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            // An idle building has nothing left to wait for, so release all of it
+            boolean idle = nowMillis - lastArrivalMillis >= latenessMs;
+            LocalDateTime cutoff = idle ? watermark : watermark.minusNanos(latenessMs * 1_000_000L);
+            while (!pending.isEmpty() && !pending.peek().getTimestamp().isAfter(cutoff)) {
+                release(out);
+            }
+        }
+
+        void releaseOldest(int count, List<Reading> out) {
+            for (int i = 0; i < count && !pending.isEmpty(); i++) {
+                release(out);
+            }
+        }
+
+        private void release(List<Reading> out) {
+            Reading reading = pending.poll();
+            releasedUpTo = reading.getTimestamp();
+            out.add(reading);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.decoder.service;
+
+/**
+ * Element-wise kernels over primitive grids used by ResamplingService. A grid holds one value
+ * per time bucket; NaN marks a bucket without a value. Counts are kept as doubles so they
+ * line up with the values lane for lane.
+ * The vector implementation uses the incubating JDK Vector API and is only chosen when the
+ * jdk.incubator.vector module is resolved at runtime; both implementations give the same
+ * results up to floating-point summation order.
+ */
+public interface ResamplingKernels {
+
+    /**
+     * Implementation name, for logs and metrics.
+     */
+    String name();
+
+    /**
+     * out[i] = sums[i] / counts[i], or NaN where counts[i] is 0. out may be sums.
+     */
+    void divide(double[] sums, double[] counts, double[] out);
+
+    /**
+     * Set values[i] to NaN where counts[i] is 0.
+     */
+    void maskEmpty(double[] values, double[] counts);
+
+    /**
+     * Add each non-NaN values[i] to totals[i] and count it in counts[i].
+     */
+    void addPresent(double[] values, double[] totals, double[] counts);
+
+    /**
+     * values[from + k] = first + k * step for from + k in [from, to).
+     */
+    void ramp(double[] values, int from, int to, double first, double step);
+
+    /**
+     * Count, sum, min and max of the non-NaN values.
+     */
+    Stats stats(double[] values);
+
+    record Stats(int count, double sum, double min, double max) {
+
+        static final Stats EMPTY = new Stats(0, 0, Double.NaN, Double.NaN);
+
+        public double mean() {
+            return count > 0 ? sum / count : Double.NaN;
+        }
+    }
+
+    /**
+     * The vector kernels if preferred and the Vector API is available, otherwise scalar loops.
+     */
+    static ResamplingKernels create(boolean preferVector) {
+        if (preferVector && ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+            try {
+                // Loaded by name so nothing links against the module when it is absent
+                return (ResamplingKernels) Class.forName("com.decoder.service.VectorResamplingKernels")
+                        .getDeclaredConstructor().newInstance();
+            } catch (ReflectiveOperationException | LinkageError e) {
+                // Fall through to the scalar kernels; the caller logs which ones it got
+            }
+        }
+        return new ScalarResamplingKernels();
+    }
+}
@@ -0,0 +1,197 @@
+package com.decoder.service;
+
+import com.decoder.model.dto.ResampledReadings;
+import com.decoder.model.dto.ResampledReadings.SensorGrid;
+import com.decoder.repository.ReadingJdbcRepository;
+import com.decoder.repository.SensorRegistry;
+import com.decoder.service.ResamplingKernels.Stats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Aligns every sensor of a building to a uniform grid over a window. Readings are scanned as
+ * primitives straight into per-sensor bucket arrays, one bucket per step; the buckets are then
+ * aggregated, gap-filled and summed across sensors with ResamplingKernels, which use the
+ * Vector API when it is available.
+ * A day of minute data is 1440 buckets per sensor, so the grid work is a few passes over small
+ * arrays; reading the rows dominates.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ResamplingService {
+
+    private final ReadingJdbcRepository readingJdbcRepository;
+    private final SensorRegistry sensorRegistry;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${decoder.resampling.vector-enabled:true}")
+    private boolean vectorEnabled;
+
+    @Value("${decoder.resampling.max-buckets:10080}")
+    private int maxBuckets;
+
+    private ResamplingKernels kernels;
+    private Timer timer;
+
+    /**
+     * How readings that fall into the same bucket are combined.
+     */
+    public enum Aggregation {
+        MEAN, MIN, MAX, SUM, LAST, COUNT
+    }
+
+    /**
+     * How buckets without readings are filled: left empty, with the previous value, or by
+     * linear interpolation between the values around the gap. Gaps at the start of the window,
+     * and with linear at its end, stay empty.
+     */
+    public enum Fill {
+        NONE, PREVIOUS, LINEAR
+    }
+
+    @PostConstruct
+    public void start() {
+        kernels = ResamplingKernels.create(vectorEnabled);
+        timer = Timer.builder("decoder.resampling.duration")
+                .description("Time to resample a building, including the storage scan")
+                .tag("kernels", kernels.name())
+                .register(meterRegistry);
+        log.info("Resampling with {} kernels", kernels.name());
+    }
+
+    public String getKernels() {
+        return kernels.name();
+    }
+
+    /**
+     * Readings of a building in [from, to) on a grid of stepSeconds buckets starting at from.
+     * Counts have no empty buckets and are not filled.
+     *
+     * @throws IllegalArgumentException if the window is empty or needs more than max-buckets buckets
+     */
+    public ResampledReadings resample(Long buildingId, LocalDateTime from, LocalDateTime to, int stepSeconds,
+                                      Aggregation aggregation, Fill fill) {
+        long origin = Timestamp.valueOf(from).getTime();
+        long span = Timestamp.valueOf(to).getTime() - origin;
+        if (stepSeconds <= 0 || span <= 0) {
+            throw new IllegalArgumentException("Window and step must be positive");
+        }
+        long stepMillis = stepSeconds * 1000L;
+        long bucketCount = (span + stepMillis - 1) / stepMillis;
+        if (bucketCount > maxBuckets) {
+            throw new IllegalArgumentException("Window needs " + bucketCount + " buckets, more than " + maxBuckets);
+        }
+
+        long started = System.nanoTime();
+        int size = (int) bucketCount;
+        Map<Integer, SensorBuckets> bySensor = new HashMap<>();
+        readingJdbcRepository.scanValues(buildingId, from, to, (sensorRef, timestampMillis, value) ->
+                bySensor.computeIfAbsent(sensorRef, ref -> new SensorBuckets(size))
+                        .add((int) ((timestampMillis - origin) / stepMillis), value, aggregation));
+
+        double[] total = new double[size];
+        double[] present = new double[size];
+        List<SensorGrid> series = new ArrayList<>(bySensor.size());
+        for (Map.Entry<Integer, SensorBuckets> entry : bySensor.entrySet()) {
+            double[] values = finish(entry.getValue(), aggregation, fill);
+            kernels.addPresent(values, total, present);
+            Stats stats = kernels.stats(values);
+            String sensorId = sensorRegistry.getSensorKey(entry.getKey());
+            series.add(new SensorGrid(sensorId != null ? sensorId : String.valueOf(entry.getKey()), values,
+                    stats.count(), boxed(stats.min()), boxed(stats.max()), boxed(stats.mean())));
+        }
+        kernels.maskEmpty(total, present);
+        series.sort(Comparator.comparing(SensorGrid::getSensorId));
+        timer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+
+        return new ResampledReadings(buildingId, from, stepSeconds, aggregation.name().toLowerCase(Locale.ROOT),
+                fill.name().toLowerCase(Locale.ROOT), series, total);
+    }
+
+    private double[] finish(SensorBuckets buckets, Aggregation aggregation, Fill fill) {
+        switch (aggregation) {
+            case COUNT -> {
+                return buckets.counts;
+            }
+            case MEAN -> kernels.divide(buckets.values, buckets.counts, buckets.values);
+            default -> kernels.maskEmpty(buckets.values, buckets.counts);
+        }
+        switch (fill) {
+            case PREVIOUS -> fillPrevious(buckets.values);
+            case LINEAR -> fillLinear(buckets.values);
+            default -> {
+            }
+        }
+        return buckets.values;
+    }
+
+    private static void fillPrevious(double[] values) {
+        double previous = Double.NaN;
+        for (int i = 0; i < values.length; i++) {
+            if (Double.isNaN(values[i])) {
+                values[i] = previous;
+            } else {
+                previous = values[i];
+            }
+        }
+    }
+
+    private void fillLinear(double[] values) {
+        int previous = -1;
+        for (int i = 0; i < values.length; i++) {
+            if (Double.isNaN(values[i])) {
+                continue;
+            }
+            if (previous >= 0 && i - previous > 1) {
+                kernels.ramp(values, previous, i, values[previous], (values[i] - values[previous]) / (i - previous));
+            }
+            previous = i;
+        }
+    }
+
+    private static Double boxed(double value) {
+        return Double.isNaN(value) ? null : value;
+    }
+
+    /**
+     * Running aggregate and reading count per bucket of one sensor.
+     */
+    private static final class SensorBuckets {
+        private final double[] values;
+        private final double[] counts;
+
+        SensorBuckets(int size) {
+            values = new double[size];
+            counts = new double[size];
+        }
+
+        void add(int bucket, double value, Aggregation aggregation) {
+            double count = counts[bucket];
+            switch (aggregation) {
+                case MEAN, SUM -> values[bucket] += value;
+                case MIN -> values[bucket] = count == 0 ? value : Math.min(values[bucket], value);
+                case MAX -> values[bucket] = count == 0 ? value : Math.max(values[bucket], value);
+                case LAST -> values[bucket] = value;
+                case COUNT -> {
+                }
+            }
+            counts[bucket] = count + 1;
+        }
+    }
+}
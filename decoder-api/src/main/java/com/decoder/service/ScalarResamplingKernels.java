@@ -0,0 +1,63 @@
+package com.decoder.service;
+
+/**
+ * Plain loops; used when the Vector API is not available or not wanted.
+ */
+final class ScalarResamplingKernels implements ResamplingKernels {
+
+    @Override
+    public String name() {
+        return "scalar";
+    }
+
+    @Override
+    public void divide(double[] sums, double[] counts, double[] out) {
+        for (int i = 0; i < out.length; i++) {
+            out[i] = counts[i] == 0 ? Double.NaN : sums[i] / counts[i];
+        }
+    }
+
+    @Override
+    public void maskEmpty(double[] values, double[] counts) {
+        for (int i = 0; i < values.length; i++) {
+            if (counts[i] == 0) {
+                values[i] = Double.NaN;
+            }
+        }
+    }
+
+    @Override
+    public void addPresent(double[] values, double[] totals, double[] counts) {
+        for (int i = 0; i < values.length; i++) {
+            double value = values[i];
+            if (!Double.isNaN(value)) {
+                totals[i] += value;
+                counts[i]++;
+            }
+        }
+    }
+
+    @Override
+    public void ramp(double[] values, int from, int to, double first, double step) {
+        for (int i = from; i < to; i++) {
+            values[i] = first + (i - from) * step;
+        }
+    }
+
+    @Override
+    public Stats stats(double[] values) {
+        int count = 0;
+        double sum = 0;
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        for (double value : values) {
+            if (!Double.isNaN(value)) {
+                count++;
+                sum += value;
+                min = Math.min(min, value);
+                max = Math.max(max, value);
+            }
+        }
+        return count > 0 ? new Stats(count, sum, min, max) : Stats.EMPTY;
+    }
+}
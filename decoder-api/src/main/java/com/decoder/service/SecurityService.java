@@ -8,7 +8,10 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
+import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 
 /**
  * Service to handle RBAC (Role-Based Access Control) checks.
@@ -45,6 +48,38 @@ public class SecurityService {
         return hasAccess;
     }
     
+    /**
+     * Whether the user may use administrative endpoints.
+     */
+    public boolean isAdmin(String username) {
+        return userRepository.findByUsername(username)
+                .map(user -> user.getRole() == User.Role.ADMIN)
+                .orElse(false);
+    }
+    
+    /**
+     * Restrict requested building IDs to those the user may access, in two queries at most
+     * however many are requested. A null request means every accessible building.
+     */
+    public List<Long> filterAccessibleBuildingIds(String username, Collection<Long> requestedIds) {
+        if (requestedIds == null) {
+            return getAccessibleBuildingIds(username);
+        }
+        
+        User user = userRepository.findByUsername(username)
+                .orElseThrow(() -> new SecurityException("User not found: " + username));
+        
+        Set<Long> accessible = new LinkedHashSet<>(requestedIds);
+        if (user.getRole() != User.Role.ADMIN) {
+            Set<Long> owned = new LinkedHashSet<>();
+            buildingRepository.findByOwnerId(user.getId()).forEach(building -> owned.add(building.getId()));
+            accessible.retainAll(owned);
+        }
+        
+        log.debug("User {} may access {} of {} requested buildings", username, accessible.size(), requestedIds.size());
+        return List.copyOf(accessible);
+    }
+    
     /**
      * Get all building IDs accessible by the user.
      */
@@ -0,0 +1,83 @@
+package com.decoder.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * In-flight request coalescing: concurrent calls for the same key share one execution, and
+ * every caller receives its result or its exception. Only calls that overlap are shared;
+ * nothing is kept once the execution completes, so a later call always computes afresh.
+ */
+public class SingleFlight<K, V> {
+
+    private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder executions = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+
+    /**
+     * Run the computation for the key, or wait for the one already running for it.
+     */
+    public V execute(K key, Supplier<V> computation) {
+        CompletableFuture<V> flight = new CompletableFuture<>();
+        CompletableFuture<V> running = inFlight.putIfAbsent(key, flight);
+        if (running != null) {
+            coalesced.increment();
+            return await(running);
+        }
+
+        executions.increment();
+        try {
+            V result = computation.get();
+            flight.complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+
+    public long getExecutions() {
+        return executions.sum();
+    }
+
+    public long getCoalesced() {
+        return coalesced.sum();
+    }
+
+    /**
+     * Publish decoder.coalescing.executions and decoder.coalescing.coalesced for this operation.
+     */
+    public void bindTo(MeterRegistry meterRegistry, String operation) {
+        FunctionCounter.builder("decoder.coalescing.executions", this, SingleFlight::getExecutions)
+                .description("Computations actually run")
+                .tag("operation", operation)
+                .register(meterRegistry);
+        FunctionCounter.builder("decoder.coalescing.coalesced", this, SingleFlight::getCoalesced)
+                .description("Requests served by joining an identical computation already in flight")
+                .tag("operation", operation)
+                .register(meterRegistry);
+    }
+
+    private static <V> V await(CompletableFuture<V> flight) {
+        try {
+            return flight.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+}
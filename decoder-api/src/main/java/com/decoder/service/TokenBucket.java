@@ -0,0 +1,63 @@
+package com.decoder.service;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket in its GCRA (generic cell rate algorithm) form.
+ * The whole bucket state is a single "theoretical arrival time" updated by CAS,
+ * so concurrent callers never block and nothing is allocated per call.
+ */
+public class TokenBucket {
+    
+    private final long emissionIntervalNanos;
+    private final long burstToleranceNanos;
+    private final AtomicLong theoreticalArrivalNanos;
+    
+    /**
+     * @param ratePerSecond sustained tokens per second
+     * @param burst         tokens that may be taken at once from a full bucket
+     */
+    public TokenBucket(double ratePerSecond, int burst) {
+        this.emissionIntervalNanos = (long) (1_000_000_000L / ratePerSecond);
+        this.burstToleranceNanos = emissionIntervalNanos * Math.max(0, burst - 1);
+        this.theoreticalArrivalNanos = new AtomicLong(System.nanoTime());
+    }
+    
+    /**
+     * Take one token.
+     *
+     * @return 0 if a token was taken, otherwise nanoseconds until one will be available
+     */
+    public long tryAcquire() {
+        return tryAcquire(System.nanoTime());
+    }
+    
+    long tryAcquire(long nowNanos) {
+        while (true) {
+            long tat = theoreticalArrivalNanos.get();
+            long newTat = Math.max(tat, nowNanos) + emissionIntervalNanos;
+            long waitNanos = newTat - nowNanos - burstToleranceNanos - emissionIntervalNanos;
+            if (waitNanos > 0) {
+                return waitNanos;
+            }
+            if (theoreticalArrivalNanos.compareAndSet(tat, newTat)) {
+                return 0;
+            }
+        }
+    }
+    
+    /**
+     * Give back a token taken by {@link #tryAcquire()} for a request that was rejected
+     * for another reason. A bucket never holds more than its burst, however many are returned.
+     */
+    public void refund() {
+        theoreticalArrivalNanos.addAndGet(-emissionIntervalNanos);
+    }
+    
+    /**
+     * Whether the bucket has refilled completely, i.e. is indistinguishable from a new one.
+     */
+    boolean isFull(long nowNanos) {
+        return theoreticalArrivalNanos.get() - nowNanos <= 0;
+    }
+}
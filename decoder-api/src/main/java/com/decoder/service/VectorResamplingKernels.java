@@ -0,0 +1,119 @@
+package com.decoder.service;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Kernels on the JDK Vector API at the platform's preferred width, with scalar loops for the
+ * tail of each grid. Only instantiated through ResamplingKernels.create, after checking that
+ * jdk.incubator.vector is resolved.
+ */
+final class VectorResamplingKernels implements ResamplingKernels {
+
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+    // 0, 1, 2, ... one per lane, for ramps
+    private static final DoubleVector LANES = DoubleVector.fromArray(SPECIES, lanes(), 0);
+
+    @Override
+    public String name() {
+        return "vector-" + SPECIES.length() + "x" + SPECIES.elementSize();
+    }
+
+    @Override
+    public void divide(double[] sums, double[] counts, double[] out) {
+        int i = 0;
+        for (int bound = SPECIES.loopBound(out.length); i < bound; i += SPECIES.length()) {
+            DoubleVector count = DoubleVector.fromArray(SPECIES, counts, i);
+            DoubleVector.fromArray(SPECIES, sums, i).div(count)
+                    .blend(Double.NaN, count.compare(VectorOperators.EQ, 0))
+                    .intoArray(out, i);
+        }
+        for (; i < out.length; i++) {
+            out[i] = counts[i] == 0 ? Double.NaN : sums[i] / counts[i];
+        }
+    }
+
+    @Override
+    public void maskEmpty(double[] values, double[] counts) {
+        int i = 0;
+        for (int bound = SPECIES.loopBound(values.length); i < bound; i += SPECIES.length()) {
+            VectorMask<Double> empty = DoubleVector.fromArray(SPECIES, counts, i).compare(VectorOperators.EQ, 0);
+            DoubleVector.fromArray(SPECIES, values, i).blend(Double.NaN, empty).intoArray(values, i);
+        }
+        for (; i < values.length; i++) {
+            if (counts[i] == 0) {
+                values[i] = Double.NaN;
+            }
+        }
+    }
+
+    @Override
+    public void addPresent(double[] values, double[] totals, double[] counts) {
+        int i = 0;
+        for (int bound = SPECIES.loopBound(values.length); i < bound; i += SPECIES.length()) {
+            DoubleVector value = DoubleVector.fromArray(SPECIES, values, i);
+            VectorMask<Double> present = value.test(VectorOperators.IS_NAN).not();
+            DoubleVector.fromArray(SPECIES, totals, i).add(value, present).intoArray(totals, i);
+            DoubleVector.fromArray(SPECIES, counts, i).add(1.0, present).intoArray(counts, i);
+        }
+        for (; i < values.length; i++) {
+            double value = values[i];
+            if (!Double.isNaN(value)) {
+                totals[i] += value;
+                counts[i]++;
+            }
+        }
+    }
+
+    @Override
+    public void ramp(double[] values, int from, int to, double first, double step) {
+        int i = from;
+        for (int bound = from + SPECIES.loopBound(to - from); i < bound; i += SPECIES.length()) {
+            LANES.add(i - from).mul(step).add(first).intoArray(values, i);
+        }
+        for (; i < to; i++) {
+            values[i] = first + (i - from) * step;
+        }
+    }
+
+    @Override
+    public Stats stats(double[] values) {
+        DoubleVector sums = DoubleVector.zero(SPECIES);
+        DoubleVector mins = DoubleVector.broadcast(SPECIES, Double.POSITIVE_INFINITY);
+        DoubleVector maxs = DoubleVector.broadcast(SPECIES, Double.NEGATIVE_INFINITY);
+        int count = 0;
+        int i = 0;
+        for (int bound = SPECIES.loopBound(values.length); i < bound; i += SPECIES.length()) {
+            DoubleVector value = DoubleVector.fromArray(SPECIES, values, i);
+            VectorMask<Double> missing = value.test(VectorOperators.IS_NAN);
+            sums = sums.add(value, missing.not());
+            mins = mins.min(value.blend(Double.POSITIVE_INFINITY, missing));
+            maxs = maxs.max(value.blend(Double.NEGATIVE_INFINITY, missing));
+            count += SPECIES.length() - missing.trueCount();
+        }
+        double sum = sums.reduceLanes(VectorOperators.ADD);
+        double min = mins.reduceLanes(VectorOperators.MIN);
+        double max = maxs.reduceLanes(VectorOperators.MAX);
+        for (; i < values.length; i++) {
+            double value = values[i];
+            if (!Double.isNaN(value)) {
+                count++;
+                sum += value;
+                min = Math.min(min, value);
+                max = Math.max(max, value);
+            }
+        }
+        return count > 0 ? new Stats(count, sum, min, max) : Stats.EMPTY;
+    }
+
+    private static double[] lanes() {
+        double[] lanes = new double[SPECIES.length()];
+        for (int lane = 0; lane < lanes.length; lane++) {
+            lanes[lane] = lane;
+        }
+        return lanes;
+    }
+}
@@ -0,0 +1,20 @@
+-- Readings table for decoder.storage.readings-layout=clustered.
+-- WITHOUT ROWID stores the rows in primary key order, so the readings of a building are
+-- contiguous and in time order and a building range scan reads them sequentially.
+-- sensor_ref completes the key: one reading per sensor and instant. id is kept for rows
+-- converted from the rowid layout and is null for new rows.
+
+CREATE TABLE IF NOT EXISTS readings (
+    id integer,
+    building_id bigint not null,
+    sensor_ref integer not null,
+    timestamp timestamp not null,
+    value float not null,
+    anomaly_flags integer,
+    primary key (building_id, timestamp, sensor_ref)
+) WITHOUT ROWID;
+
+CREATE INDEX IF NOT EXISTS idx_sensor_timestamp ON readings (sensor_ref, timestamp);
+
+-- Superseded by the primary key
+DROP INDEX IF EXISTS idx_building_timestamp;
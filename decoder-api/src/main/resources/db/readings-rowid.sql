@@ -0,0 +1,16 @@
+-- Readings table for decoder.storage.readings-layout=rowid (default).
+-- Rows are stored in insertion order under the IDENTITY id; building range scans go through
+-- idx_building_timestamp and fetch each row separately.
+
+CREATE TABLE IF NOT EXISTS readings (
+    id integer,
+    building_id bigint not null,
+    sensor_ref integer not null,
+    timestamp timestamp not null,
+    value float not null,
+    anomaly_flags integer,
+    primary key (id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_building_timestamp ON readings (building_id, timestamp);
+CREATE INDEX IF NOT EXISTS idx_sensor_timestamp ON readings (sensor_ref, timestamp);
@@ -0,0 +1,33 @@
+-- Schema for the fast-start profile, applied instead of Hibernate schema tooling.
+-- Mirrors the JPA entities; every statement is idempotent so it can be re-run safely.
+-- The readings table is in readings-rowid.sql or readings-clustered.sql, one per
+-- decoder.storage.readings-layout.
+-- With a persistent database, apply it out of band (scripts/migrate_schema.py) and
+-- start with spring.sql.init.mode=never.
+
+CREATE TABLE IF NOT EXISTS users (
+    id integer,
+    role varchar(255) not null check (role in ('ADMIN','OWNER')),
+    username varchar(255) not null unique,
+    primary key (id)
+);
+
+CREATE TABLE IF NOT EXISTS buildings (
+    id integer,
+    address varchar(255),
+    name varchar(255) not null,
+    owner_id bigint not null,
+    primary key (id)
+);
+
+CREATE TABLE IF NOT EXISTS sensors (
+    id integer,
+    sensor_key varchar(255) not null unique,
+    primary key (id)
+);
+
+CREATE TABLE IF NOT EXISTS log_checkpoints (
+    name varchar(255) not null,
+    applied_sequence bigint not null,
+    primary key (name)
+);
@@ -0,0 +1,159 @@
+package com.decoder.config;
+
+import com.decoder.service.ClusterService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for ClusterRoutingFilter.
+ * Tests that requests for locally owned buildings pass through, and that requests for
+ * other buildings are redirected or forwarded to their owner.
+ */
+@ExtendWith(MockitoExtension.class)
+class ClusterRoutingFilterTest {
+
+    private static final String SELF = "http://self.invalid";
+    private static final String BODY = "{\"buildingId\":7,\"sensorId\":\"s1\",\"value\":21.5}";
+
+    @Mock
+    private ClusterService clusterService;
+
+    private HttpServer owner;
+    private String ownerUrl;
+    private final Map<String, String> received = new ConcurrentHashMap<>();
+    private ClusterRoutingFilter filter;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        owner = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        owner.createContext("/", exchange -> {
+            received.put("path", exchange.getRequestURI().toString());
+            received.put("body", new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8));
+            received.put("authorization", String.valueOf(exchange.getRequestHeaders().getFirst(HttpHeaders.AUTHORIZATION)));
+            received.put("forwarded", String.valueOf(exchange.getRequestHeaders().getFirst(ClusterService.FORWARDED_HEADER)));
+            byte[] response = "{\"status\":\"accepted\"}".getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add(HttpHeaders.CONTENT_TYPE, "application/json");
+            exchange.sendResponseHeaders(202, response.length);
+            exchange.getResponseBody().write(response);
+            exchange.close();
+        });
+        owner.start();
+        ownerUrl = "http://127.0.0.1:" + owner.getAddress().getPort();
+        filter = new ClusterRoutingFilter(clusterService, new ObjectMapper());
+        ReflectionTestUtils.setField(filter, "routingMode", "forward");
+        lenient().when(clusterService.isEnabled()).thenReturn(true);
+        lenient().when(clusterService.getSelfUrl()).thenReturn(SELF);
+    }
+
+    @AfterEach
+    void tearDown() {
+        owner.stop(0);
+    }
+
+    @Test
+    void testDoFilter_ClusterDisabled_PassedThrough() throws Exception {
+        // Arrange
+        when(clusterService.isEnabled()).thenReturn(false);
+        MockFilterChain chain = new MockFilterChain();
+
+        // Act
+        filter.doFilter(new MockHttpServletRequest("GET", "/buildings/7/last-readings"), new MockHttpServletResponse(), chain);
+
+        // Assert
+        assertNotNull(chain.getRequest());
+        verify(clusterService, never()).ownerOf(any());
+    }
+
+    @Test
+    void testDoFilter_OwnedLocally_PassedThroughWithBodyStillReadable() throws Exception {
+        // Arrange
+        when(clusterService.ownerOf(7L)).thenReturn(SELF);
+        MockFilterChain chain = new MockFilterChain();
+
+        // Act
+        filter.doFilter(ingestRequest(), new MockHttpServletResponse(), chain);
+
+        // Assert
+        HttpServletRequest passed = (HttpServletRequest) chain.getRequest();
+        assertEquals(BODY, new String(passed.getInputStream().readAllBytes(), StandardCharsets.UTF_8));
+        assertEquals(BODY.length(), passed.getContentLength());
+
+        ServletInputStream in = passed.getInputStream();
+        ReadListener listener = mock(ReadListener.class);
+        in.setReadListener(listener);
+        verify(listener).onDataAvailable();
+        verify(listener).onAllDataRead();
+    }
+
+    @Test
+    void testDoFilter_RedirectMode_TemporaryRedirectToOwner() throws Exception {
+        // Arrange
+        ReflectionTestUtils.setField(filter, "routingMode", "redirect");
+        when(clusterService.ownerOf(7L)).thenReturn(ownerUrl);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/buildings/7/last-readings");
+        request.setQueryString("consistency=fresh");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        // Act
+        filter.doFilter(request, response, chain);
+
+        // Assert
+        assertEquals(307, response.getStatus());
+        assertEquals(ownerUrl + "/buildings/7/last-readings?consistency=fresh", response.getHeader(HttpHeaders.LOCATION));
+        assertNull(chain.getRequest());
+        assertTrue(received.isEmpty());
+    }
+
+    @Test
+    void testDoFilter_ForwardMode_BodyAndCredentialsForwardedToOwner() throws Exception {
+        // Arrange
+        when(clusterService.ownerOf(7L)).thenReturn(ownerUrl);
+        MockHttpServletRequest request = ingestRequest();
+        request.addHeader(HttpHeaders.AUTHORIZATION, "Basic dXNlcjpwYXNz");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        // Act
+        filter.doFilter(request, response, chain);
+
+        // Assert
+        assertNull(chain.getRequest());
+        assertEquals("/ingest", received.get("path"));
+        assertEquals(BODY, received.get("body"));
+        assertEquals("Basic dXNlcjpwYXNz", received.get("authorization"));
+        assertEquals(SELF, received.get("forwarded"));
+        assertEquals(202, response.getStatus());
+        assertEquals("application/json", response.getContentType());
+        assertEquals("{\"status\":\"accepted\"}", response.getContentAsString());
+    }
+
+    private MockHttpServletRequest ingestRequest() {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/ingest");
+        request.setContentType("application/json");
+        request.setContent(BODY.getBytes(StandardCharsets.UTF_8));
+        return request;
+    }
+}
@@ -0,0 +1,65 @@
+package com.decoder.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for CompressionCodec.
+ * Tests Accept-Encoding negotiation and codec round trips.
+ */
+class CompressionCodecTest {
+
+    @Test
+    void testNegotiate_BothAcceptedEqually_PrefersZstd() {
+        assertEquals(CompressionCodec.ZSTD, CompressionCodec.negotiate("gzip, deflate, zstd"));
+    }
+
+    @Test
+    void testNegotiate_HigherQuality_Wins() {
+        assertEquals(CompressionCodec.GZIP, CompressionCodec.negotiate("zstd;q=0.2, gzip;q=0.9"));
+    }
+
+    @Test
+    void testNegotiate_RejectedOrUnsupported_ReturnsNull() {
+        assertNull(CompressionCodec.negotiate("gzip;q=0, br"));
+        assertNull(CompressionCodec.negotiate("identity"));
+        assertNull(CompressionCodec.negotiate(null));
+    }
+
+    @Test
+    void testNegotiate_Wildcard_AppliesToUnlistedCodecs() {
+        assertEquals(CompressionCodec.GZIP, CompressionCodec.negotiate("zstd;q=0, *"));
+    }
+
+    @Test
+    void testEncodeDecode_AllCodecs_RoundTrip() throws IOException {
+        byte[] body = "{\"buildingId\":1,\"sensorId\":\"s1\",\"value\":42.0}".repeat(100)
+                .getBytes(StandardCharsets.UTF_8);
+
+        for (CompressionCodec codec : CompressionCodec.values()) {
+            // Arrange
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+            try (OutputStream out = codec.encode(compressed, 3)) {
+                out.write(body);
+            }
+
+            // Act
+            byte[] decoded;
+            try (InputStream in = codec.decode(new ByteArrayInputStream(compressed.toByteArray()))) {
+                decoded = in.readAllBytes();
+            }
+
+            // Assert
+            assertTrue(compressed.size() < body.length / 10, codec + " should compress repetitive JSON");
+            assertArrayEquals(body, decoded, codec + " round trip");
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.decoder.config;
+
+import com.decoder.repository.LimitedDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Context test for DatabaseConfig.
+ * Tests that with virtual threads enabled the main DataSource bean is wrapped in a
+ * LimitedDataSource and that queries go through it.
+ */
+@SpringBootTest(properties = "spring.threads.virtual.enabled=true")
+class DatabaseConfigTest {
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void testDataSource_VirtualThreadsEnabled_WrappedInLimitedDataSource() {
+        // Act
+        LimitedDataSource limited = assertInstanceOf(LimitedDataSource.class, dataSource);
+        Integer one = jdbcTemplate.queryForObject("SELECT 1", Integer.class);
+
+        // Assert
+        assertEquals(1, one);
+        assertSame(dataSource, jdbcTemplate.getDataSource());
+        assertEquals(1, limited.getPermits());
+        assertEquals(0, limited.getActive());
+    }
+}
@@ -0,0 +1,157 @@
+package com.decoder.config;
+
+import com.decoder.service.CompressionMetrics;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.mock.http.MockHttpInputMessage;
+import org.springframework.mock.web.DelegatingServletInputStream;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for RequestDecompressionFilter.
+ * Tests decoding of compressed ingest bodies, rejection of unsupported codings and of bodies
+ * beyond the size limit, and read listener delegation.
+ */
+class RequestDecompressionFilterTest {
+
+    private static final String BODY = "{\"buildingId\":1,\"sensorId\":\"s1\",\"value\":42.0}";
+
+    private RequestDecompressionFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        filter = new RequestDecompressionFilter(mock(CompressionMetrics.class));
+        ReflectionTestUtils.setField(filter, "maxRequestBytes", 1024L);
+    }
+
+    @Test
+    void testDoFilter_GzipBody_DecodedWithEncodingHeadersHidden() throws Exception {
+        // Arrange
+        MockHttpServletRequest request = compressedRequest(CompressionCodec.GZIP, BODY);
+        AtomicReference<String> read = new AtomicReference<>();
+        AtomicReference<String> contentEncoding = new AtomicReference<>();
+        FilterChain chain = (req, res) -> {
+            read.set(new String(req.getInputStream().readAllBytes(), StandardCharsets.UTF_8));
+            contentEncoding.set(((HttpServletRequest) req).getHeader(HttpHeaders.CONTENT_ENCODING));
+        };
+
+        // Act
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+        // Assert
+        assertEquals(BODY, read.get());
+        assertNull(contentEncoding.get());
+    }
+
+    @Test
+    void testDoFilter_UnsupportedEncoding_UnsupportedMediaType() throws Exception {
+        // Arrange
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/ingest");
+        request.addHeader(HttpHeaders.CONTENT_ENCODING, "br");
+        request.setContent(BODY.getBytes(StandardCharsets.UTF_8));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        FilterChain chain = mock(FilterChain.class);
+
+        // Act
+        filter.doFilter(request, response, chain);
+
+        // Assert
+        assertEquals(415, response.getStatus());
+        verifyNoInteractions(chain);
+    }
+
+    @Test
+    void testDoFilter_BodyBeyondLimitReadByConverter_RequestEntityTooLarge() throws Exception {
+        // Arrange - the body compresses far below the limit but expands beyond it
+        MockHttpServletRequest request = compressedRequest(CompressionCodec.ZSTD, BODY.repeat(100));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        RequestDecompressionFilter.BodyTooLargeResolver resolver = new RequestDecompressionFilter.BodyTooLargeResolver();
+        FilterChain chain = (req, res) -> {
+            try {
+                req.getInputStream().readAllBytes();
+            } catch (IOException e) {
+                // What Spring MVC makes of a failed @RequestBody read
+                HttpMessageNotReadableException wrapped = new HttpMessageNotReadableException(
+                        "I/O error while reading input message", e, new MockHttpInputMessage(new byte[0]));
+                assertNotNull(resolver.resolveException((HttpServletRequest) req, (MockHttpServletResponse) res, null, wrapped));
+            }
+        };
+
+        // Act
+        filter.doFilter(request, response, chain);
+
+        // Assert
+        assertEquals(413, response.getStatus());
+    }
+
+    @Test
+    void testResolveException_OtherUnreadableBody_LeftToDefaultHandling() {
+        // Arrange
+        RequestDecompressionFilter.BodyTooLargeResolver resolver = new RequestDecompressionFilter.BodyTooLargeResolver();
+        HttpMessageNotReadableException malformed = new HttpMessageNotReadableException(
+                "JSON parse error", new MockHttpInputMessage(new byte[0]));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // Act & Assert
+        assertNull(resolver.resolveException(new MockHttpServletRequest(), response, null, malformed));
+        assertEquals(200, response.getStatus());
+    }
+
+    @Test
+    void testSetReadListener_DelegatedToWireStream() throws Exception {
+        // Arrange
+        MockHttpServletRequest compressed = compressedRequest(CompressionCodec.GZIP, BODY);
+        AtomicReference<ReadListener> registered = new AtomicReference<>();
+        ServletInputStream wire = new DelegatingServletInputStream(new ByteArrayInputStream(compressed.getContentAsByteArray())) {
+            @Override
+            public void setReadListener(ReadListener listener) {
+                registered.set(listener);
+            }
+        };
+        HttpServletRequest request = new HttpServletRequestWrapper(compressed) {
+            @Override
+            public ServletInputStream getInputStream() {
+                return wire;
+            }
+        };
+        ReadListener listener = mock(ReadListener.class);
+        FilterChain chain = (req, res) -> req.getInputStream().setReadListener(listener);
+
+        // Act
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+        // Assert
+        assertSame(listener, registered.get());
+    }
+
+    private MockHttpServletRequest compressedRequest(CompressionCodec codec, String body) throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (OutputStream out = codec.encode(compressed, 3)) {
+            out.write(body.getBytes(StandardCharsets.UTF_8));
+        }
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/ingest");
+        request.setContentType("application/json");
+        request.addHeader(HttpHeaders.CONTENT_ENCODING, codec.getToken());
+        request.setContent(compressed.toByteArray());
+        return request;
+    }
+}
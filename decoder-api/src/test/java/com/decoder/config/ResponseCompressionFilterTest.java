@@ -0,0 +1,129 @@
+package com.decoder.config;
+
+import com.decoder.service.CompressionMetrics;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for ResponseCompressionFilter.
+ * Tests the size threshold, negotiated compression and write listener delegation.
+ */
+class ResponseCompressionFilterTest {
+
+    private static final String READING = "{\"buildingId\":1,\"sensorId\":\"s1\",\"value\":42.0},";
+
+    private ResponseCompressionFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        filter = new ResponseCompressionFilter(mock(CompressionMetrics.class));
+        ReflectionTestUtils.setField(filter, "enabled", true);
+        ReflectionTestUtils.setField(filter, "minResponseBytes", 256);
+        ReflectionTestUtils.setField(filter, "gzipLevel", 6);
+        ReflectionTestUtils.setField(filter, "zstdLevel", 3);
+    }
+
+    @Test
+    void testDoFilter_LargeResponse_CompressedWithNegotiatedCodec() throws Exception {
+        // Arrange
+        String body = READING.repeat(100);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // Act
+        filter.doFilter(readingsRequest("gzip"), response, writing(body));
+
+        // Assert
+        assertEquals("gzip", response.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertTrue(response.getContentAsByteArray().length < body.length() / 10);
+        try (InputStream in = CompressionCodec.GZIP.decode(new ByteArrayInputStream(response.getContentAsByteArray()))) {
+            assertEquals(body, new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    void testDoFilter_ResponseBelowThreshold_SentAsIsWithLength() throws Exception {
+        // Arrange
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // Act
+        filter.doFilter(readingsRequest("zstd, gzip"), response, writing(READING));
+
+        // Assert
+        assertNull(response.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertEquals(READING.length(), response.getContentLength());
+        assertEquals(READING, response.getContentAsString());
+        assertEquals(HttpHeaders.ACCEPT_ENCODING, response.getHeader(HttpHeaders.VARY));
+    }
+
+    @Test
+    void testSetWriteListener_DelegatedToContainerStream() throws Exception {
+        // Arrange
+        AtomicReference<WriteListener> registered = new AtomicReference<>();
+        MockHttpServletResponse mock = new MockHttpServletResponse();
+        ServletOutputStream container = new ServletOutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                mock.getOutputStream().write(b);
+            }
+
+            @Override
+            public boolean isReady() {
+                return false;
+            }
+
+            @Override
+            public void setWriteListener(WriteListener listener) {
+                registered.set(listener);
+            }
+        };
+        HttpServletResponseWrapper response = new HttpServletResponseWrapper(mock) {
+            @Override
+            public ServletOutputStream getOutputStream() {
+                return container;
+            }
+        };
+        WriteListener listener = mock(WriteListener.class);
+        AtomicReference<Boolean> ready = new AtomicReference<>();
+        FilterChain chain = (req, res) -> {
+            res.getOutputStream().setWriteListener(listener);
+            ready.set(res.getOutputStream().isReady());
+        };
+
+        // Act
+        filter.doFilter(readingsRequest("gzip"), response, chain);
+
+        // Assert
+        assertSame(listener, registered.get());
+        assertFalse(ready.get());
+    }
+
+    private MockHttpServletRequest readingsRequest(String acceptEncoding) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/buildings/1/last-readings");
+        request.addHeader(HttpHeaders.ACCEPT_ENCODING, acceptEncoding);
+        return request;
+    }
+
+    private FilterChain writing(String body) {
+        return (req, res) -> {
+            res.setContentType("application/json");
+            res.getOutputStream().write(body.getBytes(StandardCharsets.UTF_8));
+        };
+    }
+}
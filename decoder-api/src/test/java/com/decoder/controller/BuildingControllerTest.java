@@ -0,0 +1,120 @@
+package com.decoder.controller;
+
+import com.decoder.model.dto.ReadingResponse;
+import com.decoder.service.ForecastPrecomputer;
+import com.decoder.service.IngestWatermarks;
+import com.decoder.service.QueryBulkheads;
+import com.decoder.service.ReadingService;
+import com.decoder.service.SecurityService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for BuildingController.
+ * Tests negotiation of the columnar representation, conditional requests for last readings and
+ * admin-only status endpoints.
+ */
+@ExtendWith(MockitoExtension.class)
+class BuildingControllerTest {
+
+    private static final String COLUMNAR = BuildingController.COLUMNAR_MEDIA_TYPE;
+
+    @Mock
+    private ReadingService readingService;
+
+    @Mock
+    private SecurityService securityService;
+
+    @Mock
+    private QueryBulkheads queryBulkheads;
+
+    @Mock
+    private ForecastPrecomputer forecastPrecomputer;
+
+    private final Authentication user = new UsernamePasswordAuthenticationToken("owner", null, List.of());
+
+    @Test
+    void testIsColumnar_FormatParameter_OverridesAccept() {
+        assertTrue(BuildingController.isColumnar("columnar", "application/json"));
+        assertFalse(BuildingController.isColumnar("json", COLUMNAR));
+    }
+
+    @Test
+    void testIsColumnar_AcceptedColumnar_Columnar() {
+        assertTrue(BuildingController.isColumnar(null, COLUMNAR));
+        assertTrue(BuildingController.isColumnar(null, COLUMNAR + ", application/json;q=0.5"));
+        assertTrue(BuildingController.isColumnar(null, COLUMNAR + ", */*;q=0.8"));
+    }
+
+    @Test
+    void testIsColumnar_RejectedOrLessPreferred_Json() {
+        assertFalse(BuildingController.isColumnar(null, COLUMNAR + ";q=0"));
+        assertFalse(BuildingController.isColumnar(null, "application/json, " + COLUMNAR + ";q=0.5"));
+        assertFalse(BuildingController.isColumnar(null, "*/*"));
+        assertFalse(BuildingController.isColumnar(null, "not a media type;;"));
+        assertFalse(BuildingController.isColumnar(null, null));
+    }
+
+    @Test
+    void testGetLastReadings_MatchingIfNoneMatch_NotModifiedWithoutQuery() {
+        // Arrange
+        IngestWatermarks ingestWatermarks = new IngestWatermarks(new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(ingestWatermarks, "enabled", true);
+        BuildingController controller = new BuildingController(readingService, null, securityService, null, null,
+                null, null, null, queryBulkheads, ingestWatermarks, null);
+        when(securityService.hasAccessToBuilding("owner", 1L)).thenReturn(true);
+        when(queryBulkheads.execute(anyString(), any())).thenAnswer(invocation ->
+                invocation.getArgument(1, Supplier.class).get());
+        when(readingService.getLastReadings(1L, 60)).thenReturn(List.of(
+                new ReadingResponse(1L, "s1", LocalDateTime.now().minusMinutes(5), 21.5)));
+        ResponseEntity<?> first = controller.getLastReadings(1L, 60, "fresh", null, null, null, user);
+        String etag = first.getHeaders().getETag();
+
+        // Act
+        ResponseEntity<?> second = controller.getLastReadings(1L, 60, "fresh", null, null, etag, user);
+
+        // Assert
+        assertEquals(HttpStatus.OK, first.getStatusCode());
+        assertNotNull(etag);
+        assertEquals(-1, first.getHeaders().getLastModified());
+        assertEquals(HttpStatus.NOT_MODIFIED, second.getStatusCode());
+        assertEquals(etag, second.getHeaders().getETag());
+        assertNull(second.getHeaders().getFirst(HttpHeaders.LAST_MODIFIED));
+        assertNull(second.getBody());
+        verify(readingService, times(1)).getLastReadings(1L, 60);
+        verify(queryBulkheads, times(1)).execute(anyString(), any());
+    }
+
+    @Test
+    void testGetForecastStatus_NotAdmin_Forbidden() {
+        // Arrange
+        BuildingController controller = new BuildingController(readingService, forecastPrecomputer, securityService,
+                null, null, null, null, null, queryBulkheads, null, null);
+        when(securityService.isAdmin("owner")).thenReturn(false);
+
+        // Act
+        ResponseEntity<?> response = controller.getForecastStatus(user);
+
+        // Assert
+        assertEquals(HttpStatus.FORBIDDEN, response.getStatusCode());
+        verifyNoInteractions(forecastPrecomputer);
+    }
+}
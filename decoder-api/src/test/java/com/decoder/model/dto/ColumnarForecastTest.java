@@ -0,0 +1,46 @@
+package com.decoder.model.dto;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ColumnarForecast.
+ * Tests that the point view serializes exactly like the expanded ForecastResponse.
+ */
+class ColumnarForecastTest {
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    private final LocalDateTime base = LocalDateTime.of(2024, 1, 1, 12, 0);
+
+    @Test
+    void testAsPoints_Serialized_SameJsonAsForecastResponse() throws Exception {
+        // Arrange
+        ColumnarForecast forecast = new ColumnarForecast(1L, base, 60, new double[] {1.5, 2.0, 3.25},
+                "Reduce load", base.minusMinutes(1));
+
+        // Act
+        String points = objectMapper.writeValueAsString(forecast.asPoints());
+
+        // Assert
+        assertEquals(objectMapper.writeValueAsString(forecast.toForecastResponse()), points);
+        assertTrue(points.contains("{\"timestamp\":\"2024-01-01T12:02:00\",\"value\":3.25}"));
+    }
+
+    @Test
+    void testAsPoints_NoForecast_SameJsonAsForecastResponse() throws Exception {
+        // Arrange
+        ColumnarForecast forecast = new ColumnarForecast(1L, null, 60, new double[0], null, base);
+
+        // Act
+        String points = objectMapper.writeValueAsString(forecast.asPoints());
+
+        // Assert
+        assertEquals(objectMapper.writeValueAsString(forecast.toForecastResponse()), points);
+    }
+}
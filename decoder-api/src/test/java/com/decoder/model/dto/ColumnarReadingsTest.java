@@ -0,0 +1,76 @@
+package com.decoder.model.dto;
+
+import com.decoder.model.Anomaly;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ColumnarReadings.
+ * Tests grouping per sensor, timestamp offsets and anomaly bitmasks.
+ */
+class ColumnarReadingsTest {
+
+    private final LocalDateTime base = LocalDateTime.of(2024, 1, 1, 12, 0);
+
+    @Test
+    void testOf_NewestFirstReadings_SeriesPerSensorOldestFirst() {
+        // Arrange
+        List<ReadingResponse> readings = List.of(
+                new ReadingResponse(1L, "s1", base.plusSeconds(2), 3.0),
+                new ReadingResponse(1L, "s2", base.plusSeconds(1), 9.0),
+                new ReadingResponse(1L, "s1", base.plusSeconds(1), 2.0),
+                new ReadingResponse(1L, "s1", base, 1.0));
+
+        // Act
+        ColumnarReadings columnar = ColumnarReadings.of(1L, readings);
+
+        // Assert
+        assertEquals(1L, columnar.getBuildingId());
+        assertEquals(2, columnar.getSeries().size());
+        ColumnarReadings.SensorSeries s1 = columnar.getSeries().get(0);
+        assertEquals("s1", s1.getSensorId());
+        assertEquals(base, s1.getBase());
+        assertArrayEquals(new long[] {0, 1000, 2000}, s1.getOffsetsMs());
+        assertArrayEquals(new double[] {1.0, 2.0, 3.0}, s1.getValues());
+        assertNull(s1.getAnomalyFlags());
+        assertEquals("s2", columnar.getSeries().get(1).getSensorId());
+    }
+
+    @Test
+    void testOf_FlaggedReading_AnomalyBitmaskPerReading() {
+        // Arrange
+        List<ReadingResponse> readings = List.of(
+                new ReadingResponse(1L, "s1", base, 1.0),
+                new ReadingResponse(1L, "s1", base.plusSeconds(1), 50.0, List.of(Anomaly.SPIKE, Anomaly.GAP)));
+
+        // Act
+        ColumnarReadings columnar = ColumnarReadings.of(1L, readings);
+
+        // Assert
+        assertArrayEquals(new int[] {0, Anomaly.SPIKE.getBit() | Anomaly.GAP.getBit()},
+                columnar.getSeries().get(0).getAnomalyFlags());
+    }
+
+    @Test
+    void testOf_ManyReadings_ArraysGrowPastInitialCapacity() {
+        // Arrange
+        List<ReadingResponse> readings = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            readings.add(new ReadingResponse(1L, "s1", base.plusSeconds(i), (double) i,
+                    i == 39 ? List.of(Anomaly.FLATLINE) : List.of()));
+        }
+
+        // Act
+        ColumnarReadings.SensorSeries series = ColumnarReadings.of(1L, readings).getSeries().get(0);
+
+        // Assert
+        assertEquals(40, series.getValues().length);
+        assertEquals(39_000, series.getOffsetsMs()[39]);
+        assertEquals(Anomaly.FLATLINE.getBit(), series.getAnomalyFlags()[39]);
+    }
+}
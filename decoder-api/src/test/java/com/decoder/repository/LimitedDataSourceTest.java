@@ -0,0 +1,105 @@
+package com.decoder.repository;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for LimitedDataSource.
+ * Tests the permit per connection, returning it on close and waiting for a free connection.
+ */
+@ExtendWith(MockitoExtension.class)
+class LimitedDataSourceTest {
+
+    @Mock
+    private DataSource pool;
+
+    @Mock
+    private Connection connection;
+
+    @Test
+    void testGetConnection_AllPermitsTaken_TimesOut() throws Exception {
+        // Arrange
+        when(pool.getConnection()).thenReturn(connection);
+        LimitedDataSource limited = new LimitedDataSource("test", pool, 1, 20);
+        limited.getConnection();
+
+        // Act & Assert
+        assertThrows(SQLTransientConnectionException.class, limited::getConnection);
+        assertEquals(1, limited.getActive());
+        verify(pool, times(1)).getConnection();
+    }
+
+    @Test
+    void testClose_ClosedTwice_PermitReturnedOnce() throws Exception {
+        // Arrange
+        when(pool.getConnection()).thenReturn(connection);
+        LimitedDataSource limited = new LimitedDataSource("test", pool, 2, 20);
+        Connection first = limited.getConnection();
+
+        // Act
+        first.close();
+        first.close();
+
+        // Assert
+        verify(connection, times(2)).close();
+        assertEquals(0, limited.getActive());
+        limited.getConnection();
+        limited.getConnection();
+        assertThrows(SQLTransientConnectionException.class, limited::getConnection);
+    }
+
+    @Test
+    void testGetConnection_PoolFails_PermitReturned() throws Exception {
+        // Arrange
+        when(pool.getConnection()).thenThrow(new SQLException("database locked")).thenReturn(connection);
+        LimitedDataSource limited = new LimitedDataSource("test", pool, 1, 20);
+
+        // Act
+        assertThrows(SQLException.class, limited::getConnection);
+
+        // Assert
+        assertEquals(0, limited.getActive());
+        assertNotNull(limited.getConnection());
+    }
+
+    @Test
+    void testGetConnection_WaiterAdmittedWhenConnectionClosed() throws Exception {
+        // Arrange
+        when(pool.getConnection()).thenReturn(connection);
+        when(connection.isReadOnly()).thenReturn(true);
+        LimitedDataSource limited = new LimitedDataSource("test", pool, 1, 5000);
+        Connection held = limited.getConnection();
+        CompletableFuture<Connection> waiter = CompletableFuture.supplyAsync(() -> {
+            try {
+                return limited.getConnection();
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        while (limited.getWaiting() == 0) {
+            Thread.onSpinWait();
+        }
+
+        // Act
+        held.close();
+
+        // Assert
+        Connection admitted = waiter.get(5, TimeUnit.SECONDS);
+        assertTrue(admitted.isReadOnly());
+        assertEquals(admitted, admitted);
+        assertNotEquals(held, admitted);
+        assertEquals(1, limited.getActive());
+    }
+}
@@ -0,0 +1,253 @@
+package com.decoder.repository;
+
+import com.decoder.model.Reading;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for ReadingJdbcRepository against an in-memory SQLite database.
+ * Tests generated ids, batched inserts, range queries, streaming and timestamp encoding.
+ */
+@ExtendWith(MockitoExtension.class)
+class ReadingJdbcRepositoryTest {
+
+    @Mock
+    private SensorRegistry sensorRegistry;
+
+    @Mock
+    private ReadingTableLayout tableLayout;
+
+    @Mock
+    private ReadingShards shards;
+
+    private SingleConnectionDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private ReadingJdbcRepository repository;
+
+    private final LocalDateTime base = LocalDateTime.of(2025, 1, 1, 12, 0, 0, 250_000_000);
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new SingleConnectionDataSource("jdbc:sqlite::memory:", true);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        // Same table Hibernate generates for Reading
+        jdbcTemplate.execute("CREATE TABLE readings (id integer, anomaly_flags integer, building_id bigint not null, "
+                + "sensor_ref integer not null, timestamp timestamp not null, value float not null, primary key (id))");
+        repository = new ReadingJdbcRepository(jdbcTemplate, sensorRegistry, tableLayout, shards);
+        ReflectionTestUtils.setField(repository, "batchSize", 2);
+        ReflectionTestUtils.setField(repository, "fetchSize", 2);
+        lenient().when(sensorRegistry.getSensorKey(anyInt())).thenAnswer(invocation -> "s" + invocation.getArgument(0));
+    }
+
+    @AfterEach
+    void tearDown() {
+        dataSource.destroy();
+    }
+
+    @Test
+    void testInsert_ReturnsGeneratedIds() {
+        // Act
+        Long first = repository.insert(reading(1L, 1, base, 10.0, 0));
+        Long second = repository.insert(reading(1L, 1, base.plusSeconds(1), 11.0, 0));
+
+        // Assert
+        assertEquals(1L, first);
+        assertEquals(2L, second);
+    }
+
+    @Test
+    void testInsertBatch_MoreRowsThanBatchSize_AllStoredAndQueryable() {
+        // Arrange
+        List<Reading> readings = List.of(
+                reading(1L, 1, base, 1.0, 0),
+                reading(1L, 2, base.plusSeconds(1), 2.0, 4),
+                reading(2L, 1, base.plusSeconds(2), 3.0, 0),
+                reading(1L, 1, base.plusSeconds(3), 4.0, 1),
+                reading(1L, 1, base.minusHours(1), 5.0, 0));
+
+        // Act
+        repository.insertBatch(readings);
+        List<Reading> last = repository.findLastReadingsByBuildingId(1L, base);
+
+        // Assert
+        assertEquals(5, jdbcTemplate.queryForObject("SELECT count(*) FROM readings", Integer.class));
+        assertEquals(List.of(4.0, 2.0, 1.0), last.stream().map(Reading::getValue).toList());
+        assertEquals("s2", last.get(1).getSensorId());
+        assertEquals(base.plusSeconds(1), last.get(1).getTimestamp());
+        assertEquals(4, last.get(1).getAnomalyFlags());
+        assertEquals(List.of(4.0, 2.0),
+                repository.findAnomaliesByBuildingId(1L, base).stream().map(Reading::getValue).toList());
+    }
+
+    @Test
+    void testFindLastReadingsByBuildingIds_OrderedByBuildingThenNewestFirst() {
+        // Arrange
+        repository.insertBatch(List.of(
+                reading(2L, 1, base, 1.0, 0),
+                reading(1L, 1, base, 2.0, 0),
+                reading(1L, 1, base.plusSeconds(1), 3.0, 0),
+                reading(3L, 1, base, 4.0, 0)));
+
+        // Act
+        List<Reading> readings = repository.findLastReadingsByBuildingIds(List.of(1L, 2L), base);
+
+        // Assert
+        assertEquals(List.of(3.0, 2.0, 1.0), readings.stream().map(Reading::getValue).toList());
+        assertTrue(repository.findLastReadingsByBuildingIds(List.of(), base).isEmpty());
+    }
+
+    @Test
+    void testStreamSince_OldestFirst() {
+        // Arrange
+        repository.insertBatch(List.of(
+                reading(1L, 1, base.plusSeconds(2), 3.0, 0),
+                reading(2L, 1, base, 1.0, 0),
+                reading(1L, 1, base.plusSeconds(1), 2.0, 0),
+                reading(1L, 1, base.minusSeconds(1), 0.0, 0)));
+        List<Double> streamed = new ArrayList<>();
+
+        // Act
+        repository.streamSince(base, reading -> streamed.add(reading.getValue()));
+
+        // Assert
+        assertEquals(List.of(1.0, 2.0, 3.0), streamed);
+    }
+
+    @Test
+    void testScanValues_OnlyBuildingAndWindowOldestFirst() {
+        // Arrange
+        repository.insertBatch(List.of(
+                reading(1L, 2, base.plusSeconds(2), 3.0, 0),
+                reading(2L, 1, base, 1.0, 0),
+                reading(1L, 1, base, 2.0, 0),
+                reading(1L, 1, base.plusSeconds(5), 4.0, 0),
+                reading(1L, 1, base.minusSeconds(1), 0.0, 0)));
+        List<String> scanned = new ArrayList<>();
+
+        // Act
+        repository.scanValues(1L, base, base.plusSeconds(5), (sensorRef, timestampMillis, value) ->
+                scanned.add(sensorRef + "@" + (timestampMillis - Timestamp.valueOf(base).getTime()) + "=" + value));
+
+        // Assert
+        assertEquals(List.of("1@0=2.0", "2@2000=3.0"), scanned);
+    }
+
+    @Test
+    void testInsert_ClusteredLayout_RepeatedReadingDroppedAndNoId() {
+        // Arrange
+        jdbcTemplate.execute("DROP TABLE readings");
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            ScriptUtils.executeSqlScript(connection, new ClassPathResource("db/readings-clustered.sql"));
+            return null;
+        });
+        when(tableLayout.isClustered()).thenReturn(true);
+
+        // Act
+        Long id = repository.insert(reading(1L, 1, base, 1.0, 0));
+        repository.insertBatch(List.of(reading(1L, 1, base, 2.0, 0), reading(1L, 2, base, 3.0, 0)));
+        List<Reading> readings = repository.findByBuildingId(1L);
+
+        // Assert
+        assertNull(id);
+        assertEquals(List.of(1.0, 3.0), readings.stream().map(Reading::getValue).sorted().toList());
+        assertNull(readings.get(0).getId());
+    }
+
+    @Test
+    void testInsert_TimestampStoredLikeHibernate() {
+        // Act
+        repository.insert(reading(1L, 1, base, 1.0, 0));
+
+        // Assert: sqlite-jdbc stores java.sql.Timestamp as epoch milliseconds
+        assertEquals("integer", jdbcTemplate.queryForObject("SELECT typeof(timestamp) FROM readings", String.class));
+    }
+
+    @Test
+    void testFindPageByBuildingId_WalkedByCursor_EveryReadingOnceInOrder() {
+        // Arrange - two readings share a timestamp so the id breaks the tie
+        repository.insertBatch(List.of(
+                reading(1L, 1, base.plusSeconds(1), 2.0, 0),
+                reading(1L, 2, base, 1.0, 0),
+                reading(2L, 1, base, 9.0, 0),
+                reading(1L, 1, base.plusSeconds(2), 4.0, 0),
+                reading(1L, 2, base.plusSeconds(1), 3.0, 0)));
+        List<Double> walked = new ArrayList<>();
+
+        // Act
+        Reading last = null;
+        List<Reading> page;
+        while (!(page = repository.findPageByBuildingId(1L, last, 2)).isEmpty()) {
+            page.forEach(reading -> walked.add(reading.getValue()));
+            last = page.get(page.size() - 1);
+        }
+
+        // Assert
+        assertEquals(List.of(1.0, 2.0, 3.0, 4.0), walked);
+    }
+
+    @Test
+    void testDeleteReadings_OnlyThePageDeleted() {
+        // Arrange
+        repository.insertBatch(List.of(
+                reading(1L, 1, base, 1.0, 0),
+                reading(1L, 1, base.plusSeconds(1), 2.0, 0),
+                reading(1L, 1, base.plusSeconds(2), 3.0, 0)));
+        List<Reading> page = repository.findPageByBuildingId(1L, null, 2);
+        // Stored after the page was read, with a timestamp inside it
+        repository.insert(reading(1L, 2, base, 4.0, 0));
+
+        // Act
+        int deleted = repository.deleteReadings(1L, page);
+
+        // Assert
+        assertEquals(2, deleted);
+        assertEquals(List.of(3.0, 4.0),
+                repository.findByBuildingId(1L).stream().map(Reading::getValue).sorted().toList());
+    }
+
+    @Test
+    void testInsertMissing_SentTwice_StoredOnce() {
+        // Arrange
+        repository.insert(reading(1L, 1, base, 1.0, 0));
+        List<Reading> batch = List.of(reading(1L, 1, base, 1.0, 0), reading(1L, 2, base, 2.0, 0));
+
+        // Act
+        List<Reading> first = repository.insertMissing(batch);
+        List<Reading> second = repository.insertMissing(batch);
+
+        // Assert
+        assertEquals(List.of(2.0), first.stream().map(Reading::getValue).toList());
+        assertTrue(second.isEmpty());
+        assertEquals(2, jdbcTemplate.queryForObject("SELECT count(*) FROM readings", Integer.class));
+    }
+
+    private static Reading reading(Long buildingId, int sensorRef, LocalDateTime timestamp, double value, int flags) {
+        Reading reading = new Reading();
+        reading.setBuildingId(buildingId);
+        reading.setSensorRef(sensorRef);
+        reading.setTimestamp(timestamp);
+        reading.setValue(value);
+        reading.setAnomalyFlags(flags);
+        return reading;
+    }
+}
@@ -0,0 +1,209 @@
+package com.decoder.repository;
+
+import com.decoder.model.Reading;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.lenient;
+
+/**
+ * Unit tests for ReadingShards against SQLite files in a temporary directory.
+ * Tests building routing, the recorded shard count and sharded reads and writes through
+ * ReadingJdbcRepository, including batches committed with a checkpoint on every shard.
+ */
+@ExtendWith(MockitoExtension.class)
+class ReadingShardsTest {
+
+    @TempDir
+    Path directory;
+
+    @Mock
+    private SensorRegistry sensorRegistry;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private ReadingTableLayout tableLayout;
+    private ReadingShards shards;
+
+    private final LocalDateTime base = LocalDateTime.now().minusMinutes(5);
+
+    @BeforeEach
+    void setUp() {
+        tableLayout = new ReadingTableLayout(null, null);
+        ReflectionTestUtils.setField(tableLayout, "layout", ReadingTableLayout.ROWID);
+        lenient().when(sensorRegistry.getSensorKey(anyInt())).thenAnswer(invocation -> "s" + invocation.getArgument(0));
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (shards != null) {
+            shards.stop();
+        }
+    }
+
+    @Test
+    void testStart_CountZero_Disabled() {
+        // Act
+        shards = shards(0);
+
+        // Assert
+        assertFalse(shards.isEnabled());
+        assertTrue(shards.all().isEmpty());
+    }
+
+    @Test
+    void testShardFor_BuildingIds_RoutedByModulo() {
+        // Act
+        shards = shards(3);
+
+        // Assert
+        assertTrue(Files.exists(directory.resolve("readings-2.db")));
+        assertEquals(1, shards.shardFor(4L).index());
+        assertEquals(0, shards.shardFor(6L).index());
+        assertEquals(2, shards.shardFor(-1L).index());
+    }
+
+    @Test
+    void testStart_DifferentCountForExistingFiles_Fails() {
+        // Arrange
+        shards(2).stop();
+
+        // Act & Assert
+        ReadingShards resized = new ReadingShards(tableLayout, meterRegistry);
+        configure(resized, 3);
+        IllegalStateException e = assertThrows(IllegalStateException.class, resized::start);
+        assertTrue(e.getMessage().contains("belongs to 2 shards"));
+    }
+
+    @Test
+    void testStart_LimiterEnabled_ShardAccessGoesThroughLimiter() {
+        // Arrange
+        shards = new ReadingShards(tableLayout, meterRegistry);
+        configure(shards, 2);
+        ReflectionTestUtils.setField(shards, "limited", true);
+        ReflectionTestUtils.setField(shards, "acquireTimeoutMs", 1000L);
+
+        // Act
+        shards.start();
+        int rows = shards.shardFor(1L).jdbcTemplate().queryForObject("SELECT count(*) FROM shard_info", Integer.class);
+
+        // Assert
+        assertEquals(1, rows);
+        LimitedDataSource limiter = assertInstanceOf(LimitedDataSource.class,
+                shards.shardFor(1L).jdbcTemplate().getDataSource());
+        assertEquals(2, limiter.getPermits());
+        assertEquals(0, limiter.getActive());
+        assertEquals(0.0, meterRegistry.get("decoder.datasource.limiter.active").tag("pool", "reading-shard-1")
+                .gauge().value());
+    }
+
+    @Test
+    void testOnEach_OneShardFails_FailureRethrown() {
+        // Arrange
+        shards = shards(2);
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> shards.onEach(shards.all(), shard -> {
+            if (shard.index() == 1) {
+                throw new IllegalArgumentException("disk full");
+            }
+            return shard.index();
+        }));
+    }
+
+    @Test
+    void testRepository_Sharded_EachBuildingStoredOnItsShardAndMergedOnRead() {
+        // Arrange
+        shards = shards(2);
+        ReadingJdbcRepository repository = new ReadingJdbcRepository(null, sensorRegistry, tableLayout, shards);
+        ReflectionTestUtils.setField(repository, "batchSize", 2);
+
+        // Act
+        repository.insertBatch(List.of(
+                reading(1L, base, 1.0),
+                reading(2L, base, 2.0),
+                reading(3L, base, 3.0),
+                reading(1L, base.plusSeconds(1), 4.0),
+                reading(2L, base.plusSeconds(1), 5.0)));
+        repository.insert(reading(4L, base, 6.0));
+
+        // Assert
+        assertEquals(List.of(1L, 3L), shards.shardFor(1L).jdbcTemplate()
+                .queryForList("SELECT DISTINCT building_id FROM readings ORDER BY building_id", Long.class));
+        assertEquals(List.of(2L, 4L), shards.shardFor(2L).jdbcTemplate()
+                .queryForList("SELECT DISTINCT building_id FROM readings ORDER BY building_id", Long.class));
+        assertEquals(List.of(4.0, 1.0), repository.findLastReadingsByBuildingId(1L, base.minusMinutes(1))
+                .stream().map(Reading::getValue).toList());
+        List<Reading> merged = repository.findLastReadingsByBuildingIds(List.of(1L, 2L, 3L, 4L), base.minusMinutes(1));
+        assertEquals(List.of(4.0, 1.0, 5.0, 2.0, 3.0, 6.0), merged.stream().map(Reading::getValue).toList());
+        assertEquals(4, repository.findDistinctBuildingIds().size());
+        assertEquals(2, repository.deleteByBuildingId(2L));
+        assertTrue(repository.findByBuildingId(2L).isEmpty());
+    }
+
+    @Test
+    void testInsertBatchUpTo_StoredAgainAfterOneShardCommitted_EachReadingStoredOnce() {
+        // Arrange
+        shards = shards(2);
+        ReadingJdbcRepository repository = new ReadingJdbcRepository(null, sensorRegistry, tableLayout, shards);
+        ReflectionTestUtils.setField(repository, "batchSize", 2);
+        List<Reading> batch = List.of(reading(1L, base, 1.0), reading(2L, base, 2.0), reading(3L, base, 3.0));
+        repository.insertBatchUpTo(batch, "backfill:x", 0, 100);
+        // As if the process stopped after shard 1 committed, before shard 0 did
+        shards.shardFor(2L).jdbcTemplate().update("DELETE FROM readings");
+        shards.shardFor(2L).jdbcTemplate().update("DELETE FROM log_checkpoints");
+
+        // Act
+        boolean resumable = repository.findCheckpoint("backfill:x").isPresent();
+        List<Reading> replayed = repository.insertBatchUpTo(batch, "backfill:x", 0, 100);
+        List<Reading> overlapping = repository.insertBatchUpTo(
+                List.of(reading(2L, base, 2.0), reading(2L, base.plusSeconds(1), 4.0)), "backfill:x", 50, 150);
+
+        // Assert
+        assertFalse(resumable);
+        assertEquals(List.of(2.0), replayed.stream().map(Reading::getValue).toList());
+        assertEquals(List.of(4.0), overlapping.stream().map(Reading::getValue).toList());
+        assertEquals(List.of(1.0, 3.0), repository.findLastReadingsByBuildingIds(List.of(1L, 3L), base.minusMinutes(1))
+                .stream().map(Reading::getValue).toList());
+        assertEquals(2, repository.findByBuildingId(2L).size());
+        assertEquals(150L, repository.findCheckpoint("backfill:x").orElseThrow());
+    }
+
+    private ReadingShards shards(int count) {
+        ReadingShards created = new ReadingShards(tableLayout, meterRegistry);
+        configure(created, count);
+        created.start();
+        return created;
+    }
+
+    private void configure(ReadingShards target, int count) {
+        ReflectionTestUtils.setField(target, "count", count);
+        ReflectionTestUtils.setField(target, "directory", directory.toString());
+        ReflectionTestUtils.setField(target, "poolSize", 2);
+        ReflectionTestUtils.setField(target, "busyTimeoutMs", 1000);
+    }
+
+    private static Reading reading(Long buildingId, LocalDateTime timestamp, double value) {
+        Reading reading = new Reading();
+        reading.setBuildingId(buildingId);
+        reading.setSensorRef(1);
+        reading.setSensorId("s1");
+        reading.setTimestamp(timestamp);
+        reading.setValue(value);
+        reading.setAnomalyFlags(0);
+        return reading;
+    }
+}
@@ -0,0 +1,107 @@
+package com.decoder.repository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ReadingTableLayout against an in-memory SQLite database.
+ * Tests creating the table, converting between layouts and the resulting query plan.
+ */
+class ReadingTableLayoutTest {
+
+    private SingleConnectionDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new SingleConnectionDataSource("jdbc:sqlite::memory:", true);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @AfterEach
+    void tearDown() {
+        dataSource.destroy();
+    }
+
+    @Test
+    void testEnsureLayout_NoTable_CreatesConfiguredLayout() {
+        // Act
+        ReadingTableLayout layout = layout(ReadingTableLayout.CLUSTERED);
+        layout.ensureLayout();
+
+        // Assert
+        assertEquals(ReadingTableLayout.CLUSTERED, layout.currentLayout());
+        assertTrue(layout.isClustered());
+    }
+
+    @Test
+    void testEnsureLayout_RowidTable_ConvertedKeepingFirstDuplicate() {
+        // Arrange
+        layout(ReadingTableLayout.ROWID).ensureLayout();
+        insertRow(1L, 1, 1000L, 1.0);
+        insertRow(1L, 1, 1000L, 2.0);
+        insertRow(2L, 1, 500L, 3.0);
+        insertRow(1L, 2, 900L, 4.0);
+
+        // Act
+        ReadingTableLayout layout = layout(ReadingTableLayout.CLUSTERED);
+        layout.ensureLayout();
+
+        // Assert
+        assertEquals(ReadingTableLayout.CLUSTERED, layout.currentLayout());
+        assertEquals(List.of(4.0, 1.0, 3.0), jdbcTemplate.queryForList("SELECT value FROM readings", Double.class));
+        assertEquals(List.of(4L, 1L, 3L), jdbcTemplate.queryForList("SELECT id FROM readings", Long.class));
+        assertEquals(List.of("idx_sensor_timestamp"), indexes());
+        String plan = jdbcTemplate.queryForList("EXPLAIN QUERY PLAN SELECT value FROM readings "
+                + "WHERE building_id = 1 AND timestamp >= 0 ORDER BY timestamp DESC").toString();
+        assertTrue(plan.contains("PRIMARY KEY"), plan);
+    }
+
+    @Test
+    void testEnsureLayout_ClusteredTable_ConvertedBackToRowid() {
+        // Arrange
+        layout(ReadingTableLayout.CLUSTERED).ensureLayout();
+        insertRow(1L, 1, 1000L, 1.0);
+        insertRow(1L, 2, 900L, 2.0);
+
+        // Act
+        ReadingTableLayout layout = layout(ReadingTableLayout.ROWID);
+        layout.ensureLayout();
+        insertRow(1L, 1, 1000L, 3.0);
+
+        // Assert
+        assertEquals(ReadingTableLayout.ROWID, layout.currentLayout());
+        assertEquals(3, jdbcTemplate.queryForObject("SELECT count(*) FROM readings", Integer.class));
+        assertEquals(List.of("idx_building_timestamp", "idx_sensor_timestamp"), indexes());
+    }
+
+    @Test
+    void testEnsureLayout_UnknownLayout_Fails() {
+        assertThrows(IllegalStateException.class, () -> layout("columnar").ensureLayout());
+    }
+
+    private ReadingTableLayout layout(String name) {
+        ReadingTableLayout layout = new ReadingTableLayout(jdbcTemplate, new DataSourceTransactionManager(dataSource));
+        ReflectionTestUtils.setField(layout, "layout", name);
+        return layout;
+    }
+
+    private void insertRow(Long buildingId, int sensorRef, long timestamp, double value) {
+        jdbcTemplate.update("INSERT INTO readings (building_id, sensor_ref, timestamp, value, anomaly_flags) "
+                + "VALUES (?, ?, ?, ?, 0)", buildingId, sensorRef, timestamp, value);
+    }
+
+    private List<String> indexes() {
+        return jdbcTemplate.queryForList("SELECT name FROM sqlite_master WHERE type = 'index' "
+                + "AND tbl_name = 'readings' AND sql IS NOT NULL ORDER BY name", String.class);
+    }
+}
@@ -0,0 +1,107 @@
+package com.decoder.repository;
+
+import com.decoder.model.Sensor;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for SensorRegistry.
+ * Tests the key-to-id dictionary cache and registration of new sensors.
+ */
+@ExtendWith(MockitoExtension.class)
+class SensorRegistryTest {
+    
+    @Mock
+    private SensorRepository sensorRepository;
+    
+    @InjectMocks
+    private SensorRegistry sensorRegistry;
+    
+    @Test
+    void testResolveOrRegister_KnownSensor_ServedFromCache() {
+        // Arrange
+        when(sensorRepository.findAll()).thenReturn(List.of(new Sensor(7, "sensor-001")));
+        sensorRegistry.warmCache();
+        
+        // Act
+        Integer id = sensorRegistry.resolveOrRegister("sensor-001");
+        
+        // Assert
+        assertEquals(7, id);
+        verify(sensorRepository, never()).findBySensorKey(any());
+    }
+    
+    @Test
+    void testResolveOrRegister_SensorInDatabase_CachesBothDirections() {
+        // Arrange
+        when(sensorRepository.findBySensorKey("sensor-002")).thenReturn(Optional.of(new Sensor(3, "sensor-002")));
+        
+        // Act
+        Integer first = sensorRegistry.resolveOrRegister("sensor-002");
+        Integer second = sensorRegistry.resolveOrRegister("sensor-002");
+        String key = sensorRegistry.getSensorKey(3);
+        
+        // Assert
+        assertEquals(3, first);
+        assertEquals(3, second);
+        assertEquals("sensor-002", key);
+        verify(sensorRepository, times(1)).findBySensorKey("sensor-002");
+        verify(sensorRepository, never()).findById(any());
+    }
+    
+    @Test
+    void testResolveOrRegister_RegisteredConcurrently_ReadsBackWinnersId() {
+        // Arrange
+        EntityManager entityManager = mock(EntityManager.class);
+        Query insert = mock(Query.class);
+        Query select = mock(Query.class);
+        ReflectionTestUtils.setField(sensorRegistry, "entityManager", entityManager);
+        when(sensorRepository.findBySensorKey("sensor-004")).thenReturn(Optional.empty());
+        when(entityManager.createNativeQuery("INSERT OR IGNORE INTO sensors (sensor_key) VALUES (?)")).thenReturn(insert);
+        when(entityManager.createNativeQuery("SELECT id FROM sensors WHERE sensor_key = ?")).thenReturn(select);
+        when(insert.setParameter(1, "sensor-004")).thenReturn(insert);
+        when(insert.executeUpdate()).thenReturn(0); // Another ingest registered the key first
+        when(select.setParameter(1, "sensor-004")).thenReturn(select);
+        when(select.getSingleResult()).thenReturn(12L);
+        TransactionSynchronizationManager.initSynchronization();
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        
+        try {
+            // Act
+            Integer id = sensorRegistry.resolveOrRegister("sensor-004");
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        
+            // Assert
+            assertEquals(12, id);
+            assertEquals(12, sensorRegistry.resolveOrRegister("sensor-004"));
+            assertEquals("sensor-004", sensorRegistry.getSensorKey(12));
+            verify(sensorRepository, times(1)).findBySensorKey("sensor-004");
+        } finally {
+            TransactionSynchronizationManager.setActualTransactionActive(false);
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+    
+    @Test
+    void testGetSensorKey_UnknownId_ReturnsNull() {
+        // Arrange
+        when(sensorRepository.findById(99)).thenReturn(Optional.empty());
+        
+        // Act & Assert
+        assertNull(sensorRegistry.getSensorKey(99));
+    }
+}
@@ -0,0 +1,98 @@
+package com.decoder.security;
+
+import com.decoder.config.DataLoader;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for JwtAuthenticationFilter.
+ * Tests authentication from the bearer token and waiting for seed data.
+ */
+@ExtendWith(MockitoExtension.class)
+class JwtAuthenticationFilterTest {
+
+    @Mock
+    private DataLoader dataLoader;
+
+    @Mock
+    private FilterChain chain;
+
+    private JwtAuthenticationFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        filter = new JwtAuthenticationFilter(dataLoader);
+        ReflectionTestUtils.setField(filter, "seedWaitMs", 50L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void testDoFilter_SeedDataLoaded_Authenticated() throws Exception {
+        // Arrange
+        when(dataLoader.awaitLoaded(50L, TimeUnit.MILLISECONDS)).thenReturn(true);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // Act
+        filter.doFilter(bearerRequest(), response, chain);
+
+        // Assert
+        assertEquals("owner1", SecurityContextHolder.getContext().getAuthentication().getName());
+        verify(chain).doFilter(any(), eq(response));
+    }
+
+    @Test
+    void testDoFilter_SeedDataStillLoading_ServiceUnavailable() throws Exception {
+        // Arrange
+        when(dataLoader.awaitLoaded(anyLong(), any())).thenReturn(false);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // Act
+        filter.doFilter(bearerRequest(), response, chain);
+
+        // Assert
+        assertEquals(503, response.getStatus());
+        assertEquals("1", response.getHeader(HttpHeaders.RETRY_AFTER));
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+        verifyNoInteractions(chain);
+    }
+
+    @Test
+    void testDoFilter_NoToken_NotDelayed() throws Exception {
+        // Arrange
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/ingest");
+
+        // Act
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+        // Assert
+        verify(chain).doFilter(eq(request), any());
+        verifyNoInteractions(dataLoader);
+    }
+
+    private MockHttpServletRequest bearerRequest() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/buildings/1/last-readings");
+        request.addHeader(HttpHeaders.AUTHORIZATION, "Bearer owner1:OWNER");
+        return request;
+    }
+}
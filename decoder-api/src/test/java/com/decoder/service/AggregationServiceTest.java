@@ -0,0 +1,148 @@
+package com.decoder.service;
+
+import com.decoder.model.Reading;
+import com.decoder.model.dto.WindowAggregate;
+import com.decoder.repository.ReadingJdbcRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for AggregationService.
+ * Tests window alignment, per-sensor filtering, multi-level merging and retention.
+ */
+@ExtendWith(MockitoExtension.class)
+class AggregationServiceTest {
+
+    @Mock
+    private ReadingJdbcRepository readingJdbcRepository;
+
+    private AggregationService aggregationService;
+
+    private final LocalDateTime base = LocalDateTime.of(2025, 1, 1, 0, 0);
+
+    @BeforeEach
+    void setUp() {
+        aggregationService = new AggregationService(readingJdbcRepository);
+        ReflectionTestUtils.setField(aggregationService, "bucketMinutes", 5);
+        ReflectionTestUtils.setField(aggregationService, "retentionHours", 168);
+        ReflectionTestUtils.setField(aggregationService, "relativeAccuracy", 0.01);
+        ReflectionTestUtils.setField(aggregationService, "maxBins", 2048);
+        aggregationService.start();
+    }
+
+    @Test
+    void testAggregate_MultiDayWindow_MatchesExactStatistics() {
+        // Arrange: one reading per minute for three days, values 1..4320
+        int minutes = 3 * 1440;
+        for (int i = 0; i < minutes; i++) {
+            aggregationService.onReading(new Reading(null, 1L, "s1", base.plusMinutes(i), (double) (i + 1)));
+        }
+
+        // Act: a window that starts and ends mid-day, so every level contributes
+        WindowAggregate aggregate = aggregationService.aggregate(1L, null,
+                base.plusMinutes(600), base.plusMinutes(3600));
+
+        // Assert
+        assertEquals(base.plusMinutes(600), aggregate.getFrom());
+        assertEquals(base.plusMinutes(3600), aggregate.getTo());
+        assertEquals(3000, aggregate.getCount());
+        assertEquals(601.0, aggregate.getMin());
+        assertEquals(3600.0, aggregate.getMax());
+        assertEquals(2100.5, aggregate.getMean(), 1e-9);
+        assertEquals(2100.0, aggregate.getP50(), 2100.0 * 0.01 + 1);
+        assertEquals(3450.0, aggregate.getP95(), 3450.0 * 0.01 + 1);
+        assertEquals(3570.0, aggregate.getP99(), 3570.0 * 0.01 + 1);
+    }
+
+    @Test
+    void testAggregate_UnalignedWindow_AlignsOutwardsToBuckets() {
+        // Arrange
+        aggregationService.onReading(new Reading(null, 1L, "s1", base.plusMinutes(10), 1.0));
+        aggregationService.onReading(new Reading(null, 1L, "s1", base.plusMinutes(14), 2.0));
+        aggregationService.onReading(new Reading(null, 1L, "s1", base.plusMinutes(15), 3.0));
+
+        // Act
+        WindowAggregate aggregate = aggregationService.aggregate(1L, null,
+                base.plusMinutes(12), base.plusMinutes(14).plusSeconds(30));
+
+        // Assert
+        assertEquals(base.plusMinutes(10), aggregate.getFrom());
+        assertEquals(base.plusMinutes(15), aggregate.getTo());
+        assertEquals(2, aggregate.getCount());
+    }
+
+    @Test
+    void testAggregate_SensorFilter_OnlyThatSensor() {
+        // Arrange
+        aggregationService.onReading(new Reading(null, 1L, "s1", base, 10.0));
+        aggregationService.onReading(new Reading(null, 1L, "s2", base, 30.0));
+        aggregationService.onReading(new Reading(null, 2L, "s1", base, 50.0));
+
+        // Act
+        WindowAggregate building = aggregationService.aggregate(1L, null, base, base.plusMinutes(5));
+        WindowAggregate sensor = aggregationService.aggregate(1L, "s2", base, base.plusMinutes(5));
+
+        // Assert
+        assertEquals(2, building.getCount());
+        assertEquals(20.0, building.getMean(), 1e-9);
+        assertEquals(1, sensor.getCount());
+        assertEquals(30.0, sensor.getMax());
+    }
+
+    @Test
+    void testAggregate_NoReadings_ReturnsEmptyAggregate() {
+        // Act
+        WindowAggregate aggregate = aggregationService.aggregate(9L, null, base, base.plusHours(1));
+
+        // Assert
+        assertEquals(0, aggregate.getCount());
+        assertNull(aggregate.getMean());
+        assertNull(aggregate.getP99());
+    }
+
+    @Test
+    void testOnReading_PastRetention_EvictsOldBuckets() {
+        // Arrange
+        aggregationService.onReading(new Reading(null, 1L, "s1", base, 1.0));
+
+        // Act
+        aggregationService.onReading(new Reading(null, 1L, "s1", base.plusDays(9), 2.0));
+
+        // Assert
+        assertEquals(0, aggregationService.aggregate(1L, null, base, base.plusDays(1)).getCount());
+        assertEquals(1, aggregationService.aggregate(1L, null, base, base.plusDays(10)).getCount());
+    }
+
+    @Test
+    void testOnReading_FarFutureTimestamp_KeepsRecentHistory() {
+        // Arrange
+        LocalDateTime now = LocalDateTime.now();
+        aggregationService.onReading(new Reading(null, 1L, "s1", now.minusHours(2), 1.0));
+
+        // Act
+        aggregationService.onReading(new Reading(null, 1L, "s1", now.plusYears(10), 2.0));
+
+        // Assert
+        assertEquals(1, aggregationService.aggregate(1L, null, now.minusHours(3), now).getCount());
+    }
+
+    @Test
+    void testDropBuilding_RemovesItsSketches() {
+        // Arrange
+        aggregationService.onReading(new Reading(null, 1L, "s1", base, 1.0));
+
+        // Act
+        aggregationService.dropBuilding(1L);
+
+        // Assert
+        assertEquals(0, aggregationService.aggregate(1L, null, base, base.plusHours(1)).getCount());
+    }
+}
@@ -0,0 +1,146 @@
+package com.decoder.service;
+
+import com.decoder.config.AlertingProperties;
+import com.decoder.model.Reading;
+import com.decoder.model.dto.Alert;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for AlertEngine.
+ * Tests sustained-duration, hysteresis, per-sensor and per-building threshold rules, and
+ * rejection of clear thresholds that are not below their threshold.
+ */
+class AlertEngineTest {
+    
+    private final List<Alert> published = new ArrayList<>();
+    private AlertingProperties properties;
+    private AlertEngine alertEngine;
+    
+    private final LocalDateTime base = LocalDateTime.of(2025, 1, 1, 10, 0);
+    
+    @BeforeEach
+    void setUp() {
+        properties = new AlertingProperties();
+        properties.setThreshold(100.0);
+        properties.setClearThreshold(90.0);
+        properties.setSustainSeconds(60);
+        alertEngine = new AlertEngine(properties, List.of(published::add));
+    }
+    
+    @Test
+    void testOnReading_AboveThresholdForSustainPeriod_RaisesOnce() {
+        // Act
+        alertEngine.onReading(createReading(1L, base, 120.0));
+        alertEngine.onReading(createReading(1L, base.plusSeconds(30), 125.0));
+        alertEngine.onReading(createReading(1L, base.plusSeconds(60), 130.0));
+        alertEngine.onReading(createReading(1L, base.plusSeconds(90), 130.0));
+        
+        // Assert
+        assertEquals(1, published.size());
+        assertEquals(Alert.Type.RAISED, published.get(0).getType());
+        assertTrue(alertEngine.isActive(1L));
+    }
+    
+    @Test
+    void testOnReading_BriefSpike_DoesNotRaise() {
+        // Act
+        alertEngine.onReading(createReading(1L, base, 120.0));
+        alertEngine.onReading(createReading(1L, base.plusSeconds(30), 80.0));
+        alertEngine.onReading(createReading(1L, base.plusSeconds(70), 120.0));
+        
+        // Assert
+        assertTrue(published.isEmpty());
+    }
+    
+    @Test
+    void testOnReading_OneSensorSustainedAboveWhileAnotherNormal_Raises() {
+        // Act
+        for (int second = 0; second <= 90; second += 15) {
+            alertEngine.onReading(new Reading(null, 1L, "hot", base.plusSeconds(second), 120.0));
+            alertEngine.onReading(new Reading(null, 1L, "normal", base.plusSeconds(second + 5), 50.0));
+        }
+        
+        // Assert
+        assertEquals(1, published.size());
+        assertEquals(Alert.Type.RAISED, published.get(0).getType());
+        assertEquals("hot", published.get(0).getSensorId());
+        assertTrue(alertEngine.isActive(1L));
+    }
+    
+    @Test
+    void testOnReading_WithinHysteresisBand_StaysActiveUntilBelowClear() {
+        // Arrange
+        alertEngine.onReading(createReading(1L, base, 120.0));
+        alertEngine.onReading(createReading(1L, base.plusSeconds(60), 120.0));
+        
+        // Act
+        alertEngine.onReading(createReading(1L, base.plusSeconds(90), 95.0));
+        boolean activeInBand = alertEngine.isActive(1L);
+        alertEngine.onReading(createReading(1L, base.plusSeconds(120), 85.0));
+        
+        // Assert
+        assertTrue(activeInBand);
+        assertFalse(alertEngine.isActive(1L));
+        assertEquals(Alert.Type.CLEARED, published.get(1).getType());
+    }
+    
+    @Test
+    void testOnReading_BuildingOverride_UsesOwnThreshold() {
+        // Arrange
+        AlertingProperties.BuildingRule rule = new AlertingProperties.BuildingRule();
+        rule.setThreshold(200.0);
+        properties.getBuildings().put(2L, rule);
+        
+        // Act
+        alertEngine.onReading(createReading(2L, base, 150.0));
+        alertEngine.onReading(createReading(2L, base.plusSeconds(120), 150.0));
+        
+        // Assert
+        assertTrue(published.isEmpty());
+    }
+    
+    @Test
+    void testOnReading_BuildingThresholdOverride_ClearsBelowOwnHysteresisBand() {
+        // Arrange
+        properties.setClearThreshold(null);
+        AlertingProperties.BuildingRule rule = new AlertingProperties.BuildingRule();
+        rule.setThreshold(80.0);
+        properties.getBuildings().put(2L, rule);
+        alertEngine.onReading(createReading(2L, base, 90.0));
+        alertEngine.onReading(createReading(2L, base.plusSeconds(60), 90.0));
+        
+        // Act
+        alertEngine.onReading(createReading(2L, base.plusSeconds(90), 75.0));
+        boolean activeInBand = alertEngine.isActive(2L);
+        alertEngine.onReading(createReading(2L, base.plusSeconds(120), 69.0));
+        
+        // Assert
+        assertTrue(activeInBand);
+        assertFalse(alertEngine.isActive(2L));
+        assertEquals(70.0, published.get(1).getThreshold());
+    }
+    
+    @Test
+    void testValidateRules_ClearThresholdNotBelowThreshold_Rejected() {
+        // Arrange
+        AlertingProperties.BuildingRule rule = new AlertingProperties.BuildingRule();
+        rule.setThreshold(80.0);
+        rule.setClearThreshold(85.0);
+        properties.getBuildings().put(3L, rule);
+        
+        // Act & Assert
+        IllegalStateException e = assertThrows(IllegalStateException.class, alertEngine::validateRules);
+        assertTrue(e.getMessage().contains("building 3"));
+    }
+    
+    private Reading createReading(Long buildingId, LocalDateTime timestamp, Double value) {
+        return new Reading(null, buildingId, "sensor1", timestamp, value);
+    }
+}
@@ -0,0 +1,135 @@
+package com.decoder.service;
+
+import com.decoder.model.Anomaly;
+import com.decoder.model.Reading;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for AnomalyDetector.
+ * Tests spike, flatline and gap detection and handling of late readings.
+ */
+class AnomalyDetectorTest {
+
+    private AnomalyDetector detector;
+
+    private final LocalDateTime base = LocalDateTime.of(2025, 1, 1, 10, 0);
+
+    @BeforeEach
+    void setUp() {
+        detector = new AnomalyDetector();
+        ReflectionTestUtils.setField(detector, "enabled", true);
+        ReflectionTestUtils.setField(detector, "zThreshold", 4.0);
+        ReflectionTestUtils.setField(detector, "minSamples", 30L);
+        ReflectionTestUtils.setField(detector, "ewmaAlpha", 0.1);
+        ReflectionTestUtils.setField(detector, "flatlineSeconds", 600L);
+        ReflectionTestUtils.setField(detector, "gapSeconds", 300L);
+    }
+
+    @Test
+    void testEvaluate_SpikeAfterWarmup_FlagsSpike() {
+        // Arrange
+        for (int i = 0; i < 50; i++) {
+            assertEquals(0, evaluate("s1", base.plusSeconds(i * 10L), 20.0 + (i % 2)));
+        }
+
+        // Act
+        int flags = evaluate("s1", base.plusSeconds(500), 80.0);
+
+        // Assert
+        assertEquals(List.of(Anomaly.SPIKE), Anomaly.fromFlags(flags));
+    }
+
+    @Test
+    void testEvaluate_SpikeDuringWarmup_NotFlagged() {
+        // Arrange
+        for (int i = 0; i < 10; i++) {
+            evaluate("s1", base.plusSeconds(i * 10L), 20.0 + (i % 2));
+        }
+
+        // Act
+        int flags = evaluate("s1", base.plusSeconds(100), 80.0);
+
+        // Assert
+        assertEquals(0, flags);
+    }
+
+    @Test
+    void testEvaluate_ValueStuckPastThreshold_FlagsFlatline() {
+        // Arrange
+        evaluate("s1", base, 5.0);
+
+        // Act
+        int beforeThreshold = evaluate("s1", base.plusSeconds(240), 5.0);
+        int afterThreshold = evaluate("s1", base.plusSeconds(480), 5.0);
+        int stillStuck = evaluate("s1", base.plusSeconds(720), 5.0);
+        int recovered = evaluate("s1", base.plusSeconds(960), 6.0);
+
+        // Assert
+        assertEquals(0, beforeThreshold);
+        assertEquals(0, afterThreshold);
+        assertEquals(List.of(Anomaly.FLATLINE), Anomaly.fromFlags(stillStuck));
+        assertEquals(0, recovered);
+    }
+
+    @Test
+    void testEvaluate_LongSilence_FlagsGap() {
+        // Arrange
+        evaluate("s1", base, 5.0);
+
+        // Act
+        int flags = evaluate("s1", base.plusMinutes(6), 6.0);
+
+        // Assert
+        assertEquals(List.of(Anomaly.GAP), Anomaly.fromFlags(flags));
+    }
+
+    @Test
+    void testEvaluate_LateReading_NoGapAndStateKept() {
+        // Arrange
+        evaluate("s1", base.plusMinutes(10), 5.0);
+
+        // Act
+        int late = evaluate("s1", base, 6.0);
+        int next = evaluate("s1", base.plusMinutes(11), 7.0);
+
+        // Assert
+        assertEquals(0, late);
+        assertEquals(0, next, "late reading must not move the sensor's clock backwards");
+    }
+
+    @Test
+    void testEvaluate_SeparateSensors_IndependentState() {
+        // Arrange
+        evaluate("s1", base, 5.0);
+
+        // Act
+        int otherSensor = evaluate("s2", base.plusMinutes(30), 5.0);
+
+        // Assert
+        assertEquals(0, otherSensor);
+    }
+
+    @Test
+    void testEvaluate_Disabled_ReturnsZero() {
+        // Arrange
+        ReflectionTestUtils.setField(detector, "enabled", false);
+        evaluate("s1", base, 5.0);
+
+        // Act
+        int flags = evaluate("s1", base.plusHours(1), 5.0);
+
+        // Assert
+        assertEquals(0, flags);
+    }
+
+    private int evaluate(String sensorId, LocalDateTime timestamp, double value) {
+        return detector.evaluate(new Reading(null, 1L, sensorId, timestamp, value));
+    }
+}
@@ -0,0 +1,254 @@
+package com.decoder.service;
+
+import com.decoder.model.LogCheckpoint;
+import com.decoder.model.Reading;
+import com.decoder.model.dto.BackfillStatus;
+import com.decoder.repository.LogCheckpointRepository;
+import com.decoder.repository.ReadingJdbcRepository;
+import com.decoder.repository.SensorRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for BackfillImporter.
+ * Tests row parsing and validation, chunked import of a file, resuming an interrupted import
+ * and importing rows appended to a file.
+ */
+@ExtendWith(MockitoExtension.class)
+class BackfillImporterTest {
+
+    @TempDir
+    Path directory;
+
+    @Mock
+    private ReadingJdbcRepository readingJdbcRepository;
+
+    @Mock
+    private SensorRegistry sensorRegistry;
+
+    @Mock
+    private LogCheckpointRepository checkpointRepository;
+
+    @Mock
+    private AggregationService aggregationService;
+
+    @Mock
+    private ReadingProjector readingProjector;
+
+    @Mock
+    private BuildingReadModel readModel;
+
+    @Mock
+    private ForecastPrecomputer forecastPrecomputer;
+
+    @Mock
+    private ClusterService clusterService;
+
+    @Mock
+    private IngestWatermarks ingestWatermarks;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private BackfillImporter importer;
+    private final Map<String, Long> checkpoints = new HashMap<>();
+    private final List<Reading> stored = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        importer = new BackfillImporter(readingJdbcRepository, sensorRegistry, checkpointRepository, aggregationService,
+                readingProjector, readModel, forecastPrecomputer, clusterService, ingestWatermarks, transactionManager);
+        ReflectionTestUtils.setField(importer, "directory", directory.toString());
+        ReflectionTestUtils.setField(importer, "threads", 2);
+        ReflectionTestUtils.setField(importer, "chunkBytes", 4096);
+        ReflectionTestUtils.setField(importer, "batchRows", 50);
+        ReflectionTestUtils.setField(importer, "rebuildIndexes", true);
+
+        lenient().when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        lenient().when(sensorRegistry.resolveOrRegister(anyString())).thenReturn(1);
+        lenient().when(clusterService.isLocal(anyLong())).thenReturn(true);
+        lenient().when(aggregationService.retainedSince()).thenReturn(LocalDateTime.now().minusHours(1));
+        lenient().when(readModel.getWindowMinutes()).thenReturn(60);
+        lenient().when(checkpointRepository.findById(anyString()))
+                .thenAnswer(invocation -> Optional.ofNullable(checkpoints.get(invocation.getArgument(0, String.class)))
+                        .map(sequence -> new LogCheckpoint(invocation.getArgument(0), sequence)));
+        lenient().when(checkpointRepository.save(any())).thenAnswer(invocation -> {
+            LogCheckpoint checkpoint = invocation.getArgument(0);
+            checkpoints.put(checkpoint.getName(), checkpoint.getAppliedSequence());
+            return checkpoint;
+        });
+        lenient().doAnswer(invocation -> {
+            synchronized (stored) {
+                stored.addAll(invocation.getArgument(0));
+            }
+            return null;
+        }).when(readingJdbcRepository).insertBatch(anyList());
+    }
+
+    @Test
+    void testParseLine_ValidRow_Parsed() {
+        // Act
+        Reading reading = parse("42, sensor-7 ,2024-03-01 12:30:15.5,-3.25");
+
+        // Assert
+        assertEquals(42L, reading.getBuildingId());
+        assertEquals("sensor-7", reading.getSensorId());
+        assertEquals(LocalDateTime.of(2024, 3, 1, 12, 30, 15, 500_000_000), reading.getTimestamp());
+        assertEquals(-3.25, reading.getValue());
+        assertEquals(0, reading.getAnomalyFlags());
+    }
+
+    @Test
+    void testParseLine_InvalidRows_Rejected() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> parse("1,s1,2024-03-01T12:00:00"));
+        assertThrows(IllegalArgumentException.class, () -> parse("1,s1,2024-03-01T12:00:00,1.0,extra"));
+        assertThrows(IllegalArgumentException.class, () -> parse("x,s1,2024-03-01T12:00:00,1.0"));
+        assertThrows(IllegalArgumentException.class, () -> parse("1,,2024-03-01T12:00:00,1.0"));
+        assertThrows(IllegalArgumentException.class, () -> parse("1,s1,2024-03-01T12:00:00,NaN"));
+        assertThrows(RuntimeException.class, () -> parse("1,s1,yesterday,1.0"));
+    }
+
+    @Test
+    void testImportNow_MultipleChunks_EveryValidRowStoredOnce() throws Exception {
+        // Arrange
+        writeFile("history.csv", 600, 250);
+
+        // Act
+        BackfillStatus status = importer.importNow("history.csv");
+
+        // Assert
+        assertEquals(BackfillStatus.State.COMPLETED, status.getState());
+        assertTrue(status.getChunks() > 1);
+        assertEquals(status.getChunks(), status.getChunksCompleted());
+        assertEquals(status.getTotalBytes(), status.getProcessedBytes());
+        assertEquals(599, status.getRowsImported());
+        assertEquals(1, status.getRowsRejected());
+        assertTrue(status.getErrors().get(0).contains("expected 4 fields"));
+        assertEquals(599, stored.size());
+        assertEquals(599, stored.stream().map(Reading::getValue).distinct().count());
+        verify(readingJdbcRepository).dropIndexes();
+        verify(readingJdbcRepository).createIndexes();
+        verify(forecastPrecomputer).precomputeAll();
+        verify(ingestWatermarks, atLeastOnce()).advance(3L);
+    }
+
+    @Test
+    void testImportNow_InterruptedThenRestarted_ResumesWithoutDuplicates() throws Exception {
+        // Arrange
+        ReflectionTestUtils.setField(importer, "threads", 1);
+        writeFile("history.csv", 600, -1);
+        AtomicInteger batches = new AtomicInteger();
+        doAnswer(invocation -> {
+            if (batches.incrementAndGet() == 4) {
+                throw new IllegalStateException("disk I/O error");
+            }
+            stored.addAll(invocation.getArgument(0));
+            return null;
+        }).when(readingJdbcRepository).insertBatch(anyList());
+
+        // Act
+        BackfillStatus failed = importer.importNow("history.csv");
+        BackfillStatus resumed = importer.importNow("history.csv");
+        BackfillStatus repeated = importer.importNow("history.csv");
+
+        // Assert
+        assertEquals(BackfillStatus.State.FAILED, failed.getState());
+        assertEquals("disk I/O error", failed.getFailure());
+        assertEquals(BackfillStatus.State.COMPLETED, resumed.getState());
+        assertTrue(resumed.getResumedFromBytes() > 0);
+        assertEquals(600, stored.size());
+        assertEquals(600, stored.stream().map(Reading::getValue).distinct().count());
+        assertEquals(0, repeated.getRowsImported());
+        verify(readingJdbcRepository, times(2)).createIndexes();
+    }
+
+    @Test
+    void testImportNow_RowsAppendedAfterImport_OnlyNewRowsImported() throws Exception {
+        // Arrange
+        writeFile("history.csv", 300, -1);
+        importer.importNow("history.csv");
+        StringBuilder appended = new StringBuilder();
+        for (int i = 300; i < 400; i++) {
+            appended.append("1,sensor-1,").append(LocalDateTime.of(2020, 1, 1, 0, 0).plusMinutes(i))
+                    .append(',').append(i).append(".5\r\n");
+        }
+        Files.writeString(directory.resolve("history.csv"), appended, StandardOpenOption.APPEND);
+
+        // Act
+        BackfillStatus status = importer.importNow("history.csv");
+
+        // Assert
+        assertEquals(BackfillStatus.State.COMPLETED, status.getState());
+        assertEquals(100, status.getRowsImported());
+        assertEquals(400, stored.size());
+        assertEquals(400, stored.stream().map(Reading::getValue).distinct().count());
+    }
+
+    @Test
+    void testImportNow_OverLongLineAcrossChunks_RejectedAndRestImported() throws Exception {
+        // Arrange
+        writeFile("history.csv", 100, -1);
+        String csv = Files.readString(directory.resolve("history.csv"));
+        Files.writeString(directory.resolve("history.csv"), csv + "1,sensor-1," + "9".repeat(20_000) + "\r\n" + csv.substring(csv.indexOf('\n') + 1)
+                .replace("2020-", "2021-"));
+
+        // Act
+        BackfillStatus status = importer.importNow("history.csv");
+
+        // Assert
+        assertEquals(BackfillStatus.State.COMPLETED, status.getState());
+        assertEquals(1, status.getRowsRejected());
+        assertTrue(status.getErrors().get(0).contains("longer than 4096 bytes"));
+        assertEquals(200, status.getRowsImported());
+        assertEquals(200, stored.size());
+    }
+
+    @Test
+    void testImportNow_FileOutsideDirectory_Rejected() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> importer.importNow("../history.csv"));
+    }
+
+    private static Reading parse(String line) {
+        byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
+        return BackfillImporter.parseLine(bytes, bytes.length);
+    }
+
+    private void writeFile(String name, int rows, int invalidRow) throws Exception {
+        StringBuilder csv = new StringBuilder("buildingId,sensorId,timestamp,value\r\n");
+        LocalDateTime start = LocalDateTime.of(2020, 1, 1, 0, 0);
+        for (int i = 0; i < rows; i++) {
+            if (i == invalidRow) {
+                csv.append("1,sensor-1,").append(start.plusMinutes(i)).append("\r\n");
+                continue;
+            }
+            csv.append(1 + i % 3).append(",sensor-").append(i % 5).append(',')
+                    .append(start.plusMinutes(i)).append(',').append(i).append(".5\r\n");
+        }
+        Files.writeString(directory.resolve(name), csv);
+    }
+}
@@ -0,0 +1,94 @@
+package com.decoder.service;
+
+import com.decoder.model.Reading;
+import com.decoder.model.dto.BuildingSummary;
+import com.decoder.model.dto.ReadingResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for BuildingReadModel.
+ * Tests window queries, per-sensor latest values, aggregates and window eviction.
+ */
+class BuildingReadModelTest {
+    
+    private BuildingReadModel readModel;
+    
+    private final LocalDateTime base = LocalDateTime.of(2025, 1, 1, 10, 0);
+    
+    @BeforeEach
+    void setUp() {
+        readModel = new BuildingReadModel();
+        ReflectionTestUtils.setField(readModel, "windowMinutes", 60);
+    }
+    
+    @Test
+    void testGetReadingsSince_OutOfOrderApply_ReturnsNewestFirst() {
+        // Arrange
+        readModel.apply(new Reading(null, 1L, "s1", base.plusMinutes(2), 3.0));
+        readModel.apply(new Reading(null, 1L, "s1", base, 1.0));
+        readModel.apply(new Reading(null, 1L, "s2", base.plusMinutes(1), 2.0));
+        readModel.apply(new Reading(null, 2L, "s1", base, 9.0));
+        
+        // Act
+        List<ReadingResponse> readings = readModel.getReadingsSince(1L, base.plusSeconds(30));
+        
+        // Assert
+        assertEquals(List.of(3.0, 2.0), readings.stream().map(ReadingResponse::getValue).toList());
+    }
+    
+    @Test
+    void testGetSummary_PartialFirstMinute_AggregatesOnlyReadingsInRange() {
+        // Arrange
+        readModel.apply(new Reading(null, 1L, "s1", base, 100.0));
+        readModel.apply(new Reading(null, 1L, "s1", base.plusSeconds(40), 10.0));
+        readModel.apply(new Reading(null, 1L, "s2", base.plusMinutes(3), 30.0));
+        readModel.apply(new Reading(null, 1L, "s1", base.plusMinutes(5), 20.0));
+        
+        // Act
+        BuildingSummary summary = readModel.getSummary(1L, base.plusSeconds(30));
+        
+        // Assert
+        assertEquals(3, summary.getCount());
+        assertEquals(20.0, summary.getAverage(), 1e-9);
+        assertEquals(10.0, summary.getMin());
+        assertEquals(30.0, summary.getMax());
+        assertEquals(base.plusMinutes(5), summary.getLastReadingAt());
+        assertEquals(List.of(20.0, 30.0),
+                summary.getLatestBySensor().stream().map(ReadingResponse::getValue).toList());
+    }
+    
+    @Test
+    void testApply_BeyondWindow_EvictsOldReadings() {
+        // Arrange
+        readModel.apply(new Reading(null, 1L, "s1", base, 1.0));
+        
+        // Act
+        readModel.apply(new Reading(null, 1L, "s1", base.plusMinutes(90), 2.0));
+        
+        // Assert
+        assertEquals(List.of(2.0), readModel.getReadingsSince(1L, base.minusDays(1)).stream()
+                .map(ReadingResponse::getValue).toList());
+        assertEquals(1, readModel.getSummary(1L, base.minusDays(1)).getCount());
+    }
+    
+    @Test
+    void testDropBuilding_RemovesOnlyThatBuilding() {
+        // Arrange
+        readModel.apply(new Reading(null, 1L, "s1", base, 1.0));
+        readModel.apply(new Reading(null, 2L, "s1", base, 2.0));
+        
+        // Act
+        readModel.dropBuilding(1L);
+        
+        // Assert
+        assertTrue(readModel.getReadingsSince(1L, base.minusDays(1)).isEmpty());
+        assertEquals(1, readModel.getReadingsSince(2L, base.minusDays(1)).size());
+    }
+}
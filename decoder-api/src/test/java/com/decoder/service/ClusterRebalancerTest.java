@@ -0,0 +1,141 @@
+package com.decoder.service;
+
+import com.decoder.model.Reading;
+import com.decoder.repository.ReadingJdbcRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.net.InetSocketAddress;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for ClusterRebalancer.
+ * Tests that buildings are handed off page by page to their owner, and that only pages
+ * the owner acknowledged are deleted locally.
+ */
+@ExtendWith(MockitoExtension.class)
+class ClusterRebalancerTest {
+
+    private static final String SELF = "http://self.invalid";
+
+    @Mock
+    private ClusterService clusterService;
+
+    @Mock
+    private ReadingJdbcRepository readingJdbcRepository;
+
+    @Mock
+    private ReadingProjector readingProjector;
+
+    @Mock
+    private AggregationService aggregationService;
+
+    private HttpServer owner;
+    private String ownerUrl;
+    private final List<String> received = new CopyOnWriteArrayList<>();
+    private volatile int ownerStatus = 200;
+    private ClusterRebalancer clusterRebalancer;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        owner = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        owner.createContext("/cluster/handoff", exchange -> {
+            received.add(new String(exchange.getRequestBody().readAllBytes()));
+            exchange.sendResponseHeaders(ownerStatus, -1);
+            exchange.close();
+        });
+        owner.start();
+        ownerUrl = "http://127.0.0.1:" + owner.getAddress().getPort();
+        clusterRebalancer = new ClusterRebalancer(clusterService, readingJdbcRepository,
+                readingProjector, aggregationService, new ObjectMapper());
+        lenient().when(clusterService.getSelfUrl()).thenReturn(SELF);
+        lenient().when(clusterService.getToken()).thenReturn("s3cret");
+    }
+
+    @AfterEach
+    void tearDown() {
+        owner.stop(0);
+    }
+
+    @Test
+    void testHandOffForeignBuildings_ForeignBuilding_EveryPageSentThenDeleted() {
+        // Arrange
+        List<Reading> first = List.of(createReading(1L, 1.0), createReading(2L, 2.0));
+        List<Reading> second = List.of(createReading(3L, 3.0));
+        when(readingJdbcRepository.findDistinctBuildingIds()).thenReturn(List.of(7L));
+        when(readingJdbcRepository.findPageByBuildingId(eq(7L), isNull(), anyInt()))
+                .thenReturn(first, List.of());
+        when(readingJdbcRepository.findPageByBuildingId(7L, first.get(1), 1000)).thenReturn(second);
+        when(readingJdbcRepository.findPageByBuildingId(7L, second.get(0), 1000)).thenReturn(List.of());
+        when(readingJdbcRepository.deleteReadings(7L, first)).thenReturn(2);
+        when(readingJdbcRepository.deleteReadings(7L, second)).thenReturn(1);
+
+        // Act
+        clusterRebalancer.handOffForeignBuildings(new ConsistentHashRing(List.of(ownerUrl), 16));
+
+        // Assert
+        assertEquals(2, received.size());
+        assertTrue(received.get(0).contains("\"value\":2.0"));
+        assertTrue(received.get(1).contains("\"value\":3.0"));
+        InOrder inOrder = inOrder(readingJdbcRepository, readingProjector);
+        inOrder.verify(readingJdbcRepository).deleteReadings(7L, first);
+        inOrder.verify(readingJdbcRepository).deleteReadings(7L, second);
+        inOrder.verify(readingProjector).dropBuilding(7L);
+        verify(aggregationService).dropBuilding(7L);
+    }
+
+    @Test
+    void testHandOffForeignBuildings_OwnerRejects_NothingDeleted() {
+        // Arrange
+        ownerStatus = 503;
+        when(readingJdbcRepository.findDistinctBuildingIds()).thenReturn(List.of(7L));
+        when(readingJdbcRepository.findPageByBuildingId(eq(7L), isNull(), anyInt()))
+                .thenReturn(List.of(createReading(1L, 1.0)));
+
+        // Act
+        clusterRebalancer.handOffForeignBuildings(new ConsistentHashRing(List.of(ownerUrl), 16));
+
+        // Assert
+        assertEquals(1, received.size());
+        verify(readingJdbcRepository, never()).deleteReadings(anyLong(), any());
+        verify(readingProjector, never()).dropBuilding(anyLong());
+        verify(aggregationService, never()).dropBuilding(anyLong());
+    }
+
+    @Test
+    void testHandOffForeignBuildings_OwnedLocally_Skipped() {
+        // Arrange
+        when(readingJdbcRepository.findDistinctBuildingIds()).thenReturn(List.of(7L));
+
+        // Act
+        clusterRebalancer.handOffForeignBuildings(new ConsistentHashRing(List.of(SELF), 16));
+
+        // Assert
+        assertTrue(received.isEmpty());
+        verify(readingJdbcRepository, never()).findPageByBuildingId(anyLong(), any(), anyInt());
+        verify(readingJdbcRepository, never()).deleteReadings(anyLong(), any());
+    }
+
+    private Reading createReading(Long id, double value) {
+        Reading reading = new Reading(id, 7L, "sensor1", LocalDateTime.of(2025, 1, 1, 12, 0).plusSeconds(id), value);
+        reading.setAnomalyFlags(0);
+        return reading;
+    }
+}
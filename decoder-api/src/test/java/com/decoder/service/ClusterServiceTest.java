@@ -0,0 +1,55 @@
+package com.decoder.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Unit tests for ClusterService.
+ * Tests validation of the cluster token guarding the node-to-node endpoints.
+ */
+class ClusterServiceTest {
+
+    @Test
+    void testInit_EnabledWithoutToken_RefusesToStart() {
+        // Arrange
+        ClusterService clusterService = clusterService(true, "");
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class, clusterService::init);
+    }
+
+    @Test
+    void testIsValidToken_NoTokenConfigured_NothingAccepted() {
+        // Arrange
+        ClusterService clusterService = clusterService(false, "");
+        clusterService.init();
+
+        // Act & Assert
+        assertFalse(clusterService.isValidToken(null));
+        assertFalse(clusterService.isValidToken(""));
+        assertFalse(clusterService.isValidToken("anything"));
+    }
+
+    @Test
+    void testIsValidToken_TokenConfigured_OnlyThatTokenAccepted() {
+        // Arrange
+        ClusterService clusterService = clusterService(true, "s3cret");
+        clusterService.init();
+
+        // Act & Assert
+        assertTrue(clusterService.isValidToken("s3cret"));
+        assertFalse(clusterService.isValidToken("s3cre"));
+        assertFalse(clusterService.isValidToken("s3cret2"));
+        assertFalse(clusterService.isValidToken(null));
+    }
+
+    private ClusterService clusterService(boolean enabled, String token) {
+        return new ClusterService(mock(ApplicationEventPublisher.class), enabled,
+                "http://localhost:8080", List.of(), 16, token);
+    }
+}
@@ -0,0 +1,67 @@
+package com.decoder.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ConsistentHashRing.
+ * Tests stable ownership, balance and minimal movement on membership changes.
+ */
+class ConsistentHashRingTest {
+    
+    private static final List<String> NODES = List.of(
+            "http://localhost:8080", "http://localhost:8081", "http://localhost:8082");
+    
+    @Test
+    void testOwnerOf_SameMembership_SameOwnerRegardlessOfOrder() {
+        // Arrange
+        ConsistentHashRing ring = new ConsistentHashRing(NODES, 128);
+        ConsistentHashRing reordered = new ConsistentHashRing(List.of(NODES.get(2), NODES.get(0), NODES.get(1)), 128);
+        
+        // Act & Assert
+        for (long buildingId = 1; buildingId <= 100; buildingId++) {
+            assertEquals(ring.ownerOf(buildingId), reordered.ownerOf(buildingId));
+        }
+    }
+    
+    @Test
+    void testOwnerOf_ManyBuildings_SpreadAcrossAllNodes() {
+        // Arrange
+        ConsistentHashRing ring = new ConsistentHashRing(NODES, 128);
+        Map<String, Integer> counts = new HashMap<>();
+        
+        // Act
+        for (long buildingId = 1; buildingId <= 3000; buildingId++) {
+            counts.merge(ring.ownerOf(buildingId), 1, Integer::sum);
+        }
+        
+        // Assert - each node gets a reasonable share
+        assertEquals(3, counts.size());
+        counts.values().forEach(count -> assertTrue(count > 600, "unbalanced: " + counts));
+    }
+    
+    @Test
+    void testOwnerOf_NodeLeaves_OnlyItsBuildingsMove() {
+        // Arrange
+        ConsistentHashRing before = new ConsistentHashRing(NODES, 128);
+        ConsistentHashRing after = new ConsistentHashRing(NODES.subList(0, 2), 128);
+        
+        // Act & Assert
+        for (long buildingId = 1; buildingId <= 1000; buildingId++) {
+            String previousOwner = before.ownerOf(buildingId);
+            if (!previousOwner.equals(NODES.get(2))) {
+                assertEquals(previousOwner, after.ownerOf(buildingId));
+            }
+        }
+    }
+    
+    @Test
+    void testOwnerOf_EmptyRing_ReturnsNull() {
+        assertNull(new ConsistentHashRing(List.of(), 128).ownerOf(1L));
+    }
+}
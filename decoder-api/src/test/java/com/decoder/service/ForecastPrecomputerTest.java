@@ -0,0 +1,155 @@
+package com.decoder.service;
+
+import com.decoder.model.Building;
+import com.decoder.model.dto.ColumnarForecast;
+import com.decoder.model.dto.ForecastPrecomputeStatus;
+import com.decoder.model.dto.ForecastResponse;
+import com.decoder.repository.BuildingRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for ForecastPrecomputer.
+ * Tests precomputation runs, serving precomputed versus on-demand forecasts and run status.
+ */
+@ExtendWith(MockitoExtension.class)
+class ForecastPrecomputerTest {
+
+    @Mock
+    private ForecastService forecastService;
+
+    @Mock
+    private BuildingRepository buildingRepository;
+
+    @Mock
+    private ClusterService clusterService;
+
+    private ForecastPrecomputer precomputer;
+    private ExecutorService workers;
+
+    @BeforeEach
+    void setUp() {
+        precomputer = new ForecastPrecomputer(forecastService, buildingRepository, clusterService, new SimpleMeterRegistry());
+        workers = Executors.newFixedThreadPool(2);
+        ReflectionTestUtils.setField(precomputer, "enabled", true);
+        ReflectionTestUtils.setField(precomputer, "horizonMinutes", 60);
+        ReflectionTestUtils.setField(precomputer, "intervalMs", 60_000L);
+        ReflectionTestUtils.setField(precomputer, "workers", workers);
+        when(buildingRepository.findAll()).thenReturn(List.of(
+                new Building(1L, "Building A", 2L, "123 Main St"),
+                new Building(2L, "Building B", 2L, "456 Oak Ave"),
+                new Building(3L, "Building C", 3L, "789 Pine Rd")));
+        when(clusterService.isLocal(anyLong())).thenAnswer(invocation -> !invocation.getArgument(0).equals(3L));
+    }
+
+    @AfterEach
+    void tearDown() {
+        workers.shutdownNow();
+    }
+
+    @Test
+    void testPrecomputeAll_LocalBuildings_ServedWithoutRecomputing() {
+        // Arrange
+        when(forecastService.generateColumnarForecast(anyLong(), eq(60)))
+                .thenAnswer(invocation -> forecast(invocation.getArgument(0), LocalDateTime.now()));
+        precomputer.precomputeAll();
+
+        // Act
+        ColumnarForecast first = precomputer.getColumnarForecast(1L, 60);
+        ColumnarForecast second = precomputer.getColumnarForecast(1L, 60);
+        ForecastResponse expanded = precomputer.getForecast(1L, 60);
+
+        // Assert
+        assertSame(first, second);
+        assertEquals(2, expanded.getForecast().size());
+        assertEquals(first.getGeneratedAt(), expanded.getGeneratedAt());
+        verify(forecastService, times(1)).generateColumnarForecast(1L, 60);
+        verify(forecastService, times(1)).generateColumnarForecast(2L, 60);
+        verify(forecastService, never()).generateColumnarForecast(eq(3L), anyInt());
+    }
+
+    @Test
+    void testGetForecast_CustomHorizon_ComputedOnDemand() {
+        // Arrange
+        when(forecastService.generateColumnarForecast(anyLong(), anyInt()))
+                .thenAnswer(invocation -> forecast(invocation.getArgument(0), LocalDateTime.now()));
+        precomputer.precomputeAll();
+
+        // Act
+        precomputer.getForecast(1L, 15);
+
+        // Assert
+        verify(forecastService).generateColumnarForecast(1L, 15);
+    }
+
+    @Test
+    void testGetForecast_PrecomputedTooOld_ComputedOnDemand() {
+        // Arrange
+        when(forecastService.generateColumnarForecast(anyLong(), eq(60)))
+                .thenAnswer(invocation -> forecast(invocation.getArgument(0), LocalDateTime.now().minusMinutes(10)));
+        precomputer.precomputeAll();
+
+        // Act
+        precomputer.getForecast(1L, 60);
+
+        // Assert
+        verify(forecastService, times(2)).generateColumnarForecast(1L, 60);
+    }
+
+    @Test
+    void testGetForecast_PrecomputedTwoIntervalsAgo_ComputedOnDemand() {
+        // Arrange
+        when(forecastService.generateColumnarForecast(anyLong(), eq(60)))
+                .thenAnswer(invocation -> forecast(invocation.getArgument(0), LocalDateTime.now().minusSeconds(150)));
+        precomputer.precomputeAll();
+        LocalDateTime generatedAt = LocalDateTime.of(2024, 1, 1, 12, 0);
+
+        // Act
+        precomputer.getForecast(1L, 60);
+
+        // Assert
+        verify(forecastService, times(2)).generateColumnarForecast(1L, 60);
+        assertEquals(generatedAt.plusMinutes(2), precomputer.validUntil(generatedAt));
+    }
+
+    @Test
+    void testPrecomputeAll_OneBuildingFails_ReportedInStatus() {
+        // Arrange
+        when(forecastService.generateColumnarForecast(anyLong(), eq(60))).thenAnswer(invocation -> {
+            if (invocation.getArgument(0).equals(2L)) {
+                throw new IllegalStateException("database unavailable");
+            }
+            return forecast(invocation.getArgument(0), LocalDateTime.now().minusSeconds(30));
+        });
+
+        // Act
+        precomputer.precomputeAll();
+        ForecastPrecomputeStatus status = precomputer.getStatus();
+
+        // Assert
+        assertNotNull(status.getLastRunStartedAt());
+        assertEquals(1, status.getBuildingsComputed());
+        assertEquals(1, status.getBuildingsFailed());
+        assertEquals(1, status.getForecastsStored());
+        assertTrue(status.getStalenessSeconds() >= 30);
+    }
+
+    private static ColumnarForecast forecast(Long buildingId, LocalDateTime generatedAt) {
+        return new ColumnarForecast(buildingId, generatedAt.plusMinutes(1), 60, new double[] {1.0, 2.0}, "ok", generatedAt);
+    }
+}
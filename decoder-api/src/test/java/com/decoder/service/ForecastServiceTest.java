@@ -1,8 +1,9 @@
 package com.decoder.service;
 
 import com.decoder.model.Reading;
+import com.decoder.model.dto.ColumnarForecast;
 import com.decoder.model.dto.ForecastResponse;
-import com.decoder.repository.ReadingRepository;
+import com.decoder.repository.ReadingJdbcRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -27,7 +28,7 @@ import static org.mockito.Mockito.*;
 class ForecastServiceTest {
     
     @Mock
-    private ReadingRepository readingRepository;
+    private ReadingJdbcRepository readingJdbcRepository;
     
     @InjectMocks
     private ForecastService forecastService;
@@ -51,7 +52,7 @@ class ForecastServiceTest {
                 createReading(1L, "sensor1", LocalDateTime.now().minusMinutes(6), 62.0)
         );
         
-        when(readingRepository.findLastReadingsByBuildingId(any(), any()))
+        when(readingJdbcRepository.findLastReadingsByBuildingId(any(), any()))
                 .thenReturn(recentReadings);
         
         // Act
@@ -82,7 +83,7 @@ class ForecastServiceTest {
                 createReading(1L, "sensor1", LocalDateTime.now().minusMinutes(6), 132.0)
         );
         
-        when(readingRepository.findLastReadingsByBuildingId(any(), any()))
+        when(readingJdbcRepository.findLastReadingsByBuildingId(any(), any()))
                 .thenReturn(highReadings);
         
         // Act
@@ -100,7 +101,7 @@ class ForecastServiceTest {
         Long buildingId = 1L;
         int forecastMinutes = 60;
         
-        when(readingRepository.findLastReadingsByBuildingId(any(), any()))
+        when(readingJdbcRepository.findLastReadingsByBuildingId(any(), any()))
                 .thenReturn(List.of());
         
         // Act
@@ -112,6 +113,29 @@ class ForecastServiceTest {
         assertTrue(response.getRecommendation().contains("Insufficient data"));
     }
     
+    @Test
+    void testGenerateColumnarForecast_ExpandsToSamePoints() {
+        // Arrange
+        List<Reading> recentReadings = Arrays.asList(
+                createReading(1L, "sensor1", LocalDateTime.now().minusMinutes(2), 40.0),
+                createReading(1L, "sensor1", LocalDateTime.now().minusMinutes(1), 44.0)
+        );
+        when(readingJdbcRepository.findLastReadingsByBuildingId(any(), any()))
+                .thenReturn(recentReadings);
+        
+        // Act
+        ColumnarForecast columnar = forecastService.generateColumnarForecast(1L, 3);
+        ForecastResponse expanded = columnar.toForecastResponse();
+        
+        // Assert
+        assertEquals(60, columnar.getStepSeconds());
+        assertArrayEquals(new double[] {42.0, 42.0, 42.0}, columnar.getValues());
+        assertEquals(3, expanded.getForecast().size());
+        assertEquals(columnar.getStart().plusMinutes(2),
+                LocalDateTime.parse(expanded.getForecast().get(2).getTimestamp()));
+        assertEquals(columnar.getRecommendation(), expanded.getRecommendation());
+    }
+    
     private Reading createReading(Long buildingId, String sensorId, 
                                    LocalDateTime timestamp, Double value) {
         Reading reading = new Reading();
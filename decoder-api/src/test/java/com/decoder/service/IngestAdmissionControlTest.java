@@ -0,0 +1,75 @@
+package com.decoder.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for IngestAdmissionControl.
+ * Tests the order of the checks and that rejected requests do not use up the budgets of
+ * the checks they passed.
+ */
+class IngestAdmissionControlTest {
+
+    // Rates low enough that no token is refilled while a test runs
+    private static final double SLOW_RATE = 0.001;
+
+    @Test
+    void testTryAdmit_WithinBudgets_AdmittedUntilSensorBurstUsed() {
+        // Arrange
+        IngestAdmissionControl admissionControl = new IngestAdmissionControl(true, SLOW_RATE, 2, SLOW_RATE, 10, 4);
+
+        // Act
+        long first = admissionControl.tryAdmit(1L, "sensor-a");
+        long second = admissionControl.tryAdmit(1L, "sensor-a");
+        long third = admissionControl.tryAdmit(1L, "sensor-a");
+
+        // Assert
+        assertEquals(0, first);
+        assertEquals(0, second);
+        assertTrue(third > 0);
+    }
+
+    @Test
+    void testTryAdmit_InFlightLimitReached_SensorBudgetNotCharged() {
+        // Arrange
+        IngestAdmissionControl admissionControl = new IngestAdmissionControl(true, SLOW_RATE, 2, SLOW_RATE, 10, 1);
+        assertEquals(0, admissionControl.tryAdmit(1L, "sensor-a"));
+
+        // Act
+        long rejected = admissionControl.tryAdmit(1L, "sensor-a");
+        admissionControl.release();
+        long retried = admissionControl.tryAdmit(1L, "sensor-a");
+
+        // Assert - the rejected attempt left the sensor's second token in place
+        assertEquals(1000, rejected);
+        assertEquals(0, retried);
+    }
+
+    @Test
+    void testTryAdmit_BuildingOverBudget_SensorTokenAndSlotGivenBack() {
+        // Arrange
+        IngestAdmissionControl admissionControl = new IngestAdmissionControl(true, SLOW_RATE, 1, SLOW_RATE, 1, 1);
+        assertEquals(0, admissionControl.tryAdmit(1L, "sensor-a"));
+        admissionControl.release();
+
+        // Act
+        long rejected = admissionControl.tryAdmit(1L, "sensor-b");
+        long otherBuilding = admissionControl.tryAdmit(2L, "sensor-b");
+
+        // Assert - sensor-b still had its only token and the in-flight slot was free again
+        assertTrue(rejected > 1000);
+        assertEquals(0, otherBuilding);
+    }
+
+    @Test
+    void testTryAdmit_Disabled_AlwaysAdmitted() {
+        // Arrange
+        IngestAdmissionControl admissionControl = new IngestAdmissionControl(false, SLOW_RATE, 1, SLOW_RATE, 1, 1);
+
+        // Act & Assert
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, admissionControl.tryAdmit(1L, "sensor-a"));
+        }
+    }
+}
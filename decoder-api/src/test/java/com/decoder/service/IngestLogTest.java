@@ -0,0 +1,241 @@
+package com.decoder.service;
+
+import com.decoder.model.LogCheckpoint;
+import com.decoder.model.Reading;
+import com.decoder.repository.LogCheckpointRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for IngestLog.
+ * Tests segment rolling, recovery after restart, torn-write handling, recycling and
+ * segment format versions.
+ */
+@ExtendWith(MockitoExtension.class)
+class IngestLogTest {
+    
+    // Room for a few records per segment so tests cross segment boundaries
+    private static final int SEGMENT_BYTES = 256;
+    
+    @Mock
+    private LogCheckpointRepository checkpointRepository;
+    
+    @TempDir
+    Path directory;
+    
+    private IngestLog ingestLog;
+    
+    private final LocalDateTime base = LocalDateTime.of(2025, 1, 1, 10, 0);
+    
+    @BeforeEach
+    void setUp() throws IOException {
+        ingestLog = open(0L);
+    }
+    
+    @AfterEach
+    void tearDown() {
+        ingestLog.close();
+    }
+    
+    @Test
+    void testRead_AcrossSegments_ReturnsAllInOrder() {
+        // Arrange
+        for (int i = 0; i < 10; i++) {
+            ingestLog.append(createReading(i));
+        }
+        
+        // Act
+        IngestLog.Batch batch = ingestLog.read(null, 100);
+        
+        // Assert
+        assertEquals(1, batch.firstSequence());
+        assertEquals(10, batch.lastSequence());
+        assertEquals(10, batch.readings().size());
+        assertEquals(base.plusSeconds(9), batch.readings().get(9).getTimestamp());
+        assertEquals("sensor-9", batch.readings().get(9).getSensorId());
+    }
+    
+    @Test
+    void testRecover_AfterRestart_ContinuesSequenceAndReplaysRecords() throws IOException {
+        // Arrange
+        for (int i = 0; i < 5; i++) {
+            ingestLog.append(createReading(i));
+        }
+        ingestLog.close();
+        
+        // Act
+        ingestLog = open(0L);
+        long next = ingestLog.append(createReading(5));
+        
+        // Assert
+        assertEquals(6, next);
+        assertEquals(6, ingestLog.read(null, 100).readings().size());
+    }
+    
+    @Test
+    void testRecover_TornLastRecord_StopsAtLastValidRecord() throws IOException {
+        // Arrange
+        ingestLog.append(createReading(0));
+        ingestLog.append(createReading(1));
+        ingestLog.close();
+        Path segment = segmentFiles().get(0);
+        try (RandomAccessFile file = new RandomAccessFile(segment.toFile(), "rw")) {
+            // Corrupt a byte inside the second record's body
+            file.seek(Files.size(segment) - SEGMENT_BYTES + 80);
+            file.write(0x7f);
+        }
+        
+        // Act
+        ingestLog = open(0L);
+        IngestLog.Batch batch = ingestLog.read(null, 100);
+        
+        // Assert
+        assertEquals(1, batch.readings().size());
+        assertEquals(2, ingestLog.append(createReading(2)));
+    }
+    
+    @Test
+    void testRecycle_AppliedSegments_RemovedAndReusedAsSpares() throws IOException {
+        // Arrange
+        for (int i = 0; i < 10; i++) {
+            ingestLog.append(createReading(i));
+        }
+        int segmentsBefore = segmentFiles().size();
+        
+        // Act
+        ingestLog.recycle(10);
+        
+        // Assert
+        assertTrue(segmentsBefore > 2);
+        assertEquals(1, segmentFiles().size());
+        ingestLog.append(createReading(10));
+        assertEquals(11, ingestLog.read(null, 100).lastSequence());
+    }
+    
+    @Test
+    void testRecover_CheckpointPastLog_StartsAfterCheckpoint() throws IOException {
+        // Arrange
+        ingestLog.close();
+        
+        // Act
+        ingestLog = open(41L);
+        
+        // Assert
+        assertEquals(42, ingestLog.append(createReading(0)));
+    }
+    
+    @Test
+    void testRecover_CheckpointPastLogThenCrashAfterAppend_AppendedRecordsReplayed() throws IOException {
+        // Arrange
+        for (int i = 0; i < 3; i++) {
+            ingestLog.append(createReading(i));
+        }
+        ingestLog.close();
+        ingestLog = open(41L);
+        ingestLog.append(createReading(3));
+        ingestLog.append(createReading(4));
+        // Crash before the applier stores anything
+        ingestLog.close();
+        
+        // Act
+        ingestLog = open(41L);
+        IngestLog.Batch batch = ingestLog.read(null, 100);
+        
+        // Assert
+        assertEquals(2, batch.readings().size());
+        assertEquals(42, batch.firstSequence());
+        assertEquals(43, batch.lastSequence());
+        assertEquals(44, ingestLog.append(createReading(5)));
+    }
+    
+    @Test
+    void testRecover_SegmentWithoutFormatHeader_ReplayedAndNotAppendedTo() throws IOException {
+        // Arrange - a segment written before records carried anomaly flags
+        ingestLog.close();
+        ByteBuffer segment = ByteBuffer.allocate(SEGMENT_BYTES);
+        for (int i = 0; i < 2; i++) {
+            byte[] sensorId = ("sensor-" + i).getBytes(StandardCharsets.UTF_8);
+            ByteBuffer body = ByteBuffer.allocate(8 + 8 + 8 + 4 + 8 + 2 + sensorId.length);
+            body.putLong(i + 1);
+            body.putLong(1L);
+            body.putLong(base.plusSeconds(i).toEpochSecond(ZoneOffset.UTC));
+            body.putInt(0);
+            body.putDouble(i);
+            body.putShort((short) sensorId.length);
+            body.put(sensorId);
+            CRC32C crc = new CRC32C();
+            crc.update(body.array());
+            segment.putInt(body.capacity());
+            segment.putInt((int) crc.getValue());
+            segment.put(body.array());
+        }
+        Files.write(directory.resolve("wal-00000000000000000001.log"), segment.array());
+        
+        // Act
+        ingestLog = open(0L);
+        long next = ingestLog.append(createReading(2));
+        IngestLog.Batch batch = ingestLog.read(null, 100);
+        
+        // Assert
+        assertEquals(3, next);
+        assertEquals(List.of("sensor-0", "sensor-1", "sensor-2"),
+                batch.readings().stream().map(Reading::getSensorId).toList());
+        assertEquals(base.plusSeconds(1), batch.readings().get(1).getTimestamp());
+        assertEquals(0, batch.readings().get(1).getAnomalyFlags());
+        assertEquals(2, segmentFiles().size());
+    }
+    
+    @Test
+    void testRecover_UnknownFormatVersion_Rejected() throws IOException {
+        // Arrange
+        ingestLog.append(createReading(0));
+        ingestLog.close();
+        try (RandomAccessFile file = new RandomAccessFile(segmentFiles().get(0).toFile(), "rw")) {
+            file.seek(4);
+            file.writeInt(99);
+        }
+        
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> open(0L));
+    }
+    
+    private IngestLog open(long appliedSequence) throws IOException {
+        when(checkpointRepository.findById(IngestLog.CHECKPOINT_NAME)).thenReturn(appliedSequence > 0
+                ? Optional.of(new LogCheckpoint(IngestLog.CHECKPOINT_NAME, appliedSequence))
+                : Optional.empty());
+        IngestLog log = new IngestLog(checkpointRepository, true, directory.toString(), SEGMENT_BYTES, false, 2);
+        log.recover();
+        return log;
+    }
+    
+    private List<Path> segmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().startsWith("wal-")).sorted().toList();
+        }
+    }
+    
+    private Reading createReading(int i) {
+        return new Reading(null, 1L, "sensor-" + i, base.plusSeconds(i), (double) i);
+    }
+}
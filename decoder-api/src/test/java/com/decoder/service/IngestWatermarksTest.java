@@ -0,0 +1,116 @@
+package com.decoder.service;
+
+import com.decoder.model.Reading;
+import com.decoder.service.IngestWatermarks.Watermark;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for IngestWatermarks.
+ * Tests watermark advancing and matching If-None-Match tags against the current watermark.
+ */
+class IngestWatermarksTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private IngestWatermarks watermarks;
+
+    @BeforeEach
+    void setUp() {
+        watermarks = new IngestWatermarks(meterRegistry);
+        ReflectionTestUtils.setField(watermarks, "enabled", true);
+    }
+
+    @Test
+    void testOnReading_AdvancesOnlyThatBuilding() {
+        // Arrange
+        Watermark before = watermarks.get(1L);
+
+        // Act
+        watermarks.onReading(new Reading(null, 1L, "sensor-1", LocalDateTime.now(), 10.0));
+
+        // Assert
+        assertEquals(0, before.version());
+        assertEquals(1, watermarks.get(1L).version());
+        assertTrue(watermarks.get(1L).modifiedAtMillis() >= before.modifiedAtMillis());
+        assertEquals(0, watermarks.get(2L).version());
+    }
+
+    @Test
+    void testFindCurrent_UnchangedWatermark_TagMatches() {
+        // Arrange
+        String etag = watermarks.etag("last-readings", 1L, "60-fast-json", watermarks.get(1L), null);
+
+        // Act
+        String current = watermarks.findCurrent("last-readings", 1L, "60-fast-json", "\"other\", " + etag);
+
+        // Assert
+        assertEquals(etag, current);
+        assertEquals(1.0, meterRegistry.get("decoder.conditional.requests")
+                .tags("endpoint", "last-readings", "result", "not-modified").counter().count());
+    }
+
+    @Test
+    void testFindCurrent_BuildingIngestedSince_NoMatch() {
+        // Arrange
+        String etag = watermarks.etag("forecast", 1L, "60-json", watermarks.get(1L), null);
+        watermarks.advance(1L);
+
+        // Act & Assert
+        assertNull(watermarks.findCurrent("forecast", 1L, "60-json", etag));
+        assertEquals(1.0, meterRegistry.get("decoder.conditional.requests")
+                .tags("endpoint", "forecast", "result", "modified").counter().count());
+    }
+
+    @Test
+    void testFindCurrent_OtherVariantOrBuilding_NoMatch() {
+        // Arrange
+        String etag = watermarks.etag("last-readings", 1L, "60-fast-json", watermarks.get(1L), null);
+
+        // Act & Assert
+        assertNull(watermarks.findCurrent("last-readings", 1L, "60-fast-columnar", etag));
+        assertNull(watermarks.findCurrent("last-readings", 2L, "60-fast-json", etag));
+        assertNull(watermarks.findCurrent("forecast", 1L, "60-fast-json", etag));
+    }
+
+    @Test
+    void testFindCurrent_TagExpired_NoMatch() {
+        // Arrange
+        String expired = watermarks.etag("last-readings", 1L, "60-fast-json", watermarks.get(1L),
+                LocalDateTime.now().minusSeconds(1));
+        String valid = watermarks.etag("last-readings", 1L, "60-fast-json", watermarks.get(1L),
+                LocalDateTime.now().plusMinutes(5));
+
+        // Act & Assert
+        assertNull(watermarks.findCurrent("last-readings", 1L, "60-fast-json", expired));
+        assertEquals(valid, watermarks.findCurrent("last-readings", 1L, "60-fast-json", valid));
+    }
+
+    @Test
+    void testFindCurrent_TagFromEarlierRun_NoMatch() {
+        // Arrange
+        IngestWatermarks previousRun = new IngestWatermarks(meterRegistry);
+        ReflectionTestUtils.setField(previousRun, "epoch", "previous");
+        String etag = previousRun.etag("forecast", 1L, "60-json", previousRun.get(1L), null);
+
+        // Act & Assert
+        assertNull(watermarks.findCurrent("forecast", 1L, "60-json", etag));
+    }
+
+    @Test
+    void testFindCurrent_DisabledOrMalformed_NoMatch() {
+        // Arrange
+        String etag = watermarks.etag("forecast", 1L, "60-json", watermarks.get(1L), null);
+
+        // Act & Assert
+        assertNull(watermarks.findCurrent("forecast", 1L, "60-json", "garbage"));
+        assertNull(watermarks.findCurrent("forecast", 1L, "60-json", null));
+        ReflectionTestUtils.setField(watermarks, "enabled", false);
+        assertNull(watermarks.findCurrent("forecast", 1L, "60-json", etag));
+    }
+}
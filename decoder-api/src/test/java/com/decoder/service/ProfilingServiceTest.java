@@ -0,0 +1,145 @@
+package com.decoder.service;
+
+import com.decoder.events.DecoderEvents;
+import com.decoder.model.dto.ProfilingRecording;
+import com.decoder.model.dto.ProfilingSummary;
+import com.decoder.service.ProfilingService.Profile;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ProfilingService.
+ * Tests the recording lifecycle with real JFR recordings, the downloadable file, the live
+ * summary and retention.
+ */
+class ProfilingServiceTest {
+
+    @TempDir
+    Path directory;
+
+    private ProfilingService profilingService;
+
+    @BeforeEach
+    void setUp() {
+        profilingService = new ProfilingService();
+        ReflectionTestUtils.setField(profilingService, "directory", directory.toString());
+        ReflectionTestUtils.setField(profilingService, "defaultDurationSeconds", 60);
+        ReflectionTestUtils.setField(profilingService, "maxDurationSeconds", 600);
+        ReflectionTestUtils.setField(profilingService, "maxSizeBytes", 64L * 1024 * 1024);
+        ReflectionTestUtils.setField(profilingService, "retainedRecordings", 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        profilingService.stop();
+    }
+
+    @Test
+    void testStop_RecordingWithDecoderEvents_FileAndSummaryContainThem() throws Exception {
+        // Arrange
+        ProfilingRecording started = profilingService.start(Profile.CPU, null);
+        for (int i = 0; i < 3; i++) {
+            DecoderEvents.IngestBatch event = new DecoderEvents.IngestBatch();
+            event.begin();
+            event.source = "test";
+            event.readings = 10;
+            event.commit();
+        }
+        List<long[]> garbage = new ArrayList<>();
+        long deadline = System.nanoTime() + 500_000_000L;
+        while (System.nanoTime() < deadline) {
+            garbage.add(new long[64]);
+            if (garbage.size() > 1000) {
+                garbage.clear();
+            }
+        }
+
+        // Act
+        ProfilingRecording stopped = profilingService.stop();
+
+        // Assert
+        assertEquals(ProfilingRecording.State.RUNNING, started.getState());
+        assertEquals(ProfilingRecording.State.STOPPED, stopped.getState());
+        Path file = profilingService.getRecordingFile(stopped.getId()).orElseThrow();
+        assertEquals(stopped.getSizeBytes(), Files.size(file));
+        List<RecordedEvent> ingestBatches = RecordingFile.readAllEvents(file).stream()
+                .filter(event -> event.getEventType().getName().equals("com.decoder.IngestBatch"))
+                .toList();
+        assertEquals(3, ingestBatches.size());
+        assertEquals("test", ingestBatches.get(0).getString("source"));
+
+        ProfilingSummary summary = profilingService.getSummary(5);
+        assertEquals(stopped.getId(), summary.getRecording().getId());
+        assertEquals(1, summary.getEvents().size());
+        assertEquals("Ingest Batch", summary.getEvents().get(0).getEvent());
+        assertEquals(3, summary.getEvents().get(0).getCount());
+        assertTrue(summary.getExecutionSamples() > 0);
+        assertTrue(summary.getHotMethods().size() <= 5);
+        assertTrue(summary.getHotMethods().stream().anyMatch(site -> site.getDecoderFrame() != null
+                && site.getDecoderFrame().startsWith(ProfilingServiceTest.class.getName())));
+    }
+
+    @Test
+    void testStart_AlreadyRunningOrBadDuration_Rejected() {
+        // Arrange
+        profilingService.start(Profile.LOW, 30);
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> profilingService.start(Profile.ALLOCATION, 30));
+        assertThrows(IllegalArgumentException.class, () -> profilingService.start(Profile.LOW, 601));
+        assertThrows(IllegalArgumentException.class, () -> profilingService.start(Profile.LOW, 0));
+        assertEquals(1, profilingService.getRecordings().size());
+    }
+
+    @Test
+    void testStopExpired_DurationElapsed_RecordingStopped() throws Exception {
+        // Arrange
+        ProfilingRecording started = profilingService.start(Profile.LOW, 1);
+        Thread.sleep(1100);
+
+        // Act
+        profilingService.stopExpired();
+
+        // Assert
+        assertNull(profilingService.stop());
+        assertEquals(ProfilingRecording.State.STOPPED, profilingService.getRecordings().get(0).getState());
+        assertTrue(profilingService.getRecordingFile(started.getId()).isPresent());
+    }
+
+    @Test
+    void testStop_MoreThanRetained_OldestFileDeleted() {
+        // Arrange
+        List<Integer> ids = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            ids.add(profilingService.start(Profile.LOW, 30).getId());
+            profilingService.stop();
+        }
+
+        // Act
+        List<ProfilingRecording> recordings = profilingService.getRecordings();
+
+        // Assert
+        assertEquals(List.of(ids.get(2), ids.get(1)), recordings.stream().map(ProfilingRecording::getId).toList());
+        assertTrue(profilingService.getRecordingFile(ids.get(0)).isEmpty());
+        assertEquals(2, directory.toFile().list().length);
+    }
+
+    @Test
+    void testGetSummary_NoRecording_Null() {
+        // Act & Assert
+        assertNull(profilingService.getSummary(10));
+        assertNull(profilingService.stop());
+    }
+}
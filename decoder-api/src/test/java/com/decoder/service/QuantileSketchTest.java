@@ -0,0 +1,99 @@
+package com.decoder.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for QuantileSketch.
+ * Tests quantile accuracy against exact values, merging, negative values and the bin cap.
+ */
+class QuantileSketchTest {
+
+    private static final double ACCURACY = 0.01;
+
+    @Test
+    void testQuantile_SkewedData_WithinRelativeAccuracy() {
+        // Arrange
+        Random random = new Random(42);
+        double[] values = new double[10_000];
+        QuantileSketch sketch = new QuantileSketch(ACCURACY, 2048);
+        for (int i = 0; i < values.length; i++) {
+            values[i] = Math.exp(random.nextGaussian() * 2 + 3);
+            sketch.add(values[i]);
+        }
+        Arrays.sort(values);
+
+        // Act & Assert
+        for (double q : new double[] {0.0, 0.5, 0.95, 0.99, 1.0}) {
+            double exact = values[(int) (q * (values.length - 1))];
+            assertEquals(exact, sketch.quantile(q), exact * ACCURACY, "q=" + q);
+        }
+        assertEquals(values.length, sketch.getCount());
+        assertEquals(values[0], sketch.getMin());
+        assertEquals(values[values.length - 1], sketch.getMax());
+    }
+
+    @Test
+    void testMerge_TwoHalves_MatchesSingleSketch() {
+        // Arrange
+        QuantileSketch whole = new QuantileSketch(ACCURACY, 2048);
+        QuantileSketch first = new QuantileSketch(ACCURACY, 2048);
+        QuantileSketch second = new QuantileSketch(ACCURACY, 2048);
+        for (int i = 1; i <= 1000; i++) {
+            whole.add(i);
+            (i % 2 == 0 ? first : second).add(i);
+        }
+
+        // Act
+        first.merge(second);
+
+        // Assert
+        assertEquals(whole.getCount(), first.getCount());
+        assertEquals(whole.getSum(), first.getSum(), 1e-9);
+        for (double q : new double[] {0.1, 0.5, 0.95, 0.99}) {
+            assertEquals(whole.quantile(q), first.quantile(q), 1e-9, "q=" + q);
+        }
+    }
+
+    @Test
+    void testQuantile_NegativeAndZeroValues_OrderedCorrectly() {
+        // Arrange
+        QuantileSketch sketch = new QuantileSketch(ACCURACY, 2048);
+        for (int i = -50; i <= 50; i++) {
+            sketch.add(i);
+        }
+
+        // Act & Assert
+        assertEquals(-50.0, sketch.quantile(0.0), 50 * ACCURACY);
+        assertEquals(-25.0, sketch.quantile(0.25), 25 * ACCURACY);
+        assertEquals(0.0, sketch.quantile(0.5));
+        assertEquals(25.0, sketch.quantile(0.75), 25 * ACCURACY);
+        assertEquals(50.0, sketch.quantile(1.0), 50 * ACCURACY);
+    }
+
+    @Test
+    void testAdd_RangeBeyondBinCap_KeepsUpperQuantilesAccurate() {
+        // Arrange
+        QuantileSketch sketch = new QuantileSketch(ACCURACY, 64);
+        for (int exponent = -6; exponent <= 6; exponent++) {
+            sketch.add(Math.pow(10, exponent));
+        }
+
+        // Act
+        double p100 = sketch.quantile(1.0);
+        double p50 = sketch.quantile(0.5);
+
+        // Assert
+        assertEquals(1e6, p100, 1e6 * ACCURACY);
+        assertTrue(p50 >= 1.0, "folded low bins may only overestimate, got " + p50);
+    }
+
+    @Test
+    void testQuantile_EmptySketch_ReturnsNaN() {
+        assertTrue(Double.isNaN(new QuantileSketch(ACCURACY, 2048).quantile(0.5)));
+    }
+}
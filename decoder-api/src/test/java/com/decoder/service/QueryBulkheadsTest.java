@@ -0,0 +1,186 @@
+package com.decoder.service;
+
+import com.decoder.service.QueryBulkheads.BulkheadRejectedException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for QueryBulkheads.
+ * Tests per-tenant limits, round-robin hand-over of free slots, rejection and virtual threads.
+ */
+class QueryBulkheadsTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ExecutorService callers = Executors.newCachedThreadPool();
+
+    @AfterEach
+    void tearDown() {
+        callers.shutdownNow();
+    }
+
+    @Test
+    void testExecute_TenantAtLimit_OtherTenantStillRuns() throws Exception {
+        // Arrange
+        QueryBulkheads bulkheads = bulkheads(4, 1, 4, 5000);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<String> noisy = callers.submit(() -> bulkheads.execute("owner1", () -> block(release, "first")));
+        waitFor(() -> gauge("decoder.bulkhead.running") == 1);
+        Future<String> queued = callers.submit(() -> bulkheads.execute("owner1", () -> "second"));
+        waitFor(() -> gauge("decoder.bulkhead.queued") == 1);
+
+        // Act
+        String other = bulkheads.execute("owner2", () -> "other");
+
+        // Assert
+        assertEquals("other", other);
+        assertFalse(queued.isDone());
+        release.countDown();
+        assertEquals("first", noisy.get(5, TimeUnit.SECONDS));
+        assertEquals("second", queued.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testExecute_FreedSlot_GoesToNextTenantRoundRobin() throws Exception {
+        // Arrange
+        QueryBulkheads bulkheads = bulkheads(1, 1, 8, 5000);
+        CountDownLatch release = new CountDownLatch(1);
+        List<String> order = new ArrayList<>();
+        Future<String> holder = callers.submit(() -> bulkheads.execute("owner1", () -> block(release, "holder")));
+        waitFor(() -> gauge("decoder.bulkhead.running") == 1);
+        List<Future<Boolean>> waiting = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            int queuedBefore = i;
+            waiting.add(callers.submit(() -> bulkheads.execute("owner1", () -> record(order, "owner1"))));
+            waitFor(() -> gauge("decoder.bulkhead.queued") == queuedBefore + 1);
+        }
+        waiting.add(callers.submit(() -> bulkheads.execute("owner2", () -> record(order, "owner2"))));
+        waitFor(() -> gauge("decoder.bulkhead.queued") == 4);
+
+        // Act
+        release.countDown();
+        holder.get(5, TimeUnit.SECONDS);
+        for (Future<Boolean> future : waiting) {
+            future.get(5, TimeUnit.SECONDS);
+        }
+
+        // Assert
+        // owner1 just released its slot, so owner2's single request goes ahead of owner1's backlog
+        assertEquals(List.of("owner2", "owner1", "owner1", "owner1"), order);
+    }
+
+    @Test
+    void testExecute_TenantQueueFull_Rejected() throws Exception {
+        // Arrange
+        QueryBulkheads bulkheads = bulkheads(4, 1, 1, 5000);
+        CountDownLatch release = new CountDownLatch(1);
+        callers.submit(() -> bulkheads.execute("owner1", () -> block(release, "first")));
+        waitFor(() -> gauge("decoder.bulkhead.running") == 1);
+        callers.submit(() -> bulkheads.execute("owner1", () -> "second"));
+        waitFor(() -> gauge("decoder.bulkhead.queued") == 1);
+
+        // Act & Assert
+        assertThrows(BulkheadRejectedException.class, () -> bulkheads.execute("owner1", () -> "third"));
+        assertEquals(1.0, meterRegistry.get("decoder.bulkhead.rejected").tag("reason", "queue-full").counter().count());
+        release.countDown();
+    }
+
+    @Test
+    void testExecute_NoSlotWithinTimeout_Rejected() throws Exception {
+        // Arrange
+        QueryBulkheads bulkheads = bulkheads(1, 1, 4, 50);
+        CountDownLatch release = new CountDownLatch(1);
+        callers.submit(() -> bulkheads.execute("owner1", () -> block(release, "first")));
+        waitFor(() -> gauge("decoder.bulkhead.running") == 1);
+
+        // Act & Assert
+        BulkheadRejectedException e = assertThrows(BulkheadRejectedException.class,
+                () -> bulkheads.execute("owner2", () -> "late"));
+        assertEquals(50, e.getRetryAfterMillis());
+        assertEquals(0.0, gauge("decoder.bulkhead.queued"));
+        release.countDown();
+    }
+
+    @Test
+    void testExecute_VirtualThreads_ConcurrencyBounded() throws Exception {
+        // Arrange
+        QueryBulkheads bulkheads = bulkheads(3, 2, 100, 5000);
+        AtomicInteger active = new AtomicInteger();
+        AtomicInteger maxActive = new AtomicInteger();
+        List<Future<Integer>> results = new ArrayList<>();
+
+        // Act
+        try (ExecutorService virtualThreads = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < 60; i++) {
+                String tenant = "owner" + (i % 4);
+                results.add(virtualThreads.submit(() -> bulkheads.execute(tenant, () -> {
+                    maxActive.accumulateAndGet(active.incrementAndGet(), Math::max);
+                    sleep(2);
+                    return active.decrementAndGet();
+                })));
+            }
+            for (Future<Integer> result : results) {
+                result.get(10, TimeUnit.SECONDS);
+            }
+        }
+
+        // Assert
+        assertTrue(maxActive.get() <= 3);
+        assertEquals(0.0, gauge("decoder.bulkhead.running"));
+    }
+
+    private QueryBulkheads bulkheads(int maxConcurrent, int tenantConcurrency, int tenantQueue, long timeoutMs) {
+        QueryBulkheads bulkheads = new QueryBulkheads(meterRegistry, true, maxConcurrent, tenantConcurrency,
+                tenantQueue, 64, timeoutMs);
+        bulkheads.registerMetrics();
+        return bulkheads;
+    }
+
+    private double gauge(String name) {
+        return meterRegistry.get(name).gauge().value();
+    }
+
+    private static String block(CountDownLatch release, String result) {
+        try {
+            assertTrue(release.await(5, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return result;
+    }
+
+    private static boolean record(List<String> order, String tenant) {
+        synchronized (order) {
+            return order.add(tenant);
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void waitFor(java.util.function.BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                fail("condition not reached");
+            }
+            Thread.sleep(1);
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.decoder.service;
+
+import com.decoder.model.Reading;
+import com.decoder.model.dto.ReadingResponse;
+import com.decoder.repository.ReadingJdbcRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for ReadingProjector.
+ * Tests that events which fail to apply are not counted as applied and that their
+ * building is rebuilt from storage.
+ */
+@ExtendWith(MockitoExtension.class)
+class ReadingProjectorTest {
+
+    @Mock
+    private ReadingJdbcRepository readingJdbcRepository;
+
+    @Mock
+    private IngestWatermarks ingestWatermarks;
+
+    private BuildingReadModel readModel;
+    private ReadingProjector readingProjector;
+
+    private final LocalDateTime now = LocalDateTime.now();
+
+    @BeforeEach
+    void setUp() {
+        readModel = new BuildingReadModel();
+        ReflectionTestUtils.setField(readModel, "windowMinutes", 60);
+        readingProjector = new ReadingProjector(readModel, readingJdbcRepository, ingestWatermarks);
+    }
+
+    @Test
+    void testApplyBatch_EventFails_NotAppliedAndBuildingRebuiltFromStorage() {
+        // Arrange
+        doThrow(new IllegalStateException("boom")).doNothing().when(ingestWatermarks).advance(1L);
+        when(readingJdbcRepository.findLastReadingsByBuildingId(eq(1L), any(LocalDateTime.class))).thenReturn(List.of(
+                createReading(1L, 3.0, now.minusMinutes(1)),
+                createReading(1L, 2.0, now.minusMinutes(2)),
+                createReading(1L, 1.0, now.minusMinutes(3))));
+
+        // Act
+        readingProjector.applyBatch(List.of(
+                event(createReading(1L, 2.0, now.minusMinutes(2))),
+                event(createReading(2L, 9.0, now.minusMinutes(2))),
+                event(createReading(1L, 3.0, now.minusMinutes(1)))));
+        long appliedBeforeRebuild = readingProjector.getStatus().getAppliedEvents();
+        boolean staleBeforeRebuild = readModel.isStale(1L);
+        readingProjector.rebuildStaleBuildings();
+
+        // Assert
+        assertEquals(1, appliedBeforeRebuild);
+        assertTrue(staleBeforeRebuild);
+        assertEquals(3, readingProjector.getStatus().getAppliedEvents());
+        assertEquals(0, readingProjector.getStatus().getStaleBuildings());
+        assertFalse(readModel.isStale(1L));
+        assertEquals(List.of(3.0, 2.0, 1.0), readModel.getReadingsSince(1L, now.minusMinutes(10)).stream()
+                .map(ReadingResponse::getValue).toList());
+        assertEquals(List.of(9.0), readModel.getReadingsSince(2L, now.minusMinutes(10)).stream()
+                .map(ReadingResponse::getValue).toList());
+    }
+
+    @Test
+    void testRebuildStaleBuildings_StorageUnavailable_StaysStaleAndRetried() {
+        // Arrange
+        doThrow(new IllegalStateException("boom")).doNothing().when(ingestWatermarks).advance(1L);
+        when(readingJdbcRepository.findLastReadingsByBuildingId(eq(1L), any(LocalDateTime.class)))
+                .thenThrow(new DataAccessResourceFailureException("database down"))
+                .thenReturn(List.of());
+        readingProjector.applyBatch(List.of(event(createReading(1L, 1.0, now))));
+
+        // Act
+        readingProjector.rebuildStaleBuildings();
+        int staleAfterFailure = readingProjector.getStatus().getStaleBuildings();
+        readingProjector.rebuildStaleBuildings();
+
+        // Assert
+        assertEquals(1, staleAfterFailure);
+        assertEquals(0, readingProjector.getStatus().getStaleBuildings());
+        assertEquals(1, readingProjector.getStatus().getAppliedEvents());
+        verify(readingJdbcRepository, times(2)).findLastReadingsByBuildingId(eq(1L), any(LocalDateTime.class));
+    }
+
+    private ReadingProjector.ProjectionEvent event(Reading reading) {
+        return new ReadingProjector.ProjectionEvent(reading, null, System.nanoTime());
+    }
+
+    private Reading createReading(Long buildingId, double value, LocalDateTime timestamp) {
+        Reading reading = new Reading(null, buildingId, "sensor1", timestamp, value);
+        reading.setAnomalyFlags(0);
+        return reading;
+    }
+}
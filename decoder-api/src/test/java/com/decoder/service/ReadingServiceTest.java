@@ -0,0 +1,112 @@
+package com.decoder.service;
+
+import com.decoder.model.LogCheckpoint;
+import com.decoder.model.Reading;
+import com.decoder.model.dto.ReadingResponse;
+import com.decoder.repository.LogCheckpointRepository;
+import com.decoder.repository.ReadingJdbcRepository;
+import com.decoder.repository.SensorRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for ReadingService.
+ * Tests multi-building reads: grouping per building and chunking of the IN query, and that
+ * sharded writes hold no transaction on the main database.
+ */
+@ExtendWith(MockitoExtension.class)
+class ReadingServiceTest {
+
+    @Mock
+    private ReadingJdbcRepository readingJdbcRepository;
+
+    @Mock
+    private ReadingWriter readingWriter;
+
+    @Mock
+    private SensorRegistry sensorRegistry;
+
+    @Mock
+    private LogCheckpointRepository checkpointRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private ReadingService readingService;
+
+    private final LocalDateTime now = LocalDateTime.now();
+
+    @Test
+    void testGetLastReadingsForBuildings_GroupsPerBuildingInRequestOrder() {
+        // Arrange
+        when(readingJdbcRepository.findLastReadingsByBuildingIds(eq(List.of(3L, 1L, 2L)), any())).thenReturn(List.of(
+                new Reading(null, 1L, "s1", now.minusMinutes(1), 1.0),
+                new Reading(null, 1L, "s1", now.minusMinutes(2), 2.0),
+                new Reading(null, 3L, "s9", now.minusMinutes(1), 3.0)));
+
+        // Act
+        Map<Long, List<ReadingResponse>> grouped = readingService.getLastReadingsForBuildings(List.of(3L, 1L, 2L), 60);
+
+        // Assert
+        assertEquals(List.of(3L, 1L, 2L), List.copyOf(grouped.keySet()));
+        assertEquals(List.of(1.0, 2.0), grouped.get(1L).stream().map(ReadingResponse::getValue).toList());
+        assertEquals(1, grouped.get(3L).size());
+        assertTrue(grouped.get(2L).isEmpty());
+    }
+
+    @Test
+    void testGetLastReadingsForBuildings_ManyBuildings_QueriesInChunks() {
+        // Arrange
+        List<Long> buildingIds = LongStream.rangeClosed(1, 1200).boxed().toList();
+        when(readingJdbcRepository.findLastReadingsByBuildingIds(anyCollection(), any())).thenReturn(List.of());
+
+        // Act
+        Map<Long, List<ReadingResponse>> grouped = readingService.getLastReadingsForBuildings(buildingIds, 60);
+
+        // Assert
+        assertEquals(1200, grouped.size());
+        verify(readingJdbcRepository, times(3)).findLastReadingsByBuildingIds(anyCollection(), any());
+    }
+
+    @Test
+    void testGetLastReadingsForBuildings_NoBuildings_NoQuery() {
+        // Act
+        Map<Long, List<ReadingResponse>> grouped = readingService.getLastReadingsForBuildings(List.of(), 60);
+
+        // Assert
+        assertTrue(grouped.isEmpty());
+        verifyNoInteractions(readingJdbcRepository);
+    }
+
+    @Test
+    void testApplyLogged_Sharded_StoresMissingWithoutMainTransaction() {
+        // Arrange
+        when(readingJdbcRepository.isSharded()).thenReturn(true);
+        when(sensorRegistry.resolveOrRegister("s1")).thenReturn(4);
+        Reading later = new Reading(null, 1L, "s1", now, 2.0);
+        Reading earlier = new Reading(null, 1L, "s1", now.minusMinutes(1), 1.0);
+
+        // Act
+        readingService.applyLogged(List.of(later, earlier), 42L);
+
+        // Assert
+        verify(readingWriter).insertMissing(List.of(earlier, later));
+        verify(readingWriter, never()).insertBatch(any());
+        verify(checkpointRepository).save(argThat((LogCheckpoint checkpoint) -> checkpoint.getAppliedSequence() == 42L));
+        assertEquals(4, earlier.getSensorRef());
+        verifyNoInteractions(transactionManager);
+    }
+}
@@ -0,0 +1,115 @@
+package com.decoder.service;
+
+import com.decoder.model.Reading;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for ReadingStreamService.
+ * Tests delivery to the subscribers of a building, heartbeats and eviction of subscribers
+ * that fall behind or have gone away.
+ */
+class ReadingStreamServiceTest {
+
+    private ReadingStreamService readingStreamService;
+
+    @BeforeEach
+    void setUp() {
+        readingStreamService = new ReadingStreamService();
+        ReflectionTestUtils.setField(readingStreamService, "bufferSize", 2);
+        ReflectionTestUtils.setField(readingStreamService, "timeoutMs", 60_000L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        readingStreamService.shutdown();
+    }
+
+    @Test
+    void testOnReading_SubscribedBuilding_EventSentOnlyToItsSubscribers() throws Exception {
+        // Arrange
+        SseEmitter building1 = mock(SseEmitter.class);
+        SseEmitter building2 = mock(SseEmitter.class);
+        readingStreamService.subscribe(1L, building1);
+        readingStreamService.subscribe(2L, building2);
+
+        // Act
+        readingStreamService.onReading(createReading(1L));
+
+        // Assert
+        verify(building1, timeout(1000)).send(any(SseEmitter.SseEventBuilder.class));
+        verify(building2, never()).send(any(SseEmitter.SseEventBuilder.class));
+        assertEquals(2, readingStreamService.getSubscriberCount());
+    }
+
+    @Test
+    void testOnReading_SlowSubscriberBufferFull_OnlySlowSubscriberEvicted() throws Exception {
+        // Arrange
+        CountDownLatch sending = new CountDownLatch(1);
+        CountDownLatch unblock = new CountDownLatch(1);
+        SseEmitter slow = mock(SseEmitter.class);
+        doAnswer(invocation -> {
+            sending.countDown();
+            unblock.await(5, TimeUnit.SECONDS);
+            return null;
+        }).when(slow).send(any(SseEmitter.SseEventBuilder.class));
+        SseEmitter fast = mock(SseEmitter.class);
+        readingStreamService.subscribe(1L, slow);
+        readingStreamService.subscribe(1L, fast);
+        readingStreamService.onReading(createReading(1L));
+        assertTrue(sending.await(5, TimeUnit.SECONDS));
+
+        try {
+            // Act - one event is being sent, two fill the buffer, the next overflows it
+            for (int i = 0; i < 3; i++) {
+                readingStreamService.onReading(createReading(1L));
+                verify(fast, timeout(1000).times(i + 2)).send(any(SseEmitter.SseEventBuilder.class));
+            }
+
+            // Assert
+            verify(slow).complete();
+            verify(fast, never()).complete();
+            assertEquals(1, readingStreamService.getSubscriberCount());
+        } finally {
+            unblock.countDown();
+        }
+    }
+
+    @Test
+    void testHeartbeat_ClientGone_SubscriberEvicted() throws Exception {
+        // Arrange
+        CountDownLatch completed = new CountDownLatch(1);
+        SseEmitter gone = mock(SseEmitter.class);
+        doThrow(new IOException("Broken pipe")).when(gone).send(any(SseEmitter.SseEventBuilder.class));
+        doAnswer(invocation -> {
+            completed.countDown();
+            return null;
+        }).when(gone).complete();
+        readingStreamService.subscribe(1L, gone);
+
+        // Act
+        readingStreamService.heartbeat();
+
+        // Assert
+        assertTrue(completed.await(5, TimeUnit.SECONDS));
+        assertEquals(0, readingStreamService.getSubscriberCount());
+    }
+
+    private Reading createReading(Long buildingId) {
+        Reading reading = new Reading(null, buildingId, "sensor1", LocalDateTime.now(), 21.5);
+        reading.setAnomalyFlags(0);
+        return reading;
+    }
+}
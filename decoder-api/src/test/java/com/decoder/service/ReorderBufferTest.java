@@ -0,0 +1,145 @@
+package com.decoder.service;
+
+import com.decoder.model.Reading;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for ReorderBuffer.
+ * Tests in-order release within the lateness window, the late-data path and retention of
+ * readings that could not be written yet.
+ */
+@ExtendWith(MockitoExtension.class)
+class ReorderBufferTest {
+    
+    @Mock
+    private ReadingWriter readingWriter;
+    
+    @InjectMocks
+    private ReorderBuffer reorderBuffer;
+    
+    private final LocalDateTime base = LocalDateTime.of(2025, 1, 1, 10, 0);
+    
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(reorderBuffer, "enabled", true);
+        ReflectionTestUtils.setField(reorderBuffer, "latenessMs", 30_000L);
+        ReflectionTestUtils.setField(reorderBuffer, "maxBufferedPerBuilding", 100);
+        ReflectionTestUtils.setField(reorderBuffer, "maxUnwritten", 1000);
+    }
+    
+    @Test
+    void testDrainReleasable_OutOfOrderWithinWindow_ReleasedInTimestampOrder() {
+        // Arrange
+        reorderBuffer.offer(createReading(1L, base.plusSeconds(20), 3.0));
+        reorderBuffer.offer(createReading(1L, base, 1.0));
+        reorderBuffer.offer(createReading(1L, base.plusSeconds(10), 2.0));
+        reorderBuffer.offer(createReading(1L, base.plusSeconds(60), 4.0));
+        
+        // Act - not idle, so only readings older than watermark - lateness are due
+        List<Reading> released = reorderBuffer.drainReleasable(System.currentTimeMillis());
+        
+        // Assert
+        assertEquals(List.of(1.0, 2.0, 3.0), released.stream().map(Reading::getValue).toList());
+    }
+    
+    @Test
+    void testOffer_OlderThanReleased_RoutedToLatePath() {
+        // Arrange
+        reorderBuffer.offer(createReading(1L, base.plusMinutes(5), 1.0));
+        reorderBuffer.drainReleasable(System.currentTimeMillis() + 60_000);
+        
+        // Act
+        reorderBuffer.offer(createReading(1L, base.plusMinutes(1), 2.0));
+        reorderBuffer.offer(createReading(2L, base.plusMinutes(1), 3.0));
+        
+        // Assert - building 2 has released nothing yet, so its reading is buffered normally
+        List<Reading> late = reorderBuffer.drainLate();
+        assertEquals(1, late.size());
+        assertEquals(2.0, late.get(0).getValue());
+    }
+    
+    @Test
+    void testDrainReleasable_IdleBuilding_ReleasesEverything() {
+        // Arrange
+        reorderBuffer.offer(createReading(1L, base.plusSeconds(5), 2.0));
+        reorderBuffer.offer(createReading(1L, base, 1.0));
+        
+        // Act
+        List<Reading> released = reorderBuffer.drainReleasable(System.currentTimeMillis() + 60_000);
+        
+        // Assert
+        assertEquals(List.of(1.0, 2.0), released.stream().map(Reading::getValue).toList());
+    }
+    
+    @Test
+    void testFlush_WriteFails_ReadingsRetainedAndWrittenOnNextFlush() {
+        // Arrange
+        reorderBuffer.offer(createReading(1L, base, 1.0));
+        reorderBuffer.offer(createReading(1L, base.plusSeconds(60), 2.0));
+        ReflectionTestUtils.setField(reorderBuffer, "latenessMs", 0L);
+        doThrow(new IllegalStateException("database is locked")).doNothing()
+                .when(readingWriter).insertBatch(anyList());
+        
+        // Act
+        reorderBuffer.flush();
+        reorderBuffer.flush();
+        
+        // Assert
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Reading>> batches = ArgumentCaptor.forClass(List.class);
+        verify(readingWriter, times(2)).insertBatch(batches.capture());
+        assertEquals(List.of(1.0, 2.0), batches.getAllValues().get(1).stream().map(Reading::getValue).toList());
+        assertEquals(0, reorderBuffer.getUnwrittenCount());
+    }
+    
+    @Test
+    void testOffer_BufferFull_OverflowLeftToFlush() {
+        // Arrange
+        ReflectionTestUtils.setField(reorderBuffer, "maxBufferedPerBuilding", 2);
+        reorderBuffer.offer(createReading(1L, base.plusSeconds(2), 3.0));
+        reorderBuffer.offer(createReading(1L, base, 1.0));
+        
+        // Act
+        reorderBuffer.offer(createReading(1L, base.plusSeconds(1), 2.0));
+        
+        // Assert - the request thread never writes; the early release waits for the flush
+        verifyNoInteractions(readingWriter);
+        assertEquals(List.of(1.0), reorderBuffer.drainUnwritten().stream().map(Reading::getValue).toList());
+    }
+    
+    @Test
+    void testFlushLate_StorageKeepsFailing_OldestDroppedBeyondLimit() {
+        // Arrange
+        ReflectionTestUtils.setField(reorderBuffer, "maxUnwritten", 2);
+        reorderBuffer.offer(createReading(1L, base.plusMinutes(5), 1.0));
+        reorderBuffer.drainReleasable(System.currentTimeMillis() + 60_000);
+        reorderBuffer.offer(createReading(1L, base, 2.0));
+        reorderBuffer.offer(createReading(1L, base.plusMinutes(1), 3.0));
+        reorderBuffer.offer(createReading(1L, base.plusMinutes(2), 4.0));
+        doThrow(new IllegalStateException("database is locked")).when(readingWriter).insertBatch(anyList());
+        
+        // Act
+        reorderBuffer.flushLate();
+        
+        // Assert
+        assertEquals(List.of(3.0, 4.0), reorderBuffer.drainUnwritten().stream().map(Reading::getValue).toList());
+    }
+    
+    private Reading createReading(Long buildingId, LocalDateTime timestamp, Double value) {
+        return new Reading(null, buildingId, "sensor1", timestamp, value);
+    }
+}
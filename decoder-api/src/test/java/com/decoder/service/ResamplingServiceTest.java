@@ -0,0 +1,224 @@
+package com.decoder.service;
+
+import com.decoder.model.dto.ResampledReadings;
+import com.decoder.model.dto.ResampledReadings.SensorGrid;
+import com.decoder.repository.ReadingJdbcRepository;
+import com.decoder.repository.ReadingJdbcRepository.ReadingValueHandler;
+import com.decoder.repository.SensorRegistry;
+import com.decoder.service.ResamplingService.Aggregation;
+import com.decoder.service.ResamplingService.Fill;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.lenient;
+
+/**
+ * Unit tests for ResamplingService.
+ * Tests bucket aggregation, gap filling, totals across sensors, the bucket limit and that the
+ * vector and scalar kernels agree.
+ */
+@ExtendWith(MockitoExtension.class)
+class ResamplingServiceTest {
+
+    private static final LocalDateTime FROM = LocalDateTime.of(2025, 1, 1, 0, 0);
+    private static final long ORIGIN = Timestamp.valueOf(FROM).getTime();
+
+    @Mock
+    private ReadingJdbcRepository readingJdbcRepository;
+
+    @Mock
+    private SensorRegistry sensorRegistry;
+
+    private final List<long[]> rows = new ArrayList<>();
+    private final List<Double> values = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(sensorRegistry.getSensorKey(anyInt())).thenAnswer(invocation -> "s" + invocation.getArgument(0));
+        lenient().doAnswer(invocation -> {
+            ReadingValueHandler handler = invocation.getArgument(3);
+            for (int i = 0; i < rows.size(); i++) {
+                handler.accept((int) rows.get(i)[0], rows.get(i)[1], values.get(i));
+            }
+            return null;
+        }).when(readingJdbcRepository).scanValues(eq(1L), any(), any(), any());
+    }
+
+    @Test
+    void testResample_Mean_AveragesPerBucketAndTotalsAcrossSensors() {
+        // Arrange
+        reading(1, 0, 10.0);
+        reading(1, 30, 20.0);
+        reading(1, 60, 30.0);
+        reading(2, 5, 1.0);
+        reading(2, 125, 2.0);
+
+        // Act
+        ResampledReadings resampled = service(false).resample(1L, FROM, FROM.plusMinutes(3), 60, Aggregation.MEAN, Fill.NONE);
+
+        // Assert
+        assertEquals(List.of("s1", "s2"), resampled.getSeries().stream().map(SensorGrid::getSensorId).toList());
+        assertArrayEquals(new double[]{15.0, 30.0, Double.NaN}, resampled.getSeries().get(0).getValues());
+        assertArrayEquals(new double[]{1.0, Double.NaN, 2.0}, resampled.getSeries().get(1).getValues());
+        assertArrayEquals(new double[]{16.0, 30.0, 2.0}, resampled.getTotal());
+        SensorGrid first = resampled.getSeries().get(0);
+        assertEquals(2, first.getCount());
+        assertEquals(15.0, first.getMin());
+        assertEquals(30.0, first.getMax());
+        assertEquals(22.5, first.getMean());
+    }
+
+    @Test
+    void testResample_FillPrevious_CarriesLastValueButNotIntoLeadingGap() {
+        // Arrange
+        reading(1, 60, 5.0);
+        reading(1, 180, 7.0);
+
+        // Act
+        double[] grid = service(false).resample(1L, FROM, FROM.plusMinutes(5), 60, Aggregation.LAST, Fill.PREVIOUS)
+                .getSeries().get(0).getValues();
+
+        // Assert
+        assertArrayEquals(new double[]{Double.NaN, 5.0, 5.0, 7.0, 7.0}, grid);
+    }
+
+    @Test
+    void testResample_FillLinear_InterpolatesInteriorGapsOnly() {
+        // Arrange
+        reading(1, 60, 0.0);
+        reading(1, 300, 8.0);
+
+        // Act
+        double[] grid = service(false).resample(1L, FROM, FROM.plusMinutes(7), 60, Aggregation.MEAN, Fill.LINEAR)
+                .getSeries().get(0).getValues();
+
+        // Assert
+        assertArrayEquals(new double[]{Double.NaN, 0.0, 2.0, 4.0, 6.0, 8.0, Double.NaN}, grid);
+    }
+
+    @Test
+    void testResample_MinMaxSumCount_CombineReadingsInBucket() {
+        // Arrange
+        reading(1, 0, 4.0);
+        reading(1, 10, -1.0);
+        reading(1, 20, 3.0);
+        ResamplingService service = service(false);
+
+        // Act & Assert
+        assertEquals(-1.0, only(service, Aggregation.MIN));
+        assertEquals(4.0, only(service, Aggregation.MAX));
+        assertEquals(6.0, only(service, Aggregation.SUM));
+        assertEquals(3.0, only(service, Aggregation.LAST));
+        assertEquals(3.0, only(service, Aggregation.COUNT));
+    }
+
+    @Test
+    void testResample_TooManyBucketsOrEmptyWindow_Throws() {
+        // Arrange
+        ResamplingService service = service(false);
+        ReflectionTestUtils.setField(service, "maxBuckets", 1440);
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class,
+                () -> service.resample(1L, FROM, FROM.plusDays(1).plusMinutes(1), 60, Aggregation.MEAN, Fill.NONE));
+        assertThrows(IllegalArgumentException.class,
+                () -> service.resample(1L, FROM, FROM, 60, Aggregation.MEAN, Fill.NONE));
+        assertThrows(IllegalArgumentException.class,
+                () -> service.resample(1L, FROM, FROM.plusHours(1), 0, Aggregation.MEAN, Fill.NONE));
+    }
+
+    @Test
+    void testResample_VectorAndScalarKernels_SameGrids() {
+        // Arrange
+        assumeTrue(ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent(), "Vector API not resolved");
+        ResamplingService vector = service(true);
+        assertTrue(vector.getKernels().startsWith("vector"));
+        Random random = new Random(49);
+        for (int sensor = 1; sensor <= 7; sensor++) {
+            for (int second = 0; second < 3 * 3600; second += 20) {
+                // Gaps of varying length, so every kernel sees both full vectors and tails
+                if (random.nextInt(10) < 7 && (second / 600) % sensor != 1) {
+                    reading(sensor, second, random.nextGaussian() * 50);
+                }
+            }
+        }
+
+        for (Fill fill : Fill.values()) {
+            for (Aggregation aggregation : Aggregation.values()) {
+                // Act
+                ResampledReadings expected = service(false).resample(1L, FROM, FROM.plusHours(3), 60, aggregation, fill);
+                ResampledReadings actual = vector.resample(1L, FROM, FROM.plusHours(3), 60, aggregation, fill);
+
+                // Assert
+                assertArrayEquals(expected.getTotal(), actual.getTotal(), 1e-9, aggregation + "/" + fill);
+                for (int i = 0; i < expected.getSeries().size(); i++) {
+                    SensorGrid scalarGrid = expected.getSeries().get(i);
+                    SensorGrid vectorGrid = actual.getSeries().get(i);
+                    assertArrayEquals(scalarGrid.getValues(), vectorGrid.getValues(), 1e-9, aggregation + "/" + fill);
+                    assertEquals(scalarGrid.getCount(), vectorGrid.getCount());
+                    assertEquals(scalarGrid.getMin(), vectorGrid.getMin());
+                    assertEquals(scalarGrid.getMax(), vectorGrid.getMax());
+                    assertEquals(scalarGrid.getMean(), vectorGrid.getMean(), 1e-9);
+                }
+            }
+        }
+    }
+
+    @Test
+    void testResample_DayOfMinuteDataForManySensors_EveryReadingBucketed() {
+        // Arrange
+        int stored = 0;
+        for (int minute = 0; minute < 1440; minute++) {
+            for (int sensor = 1; sensor <= 50; sensor++) {
+                if ((minute + sensor) % 17 != 0) {
+                    reading(sensor, minute * 60L + sensor % 60, minute + sensor);
+                    stored++;
+                }
+            }
+        }
+        ResamplingService service = service(true);
+
+        // Act
+        ResampledReadings resampled = service.resample(1L, FROM, FROM.plusDays(1), 60, Aggregation.MEAN, Fill.NONE);
+
+        // Assert
+        assertEquals(50, resampled.getSeries().size());
+        assertEquals(1440, resampled.getTotal().length);
+        assertTrue(resampled.getSeries().stream().allMatch(grid -> grid.getValues().length == 1440));
+        assertEquals(stored, resampled.getSeries().stream().mapToInt(SensorGrid::getCount).sum());
+    }
+
+    private ResamplingService service(boolean vectorEnabled) {
+        ResamplingService service = new ResamplingService(readingJdbcRepository, sensorRegistry, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(service, "vectorEnabled", vectorEnabled);
+        ReflectionTestUtils.setField(service, "maxBuckets", 10080);
+        service.start();
+        return service;
+    }
+
+    private double only(ResamplingService service, Aggregation aggregation) {
+        return service.resample(1L, FROM, FROM.plusMinutes(1), 60, aggregation, Fill.NONE).getSeries().get(0).getValues()[0];
+    }
+
+    private void reading(int sensorRef, long secondsAfterFrom, double value) {
+        rows.add(new long[]{sensorRef, ORIGIN + secondsAfterFrom * 1000});
+        values.add(value);
+    }
+}
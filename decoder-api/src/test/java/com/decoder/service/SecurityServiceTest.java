@@ -118,4 +118,32 @@ class SecurityServiceTest {
         assertTrue(accessibleIds.contains(1L));
         assertFalse(accessibleIds.contains(2L));
     }
+    
+    @Test
+    void testFilterAccessibleBuildingIds_OwnerUser_KeepsOnlyOwnedInRequestOrder() {
+        // Arrange
+        Building building3 = new Building(3L, "Building C", 2L, "789 Pine Rd");
+        when(userRepository.findByUsername("owner1")).thenReturn(Optional.of(ownerUser));
+        when(buildingRepository.findByOwnerId(2L)).thenReturn(List.of(building1, building3));
+        
+        // Act
+        List<Long> accessibleIds = securityService.filterAccessibleBuildingIds("owner1", List.of(3L, 2L, 1L, 3L));
+        
+        // Assert
+        assertEquals(List.of(3L, 1L), accessibleIds);
+        verify(buildingRepository, never()).findById(any());
+    }
+    
+    @Test
+    void testFilterAccessibleBuildingIds_AdminUser_KeepsAllRequested() {
+        // Arrange
+        when(userRepository.findByUsername("admin")).thenReturn(Optional.of(adminUser));
+        
+        // Act
+        List<Long> accessibleIds = securityService.filterAccessibleBuildingIds("admin", List.of(2L, 1L));
+        
+        // Assert
+        assertEquals(List.of(2L, 1L), accessibleIds);
+        verifyNoInteractions(buildingRepository);
+    }
 }
@@ -0,0 +1,134 @@
+package com.decoder.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for SingleFlight.
+ * Tests sharing one execution between concurrent callers, failure propagation and metrics.
+ */
+class SingleFlightTest {
+
+    private final ExecutorService callers = Executors.newFixedThreadPool(4);
+
+    @AfterEach
+    void tearDown() {
+        callers.shutdownNow();
+    }
+
+    @Test
+    void testExecute_ConcurrentSameKey_OneExecutionSharedResult() throws Exception {
+        // Arrange
+        SingleFlight<String, Integer> flights = new SingleFlight<>();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger executions = new AtomicInteger();
+        Future<Integer> leader = callers.submit(() -> flights.execute("building-1", () -> {
+            started.countDown();
+            await(release);
+            return executions.incrementAndGet();
+        }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        // Act
+        List<Future<Integer>> followers = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            followers.add(callers.submit(() -> flights.execute("building-1", executions::incrementAndGet)));
+        }
+        while (flights.getCoalesced() < 3) {
+            Thread.onSpinWait();
+        }
+        release.countDown();
+
+        // Assert
+        assertEquals(1, leader.get(5, TimeUnit.SECONDS));
+        for (Future<Integer> follower : followers) {
+            assertEquals(1, follower.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, executions.get());
+        assertEquals(1, flights.getExecutions());
+    }
+
+    @Test
+    void testExecute_AfterCompletion_ComputesAgain() {
+        // Arrange
+        SingleFlight<String, Integer> flights = new SingleFlight<>();
+        AtomicInteger executions = new AtomicInteger();
+
+        // Act
+        int first = flights.execute("building-1", executions::incrementAndGet);
+        int second = flights.execute("building-1", executions::incrementAndGet);
+        int other = flights.execute("building-2", executions::incrementAndGet);
+
+        // Assert
+        assertEquals(List.of(1, 2, 3), List.of(first, second, other));
+        assertEquals(0, flights.getCoalesced());
+    }
+
+    @Test
+    void testExecute_ExecutionFails_EveryCallerGetsFailure() throws Exception {
+        // Arrange
+        SingleFlight<String, Integer> flights = new SingleFlight<>();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<Integer> leader = callers.submit(() -> flights.execute("building-1", () -> {
+            started.countDown();
+            await(release);
+            throw new IllegalStateException("database unavailable");
+        }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        // Act
+        Future<Integer> follower = callers.submit(() -> flights.execute("building-1", () -> 42));
+        while (flights.getCoalesced() < 1) {
+            Thread.onSpinWait();
+        }
+        release.countDown();
+
+        // Assert
+        ExecutionException leaderFailure = assertThrows(ExecutionException.class, () -> leader.get(5, TimeUnit.SECONDS));
+        ExecutionException followerFailure = assertThrows(ExecutionException.class, () -> follower.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalStateException.class, leaderFailure.getCause());
+        assertSame(leaderFailure.getCause(), followerFailure.getCause());
+        assertEquals(42, flights.execute("building-1", () -> 42));
+    }
+
+    @Test
+    void testBindTo_CountersPublished() {
+        // Arrange
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        SingleFlight<String, Integer> flights = new SingleFlight<>();
+        flights.bindTo(registry, "forecast");
+
+        // Act
+        flights.execute("building-1", () -> 1);
+
+        // Assert
+        assertEquals(1.0, registry.get("decoder.coalescing.executions").tag("operation", "forecast")
+                .functionCounter().count());
+        assertEquals(0.0, registry.get("decoder.coalescing.coalesced").tag("operation", "forecast")
+                .functionCounter().count());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.decoder.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for TokenBucket.
+ * Tests burst capacity, rejection with retry-after, refill and refunds.
+ */
+class TokenBucketTest {
+    
+    private static final long SECOND = 1_000_000_000L;
+    
+    @Test
+    void testTryAcquire_WithinBurst_AllAdmitted() {
+        // Arrange
+        TokenBucket bucket = new TokenBucket(10, 5);
+        long now = System.nanoTime();
+        
+        // Act & Assert
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, bucket.tryAcquire(now));
+        }
+    }
+    
+    @Test
+    void testTryAcquire_BurstExhausted_ReturnsWaitUntilNextToken() {
+        // Arrange
+        TokenBucket bucket = new TokenBucket(10, 5);
+        long now = System.nanoTime();
+        for (int i = 0; i < 5; i++) {
+            bucket.tryAcquire(now);
+        }
+        
+        // Act
+        long waitNanos = bucket.tryAcquire(now);
+        
+        // Assert - one token every 100ms at 10/s
+        assertEquals(SECOND / 10, waitNanos);
+    }
+    
+    @Test
+    void testTryAcquire_AfterRefill_AdmittedAgainAndFull() {
+        // Arrange
+        TokenBucket bucket = new TokenBucket(10, 5);
+        long now = System.nanoTime();
+        for (int i = 0; i < 6; i++) {
+            bucket.tryAcquire(now);
+        }
+        
+        // Act & Assert
+        assertEquals(0, bucket.tryAcquire(now + SECOND / 10));
+        assertFalse(bucket.isFull(now + SECOND / 10));
+        assertTrue(bucket.isFull(now + SECOND));
+    }
+    
+    @Test
+    void testRefund_AfterExhausted_OneMoreTokenAvailable() {
+        // Arrange
+        TokenBucket bucket = new TokenBucket(10, 5);
+        long now = System.nanoTime();
+        for (int i = 0; i < 5; i++) {
+            bucket.tryAcquire(now);
+        }
+        
+        // Act
+        bucket.refund();
+        
+        // Assert
+        assertEquals(0, bucket.tryAcquire(now));
+        assertTrue(bucket.tryAcquire(now) > 0);
+    }
+    
+    @Test
+    void testRefund_FullBucket_NeverExceedsBurst() {
+        // Arrange
+        TokenBucket bucket = new TokenBucket(10, 5);
+        long now = System.nanoTime();
+        
+        // Act
+        for (int i = 0; i < 3; i++) {
+            bucket.refund();
+        }
+        
+        // Assert
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, bucket.tryAcquire(now));
+        }
+        assertTrue(bucket.tryAcquire(now) > 0);
+    }
+}
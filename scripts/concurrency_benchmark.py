@@ -0,0 +1,192 @@
+#!/usr/bin/env python3
+"""
+Concurrency benchmark for the DECODER API.
+Compares platform-thread request handling with virtual-thread mode
+(spring.threads.virtual.enabled, which also turns on decoder.datasource.limiter) under the
+dashboard load profile: many concurrent clients, each repeatedly loading a building's last
+readings, summary and forecast, while gateways keep ingesting readings.
+
+Reports throughput, latency percentiles and failures per mode and client count. Per-user
+bulkheads are disabled for the run so the comparison measures thread mode and connection
+limiting rather than 429s from three seeded users.
+
+Usage (from decoder-api/, after `mvn package`):
+    python3 ../scripts/concurrency_benchmark.py [--clients 50,200,800] [--duration 20] [--mode platform|virtual|all]
+"""
+
+import argparse
+import http.client
+import json
+import os
+import random
+import statistics
+import subprocess
+import sys
+import threading
+import time
+
+DEFAULT_JAR = "target/decoder-api-1.0.0.jar"
+STARTUP_TIMEOUT_SECONDS = 120
+SEED_READINGS_PER_BUILDING = 200
+
+# Buildings of the seeded users (see DataLoader) and the share of each request type
+BUILDING_OWNERS = {1: "owner1", 2: "owner1", 3: "owner2"}
+DASHBOARD_PATHS = ["/buildings/{id}/last-readings", "/buildings/{id}/summary", "/buildings/{id}/forecast"]
+INGEST_SHARE = 0.2
+
+
+def build_command(mode, java, port):
+    """
+    Build the launch command for a mode.
+    """
+    return [
+        java, "-jar", DEFAULT_JAR,
+        f"--server.port={port}",
+        f"--spring.threads.virtual.enabled={'true' if mode == 'virtual' else 'false'}",
+        "--decoder.bulkhead.enabled=false",
+        "--decoder.ingest.admission.enabled=false",
+        "--logging.level.com.decoder=WARN",
+    ]
+
+
+def request(connection, method, path, user=None, body=None):
+    """
+    Send one request on a keep-alive connection; returns the HTTP status.
+    """
+    headers = {"Content-Type": "application/json"}
+    if user:
+        headers["Authorization"] = f"Bearer {user}:{'ADMIN' if user == 'admin' else 'OWNER'}"
+    connection.request(method, path, body=body, headers=headers)
+    response = connection.getresponse()
+    response.read()
+    return response.status
+
+
+def ingest_body(building_id, sensor):
+    return json.dumps({
+        "buildingId": building_id,
+        "sensorId": sensor,
+        "timestamp": time.strftime("%Y-%m-%dT%H:%M:%S"),
+        "value": round(random.uniform(20.0, 120.0), 2),
+    })
+
+
+def wait_until_ready(process, port):
+    started = time.monotonic()
+    while time.monotonic() - started < STARTUP_TIMEOUT_SECONDS:
+        if process.poll() is not None:
+            raise RuntimeError(f"process exited with code {process.returncode}")
+        try:
+            connection = http.client.HTTPConnection("localhost", port, timeout=2)
+            if request(connection, "POST", "/ingest", body=ingest_body(1, "benchmark-warmup")) == 201:
+                return
+        except OSError:
+            pass
+        time.sleep(0.1)
+    raise RuntimeError(f"no successful ingest within {STARTUP_TIMEOUT_SECONDS}s")
+
+
+def seed(port):
+    connection = http.client.HTTPConnection("localhost", port, timeout=10)
+    for building_id in BUILDING_OWNERS:
+        for i in range(SEED_READINGS_PER_BUILDING):
+            request(connection, "POST", "/ingest", body=ingest_body(building_id, f"seed-{i % 10}"))
+
+
+def client(port, deadline, latencies, failures, lock, index):
+    """
+    One dashboard client: loops over dashboard requests and, now and then, an ingest.
+    """
+    connection = http.client.HTTPConnection("localhost", port, timeout=60)
+    own_latencies = []
+    own_failures = 0
+    sensor = f"benchmark-{index}"
+    while time.monotonic() < deadline:
+        building_id = random.choice(list(BUILDING_OWNERS))
+        started = time.monotonic()
+        try:
+            if random.random() < INGEST_SHARE:
+                status = request(connection, "POST", "/ingest", body=ingest_body(building_id, sensor))
+                ok = status == 201
+            else:
+                path = random.choice(DASHBOARD_PATHS).format(id=building_id)
+                ok = request(connection, "GET", path, user=BUILDING_OWNERS[building_id]) == 200
+        except (OSError, http.client.HTTPException):
+            ok = False
+            connection.close()
+            connection = http.client.HTTPConnection("localhost", port, timeout=60)
+        own_latencies.append(time.monotonic() - started)
+        if not ok:
+            own_failures += 1
+    connection.close()
+    with lock:
+        latencies.extend(own_latencies)
+        failures.append(own_failures)
+
+
+def run_load(port, clients, duration):
+    """
+    Run the load profile with the given number of concurrent clients.
+    Returns (requests, failures, latencies in seconds).
+    """
+    latencies, failures, lock = [], [], threading.Lock()
+    deadline = time.monotonic() + duration
+    threads = [threading.Thread(target=client, args=(port, deadline, latencies, failures, lock, i), daemon=True)
+               for i in range(clients)]
+    for thread in threads:
+        thread.start()
+    for thread in threads:
+        thread.join()
+    return len(latencies), sum(failures), latencies
+
+
+def percentile(values, fraction):
+    ordered = sorted(values)
+    return ordered[min(len(ordered) - 1, int(len(ordered) * fraction))]
+
+
+def report(mode, clients, duration, requests, failures, latencies):
+    print(f"{mode:>8} {clients:>5} clients: {requests / duration:8.0f} req/s, "
+          f"p50 {statistics.median(latencies) * 1000:6.1f} ms, "
+          f"p99 {percentile(latencies, 0.99) * 1000:7.1f} ms, "
+          f"failures {failures}/{requests}", flush=True)
+
+
+def measure(mode, java, port, client_counts, duration):
+    process = subprocess.Popen(build_command(mode, java, port), stdout=subprocess.DEVNULL, stderr=subprocess.DEVNULL)
+    try:
+        wait_until_ready(process, port)
+        seed(port)
+        run_load(port, min(client_counts), min(5, duration))  # Warm-up, not reported
+        for clients in client_counts:
+            report(mode, clients, duration, *run_load(port, clients, duration))
+    finally:
+        process.terminate()
+        try:
+            process.wait(timeout=30)
+        except subprocess.TimeoutExpired:
+            process.kill()
+
+
+def main():
+    parser = argparse.ArgumentParser(description="Compare DECODER API platform-thread and virtual-thread modes")
+    parser.add_argument("--clients", default="50,200,800", help="Comma-separated concurrent client counts")
+    parser.add_argument("--duration", type=int, default=20, help="Seconds per client count")
+    parser.add_argument("--port", type=int, default=8091)
+    parser.add_argument("--mode", choices=["platform", "virtual", "all"], default="all")
+    parser.add_argument("--java", default=os.path.join(os.environ["JAVA_HOME"], "bin", "java")
+                        if "JAVA_HOME" in os.environ else "java")
+    args = parser.parse_args()
+
+    if not os.path.exists(DEFAULT_JAR):
+        print(f"{DEFAULT_JAR} not found; run `mvn package` first", file=sys.stderr)
+        return 1
+    client_counts = [int(count) for count in args.clients.split(",")]
+    modes = ["platform", "virtual"] if args.mode == "all" else [args.mode]
+    for mode in modes:
+        measure(mode, args.java, args.port, client_counts, args.duration)
+    return 0
+
+
+if __name__ == "__main__":
+    sys.exit(main())
@@ -0,0 +1,109 @@
+#!/usr/bin/env python3
+"""
+Apply the DECODER API schema (decoder-api/src/main/resources/db/schema.sql) to a SQLite
+database file ahead of deployment, so the fast-start profile can skip schema work at startup.
+
+The readings table is created from db/readings-<layout>.sql. With --layout, an existing
+readings table in the other layout is converted in place (see decoder.storage.readings-layout);
+without it, an existing table keeps its layout and a new one uses rowid.
+
+Usage:
+    python3 scripts/migrate_schema.py [--layout rowid|clustered] path/to/decoder.db
+"""
+
+import argparse
+import os
+import sqlite3
+import sys
+import time
+
+SCHEMA_DIR = os.path.join(os.path.dirname(os.path.abspath(__file__)),
+                          "..", "decoder-api", "src", "main", "resources", "db")
+SCHEMA = os.path.join(SCHEMA_DIR, "schema.sql")
+LAYOUTS = ("rowid", "clustered")
+READING_COLUMNS = "id, building_id, sensor_ref, timestamp, value, anomaly_flags"
+
+
+# Columns added after a table was first created; CREATE TABLE IF NOT EXISTS does not add them
+ADDED_COLUMNS = [
+    ("readings", "anomaly_flags", "integer"),
+]
+
+
+def add_missing_columns(connection):
+    for table, column, column_type in ADDED_COLUMNS:
+        existing = {row[1] for row in connection.execute(f"PRAGMA table_info({table})")}
+        if column not in existing:
+            connection.execute(f"ALTER TABLE {table} ADD COLUMN {column} {column_type}")
+
+
+def run_script(connection, name):
+    """Execute a schema script statement by statement; executescript would commit the transaction."""
+    with open(os.path.join(SCHEMA_DIR, name), encoding="utf-8") as script_file:
+        pending = ""
+        for line in script_file:
+            pending += line
+            if sqlite3.complete_statement(pending):
+                connection.execute(pending)
+                pending = ""
+
+
+def readings_layout(connection):
+    row = connection.execute(
+        "SELECT sql FROM sqlite_master WHERE type = 'table' AND name = 'readings'").fetchone()
+    if row is None:
+        return None
+    return "clustered" if "WITHOUT ROWID" in " ".join(row[0].upper().split()) else "rowid"
+
+
+def convert_readings(connection, current, layout):
+    """Rebuild the readings table in the given layout, as ReadingTableLayout does at startup."""
+    started = time.monotonic()
+    # Index names are global, so the old table's indexes must go before the new ones are created
+    indexes = [row[0] for row in connection.execute(
+        "SELECT name FROM sqlite_master WHERE type = 'index' AND tbl_name = 'readings' AND sql IS NOT NULL")]
+    for index in indexes:
+        connection.execute(f"DROP INDEX {index}")
+    connection.execute(f"ALTER TABLE readings RENAME TO readings_{current}")
+    run_script(connection, f"readings-{layout}.sql")
+    copied = connection.execute(
+        f"INSERT OR REPLACE INTO readings ({READING_COLUMNS}) "
+        f"SELECT {READING_COLUMNS} FROM readings_{current} ORDER BY timestamp, id").rowcount
+    connection.execute(f"DROP TABLE readings_{current}")
+    print(f"Converted readings from {current} to {layout} layout: "
+          f"{copied} rows in {time.monotonic() - started:.1f} s")
+
+
+def main():
+    parser = argparse.ArgumentParser(usage=__doc__.strip().splitlines()[-1].strip())
+    parser.add_argument("--layout", choices=LAYOUTS)
+    parser.add_argument("database")
+    args = parser.parse_args()
+
+    connection = sqlite3.connect(args.database, isolation_level=None)
+    try:
+        # Every statement is idempotent, so re-running against a migrated database is a no-op
+        connection.execute("BEGIN")
+        run_script(connection, "schema.sql")
+        current = readings_layout(connection)
+        layout = args.layout or current or "rowid"
+        if current is not None:
+            add_missing_columns(connection)
+        if current is not None and current != layout:
+            convert_readings(connection, current, layout)
+        else:
+            run_script(connection, f"readings-{layout}.sql")
+        connection.execute("COMMIT")
+    except BaseException:
+        if connection.in_transaction:
+            connection.execute("ROLLBACK")
+        raise
+    finally:
+        connection.close()
+
+    print(f"Schema applied to {args.database}")
+    return 0
+
+
+if __name__ == "__main__":
+    sys.exit(main())
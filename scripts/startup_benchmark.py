@@ -0,0 +1,131 @@
+#!/usr/bin/env python3
+"""
+Startup benchmark for the DECODER API.
+Launches the API repeatedly and reports time-to-first-successful-ingest: the time from
+process launch until POST /ingest returns 201. Compares the default build with the
+fast-start build (Spring AOT + AppCDS, see QUICK_START.md).
+
+Usage (from decoder-api/, after `mvn package` and `mvn -Pfast-start package`):
+    python3 ../scripts/startup_benchmark.py [--runs 5] [--port 8090] [--mode default|fast-start|all]
+"""
+
+import argparse
+import json
+import os
+import statistics
+import subprocess
+import sys
+import time
+import urllib.error
+import urllib.request
+
+DEFAULT_JAR = "target/decoder-api-1.0.0.jar"
+FAST_START_DIR = "target/fast-start"
+FAST_START_JAR = "decoder-api-1.0.0-fast-start.jar"
+CDS_ARCHIVE = "decoder-api.jsa"
+
+TIMEOUT_SECONDS = 120
+POLL_INTERVAL_SECONDS = 0.01
+
+
+def build_command(mode, java, port):
+    """
+    Build the launch command and working directory for a mode.
+    """
+    if mode == "default":
+        return [java, "-jar", DEFAULT_JAR, f"--server.port={port}"], "."
+    return [
+        java,
+        f"-XX:SharedArchiveFile={CDS_ARCHIVE}",
+        "-Xlog:cds=off",
+        "-Dspring.aot.enabled=true",
+        "-jar", FAST_START_JAR,
+        "--spring.profiles.active=fast-start",
+        f"--server.port={port}",
+    ], FAST_START_DIR
+
+
+def try_ingest(port):
+    """
+    Send one reading; returns the HTTP status, or None if the port is not open yet.
+    """
+    body = json.dumps({
+        "buildingId": 1,
+        "sensorId": "startup-benchmark",
+        "timestamp": time.strftime("%Y-%m-%dT%H:%M:%S"),
+        "value": 1.0,
+    }).encode("utf-8")
+    request = urllib.request.Request(
+        f"http://localhost:{port}/ingest",
+        data=body,
+        headers={"Content-Type": "application/json"},
+        method="POST",
+    )
+    try:
+        with urllib.request.urlopen(request, timeout=2) as response:
+            return response.status
+    except urllib.error.HTTPError as e:
+        return e.code
+    except (urllib.error.URLError, ConnectionError, TimeoutError):
+        return None
+
+
+def measure(mode, java, port):
+    """
+    Launch the API once and return (seconds to port open, seconds to first 201 ingest).
+    """
+    command, cwd = build_command(mode, java, port)
+    started = time.monotonic()
+    process = subprocess.Popen(command, cwd=cwd, stdout=subprocess.DEVNULL, stderr=subprocess.DEVNULL)
+    port_open = None
+    try:
+        while time.monotonic() - started < TIMEOUT_SECONDS:
+            if process.poll() is not None:
+                raise RuntimeError(f"{mode}: process exited with code {process.returncode}")
+            status = try_ingest(port)
+            if status is not None and port_open is None:
+                port_open = time.monotonic() - started
+            if status == 201:
+                return port_open, time.monotonic() - started
+            time.sleep(POLL_INTERVAL_SECONDS)
+        raise RuntimeError(f"{mode}: no successful ingest within {TIMEOUT_SECONDS}s")
+    finally:
+        process.terminate()
+        try:
+            process.wait(timeout=30)
+        except subprocess.TimeoutExpired:
+            process.kill()
+
+
+def report(mode, samples):
+    ports = [s[0] for s in samples]
+    ingests = [s[1] for s in samples]
+    print(f"{mode:>10}: time-to-first-ingest median {statistics.median(ingests) * 1000:7.0f} ms "
+          f"(min {min(ingests) * 1000:.0f}, max {max(ingests) * 1000:.0f}), "
+          f"port open median {statistics.median(ports) * 1000:.0f} ms, runs {len(samples)}")
+
+
+def main():
+    parser = argparse.ArgumentParser(description="Measure DECODER API time-to-first-successful-ingest")
+    parser.add_argument("--runs", type=int, default=5)
+    parser.add_argument("--port", type=int, default=8090)
+    parser.add_argument("--mode", choices=["default", "fast-start", "all"], default="all")
+    parser.add_argument("--java", default=os.path.join(os.environ["JAVA_HOME"], "bin", "java")
+                        if "JAVA_HOME" in os.environ else "java")
+    args = parser.parse_args()
+
+    modes = ["default", "fast-start"] if args.mode == "all" else [args.mode]
+    for mode in modes:
+        if mode == "fast-start" and not os.path.exists(os.path.join(FAST_START_DIR, CDS_ARCHIVE)):
+            print("fast-start build not found; run `mvn -Pfast-start package` first", file=sys.stderr)
+            return 1
+        samples = []
+        for run in range(args.runs):
+            samples.append(measure(mode, args.java, args.port))
+            print(f"  {mode} run {run + 1}: {samples[-1][1] * 1000:.0f} ms", flush=True)
+        report(mode, samples)
+    return 0
+
+
+if __name__ == "__main__":
+    sys.exit(main())